@@ -0,0 +1,69 @@
+package com.jikkosoft.redis.cacheredis.benchmark;
+
+import com.jikkosoft.redis.cacheredis.codec.EntryFormat;
+import com.jikkosoft.redis.cacheredis.config.RedisNodeFactory;
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.metrics.CacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.lang.reflect.Field;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Valores de prueba y el serializador de valores tal como lo arma la
+ * aplicación, sin abrir conexiones
+ */
+public final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Valor de una entrada según el tamaño pedido: small, object o large
+     */
+    public static Object value(String payload) {
+        return switch (payload) {
+            case "small" -> "sesion-activa-usuario-1234";
+            case "object" -> {
+                Map<String, Object> profile = new LinkedHashMap<>();
+                profile.put("id", 1234);
+                profile.put("name", "Ana Pérez");
+                profile.put("email", "ana.perez@example.com");
+                profile.put("active", true);
+                profile.put("roles", List.of("admin", "editor", "viewer"));
+                profile.put("score", 98.5);
+                yield profile;
+            }
+            case "large" -> "x".repeat(16 * 1024);
+            default -> throw new IllegalArgumentException("Payload desconocido: " + payload);
+        };
+    }
+
+    /**
+     * Serializador de valores de un template creado por RedisNodeFactory
+     */
+    @SuppressWarnings("unchecked")
+    public static RedisSerializer<Object> valueSerializer(EntryFormat format) {
+        try {
+            RedisNodeFactory factory = new RedisNodeFactory();
+            setPrivateField(factory, "entryFormat", format);
+            setPrivateField(factory, "metrics", new CacheMetrics(new SimpleMeterRegistry(), new ConsistentHashRing()));
+            // La factory de conexiones no se inicia: solo se usa el serializador
+            RedisTemplate<String, Object> template = factory.createRedisTemplate(new JedisConnectionFactory());
+            return (RedisSerializer<Object>) template.getValueSerializer();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se pudo armar el serializador", e);
+        }
+    }
+
+    static void setPrivateField(Object target, String fieldName, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,105 @@
+package com.jikkosoft.redis.cacheredis.benchmark;
+
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.hash.HashAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Búsqueda en el ring con 1 a 64 hilos concurrentes: el ring es de solo
+ * lectura en el camino caliente, así que el throughput por hilo no debería
+ * caer al sumar hilos
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashRingBenchmark {
+
+    private static final int KEYS = 4096;
+
+    @Param({"MURMUR3", "SHA1"})
+    public HashAlgorithm algorithm;
+
+    @Param({"3", "12"})
+    public int nodes;
+
+    private ConsistentHashRing ring;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        List<String> nodeIds = IntStream.rangeClosed(1, nodes).mapToObj(i -> "node" + i).toList();
+        ring = new ConsistentHashRing(algorithm, nodeIds);
+        keys = IntStream.range(0, KEYS).mapToObj(i -> "user:" + i + ":profile").toArray(String[]::new);
+    }
+
+    /**
+     * Posición propia de cada hilo en el arreglo de claves
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            index = ThreadLocalRandom.current().nextInt(KEYS);
+        }
+
+        String next(String[] keys) {
+            index = (index + 1) & (KEYS - 1);
+            return keys[index];
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String getNode1Thread(Cursor cursor) {
+        return ring.getNode(cursor.next(keys));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String getNode4Threads(Cursor cursor) {
+        return ring.getNode(cursor.next(keys));
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String getNode16Threads(Cursor cursor) {
+        return ring.getNode(cursor.next(keys));
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String getNode64Threads(Cursor cursor) {
+        return ring.getNode(cursor.next(keys));
+    }
+
+    /**
+     * Lista de preferencia de réplicas, la búsqueda de cada PUT
+     */
+    @Benchmark
+    @Threads(16)
+    public List<String> getReplicas16Threads(Cursor cursor) {
+        return ring.getNodes(cursor.next(keys), 2);
+    }
+}
@@ -0,0 +1,56 @@
+package com.jikkosoft.redis.cacheredis.benchmark;
+
+import com.jikkosoft.redis.cacheredis.script.CacheScripts;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Template en memoria que reproduce los scripts de lock (lock_acquire.lua y
+ * lock_release.lua) sobre un mapa concurrente, para medir el gestor de
+ * locks sin red ni Redis
+ */
+public class InMemoryLockTemplate extends RedisTemplate<String, Object> {
+
+    private final Map<String, Lease> locks = new ConcurrentHashMap<>();
+    private final AtomicLong fence = new AtomicLong();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T execute(RedisScript<T> script, RedisSerializer<?> argsSerializer, RedisSerializer<T> resultSerializer,
+                         List<String> keys, Object... args) {
+        if (script == CacheScripts.LOCK_ACQUIRE) {
+            return (T) acquire(keys.get(0), (String) args[0], Long.parseLong((String) args[1]));
+        }
+        if (script == CacheScripts.LOCK_RELEASE) {
+            return (T) release(keys.get(0), (String) args[0]);
+        }
+        throw new UnsupportedOperationException("Script no soportado en memoria");
+    }
+
+    private Long acquire(String key, String token, long leaseMs) {
+        long now = System.nanoTime();
+        Lease candidate = new Lease(token, now + TimeUnit.MILLISECONDS.toNanos(leaseMs));
+        // SET NX PX: gana si no hay lease o el anterior venció
+        Lease current = locks.compute(key, (k, existing) ->
+                existing == null || existing.expiresAt - now <= 0 ? candidate : existing);
+        if (current == candidate) {
+            return fence.incrementAndGet();
+        }
+        return -Math.max(1, TimeUnit.NANOSECONDS.toMillis(current.expiresAt - now));
+    }
+
+    private Long release(String key, String token) {
+        Lease current = locks.get(key);
+        return current != null && current.token.equals(token) && locks.remove(key, current) ? 1L : 0L;
+    }
+
+    private record Lease(String token, long expiresAt) {
+    }
+}
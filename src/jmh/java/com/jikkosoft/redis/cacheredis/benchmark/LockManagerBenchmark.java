@@ -0,0 +1,92 @@
+package com.jikkosoft.redis.cacheredis.benchmark;
+
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.lock.DistributedLockManager;
+import com.jikkosoft.redis.cacheredis.lock.LockHandle;
+import com.jikkosoft.redis.cacheredis.metrics.CacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adquisición y liberación de locks contra un template en memoria: mide el
+ * costo propio del gestor (tokens, señales de espera, métricas) y, con
+ * claves compartidas, el efecto del backoff bajo contención
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LockManagerBenchmark {
+
+    private static final String NODE = "node1";
+    private static final int SHARED_KEYS = 4;
+
+    private DistributedLockManager lockManager;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        lockManager = new DistributedLockManager();
+        BenchmarkData.setPrivateField(lockManager, "redisTemplateMap", Map.of(NODE, new InMemoryLockTemplate()));
+        // Sin Redis no hay canal pub/sub: los que esperan solo usan backoff
+        BenchmarkData.setPrivateField(lockManager, "notificationsEnabled", false);
+        BenchmarkData.setPrivateField(lockManager, "metrics",
+                new CacheMetrics(new SimpleMeterRegistry(), new ConsistentHashRing()));
+    }
+
+    /**
+     * Clave propia de cada hilo (sin contención) y una de las compartidas
+     */
+    @State(Scope.Thread)
+    public static class Keys {
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        private String own;
+        private String shared;
+
+        @Setup
+        public void setUp() {
+            int thread = THREADS.getAndIncrement();
+            own = "bench:own:" + thread;
+            shared = "bench:shared:" + (thread % SHARED_KEYS);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean uncontended1Thread(Keys keys) {
+        return acquireAndRelease(keys.own);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean uncontended16Threads(Keys keys) {
+        return acquireAndRelease(keys.own);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean contended16Threads(Keys keys) {
+        return acquireAndRelease(keys.shared);
+    }
+
+    private boolean acquireAndRelease(String key) {
+        LockHandle handle = lockManager.acquire(key, NODE).orElse(null);
+        return handle != null && lockManager.release(handle);
+    }
+}
@@ -0,0 +1,58 @@
+package com.jikkosoft.redis.cacheredis.benchmark;
+
+import com.jikkosoft.redis.cacheredis.codec.EntryFormat;
+import com.jikkosoft.redis.cacheredis.model.CacheEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización y deserialización de CacheEntry con el serializador de
+ * valores de los templates, en formato binario y JSON
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerBenchmark {
+
+    @Param({"BINARY", "JSON"})
+    public EntryFormat format;
+
+    @Param({"small", "object", "large"})
+    public String payload;
+
+    private RedisSerializer<Object> serializer;
+    private CacheEntry entry;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        serializer = BenchmarkData.valueSerializer(format);
+        entry = new CacheEntry(BenchmarkData.value(payload), 3600);
+        bytes = serializer.serialize(entry);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(entry);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(bytes);
+    }
+}
@@ -0,0 +1,53 @@
+package com.jikkosoft.redis.cacheredis.service;
+
+import com.jikkosoft.redis.cacheredis.benchmark.BenchmarkData;
+import com.jikkosoft.redis.cacheredis.codec.EntryFormat;
+import com.jikkosoft.redis.cacheredis.model.CacheEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversión del objeto leído de Redis a CacheEntry: una entrada binaria ya
+ * decodificada (caso normal) o el mapa genérico de una entrada JSON anterior
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvertToCacheEntryBenchmark {
+
+    @Param({"BINARY", "JSON"})
+    public EntryFormat format;
+
+    @Param({"small", "object"})
+    public String payload;
+
+    private DistributedCacheService service;
+    private Object stored;
+
+    @Setup
+    public void setUp() {
+        service = new DistributedCacheService();
+        RedisSerializer<Object> serializer = BenchmarkData.valueSerializer(format);
+        stored = serializer.deserialize(serializer.serialize(new CacheEntry(BenchmarkData.value(payload), 3600)));
+    }
+
+    @Benchmark
+    public CacheEntry convertToCacheEntry() {
+        return service.convertToCacheEntry(stored);
+    }
+}
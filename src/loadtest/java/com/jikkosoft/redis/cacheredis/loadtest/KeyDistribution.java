@@ -0,0 +1,104 @@
+package com.jikkosoft.redis.cacheredis.loadtest;
+
+import java.util.SplittableRandom;
+
+/**
+ * Elige el índice de la próxima clave en [0, keys). El índice 0 es la clave
+ * más popular; como el ring hashea la clave completa, las populares quedan
+ * repartidas entre los nodos igual que en producción.
+ */
+public interface KeyDistribution {
+
+    enum Type { UNIFORM, ZIPFIAN, HOTSPOT }
+
+    long next(SplittableRandom random);
+
+    static KeyDistribution create(LoadTestOptions options) {
+        return switch (options.distribution()) {
+            case UNIFORM -> random -> random.nextLong(options.keys());
+            case ZIPFIAN -> new Zipfian(options.keys(), options.zipfTheta());
+            case HOTSPOT -> new HotSpot(options.keys(), options.hotKeyFraction(), options.hotOpsFraction());
+        };
+    }
+
+    /**
+     * Zipf con exponente theta en (0, 1), con el método de Gray et al.
+     * ("Quickly Generating Billion-Record Synthetic Databases") que usa
+     * YCSB: O(n) al construir y O(1) por muestra
+     */
+    final class Zipfian implements KeyDistribution {
+        private final long items;
+        private final double theta;
+        private final double zetaN;
+        private final double alpha;
+        private final double eta;
+        private final double secondThreshold;
+
+        public Zipfian(long items, double theta) {
+            if (theta <= 0 || theta >= 1) {
+                throw new IllegalArgumentException("zipf-theta debe estar entre 0 y 1");
+            }
+            this.items = items;
+            this.theta = theta;
+            this.zetaN = zeta(items, theta);
+            this.alpha = 1.0 / (1.0 - theta);
+            this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+            this.secondThreshold = 1 + Math.pow(0.5, theta);
+        }
+
+        @Override
+        public long next(SplittableRandom random) {
+            double u = random.nextDouble();
+            double uz = u * zetaN;
+            if (uz < 1.0) {
+                return 0;
+            }
+            if (uz < secondThreshold) {
+                return Math.min(1, items - 1);
+            }
+            return Math.min(items - 1, (long) (items * Math.pow(eta * u - eta + 1, alpha)));
+        }
+
+        /**
+         * Probabilidad de la clave de rango {@code rank} (0 la más popular)
+         */
+        public double probability(long rank) {
+            return 1.0 / Math.pow(rank + 1, theta) / zetaN;
+        }
+
+        private static double zeta(long n, double theta) {
+            double sum = 0;
+            for (long i = 1; i <= n; i++) {
+                sum += 1.0 / Math.pow(i, theta);
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * Una fracción de las claves recibe una fracción fija de las operaciones,
+     * uniforme dentro de cada grupo (p. ej. 1% de las claves con 90% del tráfico)
+     */
+    final class HotSpot implements KeyDistribution {
+        private final long items;
+        private final long hotItems;
+        private final double hotOpsFraction;
+
+        public HotSpot(long items, double hotKeyFraction, double hotOpsFraction) {
+            if (hotKeyFraction <= 0 || hotKeyFraction >= 1 || hotOpsFraction < 0 || hotOpsFraction > 1) {
+                throw new IllegalArgumentException("hot-key-fraction debe estar en (0, 1) y hot-ops-fraction en [0, 1]");
+            }
+            this.items = items;
+            this.hotItems = Math.max(1, Math.min(items - 1, (long) (items * hotKeyFraction)));
+            this.hotOpsFraction = hotOpsFraction;
+        }
+
+        @Override
+        public long next(SplittableRandom random) {
+            if (random.nextDouble() < hotOpsFraction) {
+                return random.nextLong(hotItems);
+            }
+            return hotItems + random.nextLong(items - hotItems);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.jikkosoft.redis.cacheredis.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resultados de una corrida: distribución de percentiles de cada histograma
+ * (.hgrm, en milisegundos, para HdrHistogram Plotter) y un summary.json con
+ * throughput y p50/p99/p999 para comparar corridas. Una corrida con
+ * descartes se marca {@code valid=false}: el generador no sostuvo la tasa
+ * y sus percentiles incluyen latencias estimadas.
+ */
+public final class LoadReport {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private LoadReport() {
+    }
+
+    public static Map<String, Object> write(Path directory, LoadTestOptions options, OpenLoopDriver driver) throws IOException {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("name", options.name());
+        summary.put("targetRate", options.rate());
+        summary.put("durationSeconds", options.durationSeconds());
+        summary.put("readRatio", options.readRatio());
+        summary.put("distribution", options.distribution());
+        summary.put("keys", options.keys());
+        summary.put("valueBytes", options.valueBytes());
+        summary.put("maxObservedInFlight", driver.maxObservedInFlight());
+
+        long total = 0;
+        for (OpenLoopDriver.Op op : OpenLoopDriver.Op.values()) {
+            String name = op.name().toLowerCase();
+            Histogram latency = driver.latency(op);
+            Histogram service = driver.serviceTime(op);
+            writeDistribution(directory.resolve(name + ".hgrm"), latency);
+            writeDistribution(directory.resolve(name + "-service.hgrm"), service);
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("completed", driver.completed(op));
+            stats.put("errors", driver.errors(op));
+            stats.put("dropped", driver.dropped(op));
+            stats.put("throughput", (double) driver.completed(op) / options.durationSeconds());
+            stats.put("latencyMs", percentiles(latency));
+            stats.put("serviceTimeMs", percentiles(service));
+            if (op == OpenLoopDriver.Op.READ) {
+                stats.put("misses", driver.misses());
+            }
+            summary.put(name, stats);
+            total += driver.completed(op);
+        }
+        summary.put("throughput", (double) total / options.durationSeconds());
+        summary.put("valid", totalDropped(driver) == 0);
+
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        mapper.writeValue(directory.resolve("summary.json").toFile(), summary);
+        return summary;
+    }
+
+    /**
+     * Tabla corta por consola
+     */
+    public static void print(PrintStream out, LoadTestOptions options, OpenLoopDriver driver) {
+        out.printf("%n%-6s %10s %8s %8s %10s %10s %10s %10s%n",
+                "op", "ops/s", "errors", "dropped", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (OpenLoopDriver.Op op : OpenLoopDriver.Op.values()) {
+            Histogram latency = driver.latency(op);
+            out.printf("%-6s %10.1f %8d %8d %10.3f %10.3f %10.3f %10.3f%n",
+                    op.name().toLowerCase(),
+                    (double) driver.completed(op) / options.durationSeconds(),
+                    driver.errors(op), driver.dropped(op),
+                    millis(latency, 50), millis(latency, 99), millis(latency, 99.9),
+                    latency.getMaxValue() / MICROS_PER_MILLI);
+        }
+        long dropped = totalDropped(driver);
+        if (dropped > 0) {
+            out.printf("%nCORRIDA NO VÁLIDA: %d operaciones descartadas por max-in-flight; se registraron con%n"
+                    + "latencia hasta el timeout. Subir max-in-flight o bajar la tasa.%n", dropped);
+        }
+    }
+
+    private static long totalDropped(OpenLoopDriver driver) {
+        long dropped = 0;
+        for (OpenLoopDriver.Op op : OpenLoopDriver.Op.values()) {
+            dropped += driver.dropped(op);
+        }
+        return dropped;
+    }
+
+    private static Map<String, Object> percentiles(Histogram histogram) {
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        percentiles.put("p50", millis(histogram, 50));
+        percentiles.put("p90", millis(histogram, 90));
+        percentiles.put("p99", millis(histogram, 99));
+        percentiles.put("p999", millis(histogram, 99.9));
+        percentiles.put("max", histogram.getMaxValue() / MICROS_PER_MILLI);
+        percentiles.put("mean", histogram.getMean() / MICROS_PER_MILLI);
+        return percentiles;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.jikkosoft.redis.cacheredis.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jikkosoft.redis.cacheredis.CacheRedisApplication;
+import org.HdrHistogram.HistogramLogWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Prueba de carga de punta a punta: CacheController → DistributedCacheService
+ * → Redis. Levanta los nodos Redis y la aplicación en este proceso (o usa
+ * una ya desplegada con --target), precarga las claves con _mput y corre el
+ * generador de lazo abierto. Los resultados quedan en out/name-fecha/.
+ */
+public final class LoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTest.class);
+    private static final int PRELOAD_BATCH = 500;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        RedisNodes nodes = null;
+        ConfigurableApplicationContext application = null;
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(options.clientThreads());
+        try {
+            URI base;
+            if (options.target().isBlank()) {
+                nodes = RedisNodes.start(options.redis(), options.redisPorts());
+                application = startApplication(nodes, options);
+                int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+                base = URI.create("http://localhost:" + port);
+            } else {
+                base = URI.create(options.target());
+            }
+
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofMillis(options.timeoutMs()))
+                    .executor(clientExecutor)
+                    .build();
+            if (options.preload()) {
+                preload(client, base, options);
+            }
+
+            Path directory = Path.of(options.out(),
+                    options.name() + "-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+            Files.createDirectories(directory);
+            logger.info("Carga {} ops/s ({}% lecturas, {}) por {} s tras {} s de warmup contra {}",
+                    options.rate(), Math.round(options.readRatio() * 100), options.distribution(),
+                    options.durationSeconds(), options.warmupSeconds(), base);
+
+            OpenLoopDriver driver = new OpenLoopDriver(options, base, client);
+            try (PrintStream hlog = new PrintStream(Files.newOutputStream(directory.resolve("latency.hlog")))) {
+                driver.run(new HistogramLogWriter(hlog));
+            }
+            LoadReport.write(directory, options, driver);
+            LoadReport.print(System.out, options, driver);
+            System.out.println("Resultados en " + directory.toAbsolutePath());
+        } finally {
+            clientExecutor.shutdownNow();
+            if (application != null) {
+                application.close();
+            }
+            if (nodes != null) {
+                nodes.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(RedisNodes nodes, LoadTestOptions options) {
+        List<String> args = new ArrayList<>(nodes.applicationArgs());
+        args.add("--server.port=0");
+        args.add("--logging.level.root=WARN");
+        // Las opciones explícitas van al final para poder pisar las anteriores
+        args.addAll(options.appArgs());
+        return SpringApplication.run(CacheRedisApplication.class, args.toArray(String[]::new));
+    }
+
+    /**
+     * Escribe todas las claves del espacio para que las lecturas midan aciertos
+     */
+    private static void preload(HttpClient client, URI base, LoadTestOptions options) throws IOException, InterruptedException {
+        ObjectMapper mapper = new ObjectMapper();
+        SplittableRandom random = new SplittableRandom(options.seed() + 2);
+        List<String> values = new ArrayList<>();
+        for (int v = 0; v < 64; v++) {
+            values.add(OpenLoopDriver.randomText(options.valueBytes(), random));
+        }
+        long start = System.nanoTime();
+        for (int from = 0; from < options.keys(); from += PRELOAD_BATCH) {
+            List<Map<String, Object>> items = new ArrayList<>(PRELOAD_BATCH);
+            for (int key = from; key < Math.min(options.keys(), from + PRELOAD_BATCH); key++) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("key", OpenLoopDriver.keyName(key));
+                item.put("value", values.get(key % values.size()));
+                item.put("ttlSeconds", options.ttlSeconds());
+                items.add(item);
+            }
+            HttpRequest request = HttpRequest.newBuilder(base.resolve("/api/cache/_mput"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(Map.of("items", items))))
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Precarga fallida (" + response.statusCode() + "): " + response.body());
+            }
+        }
+        logger.info("Precargadas {} claves en {} ms", options.keys(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,116 @@
+package com.jikkosoft.redis.cacheredis.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parámetros de una corrida, leídos de argumentos {@code --nombre=valor}.
+ * Los argumentos {@code --cache.*}, {@code --spring.*}, {@code --server.*} y
+ * {@code --management.*} se pasan tal cual a la aplicación cuando la inicia
+ * el generador.
+ *
+ * @param target       URL de una aplicación ya levantada; vacío para iniciarla aquí
+ * @param redis        embedded, spawn (procesos redis-server) o external
+ * @param redisPorts   puertos de los nodos; vacío para elegir puertos libres
+ * @param rate         operaciones por segundo programadas, independiente de las respuestas
+ * @param readRatio    fracción de lecturas (el resto son escrituras)
+ * @param keys         tamaño del espacio de claves
+ * @param distribution UNIFORM, ZIPFIAN o HOTSPOT
+ * @param maxInFlight  solicitudes pendientes a partir de las cuales se descartan las nuevas
+ */
+public record LoadTestOptions(String name,
+                              String target,
+                              String redis,
+                              List<Integer> redisPorts,
+                              int rate,
+                              int durationSeconds,
+                              int warmupSeconds,
+                              double readRatio,
+                              int keys,
+                              KeyDistribution.Type distribution,
+                              double zipfTheta,
+                              double hotKeyFraction,
+                              double hotOpsFraction,
+                              int valueBytes,
+                              long ttlSeconds,
+                              boolean preload,
+                              int maxInFlight,
+                              int timeoutMs,
+                              int clientThreads,
+                              long seed,
+                              String out,
+                              List<String> appArgs) {
+
+    private static final List<String> APP_PREFIXES = List.of("--cache.", "--spring.", "--server.", "--management.", "--logging.");
+    private static final List<String> KNOWN = List.of("name", "target", "redis", "redis-ports", "rate", "duration",
+            "warmup", "read-ratio", "keys", "distribution", "zipf-theta", "hot-key-fraction", "hot-ops-fraction",
+            "value-bytes", "ttl", "preload", "max-in-flight", "timeout-ms", "client-threads", "seed", "out");
+
+    public LoadTestOptions {
+        if (rate <= 0 || durationSeconds <= 0 || warmupSeconds < 0) {
+            throw new IllegalArgumentException("rate y duration deben ser positivos y warmup no negativo");
+        }
+        if (readRatio < 0 || readRatio > 1) {
+            throw new IllegalArgumentException("read-ratio debe estar entre 0 y 1");
+        }
+        if (keys <= 0 || valueBytes <= 0 || maxInFlight <= 0 || clientThreads <= 0) {
+            throw new IllegalArgumentException("keys, value-bytes, max-in-flight y client-threads deben ser positivos");
+        }
+    }
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (APP_PREFIXES.stream().anyMatch(arg::startsWith)) {
+                appArgs.add(arg);
+                continue;
+            }
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argumento inválido (se espera --nombre=valor): " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        String redisMode = values.getOrDefault("redis", "embedded");
+        LoadTestOptions options = new LoadTestOptions(
+                values.getOrDefault("name", "run"),
+                values.getOrDefault("target", ""),
+                redisMode,
+                ports(values.getOrDefault("redis-ports", "external".equals(redisMode) ? "6379,6380" : "")),
+                Integer.parseInt(values.getOrDefault("rate", "2000")),
+                Integer.parseInt(values.getOrDefault("duration", "30")),
+                Integer.parseInt(values.getOrDefault("warmup", "10")),
+                Double.parseDouble(values.getOrDefault("read-ratio", "0.9")),
+                Integer.parseInt(values.getOrDefault("keys", "100000")),
+                KeyDistribution.Type.valueOf(values.getOrDefault("distribution", "ZIPFIAN").toUpperCase()),
+                Double.parseDouble(values.getOrDefault("zipf-theta", "0.99")),
+                Double.parseDouble(values.getOrDefault("hot-key-fraction", "0.01")),
+                Double.parseDouble(values.getOrDefault("hot-ops-fraction", "0.9")),
+                Integer.parseInt(values.getOrDefault("value-bytes", "256")),
+                Long.parseLong(values.getOrDefault("ttl", "3600")),
+                Boolean.parseBoolean(values.getOrDefault("preload", "true")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "10000")),
+                Integer.parseInt(values.getOrDefault("timeout-ms", "5000")),
+                Integer.parseInt(values.getOrDefault("client-threads", "4")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                values.getOrDefault("out", "build/results/loadtest"),
+                List.copyOf(appArgs));
+        values.keySet().removeAll(KNOWN);
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Opciones desconocidas: " + values.keySet());
+        }
+        return options;
+    }
+
+    private static List<Integer> ports(String value) {
+        if (value.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(",")).map(String::trim).map(Integer::parseInt).toList();
+    }
+}
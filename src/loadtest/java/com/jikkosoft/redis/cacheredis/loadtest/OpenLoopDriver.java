@@ -0,0 +1,232 @@
+package com.jikkosoft.redis.cacheredis.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Genera carga a tasa fija (lazo abierto): la operación i se programa en
+ * inicio + i/rate sin esperar las respuestas anteriores, y su latencia se
+ * mide desde ese instante programado. Si el servidor se atrasa, las
+ * operaciones siguientes cargan con la espera en vez de enviarse más
+ * tarde, por lo que los percentiles no sufren coordinated omission.
+ * También se registra el tiempo de servicio (desde el envío real) para
+ * separar la cola del generador de la del servidor. Errores, timeouts y
+ * operaciones descartadas por el tope en vuelo también entran al histograma
+ * de latencia: omitirlos dejaría fuera justo la cola más lenta.
+ */
+public final class OpenLoopDriver {
+
+    public enum Op { READ, WRITE }
+
+    private final LoadTestOptions options;
+    private final URI base;
+    private final HttpClient client;
+    private final KeyDistribution keys;
+    private final SplittableRandom random;
+    private final byte[][] bodies;
+
+    private final Recorder[] latency = {new Recorder(3), new Recorder(3)};
+    private final Recorder[] service = {new Recorder(3), new Recorder(3)};
+    private final Histogram[] latencyTotal = {new Histogram(3), new Histogram(3)};
+    private final Histogram[] serviceTotal = {new Histogram(3), new Histogram(3)};
+    private final LongAdder[] completed = {new LongAdder(), new LongAdder()};
+    private final LongAdder[] errors = {new LongAdder(), new LongAdder()};
+    private final LongAdder[] dropped = {new LongAdder(), new LongAdder()};
+    private final LongAdder misses = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int maxObservedInFlight;
+
+    public OpenLoopDriver(LoadTestOptions options, URI base, HttpClient client) {
+        this.options = options;
+        this.base = base;
+        this.client = client;
+        this.keys = KeyDistribution.create(options);
+        this.random = new SplittableRandom(options.seed());
+        this.bodies = bodies(options, new SplittableRandom(options.seed() + 1));
+    }
+
+    /**
+     * Corre warmup + duración; solo lo programado después del warmup se mide
+     *
+     * @param log historial por intervalo de un segundo (formato .hlog)
+     */
+    public void run(HistogramLogWriter log) throws InterruptedException {
+        double periodNanos = 1e9 / options.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(options.durationSeconds());
+
+        ScheduledExecutorService intervals = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "loadtest-intervals");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long logStart = System.currentTimeMillis();
+        log.setBaseTime(logStart);
+        log.outputStartTime(logStart);
+        log.outputLegend();
+        intervals.scheduleAtFixedRate(() -> flushIntervals(log), 1, 1, TimeUnit.SECONDS);
+
+        try {
+            for (long i = 0; ; i++) {
+                long intended = start + (long) (i * periodNanos);
+                if (intended >= end) {
+                    break;
+                }
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Op op = random.nextDouble() < options.readRatio() ? Op.READ : Op.WRITE;
+                long key = keys.next(random);
+                dispatch(op, key, intended, intended >= measureFrom);
+            }
+            awaitDrain();
+        } finally {
+            intervals.shutdown();
+            intervals.awaitTermination(5, TimeUnit.SECONDS);
+            flushIntervals(log);
+        }
+    }
+
+    private void dispatch(Op op, long key, long intended, boolean measured) {
+        int pending = inFlight.get();
+        if (pending >= options.maxInFlight()) {
+            // Sin descartar, el generador dejaría de ser de lazo abierto al agotar memoria o sockets
+            if (measured) {
+                // Enviada ahora, en el mejor caso habría terminado en timeout
+                dropped[op.ordinal()].increment();
+                latency[op.ordinal()].recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended)
+                        + TimeUnit.MILLISECONDS.toMicros(options.timeoutMs()));
+            }
+            return;
+        }
+        maxObservedInFlight = Math.max(maxObservedInFlight, inFlight.incrementAndGet());
+
+        long sent = System.nanoTime();
+        client.sendAsync(request(op, key), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long done = System.nanoTime();
+                    inFlight.decrementAndGet();
+                    if (!measured) {
+                        return;
+                    }
+                    int index = op.ordinal();
+                    int status = response != null ? response.statusCode() : -1;
+                    boolean miss = op == Op.READ && status == 404;
+                    // Un timeout se registra hasta el momento en que venció, como cualquier error
+                    latency[index].recordValue(TimeUnit.NANOSECONDS.toMicros(done - intended));
+                    if (error != null || (status != 200 && !miss)) {
+                        errors[index].increment();
+                        return;
+                    }
+                    if (miss) {
+                        misses.increment();
+                    }
+                    completed[index].increment();
+                    service[index].recordValue(TimeUnit.NANOSECONDS.toMicros(done - sent));
+                });
+    }
+
+    private HttpRequest request(Op op, long key) {
+        URI uri = base.resolve("/api/cache/" + URLEncoder.encode(keyName(key), StandardCharsets.UTF_8));
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(Duration.ofMillis(options.timeoutMs()));
+        if (op == Op.READ) {
+            return builder.GET().build();
+        }
+        return builder.header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(bodies[(int) (key % bodies.length)]))
+                .build();
+    }
+
+    private void awaitDrain() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(options.timeoutMs()) * 2;
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private synchronized void flushIntervals(HistogramLogWriter log) {
+        for (Op op : Op.values()) {
+            int index = op.ordinal();
+            Histogram interval = latency[index].getIntervalHistogram();
+            Histogram serviceInterval = service[index].getIntervalHistogram();
+            latencyTotal[index].add(interval);
+            serviceTotal[index].add(serviceInterval);
+            if (interval.getTotalCount() > 0) {
+                interval.setTag(op.name().toLowerCase());
+                log.outputIntervalHistogram(interval);
+            }
+        }
+    }
+
+    public static String keyName(long key) {
+        return "load:" + key;
+    }
+
+    /**
+     * Cuerpos de escritura con valores aleatorios (poco compresibles) para no
+     * construir JSON por operación en el hilo que programa la carga
+     */
+    static byte[][] bodies(LoadTestOptions options, SplittableRandom random) {
+        byte[][] bodies = new byte[64][];
+        for (int b = 0; b < bodies.length; b++) {
+            bodies[b] = ("{\"value\":\"" + randomText(options.valueBytes(), random) + "\",\"ttlSeconds\":"
+                    + options.ttlSeconds() + "}").getBytes(StandardCharsets.UTF_8);
+        }
+        return bodies;
+    }
+
+    static String randomText(int length, SplittableRandom random) {
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+        StringBuilder text = new StringBuilder(length);
+        for (int c = 0; c < length; c++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+
+    public Histogram latency(Op op) {
+        return latencyTotal[op.ordinal()];
+    }
+
+    public Histogram serviceTime(Op op) {
+        return serviceTotal[op.ordinal()];
+    }
+
+    public long completed(Op op) {
+        return completed[op.ordinal()].sum();
+    }
+
+    public long errors(Op op) {
+        return errors[op.ordinal()].sum();
+    }
+
+    public long dropped(Op op) {
+        return dropped[op.ordinal()].sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public int maxObservedInFlight() {
+        return maxObservedInFlight;
+    }
+}
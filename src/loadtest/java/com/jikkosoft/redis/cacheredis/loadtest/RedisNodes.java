@@ -0,0 +1,131 @@
+package com.jikkosoft.redis.cacheredis.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.embedded.RedisServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nodos Redis de una corrida: binarios embebidos, procesos redis-server
+ * locales (sin persistencia) o instancias ya levantadas
+ */
+public final class RedisNodes implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisNodes.class);
+    private static final long STARTUP_TIMEOUT_MS = 10_000;
+
+    private final List<Integer> ports;
+    private final List<AutoCloseable> running;
+
+    private RedisNodes(List<Integer> ports, List<AutoCloseable> running) {
+        this.ports = ports;
+        this.running = running;
+    }
+
+    public static RedisNodes start(String mode, List<Integer> requestedPorts) {
+        List<Integer> ports = requestedPorts.isEmpty() ? List.of(freePort(), freePort()) : requestedPorts;
+        List<AutoCloseable> running = new ArrayList<>();
+        RedisNodes nodes = new RedisNodes(ports, running);
+        try {
+            for (int port : ports) {
+                switch (mode) {
+                    case "embedded" -> {
+                        RedisServer server = new RedisServer(port);
+                        server.start();
+                        running.add(server::stop);
+                    }
+                    case "spawn" -> {
+                        Process process = new ProcessBuilder("redis-server", "--port", String.valueOf(port),
+                                "--save", "", "--appendonly", "no")
+                                .redirectErrorStream(true)
+                                .redirectOutput(new File(System.getProperty("java.io.tmpdir"), "redis-" + port + ".log"))
+                                .start();
+                        running.add(() -> {
+                            process.destroy();
+                            process.waitFor(5, TimeUnit.SECONDS);
+                        });
+                    }
+                    case "external" -> {
+                        // Ya levantados (p. ej. docker-compose): solo se verifica que respondan
+                    }
+                    default -> throw new IllegalArgumentException("Modo de Redis desconocido: " + mode);
+                }
+                awaitPort(port);
+            }
+            logger.info("Nodos Redis ({}) en puertos {}", mode, ports);
+            return nodes;
+        } catch (IOException e) {
+            nodes.close();
+            throw new UncheckedIOException("No se pudieron iniciar los nodos Redis", e);
+        } catch (RuntimeException e) {
+            nodes.close();
+            throw e;
+        }
+    }
+
+    public List<Integer> ports() {
+        return ports;
+    }
+
+    /**
+     * Propiedades cache.redis.nodes[i] para la aplicación
+     */
+    public List<String> applicationArgs() {
+        List<String> args = new ArrayList<>();
+        for (int i = 0; i < ports.size(); i++) {
+            args.add("--cache.redis.nodes[" + i + "].id=node" + (i + 1));
+            args.add("--cache.redis.nodes[" + i + "].host=localhost");
+            args.add("--cache.redis.nodes[" + i + "].port=" + ports.get(i));
+        }
+        return args;
+    }
+
+    @Override
+    public void close() {
+        for (AutoCloseable node : running) {
+            try {
+                node.close();
+            } catch (Exception e) {
+                logger.warn("Error deteniendo nodo Redis: {}", e.getMessage());
+            }
+        }
+        running.clear();
+    }
+
+    private static void awaitPort(int port) {
+        long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MS;
+        while (true) {
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("localhost", port), 200);
+                return;
+            } catch (IOException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("Redis no responde en el puerto " + port);
+                }
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrumpido esperando a Redis", interrupted);
+                }
+            }
+        }
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
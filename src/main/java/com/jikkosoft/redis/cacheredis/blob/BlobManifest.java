@@ -0,0 +1,16 @@
+package com.jikkosoft.redis.cacheredis.blob;
+
+/**
+ * Descripción de un valor grande guardado en chunks: versión de los chunks,
+ * tamaño total y nodo del que se leyó el manifiesto
+ */
+public record BlobManifest(String key, String version, long size, int chunkSize, int chunks,
+                           String contentType, long createdAt, String node) {
+
+    /**
+     * Índice del chunk que contiene el byte {@code offset}
+     */
+    public int chunkOf(long offset) {
+        return (int) (offset / chunkSize);
+    }
+}
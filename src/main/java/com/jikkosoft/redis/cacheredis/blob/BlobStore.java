@@ -0,0 +1,421 @@
+package com.jikkosoft.redis.cacheredis.blob;
+
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.script.CacheScripts;
+import com.jikkosoft.redis.cacheredis.service.WriteConsistency;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Modo de objetos grandes: el valor se guarda como bytes crudos en chunks de
+ * tamaño fijo más un manifiesto (hash de Redis). Escritura y lectura van por
+ * streams, así la memoria por request queda acotada por el tamaño de chunk.
+ *
+ * Todas las claves de un blob se ubican en el ring por la clave del usuario:
+ * {@code blob:m:<clave>} para el manifiesto y
+ * {@code blob:c:<versión>:<índice>:<clave>} para los chunks. Cada escritura
+ * usa una versión nueva; el manifiesto se reemplaza al final y los chunks
+ * anteriores expiran tras un período de gracia para las lecturas en curso.
+ */
+@Component
+public class BlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlobStore.class);
+
+    public static final String KEY_PREFIX = "blob:";
+    private static final String MANIFEST_PREFIX = KEY_PREFIX + "m:";
+    private static final String CHUNK_PREFIX = KEY_PREFIX + "c:";
+    private static final int STALE_BATCH = 64;
+
+    @Autowired
+    private Map<String, RedisTemplate<String, Object>> redisTemplateMap;
+
+    @Autowired
+    private ConsistentHashRing hashRing;
+
+    @Value("${cache.blob.chunk-bytes:262144}")
+    private int chunkBytes = 262_144;
+
+    @Value("${cache.blob.prefetch-chunks:4}")
+    private int prefetchChunks = 4;
+
+    @Value("${cache.blob.max-bytes:536870912}")
+    private long maxBytes = 536_870_912;
+
+    @Value("${cache.blob.upload-timeout-seconds:3600}")
+    private long uploadTimeoutSeconds = 3600;
+
+    @Value("${cache.blob.stale-grace-seconds:30}")
+    private long staleGraceSeconds = 30;
+
+    @Value("${cache.replication.factor:2}")
+    private int replicationFactor = 2;
+
+    @Value("${cache.write.consistency:QUORUM}")
+    private WriteConsistency writeConsistency = WriteConsistency.QUORUM;
+
+    private final LongAdder uploads = new LongAdder();
+    private final LongAdder downloads = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+
+    /**
+     * Clave por la que se ubica en el ring una clave de Redis: la del usuario
+     * para manifiestos y chunks, la misma clave para todo lo demás
+     */
+    public static String routingKey(String redisKey) {
+        if (redisKey.startsWith(MANIFEST_PREFIX)) {
+            return redisKey.substring(MANIFEST_PREFIX.length());
+        }
+        if (redisKey.startsWith(CHUNK_PREFIX)) {
+            int versionEnd = redisKey.indexOf(':', CHUNK_PREFIX.length());
+            int indexEnd = versionEnd < 0 ? -1 : redisKey.indexOf(':', versionEnd + 1);
+            if (indexEnd > 0) {
+                return redisKey.substring(indexEnd + 1);
+            }
+        }
+        return redisKey;
+    }
+
+    /**
+     * Lee el stream en chunks y los escribe en las réplicas de la clave; el
+     * manifiesto se publica solo cuando todos los chunks están guardados
+     *
+     * @param ttlSeconds TTL del blob; 0 o negativo sin expiración
+     */
+    public BlobManifest write(String key, InputStream in, String contentType, long ttlSeconds) throws IOException {
+        List<String> replicas = hashRing.getNodes(key, replicationFactor);
+        int required = writeConsistency.required(replicas.size());
+        List<String> healthy = new ArrayList<>(replicas);
+        String version = Long.toHexString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE);
+        Expiration pending = Expiration.seconds(uploadTimeoutSeconds);
+
+        byte[] buffer = new byte[chunkBytes];
+        long size = 0;
+        int chunks = 0;
+        try {
+            int read;
+            while ((read = in.readNBytes(buffer, 0, chunkBytes)) > 0) {
+                size += read;
+                if (size > maxBytes) {
+                    throw new IllegalArgumentException("El blob excede el máximo de " + maxBytes + " bytes");
+                }
+                // SET es síncrono: el buffer se puede reutilizar al volver
+                byte[] chunk = read == chunkBytes ? buffer : Arrays.copyOf(buffer, read);
+                byte[] chunkKey = chunkKey(key, version, chunks);
+                for (String node : List.copyOf(healthy)) {
+                    try {
+                        redisTemplateMap.get(node).execute((RedisCallback<Boolean>) connection ->
+                                connection.stringCommands().set(chunkKey, chunk, pending,
+                                        RedisStringCommands.SetOption.upsert()));
+                    } catch (Exception e) {
+                        logger.warn("Error escribiendo chunk {} de '{}' en nodo {}: {}", chunks, key, node, e.getMessage());
+                        healthy.remove(node);
+                    }
+                }
+                if (healthy.size() < required) {
+                    throw new IllegalStateException("Consistencia " + writeConsistency + " no alcanzada: "
+                            + healthy.size() + "/" + required + " réplicas confirmaron");
+                }
+                chunks++;
+            }
+        } catch (IOException | RuntimeException e) {
+            // Los chunks huérfanos expirarían con el timeout de subida; se adelanta su limpieza
+            discardUpload(key, version, chunks + 1, replicas);
+            throw e;
+        }
+
+        BlobManifest manifest = new BlobManifest(key, version, size, chunkBytes, chunks,
+                contentType != null ? contentType : "application/octet-stream",
+                System.currentTimeMillis(), replicas.get(0));
+        int committed = commit(manifest, healthy, ttlSeconds);
+        if (committed < required) {
+            throw new IllegalStateException("Consistencia " + writeConsistency + " no alcanzada: "
+                    + committed + "/" + required + " réplicas confirmaron el manifiesto");
+        }
+        uploads.increment();
+        bytesIn.add(size);
+        logger.info("Blob '{}' almacenado: {} bytes en {} chunks ({}/{} réplicas)",
+                key, size, chunks, committed, replicas.size());
+        return manifest;
+    }
+
+    /**
+     * Manifiesto vigente de la clave. Si una réplica no lo tiene (escritura
+     * con quórum que no la alcanzó, o clave aún en migración) se consultan
+     * las demás y, durante una transición del ring, los dueños anteriores.
+     * Solo falla si ningún nodo respondió.
+     */
+    public Optional<BlobManifest> open(String key) {
+        RuntimeException lastError = null;
+        boolean answered = false;
+        for (String node : ownerNodes(key)) {
+            try {
+                Map<byte[], byte[]> fields = redisTemplateMap.get(node).execute((RedisCallback<Map<byte[], byte[]>>)
+                        connection -> connection.hashCommands().hGetAll(manifestKey(key)));
+                if (fields != null && !fields.isEmpty()) {
+                    return Optional.of(toManifest(key, node, fields));
+                }
+                answered = true;
+            } catch (RuntimeException e) {
+                logger.warn("Error leyendo manifiesto de '{}' en nodo {}: {}", key, node, e.getMessage());
+                lastError = e;
+            }
+        }
+        if (answered) {
+            return Optional.empty();
+        }
+        throw lastError != null ? lastError : new IllegalStateException("Sin réplicas para la clave: " + key);
+    }
+
+    /**
+     * Escribe en {@code out} los bytes {@code [from, to]} del blob. Los chunks
+     * se piden de a {@code prefetch-chunks} en un pipeline de GETRANGE; si el
+     * nodo falla la ventana se reintenta en otra réplica.
+     */
+    public void read(BlobManifest manifest, long from, long to, OutputStream out) throws IOException {
+        if (from < 0 || to >= manifest.size() || from > to) {
+            throw new IllegalArgumentException("Rango inválido: " + from + "-" + to);
+        }
+        List<String> nodes = new ArrayList<>(hashRing.getNodes(manifest.key(), replicationFactor));
+        nodes.remove(manifest.node());
+        nodes.add(0, manifest.node());
+
+        int first = manifest.chunkOf(from);
+        int last = manifest.chunkOf(to);
+        for (int start = first; start <= last; start += prefetchChunks) {
+            int end = Math.min(last, start + prefetchChunks - 1);
+            List<byte[]> window = fetchWindow(manifest, nodes, start, end, from, to);
+            for (byte[] chunk : window) {
+                out.write(chunk);
+                bytesOut.add(chunk.length);
+            }
+        }
+        out.flush();
+        downloads.increment();
+    }
+
+    /**
+     * Elimina manifiesto y chunks de todas las réplicas (y de los dueños
+     * anteriores durante una transición del ring)
+     */
+    public boolean delete(String key) {
+        boolean deleted = false;
+        for (String node : ownerNodes(key)) {
+            RedisTemplate<String, Object> template = redisTemplateMap.get(node);
+            try {
+                Map<byte[], byte[]> fields = template.execute((RedisCallback<Map<byte[], byte[]>>)
+                        connection -> connection.hashCommands().hGetAll(manifestKey(key)));
+                if (fields == null || fields.isEmpty()) {
+                    continue;
+                }
+                BlobManifest manifest = toManifest(key, node, fields);
+                template.executePipelined((RedisCallback<Object>) connection -> {
+                    connection.keyCommands().del(manifestKey(key));
+                    for (int i = 0; i < manifest.chunks(); i++) {
+                        connection.keyCommands().del(chunkKey(key, manifest.version(), i));
+                    }
+                    return null;
+                });
+                deleted = true;
+            } catch (Exception e) {
+                logger.warn("Error eliminando blob '{}' de nodo {}: {}", key, node, e.getMessage());
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Subidas, descargas y bytes transferidos
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("chunkBytes", chunkBytes);
+        stats.put("prefetchChunks", prefetchChunks);
+        stats.put("uploads", uploads.sum());
+        stats.put("downloads", downloads.sum());
+        stats.put("bytesIn", bytesIn.sum());
+        stats.put("bytesOut", bytesOut.sum());
+        return stats;
+    }
+
+    private List<byte[]> fetchWindow(BlobManifest manifest, List<String> nodes, int start, int end,
+                                     long from, long to) {
+        RuntimeException lastError = null;
+        for (String node : nodes) {
+            try {
+                List<Object> results = redisTemplateMap.get(node).executePipelined((RedisCallback<Object>) connection -> {
+                    for (int i = start; i <= end; i++) {
+                        long chunkStart = (long) i * manifest.chunkSize();
+                        long rangeStart = Math.max(from, chunkStart) - chunkStart;
+                        long rangeEnd = Math.min(to, chunkStart + manifest.chunkSize() - 1) - chunkStart;
+                        connection.stringCommands().getRange(chunkKey(manifest.key(), manifest.version(), i),
+                                rangeStart, rangeEnd);
+                    }
+                    return null;
+                }, RedisSerializer.byteArray());
+
+                List<byte[]> chunks = new ArrayList<>(results.size());
+                for (int i = 0; i < results.size(); i++) {
+                    byte[] chunk = (byte[]) results.get(i);
+                    if (chunk == null || chunk.length == 0) {
+                        throw new IllegalStateException("Chunk " + (start + i) + " de '" + manifest.key()
+                                + "' ausente en nodo " + node);
+                    }
+                    chunks.add(chunk);
+                }
+                return chunks;
+            } catch (RuntimeException e) {
+                logger.warn("Error leyendo chunks {}-{} de '{}' en nodo {}: {}",
+                        start, end, manifest.key(), node, e.getMessage());
+                lastError = e;
+            }
+        }
+        throw lastError;
+    }
+
+    /**
+     * Fija el TTL final de los chunks y reemplaza el manifiesto en cada réplica
+     *
+     * @return réplicas que publicaron el manifiesto
+     */
+    private int commit(BlobManifest manifest, List<String> nodes, long ttlSeconds) {
+        long ttlMillis = ttlSeconds > 0 ? TimeUnit.SECONDS.toMillis(ttlSeconds) : 0;
+        Object[] args = {
+                String.valueOf(ttlMillis),
+                "version", manifest.version(),
+                "size", String.valueOf(manifest.size()),
+                "chunkSize", String.valueOf(manifest.chunkSize()),
+                "chunks", String.valueOf(manifest.chunks()),
+                "contentType", manifest.contentType(),
+                "createdAt", String.valueOf(manifest.createdAt())
+        };
+        Map<String, String> replaced = new HashMap<>();
+        int committed = 0;
+        for (String node : nodes) {
+            RedisTemplate<String, Object> template = redisTemplateMap.get(node);
+            try {
+                template.executePipelined((RedisCallback<Object>) connection -> {
+                    for (int i = 0; i < manifest.chunks(); i++) {
+                        byte[] chunkKey = chunkKey(manifest.key(), manifest.version(), i);
+                        if (ttlMillis > 0) {
+                            connection.keyCommands().pExpire(chunkKey, ttlMillis);
+                        } else {
+                            connection.keyCommands().persist(chunkKey);
+                        }
+                    }
+                    return null;
+                });
+                String previous = template.execute(CacheScripts.BLOB_COMMIT, RedisSerializer.string(),
+                        RedisSerializer.string(), List.of(MANIFEST_PREFIX + manifest.key()), args);
+                if (previous != null && !previous.equals(manifest.version())) {
+                    replaced.put(node, previous);
+                }
+                committed++;
+            } catch (Exception e) {
+                logger.warn("Error publicando manifiesto de '{}' en nodo {}: {}", manifest.key(), node, e.getMessage());
+            }
+        }
+        replaced.forEach((node, previous) -> expireStale(manifest.key(), previous, node));
+        return committed;
+    }
+
+    /**
+     * Los chunks de la versión reemplazada expiran tras el período de gracia.
+     * Su número no se conoce: se recorren hasta el primero inexistente.
+     */
+    private void expireStale(String key, String version, String node) {
+        RedisTemplate<String, Object> template = redisTemplateMap.get(node);
+        long graceMillis = TimeUnit.SECONDS.toMillis(staleGraceSeconds);
+        try {
+            for (int start = 0; ; start += STALE_BATCH) {
+                int from = start;
+                List<Object> results = template.executePipelined((RedisCallback<Object>) connection -> {
+                    for (int i = from; i < from + STALE_BATCH; i++) {
+                        connection.keyCommands().pExpire(chunkKey(key, version, i), graceMillis);
+                    }
+                    return null;
+                });
+                if (results.contains(Boolean.FALSE)) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Error expirando versión {} de '{}' en nodo {}: {}", version, key, node, e.getMessage());
+        }
+    }
+
+    private void discardUpload(String key, String version, int chunks, List<String> nodes) {
+        for (String node : nodes) {
+            try {
+                redisTemplateMap.get(node).executePipelined((RedisCallback<Object>) connection -> {
+                    for (int i = 0; i < chunks; i++) {
+                        connection.keyCommands().del(chunkKey(key, version, i));
+                    }
+                    return null;
+                });
+            } catch (Exception e) {
+                logger.debug("Error limpiando subida fallida de '{}' en nodo {}: {}", key, node, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Réplicas actuales de la clave más, durante una transición, las anteriores
+     */
+    private List<String> ownerNodes(String key) {
+        List<String> nodes = new ArrayList<>(hashRing.getNodes(key, replicationFactor));
+        if (hashRing.isInTransition()) {
+            for (String node : hashRing.getPreviousNodes(key, replicationFactor)) {
+                if (!nodes.contains(node) && redisTemplateMap.containsKey(node)) {
+                    nodes.add(node);
+                }
+            }
+        }
+        return nodes;
+    }
+
+    private static BlobManifest toManifest(String key, String node, Map<byte[], byte[]> raw) {
+        Map<String, String> fields = new HashMap<>();
+        raw.forEach((field, value) -> fields.put(new String(field, StandardCharsets.UTF_8),
+                new String(value, StandardCharsets.UTF_8)));
+        return new BlobManifest(key, fields.get("version"),
+                Long.parseLong(fields.get("size")),
+                Integer.parseInt(fields.get("chunkSize")),
+                Integer.parseInt(fields.get("chunks")),
+                fields.get("contentType"),
+                Long.parseLong(fields.getOrDefault("createdAt", "0")),
+                node);
+    }
+
+    private static byte[] manifestKey(String key) {
+        return (MANIFEST_PREFIX + key).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] chunkKey(String key, String version, int index) {
+        return (CHUNK_PREFIX + version + ":" + index + ":" + key).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,318 @@
+package com.jikkosoft.redis.cacheredis.bloom;
+
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.sketch.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Filtro de Bloom por nodo con las claves que guarda, para responder
+ * misses seguros sin ir a Redis. Cada escritura agrega la clave al filtro
+ * de todas sus réplicas antes de escribirla; una lectura es un miss seguro
+ * si ningún filtro de sus réplicas la contiene. Los borrados y
+ * vencimientos no se quitan (solo suman falsos positivos): cada
+ * rebuild-interval-ms el filtro de cada nodo se reconstruye con SCAN.
+ *
+ * El filtro de un nodo no corta lecturas hasta su primera reconstrucción,
+ * ni durante una migración de membresía. Las escrituras de otras
+ * instancias llegan por el canal de invalidación (ver NearCacheConfig): el
+ * filtro solo corta lecturas mientras esa suscripción está activa, y si se
+ * pierde deja de cortarlas hasta reconstruirse con la suscripción ya
+ * restablecida. Pub/sub es asíncrono, así que entre instancias queda una
+ * ventana de lectura tras escritura: un GET en otra instancia justo después
+ * de un PUT puede responder 404 hasta que llega el mensaje (normalmente
+ * milisegundos).
+ */
+@Component
+public class KeyFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyFilter.class);
+
+    @Autowired
+    private Map<String, RedisTemplate<String, Object>> redisTemplateMap;
+
+    @Autowired
+    private ConsistentHashRing hashRing;
+
+    // Reconstrucciones fuera del hilo que recibe la suscripción
+    @Autowired
+    @Qualifier("cacheScanExecutor")
+    private Executor rebuildExecutor;
+
+    @Value("${cache.bloom.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${cache.bloom.expected-keys:1000000}")
+    private long expectedKeys = 1_000_000;
+
+    @Value("${cache.bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    @Value("${cache.bloom.scan-count:1000}")
+    private int scanCount = 1000;
+
+    // Las escrituras que eligieron filtro antes de la reconstrucción terminan dentro de este plazo
+    @Value("${cache.write.timeout-ms:2000}")
+    private long settleMs = 2000;
+
+    @Value("${cache.replication.factor:2}")
+    private int replicationFactor = 2;
+
+    private final Map<String, NodeFilter> filters = new ConcurrentHashMap<>();
+
+    // Sin suscripción al canal de invalidación el filtro no ve escrituras de otras instancias
+    private volatile boolean subscribed;
+    // Cambia en cada alta o pérdida de la suscripción; una reconstrucción que la cruza no vale
+    private final AtomicLong subscriptionEpoch = new AtomicLong();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder shortCircuits = new LongAdder();
+    private final LongAdder passedMisses = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder rebuildFailures = new LongAdder();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * El canal de invalidación quedó suscrito (al arrancar o tras reconectar).
+     * Lo publicado antes pudo perderse: se reconstruyen los filtros.
+     */
+    public void onInvalidationSubscribed() {
+        subscriptionEpoch.incrementAndGet();
+        subscribed = true;
+        if (enabled) {
+            rebuildExecutor.execute(this::rebuild);
+        }
+    }
+
+    /**
+     * La suscripción se perdió: los filtros dejan de cortar lecturas
+     */
+    public void onInvalidationLost() {
+        subscribed = false;
+        subscriptionEpoch.incrementAndGet();
+        filters.values().forEach(filter -> filter.ready = false);
+        if (enabled) {
+            logger.warn("Suscripción de invalidación perdida: el filtro de Bloom no corta lecturas hasta reconstruirse");
+        }
+    }
+
+    /**
+     * Agrega la clave al filtro de cada una de sus réplicas; llamar antes de escribirla
+     */
+    public void add(String key) {
+        if (!enabled) {
+            return;
+        }
+        for (String node : hashRing.getNodes(key, replicationFactor)) {
+            filter(node).add(key);
+        }
+    }
+
+    public void add(Collection<String> keys) {
+        keys.forEach(this::add);
+    }
+
+    /**
+     * Agrega claves escritas directamente en un nodo (precarga, migración)
+     */
+    public void add(String node, Collection<String> keys) {
+        if (!enabled) {
+            return;
+        }
+        NodeFilter filter = filter(node);
+        keys.forEach(filter::add);
+    }
+
+    /**
+     * {@code true} si la clave seguro no está en ninguna de sus réplicas
+     */
+    public boolean isDefiniteMiss(String key) {
+        if (!enabled || !subscribed || hashRing.isInTransition()) {
+            return false;
+        }
+        lookups.increment();
+        for (String node : hashRing.getNodes(key, replicationFactor)) {
+            NodeFilter filter = filters.get(node);
+            if (filter == null || !filter.ready || filter.current.mightContain(key)) {
+                return false;
+            }
+        }
+        shortCircuits.increment();
+        return true;
+    }
+
+    /**
+     * Una lectura que pasó el filtro no encontró la clave: falso positivo,
+     * o una clave borrada o vencida desde la última reconstrucción
+     */
+    public void recordPassedMiss() {
+        if (enabled && !hashRing.isInTransition()) {
+            passedMisses.increment();
+        }
+    }
+
+    /**
+     * Reconstruye el filtro de cada nodo del ring
+     */
+    @Scheduled(fixedDelayString = "${cache.bloom.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        rebuildLock.lock();
+        try {
+            for (String node : hashRing.getAllNodes()) {
+                if (redisTemplateMap.containsKey(node)) {
+                    rebuild(node);
+                }
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Reemplaza el filtro del nodo por uno nuevo con las claves que devuelve
+     * SCAN; las escrituras durante el recorrido van a ambos filtros
+     */
+    public void rebuild(String node) {
+        RedisTemplate<String, Object> template = redisTemplateMap.get(node);
+        NodeFilter filter = filter(node);
+        long start = System.nanoTime();
+        long epoch = subscriptionEpoch.get();
+        boolean subscribedAtStart = subscribed;
+        try {
+            Long dbSize = template.execute((RedisCallback<Long>) connection -> connection.serverCommands().dbSize());
+            BloomFilter next = new BloomFilter(Math.max(expectedKeys, 2 * (dbSize != null ? dbSize : 0)), falsePositiveRate);
+            filter.building = next;
+            // SCAN ve lo que ya estaba al empezar: se espera a las escrituras que agregaron solo al filtro anterior
+            TimeUnit.MILLISECONDS.sleep(settleMs);
+
+            // Las claves internas (locks, diccionarios, blobs) también entran: solo suman falsos
+            // positivos, y excluirlas por prefijo descartaría claves de usuario con ese prefijo
+            long keys = 0;
+            try (Cursor<String> cursor = template.scan(ScanOptions.scanOptions().count(scanCount).build())) {
+                while (cursor.hasNext()) {
+                    next.put(cursor.next());
+                    keys++;
+                }
+            }
+
+            // Primero el filtro nuevo y después se deja de escribir en ambos (ver NodeFilter.add)
+            filter.current = next;
+            filter.building = null;
+            // Solo es confiable si la suscripción estuvo activa durante todo el recorrido
+            filter.ready = subscribedAtStart && subscriptionEpoch.get() == epoch;
+            filter.lastRebuildKeys = keys;
+            filter.lastRebuildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            filter.lastRebuildAt = LocalDateTime.now();
+            rebuilds.increment();
+            logger.debug("Filtro de nodo '{}' reconstruido con {} claves en {} ms",
+                    node, keys, filter.lastRebuildMillis);
+        } catch (InterruptedException e) {
+            filter.building = null;
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Se conserva el filtro anterior: recibió todas las escrituras, solo está más lleno
+            filter.building = null;
+            rebuildFailures.increment();
+            logger.warn("Error reconstruyendo filtro de nodo '{}': {}", node, e.getMessage());
+        }
+    }
+
+    /**
+     * Misses cortados, falsos positivos observados y memoria por nodo
+     */
+    public Map<String, Object> getStats() {
+        long lookupCount = lookups.sum();
+        long shortCircuited = shortCircuits.sum();
+        long passed = lookupCount - shortCircuited;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("subscribed", subscribed);
+        stats.put("lookups", lookupCount);
+        stats.put("shortCircuits", shortCircuited);
+        stats.put("shortCircuitRatio", lookupCount > 0 ? (double) shortCircuited / lookupCount : 0.0);
+        stats.put("passedMisses", passedMisses.sum());
+        stats.put("observedFalsePositiveRate", passed > 0 ? (double) passedMisses.sum() / passed : 0.0);
+        stats.put("rebuilds", rebuilds.sum());
+        stats.put("rebuildFailures", rebuildFailures.sum());
+
+        long totalBytes = 0;
+        Map<String, Object> nodes = new LinkedHashMap<>();
+        for (Map.Entry<String, NodeFilter> entry : filters.entrySet()) {
+            NodeFilter filter = entry.getValue();
+            BloomFilter current = filter.current;
+            Map<String, Object> node = new LinkedHashMap<>();
+            node.put("ready", filter.ready);
+            node.put("approximateKeys", current.approximateSize());
+            node.put("expectedFalsePositiveRate", current.expectedFalsePositiveRate());
+            node.put("bits", current.bitSize());
+            node.put("hashFunctions", current.hashFunctions());
+            node.put("memoryBytes", current.sizeInBytes());
+            node.put("lastRebuildKeys", filter.lastRebuildKeys);
+            node.put("lastRebuildMillis", filter.lastRebuildMillis);
+            node.put("lastRebuildAt", filter.lastRebuildAt);
+            nodes.put(entry.getKey(), node);
+            totalBytes += current.sizeInBytes();
+        }
+        stats.put("memoryBytes", totalBytes);
+        stats.put("nodes", nodes);
+        return stats;
+    }
+
+    private NodeFilter filter(String node) {
+        return filters.computeIfAbsent(node, n -> new NodeFilter(new BloomFilter(expectedKeys, falsePositiveRate)));
+    }
+
+    /**
+     * Filtro vigente de un nodo y, durante una reconstrucción, el que lo reemplazará
+     */
+    private static final class NodeFilter {
+
+        private volatile BloomFilter current;
+        private volatile BloomFilter building;
+        private volatile boolean ready;
+        private volatile long lastRebuildKeys;
+        private volatile long lastRebuildMillis;
+        private volatile LocalDateTime lastRebuildAt;
+
+        private NodeFilter(BloomFilter current) {
+            this.current = current;
+        }
+
+        private void add(String key) {
+            // building antes que current: si ya es null, current ya es el filtro nuevo
+            BloomFilter next = building;
+            BloomFilter target = current;
+            target.put(key);
+            if (next != null && next != target) {
+                next.put(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.jikkosoft.redis.cacheredis.cluster;
+
+import com.jikkosoft.redis.cacheredis.config.CacheNodesProperties;
+import com.jikkosoft.redis.cacheredis.config.RedisNodeFactory;
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.hash.NodeLoadTracker;
+import com.jikkosoft.redis.cacheredis.model.MigrationStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Administra la membresía del clúster en caliente: agrega o retira nodos
+ * Redis, actualiza el ring y lanza la migración incremental de claves
+ */
+@Service
+public class ClusterMembershipService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterMembershipService.class);
+
+    @Autowired
+    private Map<String, RedisTemplate<String, Object>> redisTemplateMap;
+
+    @Autowired
+    private ConsistentHashRing hashRing;
+
+    @Autowired
+    private KeyMigrationService migrationService;
+
+    @Autowired
+    private NodeLoadTracker loadTracker;
+
+    @Autowired
+    private RedisNodeFactory nodeFactory;
+
+    @Autowired
+    private CacheNodesProperties nodesProperties;
+
+    @Autowired
+    private RedisConnectionFactory primaryConnectionFactory;
+
+    private final Map<String, CacheNodesProperties.Node> nodes = new ConcurrentHashMap<>();
+    private final ExecutorService migrationExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-migration");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // ReentrantLock y no synchronized: addNode hace I/O (ping) y un hilo
+    // virtual bloqueado dentro de synchronized no libera su carrier
+    private final ReentrantLock membershipLock = new ReentrantLock();
+
+    @PostConstruct
+    void init() {
+        nodesProperties.getNodes().forEach(node -> nodes.put(node.id(), node));
+    }
+
+    /**
+     * Nodos actualmente en el ring
+     */
+    public List<CacheNodesProperties.Node> getNodes() {
+        List<CacheNodesProperties.Node> result = new ArrayList<>();
+        for (String id : hashRing.getAllNodes()) {
+            CacheNodesProperties.Node node = nodes.get(id);
+            if (node != null) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Agrega un nodo: verifica la conexión, lo incluye en el ring y migra
+     * en segundo plano las claves que pasan a pertenecerle
+     */
+    public void addNode(CacheNodesProperties.Node node) {
+        membershipLock.lock();
+        try {
+            doAddNode(node);
+        } finally {
+            membershipLock.unlock();
+        }
+    }
+
+    private void doAddNode(CacheNodesProperties.Node node) {
+        checkNoMigration();
+        if (redisTemplateMap.containsKey(node.id())) {
+            throw new IllegalArgumentException("El nodo ya existe: " + node.id());
+        }
+
+        RedisTemplate<String, Object> template = nodeFactory.createRedisTemplate(
+                nodeFactory.createStartedConnectionFactory(node));
+        try {
+            template.execute((RedisCallback<String>) connection -> connection.ping());
+        } catch (Exception e) {
+            nodeFactory.destroy(template);
+            throw new IllegalStateException("No se pudo conectar al nodo " + node.id() + ": " + e.getMessage(), e);
+        }
+
+        List<String> sources = new ArrayList<>(hashRing.getAllNodes());
+        redisTemplateMap.put(node.id(), template);
+        nodes.put(node.id(), node);
+        hashRing.addNode(node.id(), node.weight());
+        logger.info("Nodo '{}' agregado al ring ({}:{})", node.id(), node.host(), node.port());
+
+        migrationService.begin("ADD", node.id());
+        migrationExecutor.submit(() -> {
+            try {
+                migrationService.migrate(sources);
+            } finally {
+                hashRing.completeTransition();
+            }
+        });
+    }
+
+    /**
+     * Retira un nodo: lo saca del ring, migra sus claves a los nuevos
+     * dueños y al terminar cierra sus conexiones
+     */
+    public void removeNode(String nodeId) {
+        membershipLock.lock();
+        try {
+            doRemoveNode(nodeId);
+        } finally {
+            membershipLock.unlock();
+        }
+    }
+
+    private void doRemoveNode(String nodeId) {
+        checkNoMigration();
+        if (!redisTemplateMap.containsKey(nodeId)) {
+            throw new IllegalArgumentException("Nodo no válido: " + nodeId);
+        }
+
+        List<String> sources = new ArrayList<>(hashRing.getAllNodes());
+        hashRing.removeNode(nodeId);
+        logger.info("Nodo '{}' retirado del ring, migrando sus claves", nodeId);
+
+        migrationService.begin("REMOVE", nodeId);
+        migrationExecutor.submit(() -> {
+            try {
+                migrationService.migrate(sources);
+            } finally {
+                hashRing.completeTransition();
+                nodes.remove(nodeId);
+                RedisTemplate<String, Object> template = redisTemplateMap.remove(nodeId);
+                if (template != null && template.getConnectionFactory() != primaryConnectionFactory) {
+                    nodeFactory.destroy(template);
+                }
+            }
+        });
+    }
+
+    /**
+     * Participación de cada nodo en el ring y su carga en vuelo actual
+     */
+    public Map<String, Map<String, Object>> getRingStats() {
+        Map<String, Map<String, Object>> stats = hashRing.getRingStats();
+        stats.forEach((node, nodeStats) -> nodeStats.put("inFlight", loadTracker.getInFlight(node)));
+        return stats;
+    }
+
+    /**
+     * Progreso de la última migración
+     */
+    public MigrationStatus getMigrationStatus() {
+        return migrationService.getStatus();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        migrationExecutor.shutdownNow();
+        // Las conexiones del nodo primario las cierra Spring (es un bean)
+        redisTemplateMap.values().stream()
+                .filter(template -> template.getConnectionFactory() != primaryConnectionFactory)
+                .forEach(nodeFactory::destroy);
+    }
+
+    private void checkNoMigration() {
+        if (migrationService.isRunning() || hashRing.isInTransition()) {
+            throw new IllegalStateException("Hay una migración de claves en curso");
+        }
+    }
+}
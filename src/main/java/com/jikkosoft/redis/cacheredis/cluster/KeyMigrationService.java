@@ -0,0 +1,337 @@
+package com.jikkosoft.redis.cacheredis.cluster;
+
+import com.jikkosoft.redis.cacheredis.blob.BlobStore;
+import com.jikkosoft.redis.cacheredis.bloom.KeyFilter;
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.model.InternalKeys;
+import com.jikkosoft.redis.cacheredis.model.MigrationStatus;
+import com.jikkosoft.redis.cacheredis.script.CacheScripts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Migra en segundo plano solo las claves cuya lista de preferencia cambió
+ * tras agregar o retirar un nodo. Recorre cada nodo con SCAN en lotes,
+ * copia con DUMP/RESTORE (conservando el TTL) hacia los nuevos dueños y
+ * luego elimina las copias que ya no corresponden. El ritmo se limita
+ * con cache.migration.max-keys-per-second.
+ */
+@Service
+public class KeyMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyMigrationService.class);
+
+    @Autowired
+    private Map<String, RedisTemplate<String, Object>> redisTemplateMap;
+
+    @Autowired
+    private ConsistentHashRing hashRing;
+
+    @Autowired
+    private KeyFilter keyFilter;
+
+    @Value("${cache.replication.factor:2}")
+    private int replicationFactor;
+
+    @Value("${cache.migration.batch-size:500}")
+    private int batchSize;
+
+    @Value("${cache.migration.max-keys-per-second:5000}")
+    private long maxKeysPerSecond;
+
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong migrated = new AtomicLong();
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    // Claves cuya copia falló: el origen conserva la suya aunque ya no le corresponda
+    private final Set<String> copyFailed = new HashSet<>();
+    private volatile String state = "IDLE";
+    private volatile String operation;
+    private volatile String node;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    /**
+     * Marca el inicio de una migración (antes de encolarla) y reinicia el progreso
+     */
+    void begin(String operation, String node) {
+        scanned.set(0);
+        migrated.set(0);
+        deleted.set(0);
+        failed.set(0);
+        copyFailed.clear();
+        this.operation = operation;
+        this.node = node;
+        this.error = null;
+        this.startedAt = LocalDateTime.now();
+        this.finishedAt = null;
+        this.state = "RUNNING";
+    }
+
+    /**
+     * Ejecuta la migración para el cambio de membresía ya aplicado en el ring.
+     * Bloquea hasta terminar; se invoca desde un hilo de fondo.
+     *
+     * @param sourceNodes nodos que pueden contener claves a mover
+     */
+    void migrate(Collection<String> sourceNodes) {
+        try {
+            // Fase 1: copiar a los nuevos dueños
+            for (String source : sourceNodes) {
+                scanNode(source, keys -> copyBatch(source, keys));
+            }
+            // Fase 2: eliminar copias que ya no pertenecen al nodo
+            for (String source : sourceNodes) {
+                if (hashRing.getAllNodes().contains(source)) {
+                    scanNode(source, keys -> cleanupBatch(source, keys));
+                }
+            }
+            state = "COMPLETED";
+            logger.info("Migración '{}' de nodo '{}' completada: {} copiadas, {} eliminadas",
+                    operation, node, migrated.get(), deleted.get());
+        } catch (Exception e) {
+            state = "FAILED";
+            error = e.getMessage();
+            logger.error("Error en migración '{}' de nodo '{}': {}", operation, node, e.getMessage());
+        } finally {
+            if (!copyFailed.isEmpty()) {
+                logger.warn("{} claves con copia fallida se conservaron en su nodo de origen", copyFailed.size());
+            }
+            copyFailed.clear();
+            finishedAt = LocalDateTime.now();
+        }
+    }
+
+    public boolean isRunning() {
+        return "RUNNING".equals(state);
+    }
+
+    /**
+     * Progreso de la última migración
+     */
+    public MigrationStatus getStatus() {
+        LocalDateTime start = startedAt;
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        double elapsedSeconds = start != null
+                ? Math.max(Duration.between(start, end).toMillis(), 1) / 1000.0 : 0;
+        double rate = elapsedSeconds > 0 ? scanned.get() / elapsedSeconds : 0;
+        return new MigrationStatus(state, operation, node, scanned.get(), migrated.get(),
+                deleted.get(), failed.get(), rate, startedAt, finishedAt, error);
+    }
+
+    /**
+     * Recorre el nodo con SCAN y entrega las claves en lotes, respetando el límite de ritmo
+     */
+    private void scanNode(String source, Consumer<List<String>> batchHandler) {
+        RedisTemplate<String, Object> template = redisTemplateMap.get(source);
+        if (template == null) {
+            return;
+        }
+        ScanOptions options = ScanOptions.scanOptions().count(batchSize).build();
+        List<String> batch = new ArrayList<>(batchSize);
+        long startNanos = System.nanoTime();
+        long processed = 0;
+
+        try (Cursor<String> cursor = template.scan(options)) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                // Locks, fencing y diccionarios son de cada nodo; los blobs sí se migran
+                if (InternalKeys.isNodeLocal(key)) {
+                    continue;
+                }
+                batch.add(key);
+                if (batch.size() >= batchSize) {
+                    batchHandler.accept(batch);
+                    processed += batch.size();
+                    batch = new ArrayList<>(batchSize);
+                    throttle(startNanos, processed);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            batchHandler.accept(batch);
+        }
+    }
+
+    /**
+     * Duerme lo necesario para que el ritmo acumulado no supere maxKeysPerSecond
+     */
+    private void throttle(long startNanos, long processed) {
+        if (maxKeysPerSecond <= 0) {
+            return;
+        }
+        long expectedNanos = processed * 1_000_000_000L / maxKeysPerSecond;
+        long aheadNanos = expectedNanos - (System.nanoTime() - startNanos);
+        if (aheadNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(aheadNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Migración interrumpida", e);
+            }
+        }
+    }
+
+    /**
+     * Copia a los nodos que pasan a ser dueños las claves de las que
+     * {@code source} era el primario en el ring anterior
+     */
+    private void copyBatch(String source, List<String> keys) {
+        scanned.addAndGet(keys.size());
+        Map<String, List<String>> keysByTarget = new HashMap<>();
+        for (String key : keys) {
+            // Los chunks de un blob siguen a la clave del usuario, no a su propio nombre
+            String routingKey = BlobStore.routingKey(key);
+            List<String> previous = hashRing.getPreviousNodes(routingKey, replicationFactor);
+            // Solo el primario anterior copia, para no repetir la misma clave desde cada réplica
+            if (previous.isEmpty() || !previous.get(0).equals(source)) {
+                continue;
+            }
+            for (String target : hashRing.getNodes(routingKey, replicationFactor)) {
+                if (!previous.contains(target)) {
+                    keysByTarget.computeIfAbsent(target, t -> new ArrayList<>()).add(key);
+                }
+            }
+        }
+        if (keysByTarget.isEmpty()) {
+            return;
+        }
+
+        Set<String> toDump = new LinkedHashSet<>();
+        keysByTarget.values().forEach(toDump::addAll);
+        List<String> dumpKeys = new ArrayList<>(toDump);
+
+        // DUMP + PTTL de todo el lote en un pipeline
+        List<Object> dumped = redisTemplateMap.get(source).executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : dumpKeys) {
+                byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+                connection.keyCommands().dump(rawKey);
+                connection.keyCommands().pTtl(rawKey);
+            }
+            return null;
+        }, null);
+
+        Map<String, byte[]> payloads = new HashMap<>();
+        Map<String, Long> ttls = new HashMap<>();
+        for (int i = 0; i < dumpKeys.size(); i++) {
+            byte[] payload = (byte[]) dumped.get(2 * i);
+            Long pttl = (Long) dumped.get(2 * i + 1);
+            if (payload != null && pttl != null && pttl != -2) {
+                payloads.put(dumpKeys.get(i), payload);
+                ttls.put(dumpKeys.get(i), Math.max(pttl, 0));
+            }
+        }
+
+        keysByTarget.forEach((target, targetKeys) -> {
+            RedisTemplate<String, Object> template = redisTemplateMap.get(target);
+            List<String> restoreKeys = targetKeys.stream().filter(payloads::containsKey).toList();
+            keyFilter.add(target, restoreKeys);
+            List<Object> results;
+            try {
+                // Sin REPLACE: si la clave ya se escribió en el nuevo dueño, esa versión es más reciente
+                results = template.executePipelined((RedisCallback<Object>) connection -> {
+                    for (String key : restoreKeys) {
+                        connection.keyCommands().restore(key.getBytes(StandardCharsets.UTF_8),
+                                ttls.get(key), payloads.get(key), false);
+                    }
+                    return null;
+                });
+            } catch (RedisPipelineException e) {
+                results = e.getPipelineResult();
+            } catch (Exception e) {
+                failed.addAndGet(restoreKeys.size());
+                copyFailed.addAll(restoreKeys);
+                logger.warn("Error migrando {} claves a nodo {}: {}", restoreKeys.size(), target, e.getMessage());
+                return;
+            }
+            List<String> restored = new ArrayList<>();
+            for (int i = 0; i < results.size() && i < restoreKeys.size(); i++) {
+                if (results.get(i) instanceof Exception restoreError) {
+                    // BUSYKEY: la clave ya existía en destino, no es un fallo
+                    if (restoreError.getMessage() == null || !restoreError.getMessage().contains("BUSYKEY")) {
+                        failed.incrementAndGet();
+                        copyFailed.add(restoreKeys.get(i));
+                    }
+                } else {
+                    restored.add(restoreKeys.get(i));
+                }
+            }
+            migrated.addAndGet(restored.size() - undoDeleted(source, template, restored, payloads));
+        });
+    }
+
+    /**
+     * Deshace las copias de claves que se borraron en el origen entre el
+     * DUMP y el RESTORE: durante la transición un delete también limpia los
+     * dueños anteriores, así que si el origen ya no tiene la clave la copia
+     * resucitaría un valor eliminado. Solo se borra si el destino conserva
+     * el mismo payload, para no perder una escritura posterior.
+     *
+     * @return número de copias deshechas
+     */
+    private int undoDeleted(String source, RedisTemplate<String, Object> target,
+                            List<String> restored, Map<String, byte[]> payloads) {
+        if (restored.isEmpty()) {
+            return 0;
+        }
+        List<Object> exists = redisTemplateMap.get(source).executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : restored) {
+                connection.keyCommands().exists(key.getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        }, null);
+        List<String> gone = new ArrayList<>();
+        for (int i = 0; i < restored.size(); i++) {
+            if (Boolean.FALSE.equals(exists.get(i))) {
+                gone.add(restored.get(i));
+            }
+        }
+        if (gone.isEmpty()) {
+            return 0;
+        }
+        byte[] script = CacheScripts.MIGRATION_UNDO.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        target.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : gone) {
+                connection.scriptingCommands().eval(script, ReturnType.INTEGER, 1,
+                        key.getBytes(StandardCharsets.UTF_8), payloads.get(key));
+            }
+            return null;
+        }, null);
+        logger.debug("Deshechas {} copias de claves eliminadas durante la migración", gone.size());
+        return gone.size();
+    }
+
+    /**
+     * Elimina del nodo las claves que ya no están en su lista de preferencia,
+     * salvo las que no se pudieron copiar: podría ser la única copia
+     */
+    private void cleanupBatch(String source, List<String> keys) {
+        List<String> stale = keys.stream()
+                .filter(key -> !copyFailed.contains(key))
+                .filter(key -> !hashRing.getNodes(BlobStore.routingKey(key), replicationFactor).contains(source))
+                .toList();
+        if (stale.isEmpty()) {
+            return;
+        }
+        Long removed = redisTemplateMap.get(source).delete(stale);
+        deleted.addAndGet(removed != null ? removed : 0);
+    }
+}
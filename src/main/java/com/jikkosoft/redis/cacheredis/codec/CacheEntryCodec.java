@@ -0,0 +1,225 @@
+package com.jikkosoft.redis.cacheredis.codec;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.jikkosoft.redis.cacheredis.model.CacheEntry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * Codec de {@link CacheEntry}. Formato binario (versión 1):
+ * <pre>
+ *  0     magic 0xCE
+ *  1     versión
+ *  2     tipo del valor (null, string UTF-8, JSON, bytes, comprimido)
+ *  3-10  createdAt   epoch millis, big-endian
+ *  11-18 expiresAt   epoch millis, 0 = sin expiración
+ *  19-26 lastAccessed epoch millis
+ *  27-   accessCount varint (LEB128 sin signo), seguido del valor
+ * </pre>
+ * Las marcas de tiempo de ancho fijo van antes del contador para que el
+ * script de touch las reescriba por posición. La lectura detecta el formato:
+ * lo que no empieza con el magic se interpreta como el JSON anterior.
+ * Es thread-safe y reutilizable.
+ */
+public class CacheEntryCodec {
+
+    public static final byte MAGIC = (byte) 0xCE;
+    public static final byte VERSION = 1;
+    static final int HEADER_SIZE = 27;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_JSON = 2;
+    private static final byte TYPE_BYTES = 3;
+    // Payload: tipo original, largo original (varint) y stream zlib
+    private static final byte TYPE_COMPRESSED = 4;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    /**
+     * Serializa la entrada en el formato binario
+     */
+    public byte[] encode(CacheEntry entry) {
+        EncodedValue encoded = encodeValue(entry.getValue());
+        byte type = encoded.type();
+        byte[] payload = encoded.bytes();
+
+        long accessCount = Math.max(entry.getAccessCount(), 0);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + varintSize(accessCount) + payload.length);
+        buffer.put(MAGIC).put(VERSION).put(type)
+                .putLong(toEpochMillis(entry.getCreatedAt()))
+                .putLong(entry.getExpiresAt() != null ? toEpochMillis(entry.getExpiresAt()) : 0)
+                .putLong(toEpochMillis(entry.getLastAccessed()));
+        writeVarint(buffer, accessCount);
+        buffer.put(payload);
+        return buffer.array();
+    }
+
+    /**
+     * Serializa la entrada como JSON (formato anterior)
+     */
+    public byte[] encodeJson(CacheEntry entry) {
+        return writeJson(entry);
+    }
+
+    /**
+     * Bytes y tipo de un valor tal como se guardan en la entrada binaria
+     */
+    public EncodedValue encodeValue(Object value) {
+        if (value == null) {
+            return new EncodedValue(TYPE_NULL, new byte[0]);
+        } else if (value instanceof EncodedValue encoded) {
+            return encoded;
+        } else if (value instanceof String text) {
+            return new EncodedValue(TYPE_STRING, text.getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof byte[] bytes) {
+            return new EncodedValue(TYPE_BYTES, bytes);
+        } else if (value instanceof CompressedValue compressed) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 + varintSize(compressed.originalLength())
+                    + compressed.data().length);
+            buffer.put(compressed.originalType());
+            writeVarint(buffer, compressed.originalLength());
+            buffer.put(compressed.data());
+            return new EncodedValue(TYPE_COMPRESSED, buffer.array());
+        }
+        return new EncodedValue(TYPE_JSON, writeJson(value));
+    }
+
+    /**
+     * Reconstruye un valor a partir de su tipo y bytes
+     */
+    public Object decodeValue(byte type, byte[] payload) {
+        return switch (type) {
+            case TYPE_NULL -> null;
+            case TYPE_STRING -> new String(payload, StandardCharsets.UTF_8);
+            case TYPE_BYTES -> payload;
+            case TYPE_JSON -> readJson(payload);
+            case TYPE_COMPRESSED -> {
+                ByteBuffer buffer = ByteBuffer.wrap(payload);
+                byte originalType = buffer.get();
+                int originalLength = (int) readVarint(buffer);
+                yield new CompressedValue(originalType, originalLength,
+                        Arrays.copyOfRange(payload, buffer.position(), payload.length));
+            }
+            default -> throw new IllegalArgumentException("Tipo de valor desconocido: " + type);
+        };
+    }
+
+    /**
+     * Lee una entrada en cualquiera de los dos formatos
+     */
+    public CacheEntry decode(byte[] bytes) {
+        if (isBinary(bytes)) {
+            return decodeBinary(bytes);
+        }
+        try {
+            return objectMapper.readValue(bytes, CacheEntry.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Entrada JSON inválida", e);
+        }
+    }
+
+    /**
+     * Convierte el mapa genérico de una entrada JSON ya parseada
+     */
+    public CacheEntry convert(Object value) {
+        return objectMapper.convertValue(value, CacheEntry.class);
+    }
+
+    /**
+     * Lee un valor JSON arbitrario (para datos que no son entradas)
+     */
+    public Object readJson(byte[] bytes) {
+        try {
+            return objectMapper.readValue(bytes, Object.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("JSON inválido", e);
+        }
+    }
+
+    public byte[] writeJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("No se pudo serializar el valor", e);
+        }
+    }
+
+    /**
+     * Detecta el formato binario por el magic; un JSON nunca empieza con 0xCE
+     */
+    public static boolean isBinary(byte[] bytes) {
+        return bytes != null && bytes.length > 0 && bytes[0] == MAGIC;
+    }
+
+    private CacheEntry decodeBinary(byte[] bytes) {
+        if (bytes.length < HEADER_SIZE + 1) {
+            throw new IllegalArgumentException("Entrada binaria truncada");
+        }
+        if (bytes[1] != VERSION) {
+            throw new IllegalArgumentException("Versión de entrada no soportada: " + bytes[1]);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.position(2);
+        byte type = buffer.get();
+        LocalDateTime createdAt = fromEpochMillis(buffer.getLong());
+        long expiresMillis = buffer.getLong();
+        LocalDateTime lastAccessed = fromEpochMillis(buffer.getLong());
+        long accessCount = readVarint(buffer);
+        byte[] payload = Arrays.copyOfRange(bytes, buffer.position(), bytes.length);
+
+        return new CacheEntry(decodeValue(type, payload), createdAt,
+                expiresMillis != 0 ? fromEpochMillis(expiresMillis) : null, accessCount, lastAccessed);
+    }
+
+    private static void writeVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint inválido");
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime fromEpochMillis(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,72 @@
+package com.jikkosoft.redis.cacheredis.codec;
+
+import com.jikkosoft.redis.cacheredis.model.CacheEntry;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Serializador de valores de los templates: las entradas del caché se
+ * escriben con {@link CacheEntryCodec} en el formato configurado y cualquier
+ * otro valor como JSON. Al leer detecta el formato binario por el magic.
+ */
+public class CacheValueSerializer implements RedisSerializer<Object> {
+
+    private final CacheEntryCodec codec;
+    private final EntryFormat format;
+    private final IntConsumer writtenSizes;
+    private final IntConsumer readSizes;
+
+    public CacheValueSerializer(CacheEntryCodec codec, EntryFormat format) {
+        this(codec, format, size -> { }, size -> { });
+    }
+
+    /**
+     * @param writtenSizes recibe el tamaño de cada valor serializado
+     * @param readSizes    recibe el tamaño de cada valor leído
+     */
+    public CacheValueSerializer(CacheEntryCodec codec, EntryFormat format,
+                                IntConsumer writtenSizes, IntConsumer readSizes) {
+        this.codec = codec;
+        this.format = format;
+        this.writtenSizes = writtenSizes;
+        this.readSizes = readSizes;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        try {
+            byte[] bytes;
+            if (value instanceof CacheEntry entry) {
+                bytes = format == EntryFormat.BINARY ? codec.encode(entry) : codec.encodeJson(entry);
+            } else {
+                bytes = codec.writeJson(value);
+            }
+            writtenSizes.accept(bytes.length);
+            return bytes;
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("No se pudo serializar el valor", e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        readSizes.accept(bytes.length);
+        try {
+            if (CacheEntryCodec.isBinary(bytes)) {
+                return codec.decode(bytes);
+            }
+            // JSON anterior: mapa genérico que el servicio convierte a CacheEntry
+            return codec.readJson(bytes);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("No se pudo deserializar el valor", e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.jikkosoft.redis.cacheredis.codec;
+
+/**
+ * Valor comprimido con zlib/Deflate. Si se usó un diccionario, su Adler-32
+ * viaja dentro del propio stream (DICTID), así que no se guarda aparte.
+ *
+ * @param originalType   tipo del valor original según {@link CacheEntryCodec}
+ * @param originalLength bytes del valor sin comprimir
+ * @param data           stream zlib
+ */
+public record CompressedValue(byte originalType, int originalLength, byte[] data) {
+}
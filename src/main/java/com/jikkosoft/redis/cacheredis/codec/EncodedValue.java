@@ -0,0 +1,11 @@
+package com.jikkosoft.redis.cacheredis.codec;
+
+/**
+ * Valor ya serializado a bytes con su tipo, para no volver a serializarlo
+ * al escribir la entrada
+ *
+ * @param type  tipo del valor según {@link CacheEntryCodec}
+ * @param bytes bytes del valor
+ */
+public record EncodedValue(byte type, byte[] bytes) {
+}
@@ -0,0 +1,12 @@
+package com.jikkosoft.redis.cacheredis.codec;
+
+/**
+ * Formato con que se escriben las entradas en Redis.
+ * La lectura detecta el formato, así que ambos conviven durante una migración.
+ */
+public enum EntryFormat {
+    /** Cabecera binaria versionada: epoch millis, contador varint y valor crudo */
+    BINARY,
+    /** JSON de Jackson (formato anterior) */
+    JSON
+}
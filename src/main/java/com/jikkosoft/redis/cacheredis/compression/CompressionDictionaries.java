@@ -0,0 +1,213 @@
+package com.jikkosoft.redis.cacheredis.compression;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.Adler32;
+
+/**
+ * Diccionarios de compresión por prefijo de clave. Se guardan en todos los
+ * nodos Redis para que cualquier instancia pueda descomprimir:
+ * {@code compression:dict:<id>} con los bytes y el hash
+ * {@code compression:prefixes} con el diccionario vigente de cada prefijo.
+ * El id es el Adler-32 del diccionario, el mismo que zlib escribe en el stream.
+ */
+@Component
+public class CompressionDictionaries {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompressionDictionaries.class);
+
+    public static final String KEY_PREFIX = "compression:";
+    private static final String DICTIONARY_KEY = KEY_PREFIX + "dict:";
+    private static final byte[] PREFIXES_KEY = (KEY_PREFIX + "prefixes").getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private Map<String, RedisTemplate<String, Object>> redisTemplateMap;
+
+    @Value("${cache.compression.prefix-delimiter::}")
+    private String prefixDelimiter = ":";
+
+    @Value("${cache.compression.refresh-seconds:60}")
+    private long refreshSeconds = 60;
+
+    private final Map<String, Integer> prefixDictionaries = new ConcurrentHashMap<>();
+    private final Map<Integer, byte[]> dictionaries = new ConcurrentHashMap<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile long refreshedAt;
+
+    /**
+     * Prefijo de la clave: lo que está antes del primer delimitador, o "" si no tiene
+     */
+    public String prefixOf(String key) {
+        int index = key.indexOf(prefixDelimiter);
+        return index > 0 ? key.substring(0, index) : "";
+    }
+
+    /**
+     * Id del diccionario vigente del prefijo, o null si no se ha entrenado
+     */
+    public Integer dictionaryIdFor(String prefix) {
+        refreshIfStale();
+        return prefixDictionaries.get(prefix);
+    }
+
+    /**
+     * Bytes del diccionario; si no está en memoria se busca en los nodos
+     */
+    public byte[] get(int id) {
+        byte[] dictionary = dictionaries.get(id);
+        if (dictionary != null) {
+            return dictionary;
+        }
+        byte[] key = (DICTIONARY_KEY + Integer.toHexString(id)).getBytes(StandardCharsets.UTF_8);
+        for (RedisTemplate<String, Object> template : redisTemplateMap.values()) {
+            try {
+                dictionary = template.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(key));
+                if (dictionary != null) {
+                    dictionaries.put(id, dictionary);
+                    return dictionary;
+                }
+            } catch (Exception e) {
+                logger.debug("Error leyendo diccionario {}: {}", Integer.toHexString(id), e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Registra el diccionario como vigente para el prefijo y lo guarda en todos los nodos
+     *
+     * @return id del diccionario
+     */
+    public int publish(String prefix, byte[] dictionary) {
+        Adler32 adler = new Adler32();
+        adler.update(dictionary);
+        int id = (int) adler.getValue();
+
+        int stored = store(prefix, id, dictionary);
+        if (stored == 0) {
+            throw new IllegalStateException("No se pudo guardar el diccionario en ningún nodo");
+        }
+        dictionaries.put(id, dictionary);
+        prefixDictionaries.put(prefix, id);
+        logger.info("Diccionario {} ({} bytes) publicado para prefijo '{}' en {} nodos",
+                Integer.toHexString(id), dictionary.length, prefix, stored);
+        return id;
+    }
+
+    /**
+     * Vuelve a guardar los diccionarios conocidos, p. ej. después de un FLUSHDB
+     */
+    public void republish() {
+        prefixDictionaries.forEach((prefix, id) -> {
+            byte[] dictionary = dictionaries.get(id);
+            if (dictionary != null) {
+                store(prefix, id, dictionary);
+            }
+        });
+    }
+
+    /**
+     * Valores crudos de hasta {@code limit} claves del prefijo, tomados con SCAN
+     */
+    public List<byte[]> sample(String prefix, int limit) {
+        byte[] pattern = (prefix + prefixDelimiter + "*").getBytes(StandardCharsets.UTF_8);
+        List<byte[]> samples = new ArrayList<>();
+        for (RedisTemplate<String, Object> template : redisTemplateMap.values()) {
+            if (samples.size() >= limit) {
+                break;
+            }
+            int remaining = limit - samples.size();
+            try {
+                samples.addAll(template.execute((RedisCallback<List<byte[]>>) connection -> {
+                    List<byte[]> values = new ArrayList<>();
+                    ScanOptions options = ScanOptions.scanOptions().match(pattern).count(100).build();
+                    try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+                        while (cursor.hasNext() && values.size() < remaining) {
+                            byte[] value = connection.stringCommands().get(cursor.next());
+                            if (value != null) {
+                                values.add(value);
+                            }
+                        }
+                    }
+                    return values;
+                }));
+            } catch (Exception e) {
+                logger.warn("Error tomando muestras de '{}': {}", prefix, e.getMessage());
+            }
+        }
+        return samples;
+    }
+
+    public Map<String, Integer> getPrefixDictionaries() {
+        return Map.copyOf(prefixDictionaries);
+    }
+
+    public int getDictionarySize(int id) {
+        byte[] dictionary = dictionaries.get(id);
+        return dictionary != null ? dictionary.length : 0;
+    }
+
+    private int store(String prefix, int id, byte[] dictionary) {
+        byte[] key = (DICTIONARY_KEY + Integer.toHexString(id)).getBytes(StandardCharsets.UTF_8);
+        byte[] field = prefix.getBytes(StandardCharsets.UTF_8);
+        byte[] value = Integer.toHexString(id).getBytes(StandardCharsets.UTF_8);
+        int stored = 0;
+        for (Map.Entry<String, RedisTemplate<String, Object>> node : redisTemplateMap.entrySet()) {
+            try {
+                node.getValue().executePipelined((RedisCallback<Object>) connection -> {
+                    connection.stringCommands().set(key, dictionary);
+                    connection.hashCommands().hSet(PREFIXES_KEY, field, value);
+                    return null;
+                });
+                stored++;
+            } catch (Exception e) {
+                logger.warn("Error guardando diccionario en nodo {}: {}", node.getKey(), e.getMessage());
+            }
+        }
+        return stored;
+    }
+
+    /**
+     * Recarga los prefijos entrenados por otras instancias; un solo hilo a la vez
+     */
+    private void refreshIfStale() {
+        long now = System.currentTimeMillis();
+        if (now - refreshedAt < refreshSeconds * 1000 || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (RedisTemplate<String, Object> template : redisTemplateMap.values()) {
+                try {
+                    Map<byte[], byte[]> entries = template.execute(
+                            (RedisCallback<Map<byte[], byte[]>>) connection -> connection.hashCommands().hGetAll(PREFIXES_KEY));
+                    if (entries == null) {
+                        continue;
+                    }
+                    entries.forEach((field, value) -> prefixDictionaries.put(
+                            new String(field, StandardCharsets.UTF_8),
+                            Integer.parseUnsignedInt(new String(value, StandardCharsets.UTF_8), 16)));
+                    break;
+                } catch (Exception e) {
+                    logger.debug("Error recargando diccionarios: {}", e.getMessage());
+                }
+            }
+        } finally {
+            refreshedAt = now;
+            refreshing.set(false);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.jikkosoft.redis.cacheredis.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Construye un diccionario preestablecido para Deflate a partir de valores
+ * de muestra: toma los fragmentos que se repiten en más documentos y los
+ * concatena dejando los más frecuentes al final, que es donde Deflate los
+ * alcanza con las distancias más cortas.
+ */
+public final class DictionaryTrainer {
+
+    /** Ventana de Deflate: lo que exceda no se puede referenciar */
+    public static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+    private static final int SEGMENT_LENGTH = 16;
+    private static final int SEGMENT_STEP = 4;
+
+    private DictionaryTrainer() {
+    }
+
+    /**
+     * @param samples valores de ejemplo del prefijo
+     * @param maxSize tamaño máximo del diccionario
+     */
+    public static byte[] train(List<byte[]> samples, int maxSize) {
+        if (samples.isEmpty()) {
+            throw new IllegalArgumentException("Se necesita al menos una muestra para entrenar");
+        }
+        int limit = Math.min(maxSize, MAX_DICTIONARY_SIZE);
+
+        // Frecuencia por documento de cada fragmento (una vez por muestra)
+        Map<String, Integer> frequency = new HashMap<>();
+        for (byte[] sample : samples) {
+            Set<String> seen = new HashSet<>();
+            for (int i = 0; i + SEGMENT_LENGTH <= sample.length; i += SEGMENT_STEP) {
+                String segment = new String(sample, i, SEGMENT_LENGTH, StandardCharsets.ISO_8859_1);
+                if (seen.add(segment)) {
+                    frequency.merge(segment, 1, Integer::sum);
+                }
+            }
+        }
+
+        List<Map.Entry<String, Integer>> repeated = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : frequency.entrySet()) {
+            if (entry.getValue() > 1) {
+                repeated.add(entry);
+            }
+        }
+        if (repeated.isEmpty()) {
+            return tailOfSamples(samples, limit);
+        }
+        repeated.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+
+        // Los más frecuentes entran primero al presupuesto y quedan al final del diccionario
+        List<String> selected = new ArrayList<>();
+        int size = 0;
+        for (Map.Entry<String, Integer> entry : repeated) {
+            if (size + SEGMENT_LENGTH > limit) {
+                break;
+            }
+            selected.add(entry.getKey());
+            size += SEGMENT_LENGTH;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        for (int i = selected.size() - 1; i >= 0; i--) {
+            out.writeBytes(selected.get(i).getBytes(StandardCharsets.ISO_8859_1));
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Sin fragmentos repetidos (p. ej. una sola muestra) se usa el final de las muestras
+     */
+    private static byte[] tailOfSamples(List<byte[]> samples, int limit) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] sample : samples) {
+            out.writeBytes(sample);
+        }
+        byte[] all = out.toByteArray();
+        int from = Math.max(0, all.length - limit);
+        byte[] dictionary = new byte[all.length - from];
+        System.arraycopy(all, from, dictionary, 0, dictionary.length);
+        return dictionary;
+    }
+}
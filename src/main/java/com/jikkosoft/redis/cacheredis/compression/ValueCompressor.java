@@ -0,0 +1,304 @@
+package com.jikkosoft.redis.cacheredis.compression;
+
+import com.jikkosoft.redis.cacheredis.codec.CacheEntryCodec;
+import com.jikkosoft.redis.cacheredis.codec.CompressedValue;
+import com.jikkosoft.redis.cacheredis.codec.EncodedValue;
+import com.jikkosoft.redis.cacheredis.codec.EntryFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresión transparente de valores grandes en el camino de put/get.
+ * Los valores que superan el umbral se comprimen con Deflate usando, si
+ * existe, el diccionario entrenado para el prefijo de la clave; solo se
+ * guardan comprimidos si realmente ocupan menos. Requiere el formato binario
+ * de entradas.
+ */
+@Component
+public class ValueCompressor {
+
+    private static final int BUFFER_SIZE = 4096;
+    private static final String OTHER_PREFIXES = "(otros)";
+
+    @Autowired
+    private CompressionDictionaries dictionaries;
+
+    @Value("${cache.compression.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${cache.compression.threshold-bytes:1024}")
+    private int thresholdBytes = 1024;
+
+    @Value("${cache.compression.level:6}")
+    private int level = 6;
+
+    // Prefijos con estadísticas propias; los demás sin diccionario se suman en "(otros)"
+    @Value("${cache.compression.max-stat-prefixes:256}")
+    private int maxStatPrefixes = 256;
+
+    @Value("${cache.codec.format:BINARY}")
+    private EntryFormat entryFormat = EntryFormat.BINARY;
+
+    private final CacheEntryCodec codec = new CacheEntryCodec();
+    private final Map<String, PrefixStats> stats = new ConcurrentHashMap<>();
+
+    // Deflater/Inflater libres que se conservan; el resto se libera al devolverlo
+    @Value("${cache.compression.pool-size:16}")
+    private int poolSize = 16;
+
+    // Deflater/Inflater reservan memoria nativa: se reutilizan desde un pool
+    // compartido y no por hilo, que con hilos virtuales sería uno por solicitud
+    private final Pool<Deflater> deflaters = new Pool<>(() -> new Deflater(level), Deflater::end);
+    private final Pool<Inflater> inflaters = new Pool<>(Inflater::new, Inflater::end);
+
+    /**
+     * Valor a guardar para la clave: comprimido si supera el umbral y se
+     * reduce, o ya serializado para no volver a convertirlo a JSON
+     */
+    public Object compress(String key, Object value) {
+        if (!enabled || entryFormat != EntryFormat.BINARY || value == null) {
+            return value;
+        }
+        if (value instanceof String text && text.length() < thresholdBytes / 3) {
+            return value; // UTF-8 ocupa como mucho 3 bytes por char: seguro bajo el umbral
+        }
+        EncodedValue encoded = codec.encodeValue(value);
+        byte[] raw = encoded.bytes();
+        if (raw.length < thresholdBytes) {
+            return encoded;
+        }
+
+        String prefix = dictionaries.prefixOf(key);
+        PrefixStats prefixStats = statsFor(prefix);
+        long start = System.nanoTime();
+        Integer dictionaryId = dictionaries.dictionaryIdFor(prefix);
+        byte[] dictionary = dictionaryId != null ? dictionaries.get(dictionaryId) : null;
+        byte[] compressed = deflate(raw, dictionary);
+        prefixStats.compressNanos.add(System.nanoTime() - start);
+
+        if (compressed.length >= raw.length) {
+            prefixStats.incompressible.increment();
+            return encoded;
+        }
+        prefixStats.compressed.increment();
+        prefixStats.bytesIn.add(raw.length);
+        prefixStats.bytesOut.add(compressed.length);
+        if (dictionary != null) {
+            prefixStats.withDictionary.increment();
+        }
+        return new CompressedValue(encoded.type(), raw.length, compressed);
+    }
+
+    /**
+     * Valor original si estaba comprimido; cualquier otro se devuelve tal cual
+     */
+    public Object decompress(String key, Object value) {
+        if (!(value instanceof CompressedValue compressed)) {
+            return value;
+        }
+        long start = System.nanoTime();
+        byte[] raw = inflate(compressed);
+        PrefixStats prefixStats = statsFor(dictionaries.prefixOf(key));
+        prefixStats.decompressed.increment();
+        prefixStats.decompressNanos.add(System.nanoTime() - start);
+        return codec.decodeValue(compressed.originalType(), raw);
+    }
+
+    /**
+     * Estadísticas del prefijo. Los prefijos salen de claves arbitrarias, así
+     * que pasado el tope solo se agregan los que tienen diccionario entrenado
+     * y el resto se acumula en un único grupo.
+     */
+    private PrefixStats statsFor(String prefix) {
+        PrefixStats existing = stats.get(prefix);
+        if (existing != null) {
+            return existing;
+        }
+        if (stats.size() >= maxStatPrefixes && dictionaries.dictionaryIdFor(prefix) == null) {
+            return stats.computeIfAbsent(OTHER_PREFIXES, p -> new PrefixStats());
+        }
+        return stats.computeIfAbsent(prefix, p -> new PrefixStats());
+    }
+
+    /**
+     * Entrena y publica un diccionario para el prefijo con hasta
+     * {@code sampleSize} valores existentes
+     */
+    public Map<String, Object> train(String prefix, int sampleSize) {
+        List<byte[]> samples = new ArrayList<>();
+        for (byte[] stored : dictionaries.sample(prefix, sampleSize)) {
+            try {
+                Object value = codec.decode(stored).getValue();
+                samples.add(value instanceof CompressedValue compressed
+                        ? inflate(compressed) : codec.encodeValue(value).bytes());
+            } catch (RuntimeException e) {
+                // Valores que no son entradas del caché no sirven de muestra
+            }
+        }
+        if (samples.isEmpty()) {
+            throw new IllegalArgumentException("No hay valores con prefijo '" + prefix + "' para entrenar");
+        }
+
+        byte[] dictionary = DictionaryTrainer.train(samples, DictionaryTrainer.MAX_DICTIONARY_SIZE);
+        int id = dictionaries.publish(prefix, dictionary);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("prefix", prefix);
+        result.put("dictionaryId", Integer.toHexString(id));
+        result.put("dictionaryBytes", dictionary.length);
+        result.put("samples", samples.size());
+        return result;
+    }
+
+    /**
+     * Ratio de compresión y costo de CPU por prefijo
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> prefixes = new TreeMap<>();
+        Map<String, Integer> trained = dictionaries.getPrefixDictionaries();
+        stats.forEach((prefix, prefixStats) -> prefixes.put(prefix.isEmpty() ? "(sin prefijo)" : prefix,
+                prefixStats.toMap(trained.get(prefix))));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled && entryFormat == EntryFormat.BINARY);
+        result.put("thresholdBytes", thresholdBytes);
+        result.put("level", level);
+        result.put("prefixes", prefixes);
+        return result;
+    }
+
+    private byte[] deflate(byte[] input, byte[] dictionary) {
+        Deflater deflater = deflaters.borrow();
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(input);
+            deflater.finish();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2 + 16);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int written = deflater.deflate(buffer);
+                out.write(buffer, 0, written);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.reset();
+            deflaters.release(deflater, poolSize);
+        }
+    }
+
+    private byte[] inflate(CompressedValue compressed) {
+        Inflater inflater = inflaters.borrow();
+        try {
+            inflater.setInput(compressed.data());
+            byte[] output = new byte[compressed.originalLength()];
+            int offset = 0;
+            while (offset < output.length) {
+                int read = inflater.inflate(output, offset, output.length - offset);
+                if (read == 0) {
+                    if (inflater.needsDictionary()) {
+                        byte[] dictionary = dictionaries.get(inflater.getAdler());
+                        if (dictionary == null) {
+                            throw new IllegalStateException("Diccionario no disponible: "
+                                    + Integer.toHexString(inflater.getAdler()));
+                        }
+                        inflater.setDictionary(dictionary);
+                    } else if (inflater.finished() || inflater.needsInput()) {
+                        throw new IllegalArgumentException("Valor comprimido truncado");
+                    }
+                }
+                offset += read;
+            }
+            return output;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Valor comprimido inválido", e);
+        } finally {
+            inflater.reset();
+            inflaters.release(inflater, poolSize);
+        }
+    }
+
+    /**
+     * Pool sin locks de objetos con memoria nativa: si está vacío se crea uno
+     * nuevo, y si al devolverlo ya hay {@code capacity} libres se libera
+     */
+    private static final class Pool<T> {
+        private final ConcurrentLinkedQueue<T> idle = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger idleCount = new AtomicInteger();
+        private final Supplier<T> factory;
+        private final Consumer<T> destroyer;
+
+        Pool(Supplier<T> factory, Consumer<T> destroyer) {
+            this.factory = factory;
+            this.destroyer = destroyer;
+        }
+
+        T borrow() {
+            T item = idle.poll();
+            if (item == null) {
+                return factory.get();
+            }
+            idleCount.decrementAndGet();
+            return item;
+        }
+
+        void release(T item, int capacity) {
+            if (idleCount.incrementAndGet() <= capacity) {
+                idle.offer(item);
+            } else {
+                idleCount.decrementAndGet();
+                destroyer.accept(item);
+            }
+        }
+    }
+
+    private static final class PrefixStats {
+        final LongAdder compressed = new LongAdder();
+        final LongAdder incompressible = new LongAdder();
+        final LongAdder withDictionary = new LongAdder();
+        final LongAdder bytesIn = new LongAdder();
+        final LongAdder bytesOut = new LongAdder();
+        final LongAdder compressNanos = new LongAdder();
+        final LongAdder decompressed = new LongAdder();
+        final LongAdder decompressNanos = new LongAdder();
+
+        Map<String, Object> toMap(Integer dictionaryId) {
+            long in = bytesIn.sum();
+            long out = bytesOut.sum();
+            long attempts = compressed.sum() + incompressible.sum();
+            long reads = decompressed.sum();
+
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("dictionaryId", dictionaryId != null ? Integer.toHexString(dictionaryId) : null);
+            map.put("compressed", compressed.sum());
+            map.put("incompressible", incompressible.sum());
+            map.put("withDictionary", withDictionary.sum());
+            map.put("bytesIn", in);
+            map.put("bytesOut", out);
+            map.put("ratio", out == 0 ? 0.0 : (double) in / out);
+            map.put("avgCompressMicros", attempts == 0 ? 0.0 : compressNanos.sum() / 1000.0 / attempts);
+            map.put("decompressed", reads);
+            map.put("avgDecompressMicros", reads == 0 ? 0.0 : decompressNanos.sum() / 1000.0 / reads);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.jikkosoft.redis.cacheredis.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Nodos Redis del clúster, configurados como lista:
+ * cache.redis.nodes[0].id=node1, cache.redis.nodes[0].host=..., cache.redis.nodes[0].port=...
+ */
+@ConfigurationProperties(prefix = "cache.redis")
+public class CacheNodesProperties {
+
+    private List<Node> nodes = new ArrayList<>(List.of(
+            new Node("node1", "localhost", 6379, 1.0),
+            new Node("node2", "localhost", 6380, 1.0)));
+
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    public void setNodes(List<Node> nodes) {
+        this.nodes = nodes;
+    }
+
+    public List<String> getNodeIds() {
+        return nodes.stream().map(Node::id).toList();
+    }
+
+    /**
+     * Nodo físico Redis. El peso escala sus nodos virtuales en el ring
+     * (p. ej. 2.0 para una instancia con el doble de maxmemory/CPU).
+     */
+    public record Node(String id, String host, int port, Double weight) {
+        public Node {
+            if (weight == null) {
+                weight = 1.0;
+            }
+            if (weight <= 0) {
+                throw new IllegalArgumentException("El peso del nodo debe ser positivo");
+            }
+            if (id == null || id.isBlank()) {
+                throw new IllegalArgumentException("El id del nodo no puede estar vacío");
+            }
+            if (host == null || host.isBlank()) {
+                throw new IllegalArgumentException("El host del nodo no puede estar vacío");
+            }
+            if (port <= 0 || port > 65535) {
+                throw new IllegalArgumentException("Puerto inválido: " + port);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.jikkosoft.redis.cacheredis.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Pool para operaciones que se reparten en paralelo entre los nodos Redis.
+ * Con spring.threads.virtual.enabled=true (Java 21+) cada tarea corre en un
+ * hilo virtual: el reparto a réplicas no queda limitado por el tamaño del
+ * pool, sino por las conexiones Jedis de cada nodo.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${cache.executor.threads:16}")
+    private int threads;
+
+    @Value("${cache.executor.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${cache.read.hedge.max-threads:256}")
+    private int hedgeThreads;
+
+    @Value("${cache.scan.export.threads:8}")
+    private int scanThreads;
+
+    @Bean("cacheNodeExecutor")
+    public AsyncTaskExecutor cacheNodeExecutor(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return virtualThreads("cache-node-", SimpleAsyncTaskExecutor.UNBOUNDED_CONCURRENCY);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("cache-node-");
+        // Con la cola llena el llamador ejecuta la tarea en vez de fallar
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Hilos de los recorridos de exportación; duran minutos, así que no
+     * ocupan el pool de las operaciones por nodo
+     */
+    @Bean("cacheScanExecutor")
+    public AsyncTaskExecutor cacheScanExecutor(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // Se conserva el tope: cada recorrido mantiene una conexión por nodo
+            return virtualThreads("cache-scan-", scanThreads);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(scanThreads);
+        executor.setMaxPoolSize(scanThreads);
+        executor.setThreadNamePrefix("cache-scan-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Lecturas con hedge: sin cola (entrega directa a un hilo), para que la
+     * espera hasta el p95 no incluya tiempo encolado detrás de otras
+     * operaciones. Si se agotan los hilos la lectura corre en el llamador.
+     */
+    @Bean("cacheHedgeExecutor")
+    public AsyncTaskExecutor cacheHedgeExecutor(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return virtualThreads("cache-hedge-", SimpleAsyncTaskExecutor.UNBOUNDED_CONCURRENCY);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(0);
+        executor.setMaxPoolSize(hedgeThreads);
+        executor.setQueueCapacity(0);
+        executor.setKeepAliveSeconds(60);
+        executor.setThreadNamePrefix("cache-hedge-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    private static SimpleAsyncTaskExecutor virtualThreads(String prefix, int concurrencyLimit) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(prefix);
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyLimit);
+        return executor;
+    }
+}
@@ -0,0 +1,102 @@
+package com.jikkosoft.redis.cacheredis.config;
+
+import com.jikkosoft.redis.cacheredis.bloom.KeyFilter;
+import com.jikkosoft.redis.cacheredis.hotkey.HotKeyTracker;
+import com.jikkosoft.redis.cacheredis.near.InvalidationListener;
+import com.jikkosoft.redis.cacheredis.near.NearCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.backoff.BackOffExecution;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Suscripción al canal de invalidación. La usan la caché local, las copias
+ * de claves calientes y el filtro de Bloom, así que se registra si
+ * cualquiera de ellos está habilitado.
+ */
+@Configuration
+@ConditionalOnExpression("${cache.near.enabled:false} or ${cache.hotkeys.enabled:true} or ${cache.bloom.enabled:false}")
+public class NearCacheConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearCacheConfig.class);
+
+    @Autowired
+    private Map<String, RedisTemplate<String, Object>> redisTemplateMap;
+
+    private InvalidationContainer container;
+
+    @Bean
+    public RedisMessageListenerContainer nearCacheListenerContainer(NearCache nearCache, HotKeyTracker hotKeys,
+                                                                 KeyFilter keyFilter) {
+
+        RedisTemplate<String, Object> template = redisTemplateMap.get(nearCache.getInvalidationNode());
+        if (template == null) {
+            throw new IllegalStateException("Nodo de invalidación no válido: " + nearCache.getInvalidationNode());
+        }
+
+        InvalidationListener listener = new InvalidationListener(nearCache, hotKeys, keyFilter);
+        container = new InvalidationContainer(listener);
+        container.setConnectionFactory(template.getConnectionFactory());
+        container.addMessageListener(listener, new ChannelTopic(nearCache.getInvalidationChannel()));
+        // El resto de las instancias publica aunque la caché local esté deshabilitada
+        nearCache.enableBroadcast();
+        return container;
+    }
+
+    /**
+     * Reintenta la suscripción si no se pudo establecer al arrancar; las
+     * caídas posteriores las recupera el propio contenedor
+     */
+    @Scheduled(fixedDelayString = "${cache.near.resubscribe-interval-ms:30000}")
+    public void resubscribe() {
+        if (container != null && container.startFailed) {
+            container.stop();
+            container.start();
+        }
+    }
+
+    /**
+     * Contenedor que avisa la pérdida de la suscripción y no impide
+     * arrancar si el nodo de invalidación no responde
+     */
+    private static final class InvalidationContainer extends RedisMessageListenerContainer {
+
+        private final InvalidationListener listener;
+        private volatile boolean startFailed;
+
+        private InvalidationContainer(InvalidationListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void start() {
+            try {
+                super.start();
+                startFailed = false;
+            } catch (RuntimeException e) {
+                // Sin suscripción no se guardan copias calientes ni se cortan lecturas con el filtro
+                startFailed = true;
+                listener.onConnectionLost();
+                NearCacheConfig.logger.warn("No se pudo suscribir al canal de invalidación: {}", e.getMessage());
+            }
+        }
+
+        @Override
+        protected void handleSubscriptionException(CompletableFuture<Void> future, BackOffExecution backOffExecution,
+                                                   Throwable ex) {
+            // Lo publicado hasta reconectar se pierde
+            listener.onConnectionLost();
+            super.handleSubscriptionException(future, backOffExecution, ex);
+        }
+    }
+}
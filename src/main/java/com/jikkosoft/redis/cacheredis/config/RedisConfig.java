@@ -1,114 +1,67 @@
 package com.jikkosoft.redis.cacheredis.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.json.JsonMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
-import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
-import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
-import org.springframework.data.redis.serializer.StringRedisSerializer;
 
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Configuration
+@EnableConfigurationProperties(CacheNodesProperties.class)
 public class RedisConfig {
 
-    @Value("${cache.redis.node1.host:localhost}")
-    private String node1Host;
+    @Autowired
+    private CacheNodesProperties nodesProperties;
 
-    @Value("${cache.redis.node1.port:6379}")
-    private int node1Port;
-
-    @Value("${cache.redis.node2.host:localhost}")
-    private String node2Host;
-
-    @Value("${cache.redis.node2.port:6380}")
-    private int node2Port;
+    @Autowired
+    private RedisNodeFactory nodeFactory;
 
     /**
-     * Factory para conexión Redis Nodo 1
+     * Factory para conexión Redis del primer nodo configurado
+     * (usada también por Spring Session y la auto-configuración)
      */
-    @Bean("redisConnectionFactoryNode1")
+    @Bean("redisConnectionFactory")
     @Primary
-    public RedisConnectionFactory redisConnectionFactoryNode1() {
-        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration();
-        config.setHostName(node1Host);
-        config.setPort(node1Port);
-        return new JedisConnectionFactory(config);
+    public RedisConnectionFactory redisConnectionFactory() {
+        return nodeFactory.createConnectionFactory(firstNode());
     }
 
     /**
-     * Factory para conexión Redis Nodo 2
+     * RedisTemplate para el primer nodo configurado
      */
-    @Bean("redisConnectionFactoryNode2")
-    public RedisConnectionFactory redisConnectionFactoryNode2() {
-        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration();
-        config.setHostName(node2Host);
-        config.setPort(node2Port);
-        return new JedisConnectionFactory(config);
-    }
-
-    /**
-     * RedisTemplate para Nodo 1
-     */
-    @Bean("redisTemplateNode1")
+    @Bean("redisTemplatePrimary")
     @Primary
-    public RedisTemplate<String, Object> redisTemplateNode1() {
-        return createRedisTemplate(redisConnectionFactoryNode1());
+    public RedisTemplate<String, Object> redisTemplatePrimary() {
+        return nodeFactory.createRedisTemplate(redisConnectionFactory());
     }
 
     /**
-     * RedisTemplate para Nodo 2
-     */
-    @Bean("redisTemplateNode2")
-    public RedisTemplate<String, Object> redisTemplateNode2() {
-        return createRedisTemplate(redisConnectionFactoryNode2());
-    }
-
-    /**
-     * Mapa de templates Redis para acceso por nodo
+     * Mapa de templates Redis para acceso por nodo.
+     * Es mutable: los nodos agregados o retirados en caliente se reflejan aquí.
      */
     @Bean("redisTemplateMap")
     public Map<String, RedisTemplate<String, Object>> redisTemplateMap() {
-        Map<String, RedisTemplate<String, Object>> templateMap = new HashMap<>();
-        templateMap.put("node1", redisTemplateNode1());
-        templateMap.put("node2", redisTemplateNode2());
+        Map<String, RedisTemplate<String, Object>> templateMap = new ConcurrentHashMap<>();
+        List<CacheNodesProperties.Node> nodes = nodesProperties.getNodes();
+
+        templateMap.put(firstNode().id(), redisTemplatePrimary());
+        for (CacheNodesProperties.Node node : nodes.subList(1, nodes.size())) {
+            templateMap.put(node.id(), nodeFactory.createRedisTemplate(
+                    nodeFactory.createStartedConnectionFactory(node)));
+        }
         return templateMap;
     }
 
-    /**
-     * Crea y configura un RedisTemplate con serializadores apropiados
-     */
-    private RedisTemplate<String, Object> createRedisTemplate(RedisConnectionFactory connectionFactory) {
-        RedisTemplate<String, Object> template = new RedisTemplate<>();
-        template.setConnectionFactory(connectionFactory);
-
-        ObjectMapper objectMapper = JsonMapper.builder()
-                .addModule(new JavaTimeModule())
-                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
-                .build();
-
-        // Configurar serializers
-        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(objectMapper);
-
-        // Configurar serializadores
-        template.setKeySerializer(new StringRedisSerializer());
-        template.setHashKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(serializer);
-        template.setHashValueSerializer(serializer);
-
-        template.setEnableTransactionSupport(true);
-
-        template.afterPropertiesSet();
-        return template;
+    private CacheNodesProperties.Node firstNode() {
+        if (nodesProperties.getNodes().isEmpty()) {
+            throw new IllegalStateException("Debe configurarse al menos un nodo en cache.redis.nodes");
+        }
+        return nodesProperties.getNodes().get(0);
     }
 }
@@ -0,0 +1,113 @@
+package com.jikkosoft.redis.cacheredis.config;
+
+import com.jikkosoft.redis.cacheredis.codec.CacheEntryCodec;
+import com.jikkosoft.redis.cacheredis.codec.CacheValueSerializer;
+import com.jikkosoft.redis.cacheredis.codec.EntryFormat;
+import com.jikkosoft.redis.cacheredis.metrics.CacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.JedisPoolConfig;
+
+import java.time.Duration;
+
+/**
+ * Crea conexiones y templates para nodos Redis, tanto los configurados
+ * al arrancar como los que se agregan en caliente
+ */
+@Component
+public class RedisNodeFactory {
+
+    @Value("${cache.codec.format:BINARY}")
+    private EntryFormat entryFormat = EntryFormat.BINARY;
+
+    // Conexiones por nodo: con hilos virtuales el pool, no el número de hilos,
+    // es el límite real de concurrencia hacia cada Redis
+    @Value("${cache.redis.pool.max-total:32}")
+    private int poolMaxTotal = 32;
+
+    @Value("${cache.redis.pool.max-idle:32}")
+    private int poolMaxIdle = 32;
+
+    @Value("${cache.redis.pool.min-idle:0}")
+    private int poolMinIdle = 0;
+
+    // Espera acotada al pedir conexión: mejor fallar rápido que acumular hilos en la cola del pool
+    @Value("${cache.redis.pool.max-wait-ms:500}")
+    private long poolMaxWaitMs = 500;
+
+    @Autowired
+    private CacheMetrics metrics;
+
+    private final CacheEntryCodec codec = new CacheEntryCodec();
+
+    /**
+     * Factory de conexiones para un nodo (sin inicializar)
+     */
+    public JedisConnectionFactory createConnectionFactory(CacheNodesProperties.Node node) {
+        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration();
+        config.setHostName(node.host());
+        config.setPort(node.port());
+        return new JedisConnectionFactory(config, JedisClientConfiguration.builder()
+                .usePooling()
+                .poolConfig(poolConfig())
+                .build());
+    }
+
+    private JedisPoolConfig poolConfig() {
+        JedisPoolConfig pool = new JedisPoolConfig();
+        pool.setMaxTotal(poolMaxTotal);
+        pool.setMaxIdle(Math.min(poolMaxIdle, poolMaxTotal));
+        pool.setMinIdle(Math.min(poolMinIdle, poolMaxTotal));
+        pool.setMaxWait(Duration.ofMillis(poolMaxWaitMs));
+        return pool;
+    }
+
+    /**
+     * Factory de conexiones inicializada y arrancada, para nodos que no son beans de Spring
+     */
+    public JedisConnectionFactory createStartedConnectionFactory(CacheNodesProperties.Node node) {
+        JedisConnectionFactory factory = createConnectionFactory(node);
+        factory.afterPropertiesSet();
+        factory.start();
+        return factory;
+    }
+
+    /**
+     * Crea y configura un RedisTemplate con serializadores apropiados
+     */
+    public RedisTemplate<String, Object> createRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+
+        // Entradas en binario (o JSON) según cache.codec.format; la lectura detecta ambos
+        CacheValueSerializer serializer = new CacheValueSerializer(codec, entryFormat,
+                metrics::recordWrittenBytes, metrics::recordReadBytes);
+
+        // Configurar serializadores
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setHashKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(serializer);
+        template.setHashValueSerializer(serializer);
+
+        template.setEnableTransactionSupport(true);
+
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    /**
+     * Cierra las conexiones de un nodo retirado del clúster
+     */
+    public void destroy(RedisTemplate<String, Object> template) {
+        if (template.getConnectionFactory() instanceof JedisConnectionFactory factory) {
+            factory.destroy();
+        }
+    }
+}
@@ -1,13 +1,30 @@
 package com.jikkosoft.redis.cacheredis.controller;
 
+import com.jikkosoft.redis.cacheredis.blob.BlobManifest;
+import com.jikkosoft.redis.cacheredis.hotkey.HotKey;
+import com.jikkosoft.redis.cacheredis.model.BatchGetRequest;
+import com.jikkosoft.redis.cacheredis.model.BatchItemResult;
+import com.jikkosoft.redis.cacheredis.model.BatchPutRequest;
 import com.jikkosoft.redis.cacheredis.model.CachePutRequest;
 import com.jikkosoft.redis.cacheredis.model.CacheResponse;
+import com.jikkosoft.redis.cacheredis.model.ImportRequest;
+import com.jikkosoft.redis.cacheredis.model.ImportStatus;
+import com.jikkosoft.redis.cacheredis.model.PutResult;
+import com.jikkosoft.redis.cacheredis.scan.ClusterScanner;
+import com.jikkosoft.redis.cacheredis.scan.ScanPage;
 import com.jikkosoft.redis.cacheredis.service.DistributedCacheService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -26,21 +43,68 @@ public class CacheController {
      * POST /api/cache/{key}
      */
     @PostMapping("/{key}")
-    public ResponseEntity<CacheResponse<Void>> put(
+    public ResponseEntity<CacheResponse<PutResult>> put(
             @PathVariable String key,
             @RequestBody CachePutRequest request) {
 
         try {
-            cacheService.put(key, request.value(), request.ttlSeconds());
+            PutResult result = cacheService.put(key, request.value(), request.ttlSeconds());
             return ResponseEntity.ok(
-                    CacheResponse.success("Valor almacenado exitosamente", null)
+                    CacheResponse.success("Valor almacenado exitosamente", result)
             );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(CacheResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(CacheResponse.error("Error almacenando valor: " + e.getMessage()));
         }
     }
 
+    /**
+     * Recuperar varias claves en una sola llamada
+     * POST /api/cache/_mget
+     */
+    @PostMapping("/_mget")
+    public ResponseEntity<CacheResponse<List<BatchItemResult>>> multiGet(
+            @RequestBody BatchGetRequest request) {
+
+        try {
+            List<BatchItemResult> results = cacheService.multiGet(request.keys());
+            return ResponseEntity.ok(
+                    CacheResponse.success("Batch procesado", results)
+            );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(CacheResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(CacheResponse.error("Error recuperando batch: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Almacenar varias claves en una sola llamada
+     * POST /api/cache/_mput
+     */
+    @PostMapping("/_mput")
+    public ResponseEntity<CacheResponse<List<BatchItemResult>>> multiPut(
+            @RequestBody BatchPutRequest request) {
+
+        try {
+            List<BatchItemResult> results = cacheService.multiPut(request.items());
+            return ResponseEntity.ok(
+                    CacheResponse.success("Batch procesado", results)
+            );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(CacheResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(CacheResponse.error("Error almacenando batch: " + e.getMessage()));
+        }
+    }
+
     /**
      * Recuperar un valor del caché
      * GET /api/cache/{key}
@@ -58,6 +122,9 @@ public class CacheController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(CacheResponse.error("Clave no encontrada o expirada"));
             }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(CacheResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(CacheResponse.error("Error recuperando valor: " + e.getMessage()));
@@ -81,6 +148,9 @@ public class CacheController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(CacheResponse.error("Clave no encontrada"));
             }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(CacheResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(CacheResponse.error("Error eliminando clave: " + e.getMessage()));
@@ -97,21 +167,260 @@ public class CacheController {
             boolean exists = cacheService.exists(key);
             return exists ? ResponseEntity.ok().build()
                     : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Almacenar un valor grande como bytes crudos, leído en streaming
+     * PUT /api/cache/blobs/{key}?ttlSeconds=3600
+     */
+    @PutMapping("/blobs/{key}")
+    public ResponseEntity<CacheResponse<Map<String, Object>>> putBlob(
+            @PathVariable String key,
+            @RequestParam(required = false) Long ttlSeconds,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            InputStream body) {
+
+        try {
+            BlobManifest manifest = cacheService.putBlob(key, body, contentType, ttlSeconds);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("key", key);
+            result.put("size", manifest.size());
+            result.put("chunks", manifest.chunks());
+            result.put("version", manifest.version());
+            return ResponseEntity.ok(
+                    CacheResponse.success("Valor almacenado exitosamente", result)
+            );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(CacheResponse.error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(CacheResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(CacheResponse.error("Error almacenando valor: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Recuperar un valor grande en streaming; admite un rango de bytes (Range)
+     * GET /api/cache/blobs/{key}
+     */
+    @GetMapping("/blobs/{key}")
+    public ResponseEntity<StreamingResponseBody> getBlob(
+            @PathVariable String key,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+
+        BlobManifest manifest;
+        try {
+            Optional<BlobManifest> found = cacheService.openBlob(key);
+            if (found.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            manifest = found.get();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
+
+        long size = manifest.size();
+        HttpStatus status = HttpStatus.OK;
+        long from = 0;
+        long to = size - 1;
+        if (range != null && size > 0) {
+            try {
+                HttpRange requested = HttpRange.parseRanges(range).get(0);
+                from = requested.getRangeStart(size);
+                to = requested.getRangeEnd(size);
+                status = HttpStatus.PARTIAL_CONTENT;
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                        .build();
+            }
+        }
+
+        long start = from;
+        long end = to;
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status)
+                .contentType(MediaType.parseMediaType(manifest.contentType()))
+                .contentLength(size == 0 ? 0 : end - start + 1)
+                .eTag(manifest.version())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (status == HttpStatus.PARTIAL_CONTENT) {
+            response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+        return response.body(out -> {
+            if (size > 0) {
+                cacheService.readBlob(manifest, start, end, out);
+            }
+        });
+    }
+
+    /**
+     * Eliminar un valor grande con todos sus chunks
+     * DELETE /api/cache/blobs/{key}
+     */
+    @DeleteMapping("/blobs/{key}")
+    public ResponseEntity<CacheResponse<Boolean>> deleteBlob(@PathVariable String key) {
+        try {
+            boolean deleted = cacheService.deleteBlob(key);
+
+            if (deleted) {
+                return ResponseEntity.ok(
+                        CacheResponse.success("Clave eliminada exitosamente", true)
+                );
+            } else {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(CacheResponse.error("Clave no encontrada"));
+            }
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(CacheResponse.error("Error eliminando clave: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Obtener subidas, descargas y bytes transferidos de valores grandes
+     * GET /api/cache/blobs/_stats
+     */
+    @GetMapping("/blobs/_stats")
+    public ResponseEntity<CacheResponse<Map<String, Object>>> getBlobStats() {
+        return ResponseEntity.ok(
+                CacheResponse.success("Estadísticas obtenidas", cacheService.getBlobStats())
+        );
+    }
+
+    /**
+     * Recorrer el clúster por páginas en NDJSON; el cursor siguiente va en
+     * el header X-Cache-Cursor y es "0" al terminar
+     * GET /api/cache/_scan?prefix=user:&cursor=0&count=100
+     */
+    @GetMapping("/_scan")
+    public ResponseEntity<StreamingResponseBody> scan(
+            @RequestParam(defaultValue = "") String prefix,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer count) {
+
+        ScanPage page;
+        try {
+            page = cacheService.scan(prefix, cursor, count);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header("X-Cache-Cursor", page.cursor())
+                .body(out -> cacheService.writeScanPage(page, out));
+    }
+
+    /**
+     * Exportar todas las claves con el prefijo en NDJSON, en streaming
+     * GET /api/cache/_export?prefix=user:
+     */
+    @GetMapping("/_export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "") String prefix) {
+        ClusterScanner.Export export;
+        try {
+            export = cacheService.beginExport(prefix);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(export::writeTo);
+    }
+
+    /**
+     * Precargar el caché desde un snapshot NDJSON del directorio de snapshots
+     * POST /api/cache/_import
+     */
+    @PostMapping("/_import")
+    public ResponseEntity<CacheResponse<ImportStatus>> startImport(@RequestBody ImportRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(
+                    CacheResponse.success("Precarga iniciada", cacheService.startImport(request))
+            );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(CacheResponse.error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(CacheResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(CacheResponse.error("Error iniciando precarga: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Progreso y ETA de la precarga
+     * GET /api/cache/_import/status
+     */
+    @GetMapping("/_import/status")
+    public ResponseEntity<CacheResponse<ImportStatus>> getImportStatus() {
+        return ResponseEntity.ok(
+                CacheResponse.success("Estado de precarga", cacheService.getImportStatus())
+        );
+    }
+
+    /**
+     * Obtener páginas servidas y claves exportadas
+     * GET /api/cache/_scan/stats
+     */
+    @GetMapping("/_scan/stats")
+    public ResponseEntity<CacheResponse<Map<String, Object>>> getScanStats() {
+        return ResponseEntity.ok(
+                CacheResponse.success("Estadísticas obtenidas", cacheService.getScanStats())
+        );
+    }
+
+    /**
+     * Claves con más tráfico, su QPS y cuáles se sirven como calientes
+     * GET /api/cache/hotkeys?limit=20
+     */
+    @GetMapping("/hotkeys")
+    public ResponseEntity<CacheResponse<Map<String, Object>>> getHotKeys(
+            @RequestParam(defaultValue = "20") int limit) {
+
+        Map<String, Object> body = new LinkedHashMap<>(cacheService.getHotKeyStats());
+        body.put("top", cacheService.getHotKeys(Math.max(limit, 0)));
+        return ResponseEntity.ok(
+                CacheResponse.success("Claves calientes obtenidas", body)
+        );
+    }
+
+    /**
+     * Obtener totales del clúster y la última muestra de cada nodo
+     * GET /api/cache/stats?history=false
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<CacheResponse<Map<String, Object>>> getClusterStats(
+            @RequestParam(defaultValue = "false") boolean history) {
+        return ResponseEntity.ok(
+                CacheResponse.success("Estadísticas obtenidas", cacheService.getClusterStats(history))
+        );
     }
 
     /**
      * Obtener estadísticas de un nodo
-     * GET /api/cache/stats/{nodeId}
+     * GET /api/cache/stats/{nodeId}?history=false
      */
     @GetMapping("/stats/{nodeId}")
     public ResponseEntity<CacheResponse<Map<String, Object>>> getNodeStats(
-            @PathVariable String nodeId) {
+            @PathVariable String nodeId,
+            @RequestParam(defaultValue = "false") boolean history) {
 
         try {
-            Map<String, Object> stats = cacheService.getNodeStats(nodeId);
+            Map<String, Object> stats = cacheService.getNodeStats(nodeId, history);
             return ResponseEntity.ok(
                     CacheResponse.success("Estadísticas obtenidas", stats)
             );
@@ -124,6 +433,109 @@ public class CacheController {
         }
     }
 
+    /**
+     * Obtener estadísticas de la caché local (L1)
+     * GET /api/cache/near/stats
+     */
+    @GetMapping("/near/stats")
+    public ResponseEntity<CacheResponse<Map<String, Object>>> getNearCacheStats() {
+        return ResponseEntity.ok(
+                CacheResponse.success("Estadísticas obtenidas", cacheService.getNearCacheStats())
+        );
+    }
+
+    /**
+     * Obtener ratio de compresión y costo de CPU por prefijo
+     * GET /api/cache/compression/stats
+     */
+    @GetMapping("/compression/stats")
+    public ResponseEntity<CacheResponse<Map<String, Object>>> getCompressionStats() {
+        return ResponseEntity.ok(
+                CacheResponse.success("Estadísticas obtenidas", cacheService.getCompressionStats())
+        );
+    }
+
+    /**
+     * Entrenar el diccionario de compresión de un prefijo con valores existentes
+     * POST /api/cache/compression/dictionaries/{prefix}?samples=500
+     */
+    @PostMapping("/compression/dictionaries/{prefix}")
+    public ResponseEntity<CacheResponse<Map<String, Object>>> trainCompressionDictionary(
+            @PathVariable String prefix,
+            @RequestParam(defaultValue = "500") int samples) {
+
+        try {
+            Map<String, Object> dictionary = cacheService.trainCompressionDictionary(prefix, samples);
+            return ResponseEntity.ok(
+                    CacheResponse.success("Diccionario entrenado", dictionary)
+            );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(CacheResponse.error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(CacheResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(CacheResponse.error("Error entrenando diccionario: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Obtener memoria por nodo frente al presupuesto y claves expulsadas
+     * GET /api/cache/eviction/stats
+     */
+    @GetMapping("/eviction/stats")
+    public ResponseEntity<CacheResponse<Map<String, Object>>> getEvictionStats() {
+        return ResponseEntity.ok(
+                CacheResponse.success("Estadísticas obtenidas", cacheService.getEvictionStats())
+        );
+    }
+
+    /**
+     * Obtener claves expiradas activamente, memoria liberada y atraso
+     * GET /api/cache/expiry/stats
+     */
+    @GetMapping("/expiry/stats")
+    public ResponseEntity<CacheResponse<Map<String, Object>>> getExpiryStats() {
+        return ResponseEntity.ok(
+                CacheResponse.success("Estadísticas obtenidas", cacheService.getExpiryStats())
+        );
+    }
+
+    /**
+     * Obtener contención y latencia de los locks distribuidos
+     * GET /api/cache/locks/stats
+     */
+    @GetMapping("/locks/stats")
+    public ResponseEntity<CacheResponse<Map<String, Object>>> getLockStats() {
+        return ResponseEntity.ok(
+                CacheResponse.success("Estadísticas obtenidas", cacheService.getLockStats())
+        );
+    }
+
+    /**
+     * Obtener misses resueltos por los filtros de Bloom y su tasa de falsos positivos
+     * GET /api/cache/bloom/stats
+     */
+    @GetMapping("/bloom/stats")
+    public ResponseEntity<CacheResponse<Map<String, Object>>> getKeyFilterStats() {
+        return ResponseEntity.ok(
+                CacheResponse.success("Estadísticas obtenidas", cacheService.getKeyFilterStats())
+        );
+    }
+
+    /**
+     * Obtener latencias de lectura por réplica y efectividad de los hedges
+     * GET /api/cache/routing/stats
+     */
+    @GetMapping("/routing/stats")
+    public ResponseEntity<CacheResponse<Map<String, Object>>> getReadRoutingStats() {
+        return ResponseEntity.ok(
+                CacheResponse.success("Estadísticas obtenidas", cacheService.getReadRoutingStats())
+        );
+    }
+
     /**
      * Limpiar todo el caché distribuido
      * DELETE /api/cache/clear
@@ -0,0 +1,105 @@
+package com.jikkosoft.redis.cacheredis.controller;
+
+import com.jikkosoft.redis.cacheredis.cluster.ClusterMembershipService;
+import com.jikkosoft.redis.cacheredis.config.CacheNodesProperties;
+import com.jikkosoft.redis.cacheredis.model.CacheResponse;
+import com.jikkosoft.redis.cacheredis.model.MigrationStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * API de administración de la membresía del clúster
+ */
+@RestController
+@RequestMapping("/api/cluster")
+public class ClusterController {
+
+    @Autowired
+    private ClusterMembershipService membershipService;
+
+    /**
+     * Listar nodos del ring
+     * GET /api/cluster/nodes
+     */
+    @GetMapping("/nodes")
+    public ResponseEntity<CacheResponse<List<CacheNodesProperties.Node>>> getNodes() {
+        return ResponseEntity.ok(
+                CacheResponse.success("Nodos obtenidos", membershipService.getNodes())
+        );
+    }
+
+    /**
+     * Agregar un nodo en caliente
+     * POST /api/cluster/nodes
+     */
+    @PostMapping("/nodes")
+    public ResponseEntity<CacheResponse<MigrationStatus>> addNode(
+            @RequestBody CacheNodesProperties.Node node) {
+
+        try {
+            membershipService.addNode(node);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(
+                    CacheResponse.success("Nodo agregado, migración iniciada", membershipService.getMigrationStatus())
+            );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(CacheResponse.error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(CacheResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(CacheResponse.error("Error agregando nodo: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Retirar un nodo en caliente
+     * DELETE /api/cluster/nodes/{nodeId}
+     */
+    @DeleteMapping("/nodes/{nodeId}")
+    public ResponseEntity<CacheResponse<MigrationStatus>> removeNode(@PathVariable String nodeId) {
+        try {
+            membershipService.removeNode(nodeId);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(
+                    CacheResponse.success("Nodo retirado, migración iniciada", membershipService.getMigrationStatus())
+            );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(CacheResponse.error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(CacheResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(CacheResponse.error("Error retirando nodo: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Participación en el ring y carga actual por nodo
+     * GET /api/cluster/ring
+     */
+    @GetMapping("/ring")
+    public ResponseEntity<CacheResponse<Map<String, Map<String, Object>>>> getRingStats() {
+        return ResponseEntity.ok(
+                CacheResponse.success("Estadísticas del ring", membershipService.getRingStats())
+        );
+    }
+
+    /**
+     * Progreso de la migración de claves
+     * GET /api/cluster/migration
+     */
+    @GetMapping("/migration")
+    public ResponseEntity<CacheResponse<MigrationStatus>> getMigrationStatus() {
+        return ResponseEntity.ok(
+                CacheResponse.success("Estado de migración", membershipService.getMigrationStatus())
+        );
+    }
+}
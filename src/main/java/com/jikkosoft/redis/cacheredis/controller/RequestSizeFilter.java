@@ -0,0 +1,133 @@
+package com.jikkosoft.redis.cacheredis.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jikkosoft.redis.cacheredis.model.CacheResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Tope del cuerpo de los POST de la API de caché. PUT de un valor y los
+ * batch se deserializan completos en memoria antes de llegar al servicio,
+ * así que un valor de decenas de MB se rechaza aquí con 413 y se indica
+ * usar {@code PUT /api/cache/blobs/{key}}, que lo guarda en streaming.
+ * Con Content-Length se rechaza sin leer; sin él (chunked) la lectura falla
+ * al pasar el tope.
+ */
+@Component
+public class RequestSizeFilter extends OncePerRequestFilter {
+
+    private static final String API_PREFIX = "/api/cache/";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Value("${cache.value.max-request-bytes:4194304}")
+    private long maxRequestBytes = 4_194_304;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return maxRequestBytes <= 0 || !"POST".equals(request.getMethod()) || !path.startsWith(API_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long length = request.getContentLengthLong();
+        if (length > maxRequestBytes) {
+            response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            MAPPER.writeValue(response.getOutputStream(), CacheResponse.error(
+                    "El cuerpo supera el máximo de " + maxRequestBytes
+                            + " bytes; para valores grandes use PUT /api/cache/blobs/{key}"));
+            return;
+        }
+        filterChain.doFilter(length < 0 ? new LimitedRequest(request, maxRequestBytes) : request, response);
+    }
+
+    /**
+     * Request sin Content-Length cuyo cuerpo falla al superar el tope
+     */
+    private static final class LimitedRequest extends HttpServletRequestWrapper {
+
+        private final long limit;
+        private ServletInputStream stream;
+
+        LimitedRequest(HttpServletRequest request, long limit) {
+            super(request);
+            this.limit = limit;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (stream == null) {
+                stream = new LimitedInputStream(super.getInputStream(), limit);
+            }
+            return stream;
+        }
+    }
+
+    private static final class LimitedInputStream extends ServletInputStream {
+
+        private final ServletInputStream delegate;
+        private final long limit;
+        private long read;
+
+        LimitedInputStream(ServletInputStream delegate, long limit) {
+            this.delegate = delegate;
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = delegate.read();
+            if (value >= 0) {
+                count(1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = delegate.read(buffer, offset, length);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) throws IOException {
+            read += n;
+            if (read > limit) {
+                throw new IOException("El cuerpo supera el máximo de " + limit
+                        + " bytes; para valores grandes use PUT /api/cache/blobs/{key}");
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            delegate.setReadListener(listener);
+        }
+    }
+}
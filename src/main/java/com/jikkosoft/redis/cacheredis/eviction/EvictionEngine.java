@@ -0,0 +1,354 @@
+package com.jikkosoft.redis.cacheredis.eviction;
+
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.model.InternalKeys;
+import com.jikkosoft.redis.cacheredis.near.NearCache;
+import com.jikkosoft.redis.cacheredis.script.CacheScripts;
+import com.jikkosoft.redis.cacheredis.sketch.FrequencySketch;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Expulsión híbrida LFU + TTL a nivel de aplicación.
+ * Cada nodo tiene un presupuesto de memoria; cuando lo supera se toman
+ * claves al azar y se expulsan las de menor puntaje, que estima los hits que
+ * se perderían: frecuencia reciente (Count-Min con envejecimiento) por el TTL
+ * restante. La clave elegida se borra de todas sus réplicas a la vez, así las
+ * réplicas no divergen como con la expulsión independiente de cada Redis.
+ *
+ * El sketch se reparte en franjas por clave, cada una con su lock, para que
+ * los accesos concurrentes no pierdan muestras. Con varias instancias de la
+ * aplicación solo una, elegida con un lease en Redis, ejecuta el ciclo.
+ */
+@Component
+public class EvictionEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(EvictionEngine.class);
+
+    private static final int SKETCH_STRIPES = 16;
+    private static final RedisSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    @Autowired
+    private Map<String, RedisTemplate<String, Object>> redisTemplateMap;
+
+    @Autowired
+    private ConsistentHashRing hashRing;
+
+    @Autowired
+    private NearCache nearCache;
+
+    @Value("${cache.eviction.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${cache.eviction.max-memory-bytes:209715200}")
+    private long maxMemoryBytes = 209_715_200;
+
+    @Value("${cache.eviction.sample-size:16}")
+    private int sampleSize = 16;
+
+    @Value("${cache.eviction.max-rounds:64}")
+    private int maxRounds = 64;
+
+    @Value("${cache.eviction.ttl-horizon-seconds:3600}")
+    private long ttlHorizonSeconds = 3600;
+
+    @Value("${cache.eviction.sketch-size:65536}")
+    private int sketchSize = 65536;
+
+    @Value("${cache.eviction.interval-ms:1000}")
+    private long intervalMs = 1000;
+
+    @Value("${cache.eviction.single-evictor:true}")
+    private boolean singleEvictor = true;
+
+    @Value("${cache.replication.factor:2}")
+    private int replicationFactor = 2;
+
+    private FrequencySketch[] sketches;
+    private ReentrantLock[] sketchLocks;
+    private final String instanceId = UUID.randomUUID().toString();
+    private volatile boolean leader;
+
+    private final LongAdder cycles = new LongAdder();
+    private final LongAdder skippedCycles = new LongAdder();
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final Map<String, Long> usedMemory = new ConcurrentHashMap<>();
+    private volatile long lastCycleMicros;
+
+    @PostConstruct
+    public void init() {
+        this.sketches = new FrequencySketch[SKETCH_STRIPES];
+        this.sketchLocks = new ReentrantLock[SKETCH_STRIPES];
+        for (int i = 0; i < SKETCH_STRIPES; i++) {
+            sketches[i] = new FrequencySketch(Math.max(sketchSize / SKETCH_STRIPES, 16));
+            sketchLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Registra un acceso a la clave en el sketch de frecuencia. Cada franja
+     * tiene su lock, así que los accesos concurrentes se reparten sin perder
+     * muestras.
+     */
+    public void recordAccess(String key) {
+        if (!enabled) {
+            return;
+        }
+        int stripe = stripe(key);
+        sketchLocks[stripe].lock();
+        try {
+            sketches[stripe].increment(key);
+        } finally {
+            sketchLocks[stripe].unlock();
+        }
+    }
+
+    /**
+     * Frecuencia reciente estimada (0..15) de la clave
+     */
+    public int frequency(String key) {
+        int stripe = stripe(key);
+        sketchLocks[stripe].lock();
+        try {
+            return sketches[stripe].frequency(key);
+        } finally {
+            sketchLocks[stripe].unlock();
+        }
+    }
+
+    /**
+     * Franja del sketch por los bits altos del hash mezclado, independientes
+     * de los que usa el sketch para elegir sus contadores
+     */
+    private static int stripe(String key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return hash >>> (Integer.SIZE - Integer.numberOfTrailingZeros(SKETCH_STRIPES));
+    }
+
+    /**
+     * Hits esperados que se pierden al expulsar la clave: frecuencia por el
+     * tiempo que le queda, acotado por el horizonte. Una clave a punto de
+     * expirar vale poco aunque sea frecuente.
+     *
+     * @param remainingTtlMillis TTL restante; negativo si no expira
+     */
+    public static double score(int frequency, long remainingTtlMillis, long horizonMillis) {
+        double lifetime = remainingTtlMillis < 0 ? 1.0 : Math.min(1.0, (double) remainingTtlMillis / horizonMillis);
+        return (frequency + 1) * lifetime;
+    }
+
+    /**
+     * Revisa el presupuesto de cada nodo y expulsa hasta volver a cumplirlo
+     */
+    @Scheduled(fixedDelayString = "${cache.eviction.interval-ms:1000}")
+    public void evictCycle() {
+        if (!enabled) {
+            return;
+        }
+        leader = !singleEvictor || electEvictor();
+        if (!leader) {
+            skippedCycles.increment();
+            return;
+        }
+        long start = System.nanoTime();
+        for (String node : hashRing.getAllNodes()) {
+            try {
+                evictNode(node);
+            } catch (Exception e) {
+                logger.warn("Error en expulsión del nodo {}: {}", node, e.getMessage());
+            }
+        }
+        cycles.increment();
+        lastCycleMicros = (System.nanoTime() - start) / 1000;
+    }
+
+    /**
+     * Toma o renueva el lease de líder de la expulsión en el primer nodo de
+     * la clave del líder que responda. El lease dura tres ciclos: si la
+     * instancia líder cae, otra toma el relevo poco después.
+     */
+    private boolean electEvictor() {
+        for (String node : hashRing.getNodes(InternalKeys.EVICTION_LEADER_KEY, replicationFactor)) {
+            RedisTemplate<String, Object> template = redisTemplateMap.get(node);
+            if (template == null) {
+                continue;
+            }
+            try {
+                Long elected = template.execute(CacheScripts.EVICTION_LEADER, RedisSerializer.string(), LONG_SERIALIZER,
+                        List.of(InternalKeys.EVICTION_LEADER_KEY), instanceId, String.valueOf(intervalMs * 3));
+                return elected != null && elected == 1;
+            } catch (Exception e) {
+                logger.warn("Error eligiendo la instancia de expulsión en nodo {}: {}", node, e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Expulsa claves del nodo mientras supere el presupuesto
+     *
+     * @return número de claves expulsadas
+     */
+    public int evictNode(String node) {
+        RedisTemplate<String, Object> template = redisTemplateMap.get(node);
+        if (template == null) {
+            return 0;
+        }
+        long used = usedMemory(template);
+        usedMemory.put(node, used);
+
+        int total = 0;
+        for (int round = 0; round < maxRounds && used > maxMemoryBytes; round++) {
+            List<String> victims = selectVictims(template);
+            if (victims.isEmpty()) {
+                break;
+            }
+            total += evict(node, victims);
+            used = usedMemory(template);
+            usedMemory.put(node, used);
+        }
+        if (total > 0) {
+            logger.info("Nodo {}: {} claves expulsadas, memoria {} de {} bytes", node, total, used, maxMemoryBytes);
+        }
+        return total;
+    }
+
+    /**
+     * Toma una muestra aleatoria del nodo y devuelve la cuarta parte con menor puntaje
+     */
+    private List<String> selectVictims(RedisTemplate<String, Object> template) {
+        List<Object> randomKeys = template.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < sampleSize; i++) {
+                connection.keyCommands().randomKey();
+            }
+            return null;
+        }, RedisSerializer.string());
+
+        Set<String> keys = new LinkedHashSet<>();
+        for (Object key : randomKeys) {
+            // Las claves internas nunca se expulsan; los chunks de un blob sueltos
+            // lo dejarían incompleto, así que los blobs dependen de su TTL
+            if (key instanceof String candidate && !InternalKeys.isInternal(candidate)) {
+                keys.add(candidate);
+            }
+        }
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        sampled.add(keys.size());
+
+        List<String> candidates = new ArrayList<>(keys);
+        List<Object> ttls = template.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : candidates) {
+                connection.keyCommands().pTtl(key.getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+
+        long horizonMillis = ttlHorizonSeconds * 1000;
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            long ttl = ttls.get(i) instanceof Long value ? value : -1;
+            if (ttl == -2) {
+                continue; // Expiró entre las dos consultas
+            }
+            scores.put(candidates.get(i), score(frequency(candidates.get(i)), ttl, horizonMillis));
+        }
+
+        int count = Math.max(1, scores.size() / 4);
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue(Comparator.naturalOrder()))
+                .limit(count)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * Borra las claves del nodo muestreado y de todas sus réplicas
+     */
+    private int evict(String sampledNode, List<String> keys) {
+        Map<String, List<String>> keysByNode = new LinkedHashMap<>();
+        for (String key : keys) {
+            Set<String> owners = new HashSet<>(hashRing.getNodes(key, replicationFactor));
+            owners.add(sampledNode); // Puede ser una copia huérfana tras una migración
+            for (String owner : owners) {
+                keysByNode.computeIfAbsent(owner, n -> new ArrayList<>()).add(key);
+            }
+        }
+        keysByNode.forEach((node, nodeKeys) -> {
+            RedisTemplate<String, Object> template = redisTemplateMap.get(node);
+            if (template == null) {
+                return;
+            }
+            try {
+                template.delete(nodeKeys);
+            } catch (Exception e) {
+                logger.warn("Error expulsando {} claves de nodo {}: {}", nodeKeys.size(), node, e.getMessage());
+            }
+        });
+        nearCache.invalidateCluster(keys);
+        evicted.add(keys.size());
+        return keys.size();
+    }
+
+    private static long usedMemory(RedisTemplate<String, Object> template) {
+        Properties info = template.execute((RedisCallback<Properties>) connection ->
+                connection.serverCommands().info("memory"));
+        if (info == null || !info.containsKey("used_memory")) {
+            return 0;
+        }
+        return Long.parseLong(info.getProperty("used_memory").trim());
+    }
+
+    /**
+     * Memoria usada por nodo frente al presupuesto y claves expulsadas
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> nodes = new TreeMap<>();
+        usedMemory.forEach((node, used) -> {
+            Map<String, Object> nodeStats = new LinkedHashMap<>();
+            nodeStats.put("usedMemory", used);
+            nodeStats.put("overBudget", used > maxMemoryBytes);
+            nodes.put(node, nodeStats);
+        });
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("maxMemoryBytes", maxMemoryBytes);
+        stats.put("singleEvictor", singleEvictor);
+        stats.put("leader", leader);
+        stats.put("cycles", cycles.sum());
+        stats.put("skippedCycles", skippedCycles.sum());
+        stats.put("sampled", sampled.sum());
+        stats.put("evicted", evicted.sum());
+        stats.put("lastCycleMicros", lastCycleMicros);
+        stats.put("nodes", nodes);
+        return stats;
+    }
+}
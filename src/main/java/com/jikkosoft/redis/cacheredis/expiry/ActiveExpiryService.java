@@ -0,0 +1,263 @@
+package com.jikkosoft.redis.cacheredis.expiry;
+
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.routing.LatencyHistogram;
+import com.jikkosoft.redis.cacheredis.script.CacheScripts;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Expiración activa de las entradas escritas por esta instancia.
+ * Los vencimientos de la aplicación ({@code expiresAt}) se siguen en una
+ * {@link TimingWheel}; en cada tick las claves vencidas se borran con un
+ * script por lote y un pipeline por nodo, que solo borra si la entrada
+ * guardada sigue vencida. Cada tick tiene un tope de claves y de tiempo;
+ * lo que no alcanza queda pendiente para el siguiente.
+ */
+@Component
+public class ActiveExpiryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActiveExpiryService.class);
+
+    @Autowired
+    private Map<String, RedisTemplate<String, Object>> redisTemplateMap;
+
+    @Autowired
+    private ConsistentHashRing hashRing;
+
+    @Value("${cache.expiry.active.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${cache.expiry.tick-ms:100}")
+    private long tickMs = 100;
+
+    @Value("${cache.expiry.max-keys-per-tick:1000}")
+    private int maxKeysPerTick = 1000;
+
+    @Value("${cache.expiry.max-tick-ms:20}")
+    private long maxTickMs = 20;
+
+    @Value("${cache.expiry.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${cache.expiry.max-tracked-keys:1000000}")
+    private int maxTrackedKeys = 1_000_000;
+
+    @Value("${cache.replication.factor:2}")
+    private int replicationFactor = 2;
+
+    // Vencimiento vigente por clave; una entrada de la rueda con otro valor quedó obsoleta
+    private final Map<String, Long> deadlines = new ConcurrentHashMap<>();
+    // Altas desde los hilos de request; solo el hilo del tick toca la rueda
+    private final Queue<Deadline> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Deadline> due = new ArrayDeque<>();
+    private TimingWheel wheel;
+    private volatile int pending;
+
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder reclaimedBytes = new LongAdder();
+    private final LongAdder alreadyGone = new LongAdder();
+    private final LongAdder untracked = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+    private final LatencyHistogram lag = new LatencyHistogram();
+    private volatile long lastTickMicros;
+
+    @PostConstruct
+    public void init() {
+        this.wheel = new TimingWheel(tickMs, System.currentTimeMillis());
+    }
+
+    /**
+     * Sigue el vencimiento de la clave; reemplaza el anterior si se reescribió
+     */
+    public void schedule(String key, LocalDateTime expiresAt) {
+        if (!enabled) {
+            return;
+        }
+        if (expiresAt == null) {
+            deadlines.remove(key);
+            return;
+        }
+        if (deadlines.size() >= maxTrackedKeys && !deadlines.containsKey(key)) {
+            untracked.increment(); // Queda solo el TTL de Redis
+            return;
+        }
+        long deadline = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Long previous = deadlines.put(key, deadline);
+        // Un solo timer por clave: si el vigente vence antes, al dispararse se reprograma
+        if (previous == null || deadline < previous) {
+            scheduled.add(new Deadline(key, deadline));
+        }
+    }
+
+    /**
+     * Deja de seguir la clave (p. ej. al borrarla)
+     */
+    public void cancel(String key) {
+        deadlines.remove(key);
+    }
+
+    /**
+     * Avanza la rueda y borra las claves vencidas dentro del presupuesto del tick
+     */
+    @Scheduled(fixedDelayString = "${cache.expiry.tick-ms:100}")
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+
+        for (Deadline entry; (entry = scheduled.poll()) != null; ) {
+            wheel.add(entry.key(), entry.deadlineMillis());
+        }
+        wheel.advance(now, (key, deadline) -> due.add(new Deadline(key, deadline)));
+
+        long budgetEnd = start + TimeUnit.MILLISECONDS.toNanos(maxTickMs);
+        int processed = 0;
+        while (!due.isEmpty() && processed < maxKeysPerTick && System.nanoTime() < budgetEnd) {
+            List<Deadline> batch = nextBatch(Math.min(batchSize, maxKeysPerTick - processed));
+            processed += batch.size();
+            expire(batch, now);
+        }
+        if (!due.isEmpty()) {
+            budgetExhausted.increment();
+        }
+        pending = due.size();
+        ticks.increment();
+        lastTickMicros = (System.nanoTime() - start) / 1000;
+    }
+
+    /**
+     * Siguiente lote de vencimientos vigentes. Si la clave se reescribió con
+     * un vencimiento posterior se reprograma; si se canceló se descarta.
+     */
+    private List<Deadline> nextBatch(int limit) {
+        List<Deadline> batch = new ArrayList<>(limit);
+        while (batch.size() < limit && !due.isEmpty()) {
+            Deadline entry = due.poll();
+            while (true) {
+                Long current = deadlines.get(entry.key());
+                if (current == null || current < entry.deadlineMillis()) {
+                    break; // Cancelada, o la cubre otro timer que vence antes
+                }
+                if (current > entry.deadlineMillis()) {
+                    wheel.add(entry.key(), current);
+                    break;
+                }
+                if (deadlines.remove(entry.key(), current)) {
+                    batch.add(entry);
+                    break;
+                }
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Borra el lote de todas las réplicas de cada clave, un pipeline por nodo
+     */
+    private void expire(List<Deadline> batch, long now) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<String, List<String>> keysByNode = new LinkedHashMap<>();
+        for (Deadline entry : batch) {
+            lag.record(TimeUnit.MILLISECONDS.toNanos(Math.max(0, now - entry.deadlineMillis())));
+            for (String node : hashRing.getNodes(entry.key(), replicationFactor)) {
+                keysByNode.computeIfAbsent(node, n -> new ArrayList<>()).add(entry.key());
+            }
+        }
+        keysByNode.forEach((node, keys) -> {
+            try {
+                pipelinedExpire(node, keys, now);
+            } catch (Exception e) {
+                // El TTL de Redis sigue como respaldo para estas claves
+                logger.warn("Error expirando {} claves en nodo {}: {}", keys.size(), node, e.getMessage());
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void pipelinedExpire(String node, List<String> keys, long now) {
+        RedisTemplate<String, Object> template = redisTemplateMap.get(node);
+        if (template == null) {
+            return;
+        }
+        byte[] script = CacheScripts.EXPIRE.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        String sha = CacheScripts.EXPIRE.getSha1();
+        byte[] nowMillis = String.valueOf(now).getBytes(StandardCharsets.UTF_8);
+        byte[] nowIso = LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZoneId.systemDefault())
+                .toString().getBytes(StandardCharsets.UTF_8);
+
+        List<Object> results = template.executePipelined((RedisCallback<Object>) connection -> {
+            connection.scriptingCommands().scriptLoad(script);
+            for (int from = 0; from < keys.size(); from += batchSize) {
+                List<String> chunk = keys.subList(from, Math.min(keys.size(), from + batchSize));
+                byte[][] keysAndArgs = new byte[chunk.size() + 2][];
+                for (int i = 0; i < chunk.size(); i++) {
+                    keysAndArgs[i] = chunk.get(i).getBytes(StandardCharsets.UTF_8);
+                }
+                keysAndArgs[chunk.size()] = nowMillis;
+                keysAndArgs[chunk.size() + 1] = nowIso;
+                connection.scriptingCommands().evalSha(sha, ReturnType.MULTI, chunk.size(), keysAndArgs);
+            }
+            return null;
+        });
+
+        for (Object result : results.subList(1, results.size())) {
+            if (result instanceof List<?> counts && counts.size() == 3) {
+                expired.add(((Number) counts.get(0)).longValue());
+                reclaimedBytes.add(((Number) counts.get(1)).longValue());
+                alreadyGone.add(((Number) counts.get(2)).longValue());
+            }
+        }
+    }
+
+    /**
+     * Claves seguidas, borradas, memoria liberada y atraso de la expiración
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("tracked", deadlines.size());
+        stats.put("pending", pending);
+        stats.put("ticks", ticks.sum());
+        stats.put("expired", expired.sum());
+        stats.put("reclaimedBytes", reclaimedBytes.sum());
+        stats.put("alreadyGone", alreadyGone.sum());
+        stats.put("untracked", untracked.sum());
+        stats.put("budgetExhaustedTicks", budgetExhausted.sum());
+        stats.put("lagP50Millis", lag.percentile(0.50) / 1_000_000);
+        stats.put("lagP99Millis", lag.percentile(0.99) / 1_000_000);
+        stats.put("lastTickMicros", lastTickMicros);
+        return stats;
+    }
+
+    private record Deadline(String key, long deadlineMillis) {
+    }
+}
@@ -0,0 +1,117 @@
+package com.jikkosoft.redis.cacheredis.expiry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Timing wheel jerárquica de 4 niveles x 64 ranuras. Con ticks de 100 ms el
+ * primer nivel cubre 6,4 s, el segundo ~7 min, el tercero ~7 h y el cuarto
+ * ~19 días; los vencimientos más lejanos esperan en una lista de desborde.
+ * Agregar es O(1) y avanzar un tick cuesta O(1) más los vencimientos que
+ * caen en él; al cruzar el límite de un nivel su ranura baja al nivel inferior.
+ *
+ * No es thread-safe: el llamador debe sincronizar el acceso.
+ */
+public class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final List<List<Timer>> slots = new ArrayList<>(LEVELS * SLOTS);
+    private final List<Timer> overflow = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long tickMillis, long nowMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("El tick debe ser positivo");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Programa la clave para el primer tick en o después de {@code deadlineMillis},
+     * nunca antes. Un vencimiento ya pasado se entrega en el próximo avance.
+     */
+    public void add(String key, long deadlineMillis) {
+        long tick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        place(new Timer(key, deadlineMillis, Math.max(tick, currentTick + 1)));
+        size++;
+    }
+
+    /**
+     * Avanza hasta {@code nowMillis} entregando cada clave vencida con su vencimiento
+     */
+    public void advance(long nowMillis, BiConsumer<String, Long> expired) {
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            cascade();
+            List<Timer> slot = slots.get((int) (currentTick & SLOT_MASK));
+            if (!slot.isEmpty()) {
+                List<Timer> due = new ArrayList<>(slot);
+                slot.clear();
+                size -= due.size();
+                due.forEach(timer -> expired.accept(timer.key(), timer.deadlineMillis()));
+            }
+        }
+    }
+
+    /**
+     * Claves programadas que aún no vencen
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Al entrar en una nueva vuelta de un nivel, reubica la ranura que le
+     * corresponde en los niveles inferiores (de arriba hacia abajo)
+     */
+    private void cascade() {
+        int level = 1;
+        while (level < LEVELS && (currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+            level++;
+        }
+        if (level == LEVELS) {
+            List<Timer> pending = new ArrayList<>(overflow);
+            overflow.clear();
+            pending.forEach(this::place);
+        }
+        for (int l = level - 1; l >= 1; l--) {
+            List<Timer> slot = slots.get(l * SLOTS + (int) ((currentTick >>> (SLOT_BITS * l)) & SLOT_MASK));
+            if (!slot.isEmpty()) {
+                List<Timer> pending = new ArrayList<>(slot);
+                slot.clear();
+                pending.forEach(this::place);
+            }
+        }
+    }
+
+    /**
+     * Nivel más bajo en el que el vencimiento y el tick actual comparten los
+     * bits superiores; así la ranura se visita antes de que venza
+     */
+    private void place(Timer timer) {
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * (level + 1);
+            if (timer.tick() >>> shift == currentTick >>> shift) {
+                int slot = (int) ((timer.tick() >>> (SLOT_BITS * level)) & SLOT_MASK);
+                slots.get(level * SLOTS + slot).add(timer);
+                return;
+            }
+        }
+        overflow.add(timer);
+    }
+
+    private record Timer(String key, long deadlineMillis, long tick) {
+    }
+}
@@ -1,75 +1,297 @@
 package com.jikkosoft.redis.cacheredis.hash;
 
+import com.jikkosoft.redis.cacheredis.config.CacheNodesProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Implementación de Consistent Hashing para distribución de claves
- * entre los nodos Redis
+ * entre los nodos Redis.
+ * El ring se guarda como arreglos primitivos ordenados (posiciones y
+ * dueño de cada nodo virtual) y la búsqueda es binaria sobre long[],
+ * sin boxing ni asignaciones por llamada.
  */
 @Component
 public class ConsistentHashRing {
 
-    private final TreeMap<Long, String> ring = new TreeMap<>();
-    private final List<String> nodes = List.of("node1", "node2");
-    private final int virtualNodes = 150; // Nodos virtuales por nodo físico
+    private static final List<String> DEFAULT_NODES = List.of("node1", "node2");
+    private static final int DEFAULT_VIRTUAL_NODES = 150; // Nodos virtuales por nodo físico
+
+    private final HashFunction hashFunction;
+    private volatile Ring ring;
+    // Ring anterior mientras se migran claves tras un cambio de membresía
+    private volatile Ring previousRing;
 
     public ConsistentHashRing() {
-        initializeRing();
+        this(HashAlgorithm.MURMUR3);
+    }
+
+    public ConsistentHashRing(HashAlgorithm algorithm) {
+        this(algorithm, DEFAULT_NODES);
+    }
+
+    public ConsistentHashRing(HashAlgorithm algorithm, List<String> nodes) {
+        this(algorithm, nodes, Map.of());
     }
 
     /**
-     * Inicializa el hash ring con nodos virtuales
+     * @param weights peso por nodo; los ausentes pesan 1.0
      */
-    private void initializeRing() {
-        for (String node : nodes) {
-            for (int i = 0; i < virtualNodes; i++) {
-                String virtualNode = node + "_virtual_" + i;
-                long hash = computeHash(virtualNode);
-                ring.put(hash, node);
-            }
+    public ConsistentHashRing(HashAlgorithm algorithm, List<String> nodes, Map<String, Double> weights) {
+        this.hashFunction = algorithm.create();
+        double[] nodeWeights = new double[nodes.size()];
+        for (int i = 0; i < nodes.size(); i++) {
+            nodeWeights[i] = weights.getOrDefault(nodes.get(i), 1.0);
         }
+        this.ring = Ring.build(nodes.toArray(new String[0]), nodeWeights, hashFunction);
+    }
+
+    @Autowired
+    public ConsistentHashRing(@Value("${cache.hash.algorithm:MURMUR3}") HashAlgorithm algorithm,
+                              CacheNodesProperties nodesProperties) {
+        this(algorithm, nodesProperties.getNodeIds(), nodesProperties.getNodes().stream()
+                .collect(Collectors.toMap(CacheNodesProperties.Node::id, CacheNodesProperties.Node::weight)));
     }
 
     /**
      * Obtiene el nodo responsable para una clave dada
      */
     public String getNode(String key) {
-        if (ring.isEmpty()) {
+        Ring current = ring;
+        if (current.isEmpty()) {
+            throw new IllegalStateException("Hash ring está vacío");
+        }
+        int index = current.indexOf(hashFunction.hash(key));
+        return current.nodeNames[current.owners[index]];
+    }
+
+    /**
+     * Lista de preferencia de la clave: recorre el ring en sentido horario
+     * desde su posición y devuelve hasta {@code replicationFactor} nodos
+     * físicos distintos. El primero es el nodo primario.
+     */
+    public List<String> getNodes(String key, int replicationFactor) {
+        return preferenceList(ring, key, replicationFactor);
+    }
+
+    /**
+     * Lista de preferencia según el ring anterior al último cambio de
+     * membresía; vacía si no hay una migración en curso
+     */
+    public List<String> getPreviousNodes(String key, int replicationFactor) {
+        Ring previous = previousRing;
+        return previous != null ? preferenceList(previous, key, replicationFactor) : List.of();
+    }
+
+    public boolean isInTransition() {
+        return previousRing != null;
+    }
+
+    /**
+     * Agrega un nodo físico. El ring anterior se conserva hasta
+     * {@link #completeTransition()} para poder migrar y leer las claves.
+     */
+    public synchronized void addNode(String node) {
+        addNode(node, 1.0);
+    }
+
+    /**
+     * Agrega un nodo físico con el peso indicado
+     */
+    public synchronized void addNode(String node, double weight) {
+        checkNoTransition();
+        if (ring.nodeList.contains(node)) {
+            throw new IllegalArgumentException("El nodo ya existe: " + node);
+        }
+        String[] names = Arrays.copyOf(ring.nodeNames, ring.nodeNames.length + 1);
+        double[] weights = Arrays.copyOf(ring.weights, ring.weights.length + 1);
+        names[names.length - 1] = node;
+        weights[weights.length - 1] = weight;
+        swap(Ring.build(names, weights, hashFunction));
+    }
+
+    /**
+     * Retira un nodo físico; el ring anterior se conserva como en {@link #addNode}
+     */
+    public synchronized void removeNode(String node) {
+        checkNoTransition();
+        if (!ring.nodeList.contains(node)) {
+            throw new IllegalArgumentException("Nodo no válido: " + node);
+        }
+        if (ring.nodeList.size() == 1) {
+            throw new IllegalStateException("No se puede retirar el último nodo");
+        }
+        int removed = ring.nodeList.indexOf(node);
+        String[] names = new String[ring.nodeNames.length - 1];
+        double[] weights = new double[ring.weights.length - 1];
+        for (int i = 0, j = 0; i < ring.nodeNames.length; i++) {
+            if (i != removed) {
+                names[j] = ring.nodeNames[i];
+                weights[j] = ring.weights[i];
+                j++;
+            }
+        }
+        swap(Ring.build(names, weights, hashFunction));
+    }
+
+    /**
+     * Descarta el ring anterior cuando la migración terminó
+     */
+    public synchronized void completeTransition() {
+        previousRing = null;
+    }
+
+    private void swap(Ring next) {
+        previousRing = ring;
+        ring = next;
+    }
+
+    private void checkNoTransition() {
+        if (previousRing != null) {
+            throw new IllegalStateException("Hay una migración de claves en curso");
+        }
+    }
+
+    private List<String> preferenceList(Ring current, String key, int replicationFactor) {
+        if (current.isEmpty()) {
             throw new IllegalStateException("Hash ring está vacío");
         }
 
-        long hash = computeHash(key);
-        Map.Entry<Long, String> entry = ring.ceilingEntry(hash);
+        int count = Math.min(Math.max(replicationFactor, 1), current.nodeNames.length);
+        String[] preference = new String[count];
+        int found = 0;
+        int index = current.indexOf(hashFunction.hash(key));
 
-        // Si no hay entrada mayor, usar la primera del ring (circular)
-        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+        // Recorrido circular: como mucho una vuelta completa
+        for (int step = 0; step < current.points.length && found < count; step++) {
+            String node = current.nodeNames[current.owners[(index + step) % current.points.length]];
+            if (!contains(preference, found, node)) {
+                preference[found++] = node;
+            }
+        }
+        return Arrays.asList(preference).subList(0, found);
     }
 
     /**
      * Obtiene todos los nodos para replicación
      */
     public List<String> getAllNodes() {
-        return new ArrayList<>(nodes);
+        return ring.nodeList;
+    }
+
+    /**
+     * Estadísticas del ring por nodo: peso, nodos virtuales y fracción
+     * del espacio de hash que le pertenece
+     */
+    public Map<String, Map<String, Object>> getRingStats() {
+        Ring current = ring;
+        double[] shares = current.ownershipShares();
+        int[] virtualCounts = new int[current.nodeNames.length];
+        for (int owner : current.owners) {
+            virtualCounts[owner]++;
+        }
+
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        for (int i = 0; i < current.nodeNames.length; i++) {
+            Map<String, Object> nodeStats = new LinkedHashMap<>();
+            nodeStats.put("weight", current.weights[i]);
+            nodeStats.put("virtualNodes", virtualCounts[i]);
+            nodeStats.put("ownershipShare", shares[i]);
+            stats.put(current.nodeNames[i], nodeStats);
+        }
+        return stats;
+    }
+
+    private static boolean contains(String[] values, int size, String value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i].equals(value)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
-     * Calcula hash SHA-1 para una clave
+     * Estado inmutable del ring: posiciones ordenadas de los nodos virtuales
+     * y el índice del nodo físico dueño de cada una
      */
-    private long computeHash(String key) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-1");
-            byte[] digest = md.digest(key.getBytes());
-            long hash = 0;
-            for (int i = 0; i < 4; i++) {
-                hash <<= 8;
-                hash |= (digest[i] & 0xFF);
+    private static final class Ring {
+        final long[] points;
+        final int[] owners;
+        final String[] nodeNames;
+        final double[] weights;
+        final List<String> nodeList;
+
+        private Ring(long[] points, int[] owners, String[] nodeNames, double[] weights) {
+            this.points = points;
+            this.owners = owners;
+            this.nodeNames = nodeNames;
+            this.weights = weights;
+            this.nodeList = List.of(nodeNames);
+        }
+
+        /**
+         * Inicializa el hash ring con nodos virtuales proporcionales al peso de cada nodo
+         */
+        static Ring build(String[] names, double[] weights, HashFunction hashFunction) {
+            // Igual que el TreeMap original: ante colisión gana el último nodo insertado
+            TreeMap<Long, Integer> sorted = new TreeMap<>();
+            for (int n = 0; n < names.length; n++) {
+                int virtualNodes = Math.max(1, (int) Math.round(DEFAULT_VIRTUAL_NODES * weights[n]));
+                for (int i = 0; i < virtualNodes; i++) {
+                    String virtualNode = names[n] + "_virtual_" + i;
+                    sorted.put(hashFunction.hash(virtualNode), n);
+                }
+            }
+
+            long[] points = new long[sorted.size()];
+            int[] owners = new int[sorted.size()];
+            int i = 0;
+            for (Map.Entry<Long, Integer> entry : sorted.entrySet()) {
+                points[i] = entry.getKey();
+                owners[i] = entry.getValue();
+                i++;
+            }
+            return new Ring(points, owners, names, weights);
+        }
+
+        /**
+         * Fracción del espacio [0, 2^32) asignada a cada nodo: cada nodo
+         * virtual es dueño del arco que va desde el nodo virtual anterior
+         */
+        double[] ownershipShares() {
+            double[] shares = new double[nodeNames.length];
+            if (points.length == 0) {
+                return shares;
+            }
+            double space = 4294967296.0;
+            for (int i = 0; i < points.length; i++) {
+                long arc = i == 0
+                        ? (long) space - points[points.length - 1] + points[0]
+                        : points[i] - points[i - 1];
+                shares[owners[i]] += arc / space;
+            }
+            return shares;
+        }
+
+        boolean isEmpty() {
+            return points.length == 0;
+        }
+
+        /**
+         * Índice del primer nodo virtual con posición >= hash;
+         * si no hay ninguno se usa el primero del ring (circular)
+         */
+        int indexOf(long hash) {
+            int index = Arrays.binarySearch(points, hash);
+            if (index < 0) {
+                index = -index - 1;
             }
-            return hash;
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-1 no disponible", e);
+            return index == points.length ? 0 : index;
         }
     }
-}
\ No newline at end of file
+}
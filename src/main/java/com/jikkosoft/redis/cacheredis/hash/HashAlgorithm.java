@@ -0,0 +1,18 @@
+package com.jikkosoft.redis.cacheredis.hash;
+
+/**
+ * Algoritmos de hash disponibles para el ring
+ */
+public enum HashAlgorithm {
+    /** Rápido, no criptográfico y sin asignaciones por búsqueda */
+    MURMUR3,
+    /** Hash original; mantiene la ubicación de las claves ya almacenadas */
+    SHA1;
+
+    public HashFunction create() {
+        return switch (this) {
+            case MURMUR3 -> new Murmur3HashFunction();
+            case SHA1 -> new Sha1HashFunction();
+        };
+    }
+}
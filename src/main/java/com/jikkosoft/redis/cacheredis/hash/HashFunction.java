@@ -0,0 +1,10 @@
+package com.jikkosoft.redis.cacheredis.hash;
+
+/**
+ * Función de hash para posicionar claves y nodos virtuales en el ring.
+ * Debe devolver valores en el rango [0, 2^32).
+ */
+public interface HashFunction {
+
+    long hash(CharSequence key);
+}
@@ -0,0 +1,62 @@
+package com.jikkosoft.redis.cacheredis.hash;
+
+/**
+ * MurmurHash3 x86_32 sobre los caracteres UTF-16 de la clave.
+ * Procesa dos caracteres por bloque directamente desde el String,
+ * sin codificar a bytes, por lo que no genera basura por llamada.
+ */
+public final class Murmur3HashFunction implements HashFunction {
+
+    private static final int C1 = 0xcc9e2d51;
+    private static final int C2 = 0x1b873593;
+
+    private final int seed;
+
+    public Murmur3HashFunction() {
+        this(0);
+    }
+
+    public Murmur3HashFunction(int seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public long hash(CharSequence key) {
+        int h1 = seed;
+        int length = key.length();
+
+        for (int i = 1; i < length; i += 2) {
+            int k1 = key.charAt(i - 1) | (key.charAt(i) << 16);
+            h1 = mixH1(h1, mixK1(k1));
+        }
+
+        if ((length & 1) == 1) {
+            h1 ^= mixK1(key.charAt(length - 1));
+        }
+
+        return fmix(h1, 2 * length) & 0xFFFFFFFFL;
+    }
+
+    private static int mixK1(int k1) {
+        k1 *= C1;
+        k1 = Integer.rotateLeft(k1, 15);
+        k1 *= C2;
+        return k1;
+    }
+
+    private static int mixH1(int h1, int k1) {
+        h1 ^= k1;
+        h1 = Integer.rotateLeft(h1, 13);
+        return h1 * 5 + 0xe6546b64;
+    }
+
+    private static int fmix(int h1, int length) {
+        h1 ^= length;
+        h1 ^= h1 >>> 16;
+        h1 *= 0x85ebca6b;
+        h1 ^= h1 >>> 13;
+        h1 *= 0xc2b2ae35;
+        h1 ^= h1 >>> 16;
+        return h1;
+    }
+}
@@ -0,0 +1,125 @@
+package com.jikkosoft.redis.cacheredis.hash;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Carga en vuelo por nodo y selección con "consistent hashing with bounded loads":
+ * si el dueño de la clave supera (1+ε) veces la carga promedio, la operación
+ * se desvía al siguiente nodo de su lista de preferencia.
+ * El desvío se limita a la lista de preferencia porque solo esas réplicas
+ * tienen la clave.
+ */
+@Component
+public class NodeLoadTracker {
+
+    @Value("${cache.hash.bounded-load.enabled:false}")
+    private boolean boundedLoadEnabled;
+
+    @Value("${cache.hash.bounded-load.epsilon:0.25}")
+    private double epsilon = 0.25;
+
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Registra el inicio de una operación en el nodo
+     */
+    public void begin(String node) {
+        counter(node).incrementAndGet();
+    }
+
+    /**
+     * Registra el fin de una operación en el nodo
+     */
+    public void end(String node) {
+        counter(node).decrementAndGet();
+    }
+
+    public int getInFlight(String node) {
+        AtomicInteger count = inFlight.get(node);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * Ordena la lista de preferencia poniendo primero el nodo elegido:
+     * el primero cuya carga no excede la capacidad ⌈(1+ε)·(carga total + 1)/n⌉.
+     * Sin bounded loads la lista se devuelve tal cual.
+     */
+    public List<String> order(List<String> preference, int clusterSize) {
+        if (!boundedLoadEnabled || preference.size() < 2) {
+            return preference;
+        }
+        double capacity = capacity(clusterSize);
+
+        for (int i = 0; i < preference.size(); i++) {
+            if (getInFlight(preference.get(i)) < capacity) {
+                if (i == 0) {
+                    return preference;
+                }
+                List<String> ordered = new ArrayList<>(preference.size());
+                ordered.add(preference.get(i));
+                for (int j = 0; j < preference.size(); j++) {
+                    if (j != i) {
+                        ordered.add(preference.get(j));
+                    }
+                }
+                return ordered;
+            }
+        }
+        return preference;
+    }
+
+    /**
+     * Réplicas cuya carga no excede la capacidad, en el orden recibido, para
+     * que otra política (p. ej. la de latencia) elija solo entre ellas. Sin
+     * bounded loads, o si todas la exceden, se devuelve la lista completa.
+     */
+    public List<String> withinCapacity(List<String> replicas, int clusterSize) {
+        if (!boundedLoadEnabled || replicas.size() < 2) {
+            return replicas;
+        }
+        double capacity = capacity(clusterSize);
+        List<String> eligible = new ArrayList<>(replicas.size());
+        for (String replica : replicas) {
+            if (getInFlight(replica) < capacity) {
+                eligible.add(replica);
+            }
+        }
+        return eligible.isEmpty() ? replicas : eligible;
+    }
+
+    /**
+     * Carga en vuelo actual por nodo
+     */
+    public Map<String, Integer> getLoads() {
+        Map<String, Integer> loads = new LinkedHashMap<>();
+        inFlight.forEach((node, count) -> loads.put(node, count.get()));
+        return loads;
+    }
+
+    public boolean isBoundedLoadEnabled() {
+        return boundedLoadEnabled;
+    }
+
+    /**
+     * ⌈(1+ε)·(carga total + 1)/n⌉
+     */
+    private double capacity(int clusterSize) {
+        int total = 0;
+        for (AtomicInteger count : inFlight.values()) {
+            total += count.get();
+        }
+        return Math.ceil((1 + epsilon) * (total + 1) / Math.max(clusterSize, 1));
+    }
+
+    private AtomicInteger counter(String node) {
+        return inFlight.computeIfAbsent(node, n -> new AtomicInteger());
+    }
+}
@@ -0,0 +1,33 @@
+package com.jikkosoft.redis.cacheredis.hash;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hash original del ring: primeros 4 bytes del SHA-1 de la clave en UTF-8.
+ * Se conserva como modo de migración para mantener la ubicación de las
+ * claves existentes. Reutiliza un MessageDigest por hilo.
+ */
+public final class Sha1HashFunction implements HashFunction {
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-1 no disponible", e);
+        }
+    });
+
+    @Override
+    public long hash(CharSequence key) {
+        MessageDigest md = DIGEST.get();
+        byte[] digest = md.digest(key.toString().getBytes(StandardCharsets.UTF_8));
+        long hash = 0;
+        for (int i = 0; i < 4; i++) {
+            hash <<= 8;
+            hash |= (digest[i] & 0xFF);
+        }
+        return hash;
+    }
+}
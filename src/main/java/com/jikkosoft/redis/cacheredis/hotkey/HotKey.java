@@ -0,0 +1,10 @@
+package com.jikkosoft.redis.cacheredis.hotkey;
+
+import java.util.List;
+
+/**
+ * Clave frecuente con su tráfico en la última ventana, la cuenta
+ * Space-Saving (y su error máximo) y las réplicas que la sirven en Redis
+ */
+public record HotKey(String key, double qps, long count, long error, boolean hot, List<String> replicas) {
+}
@@ -0,0 +1,319 @@
+package com.jikkosoft.redis.cacheredis.hotkey;
+
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.sketch.SpaceSaving;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Detección de claves calientes y copia local de las promovidas.
+ * Cada lectura alimenta un Space-Saving; en cada ventana se calcula el QPS
+ * de las claves más frecuentes y se promueven las que superan min-qps (con
+ * histéresis: una clave caliente se degrada recién por debajo de la mitad).
+ * Una clave caliente se sirve desde una copia en el JVM de vida corta, así
+ * Redis recibe a lo sumo una lectura por instancia cada local-ttl-ms en vez
+ * de todo su tráfico. La copia se descarta en cada escritura local y en las
+ * de otras instancias, que llegan por el canal de invalidación; sin esa
+ * suscripción activa no se guardan copias.
+ *
+ * Si el contador está ocupado la lectura no se ofrece al Space-Saving,
+ * pero sí se cuenta en el total: el QPS de cada clave se escala por la
+ * fracción muestreada para no subestimarlo justo bajo contención.
+ */
+@Component
+public class HotKeyTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotKeyTracker.class);
+    private static final int STAMP_STRIPES = 1024;
+
+    @Autowired
+    private ConsistentHashRing hashRing;
+
+    @Value("${cache.hotkeys.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${cache.hotkeys.capacity:256}")
+    private int capacity = 256;
+
+    @Value("${cache.hotkeys.max-hot-keys:32}")
+    private int maxHotKeys = 32;
+
+    @Value("${cache.hotkeys.min-qps:500}")
+    private double minQps = 500;
+
+    @Value("${cache.hotkeys.local-ttl-ms:500}")
+    private long localTtlMs = 500;
+
+    @Value("${cache.replication.factor:2}")
+    private int replicationFactor = 2;
+
+    private SpaceSaving topKeys;
+    private final ReentrantLock topKeysLock = new ReentrantLock();
+    // Cuenta de cada clave tras el último envejecimiento, para medir la ventana siguiente
+    private Map<String, Long> baseline = new HashMap<>();
+    private long lastRotationNanos = System.nanoTime();
+
+    private volatile Set<String> hot = Set.of();
+    private volatile List<HotKey> ranking = List.of();
+    private final Map<String, Copy> copies = new ConcurrentHashMap<>();
+    // Sin suscripción al canal de invalidación una copia no vería escrituras de otras instancias
+    private volatile boolean subscribed;
+    // Lecturas de la ventana: todas y las que entraron al Space-Saving (estas con topKeysLock)
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder sampledReads = new LongAdder();
+    private volatile double sampledFraction = 1.0;
+    // Marca por franja de claves: una escritura durante la lectura descarta la copia
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder localMisses = new LongAdder();
+    private final LongAdder promotions = new LongAdder();
+    private final LongAdder demotions = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        this.topKeys = new SpaceSaving(capacity);
+    }
+
+    /**
+     * Registra una lectura de la clave
+     */
+    public void record(String key) {
+        if (!enabled) {
+            return;
+        }
+        reads.increment();
+        // Si el contador está ocupado se omite la muestra; rotate escala por la fracción muestreada
+        if (topKeysLock.tryLock()) {
+            try {
+                topKeys.offer(key);
+                sampledReads.increment();
+            } finally {
+                topKeysLock.unlock();
+            }
+        }
+    }
+
+    public boolean isHot(String key) {
+        return hot.contains(key);
+    }
+
+    /**
+     * Copia local vigente de una clave caliente
+     */
+    public Optional<Object> get(String key) {
+        Copy copy = copies.get(key);
+        if (copy == null) {
+            localMisses.increment();
+            return Optional.empty();
+        }
+        if (copy.deadlineMillis() <= System.currentTimeMillis()) {
+            copies.remove(key, copy);
+            localMisses.increment();
+            return Optional.empty();
+        }
+        localHits.increment();
+        return Optional.of(copy.value());
+    }
+
+    /**
+     * Marca a capturar antes de leer de Redis la clave
+     */
+    public long stamp(String key) {
+        return stamps.get(stripe(key));
+    }
+
+    /**
+     * Guarda la copia local de una clave caliente recién leída, sin pasar
+     * del vencimiento de la entrada; se descarta si la clave se escribió
+     * después de {@code stamp}
+     */
+    public void put(String key, Object value, LocalDateTime expiresAt, long stamp) {
+        if (!subscribed || !isHot(key) || value == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long deadline = now + localTtlMs;
+        if (expiresAt != null) {
+            deadline = Math.min(deadline, expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        if (deadline <= now) {
+            return;
+        }
+        Copy copy = new Copy(value, deadline);
+        copies.put(key, copy);
+        // Publicar y luego verificar: una invalidación concurrente cambia la marca o borra la copia
+        if (stamps.get(stripe(key)) != stamp) {
+            copies.remove(key, copy);
+        }
+    }
+
+    /**
+     * Descarta la copia local de la clave
+     */
+    public void invalidate(String key) {
+        stamps.incrementAndGet(stripe(key));
+        copies.remove(key);
+    }
+
+    public void invalidate(Collection<String> keys) {
+        keys.forEach(this::invalidate);
+    }
+
+    /**
+     * El canal de invalidación quedó suscrito: se pueden guardar copias
+     */
+    public void onInvalidationSubscribed() {
+        subscribed = true;
+    }
+
+    /**
+     * La suscripción se perdió: las copias pueden estar viejas
+     */
+    public void onInvalidationLost() {
+        subscribed = false;
+        invalidateAll();
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < STAMP_STRIPES; i++) {
+            stamps.incrementAndGet(i);
+        }
+        copies.clear();
+    }
+
+    /**
+     * Cierra la ventana: calcula el QPS de las claves más frecuentes,
+     * envejece las cuentas y actualiza el conjunto de claves calientes
+     */
+    @Scheduled(fixedDelayString = "${cache.hotkeys.window-ms:1000}")
+    public void rotate() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        double seconds = Math.max(now - lastRotationNanos, 1) / 1e9;
+        lastRotationNanos = now;
+
+        List<SpaceSaving.Counter> counters;
+        long sampled;
+        topKeysLock.lock();
+        try {
+            counters = topKeys.top(capacity);
+            topKeys.decay();
+            sampled = sampledReads.sumThenReset();
+        } finally {
+            topKeysLock.unlock();
+        }
+        long total = reads.sumThenReset();
+        // Las muestras omitidas no dependen de la clave: cada cuenta representa total/sampled lecturas
+        double scale = sampled > 0 && total > sampled ? (double) total / sampled : 1.0;
+        sampledFraction = 1.0 / scale;
+
+        Map<String, Long> nextBaseline = new HashMap<>(counters.size() * 2);
+        Map<String, Double> qps = new LinkedHashMap<>();
+        for (SpaceSaving.Counter counter : counters) {
+            // Una clave que entró en esta ventana arrastra como error la cuenta que reemplazó
+            long hits = counter.count() - baseline.getOrDefault(counter.key(), counter.error());
+            qps.put(counter.key(), Math.max(hits, 0) * scale / seconds);
+            nextBaseline.put(counter.key(), counter.count() >>> 1);
+        }
+        baseline = nextBaseline;
+
+        Set<String> previous = hot;
+        Set<String> promoted = new LinkedHashSet<>();
+        List<Map.Entry<String, Double>> byQps = new ArrayList<>(qps.entrySet());
+        byQps.sort(Map.Entry.<String, Double>comparingByValue().reversed());
+        for (Map.Entry<String, Double> entry : byQps) {
+            if (promoted.size() >= maxHotKeys) {
+                break;
+            }
+            double threshold = previous.contains(entry.getKey()) ? minQps / 2 : minQps;
+            if (entry.getValue() >= threshold) {
+                promoted.add(entry.getKey());
+            }
+        }
+
+        for (String key : previous) {
+            if (!promoted.contains(key)) {
+                copies.remove(key);
+                demotions.increment();
+                logger.info("Clave '{}' ya no está caliente", key);
+            }
+        }
+        for (String key : promoted) {
+            if (!previous.contains(key)) {
+                promotions.increment();
+                logger.info("Clave '{}' promovida a caliente ({} qps)", key, Math.round(qps.get(key)));
+            }
+        }
+        hot = Set.copyOf(promoted);
+
+        List<HotKey> ranked = new ArrayList<>(byQps.size());
+        for (SpaceSaving.Counter counter : counters) {
+            ranked.add(new HotKey(counter.key(), qps.get(counter.key()), counter.count(), counter.error(),
+                    promoted.contains(counter.key()), List.of()));
+        }
+        ranked.sort(Comparator.comparingDouble(HotKey::qps).reversed());
+        ranking = ranked;
+    }
+
+    /**
+     * Las claves con más tráfico en la última ventana y sus réplicas
+     */
+    public List<HotKey> getTop(int limit) {
+        return ranking.stream()
+                .limit(limit)
+                .map(key -> new HotKey(key.key(), key.qps(), key.count(), key.error(), key.hot(),
+                        hashRing.getNodes(key.key(), replicationFactor)))
+                .toList();
+    }
+
+    /**
+     * Claves calientes, copias locales y aciertos sobre ellas
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("minQps", minQps);
+        stats.put("subscribed", subscribed);
+        stats.put("sampledFraction", sampledFraction);
+        stats.put("hotKeys", hot.size());
+        stats.put("localCopies", copies.size());
+        stats.put("localHits", localHits.sum());
+        stats.put("localMisses", localMisses.sum());
+        stats.put("promotions", promotions.sum());
+        stats.put("demotions", demotions.sum());
+        return stats;
+    }
+
+    private static int stripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STAMP_STRIPES - 1);
+    }
+
+    private record Copy(Object value, long deadlineMillis) {
+    }
+}
@@ -1,59 +1,155 @@
 package com.jikkosoft.redis.cacheredis.lock;
 
+import com.jikkosoft.redis.cacheredis.metrics.CacheMetrics;
+import com.jikkosoft.redis.cacheredis.model.InternalKeys;
+import com.jikkosoft.redis.cacheredis.routing.LatencyHistogram;
+import com.jikkosoft.redis.cacheredis.script.CacheScripts;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Maneja locks distribuidos para garantizar strong consistency
+ * Maneja locks distribuidos para garantizar strong consistency.
+ * Cada adquisición guarda un token único del dueño y emite un fencing token
+ * monotónico; la liberación es un compare-and-delete atómico en Lua.
+ * Los que esperan se despiertan con la notificación pub/sub de la liberación
+ * y, como respaldo, con un backoff exponencial con jitter acotado por el
+ * lease restante del dueño actual.
  */
 @Component
 public class DistributedLockManager {
 
+    private static final Logger logger = LoggerFactory.getLogger(DistributedLockManager.class);
+
     @Autowired
     private Map<String, RedisTemplate<String, Object>> redisTemplateMap;
 
-    private static final String LOCK_PREFIX = "lock:";
-    private static final Duration LOCK_TIMEOUT = Duration.ofSeconds(5);
-    private static final int MAX_RETRIES = 3;
-    private static final long RETRY_DELAY_MS = 100;
+    private static final long BACKOFF_BASE_MS = 5;
+    private static final long BACKOFF_CAP_MS = 200;
+    private static final long SUBSCRIBE_RETRY_MS = 30_000;
+    private static final RedisSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    @Autowired
+    private CacheMetrics metrics;
+
+    @Value("${cache.lock.lease-ms:5000}")
+    private long leaseMs = 5000;
+
+    @Value("${cache.lock.acquire-timeout-ms:2000}")
+    private long acquireTimeoutMs = 2000;
+
+    @Value("${cache.lock.notifications.enabled:true}")
+    private boolean notificationsEnabled = true;
+
+    @Value("${cache.lock.release-channel:lock:release}")
+    private String releaseChannel = "lock:release";
+
+    // Esperas locales por nodo + clave del lock, despertadas por pub/sub
+    private final Map<String, LockSignal> signals = new ConcurrentHashMap<>();
+    // Suscripción al canal de liberación por nodo, creada con la primera contención
+    private final Map<String, RedisMessageListenerContainer> subscriptions = new ConcurrentHashMap<>();
+    private final Map<String, Long> subscribeRetryAt = new ConcurrentHashMap<>();
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder contended = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder lostLeases = new LongAdder();
+    private final LatencyHistogram acquireLatency = new LatencyHistogram();
+
+    /**
+     * Adquiere el lock esperando como mucho el timeout configurado
+     */
+    public Optional<LockHandle> acquire(String key, String nodeId) {
+        return acquire(key, nodeId, Duration.ofMillis(acquireTimeoutMs));
+    }
 
     /**
-     * Intenta adquirir un lock distribuido
+     * Adquiere el lock esperando como mucho {@code maxWait}; vacío si no se obtuvo
      */
-    public boolean acquireLock(String key, String nodeId) {
-        String lockKey = LOCK_PREFIX + key;
+    public Optional<LockHandle> acquire(String key, String nodeId, Duration maxWait) {
+        String lockKey = InternalKeys.LOCK_PREFIX + key;
         RedisTemplate<String, Object> template = redisTemplateMap.get(nodeId);
+        String token = UUID.randomUUID().toString();
+        long start = System.nanoTime();
+        long deadline = start + maxWait.toNanos();
 
-        for (int i = 0; i < MAX_RETRIES; i++) {
-            Boolean acquired = template.opsForValue()
-                    .setIfAbsent(lockKey, "locked", LOCK_TIMEOUT);
+        long attemptAt = System.currentTimeMillis();
+        long result = tryAcquire(template, lockKey, token);
+        if (result > 0) {
+            return Optional.of(acquired(key, nodeId, token, result, start, attemptAt));
+        }
 
-            if (Boolean.TRUE.equals(acquired)) {
-                return true;
-            }
+        contended.increment();
+        subscribe(nodeId, template);
+        LockSignal signal = signals.compute(signalKey(nodeId, lockKey),
+                (k, existing) -> (existing != null ? existing : new LockSignal()).retain());
+        try {
+            for (int attempt = 0; ; attempt++) {
+                long generation = signal.generation();
+                attemptAt = System.currentTimeMillis();
+                result = tryAcquire(template, lockKey, token);
+                if (result > 0) {
+                    return Optional.of(acquired(key, nodeId, token, result, start, attemptAt));
+                }
 
-            // Delay antes del siguiente intento
-            try {
-                Thread.sleep(RETRY_DELAY_MS * (i + 1));
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                return false;
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    timeouts.increment();
+                    metrics.recordLockAcquire(nodeId, false, System.nanoTime() - start);
+                    return Optional.empty();
+                }
+                // Se despierta con la liberación, al vencer el lease del dueño o tras el backoff
+                long waitNanos = Math.min(remainingNanos,
+                        TimeUnit.MILLISECONDS.toNanos(Math.min(-result, backoffMs(attempt))));
+                signal.await(generation, waitNanos);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } finally {
+            signals.computeIfPresent(signalKey(nodeId, lockKey), (k, existing) -> existing.release() ? null : existing);
         }
-        return false;
     }
 
     /**
-     * Libera un lock distribuido
+     * Libera el lock solo si sigue perteneciendo a este dueño
+     *
+     * @return false si el lease ya había expirado y el lock es de otro
      */
-    public void releaseLock(String key, String nodeId) {
-        String lockKey = LOCK_PREFIX + key;
-        RedisTemplate<String, Object> template = redisTemplateMap.get(nodeId);
-        template.delete(lockKey);
+    public boolean release(LockHandle handle) {
+        RedisTemplate<String, Object> template = redisTemplateMap.get(handle.nodeId());
+        Long released = template.execute(CacheScripts.LOCK_RELEASE, RedisSerializer.string(), LONG_SERIALIZER,
+                List.of(InternalKeys.LOCK_PREFIX + handle.key()), handle.token(), releaseChannel);
+        if (released == null || released == 0) {
+            lostLeases.increment();
+            metrics.recordLostLease(handle.nodeId());
+            logger.warn("Lock de '{}' expiró antes de liberarse (fencing token {})",
+                    handle.key(), handle.fencingToken());
+            return false;
+        }
+        return true;
     }
 
     /**
@@ -61,14 +157,176 @@ public class DistributedLockManager {
      */
     public <T> T executeWithLock(String key, String nodeId,
                                  LockOperation<T> operation) throws Exception {
-        if (!acquireLock(key, nodeId)) {
-            throw new RuntimeException("No se pudo adquirir lock para key: " + key);
-        }
+        return executeFenced(key, nodeId, handle -> operation.execute());
+    }
+
+    /**
+     * Ejecuta operación con lock distribuido entregándole el handle, para
+     * que compruebe el lease antes de escribir
+     */
+    public <T> T executeFenced(String key, String nodeId,
+                               FencedOperation<T> operation) throws Exception {
+        LockHandle handle = acquire(key, nodeId)
+                .orElseThrow(() -> new RuntimeException("No se pudo adquirir lock para key: " + key));
 
         try {
-            return operation.execute();
+            return operation.execute(handle);
         } finally {
-            releaseLock(key, nodeId);
+            release(handle);
+        }
+    }
+
+    /**
+     * Estadísticas de contención y latencia de adquisición
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("acquired", acquired.sum());
+        stats.put("contended", contended.sum());
+        stats.put("timeouts", timeouts.sum());
+        stats.put("lostLeases", lostLeases.sum());
+        stats.put("acquireP50Micros", acquireLatency.percentile(0.50) / 1000);
+        stats.put("acquireP99Micros", acquireLatency.percentile(0.99) / 1000);
+        stats.put("waiting", signals.size());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.values().forEach(DistributedLockManager::destroyQuietly);
+        subscriptions.clear();
+    }
+
+    private static void destroyQuietly(RedisMessageListenerContainer container) {
+        try {
+            container.destroy();
+        } catch (Exception e) {
+            logger.debug("Error cerrando suscripción de locks: {}", e.getMessage());
+        }
+    }
+
+    private long tryAcquire(RedisTemplate<String, Object> template, String lockKey, String token) {
+        Long result = template.execute(CacheScripts.LOCK_ACQUIRE, RedisSerializer.string(), LONG_SERIALIZER,
+                List.of(lockKey, InternalKeys.FENCE_KEY), token, String.valueOf(leaseMs));
+        return result != null ? result : -BACKOFF_BASE_MS;
+    }
+
+    private LockHandle acquired(String key, String nodeId, String token, long fencingToken, long start,
+                                long attemptAt) {
+        long waitNanos = System.nanoTime() - start;
+        acquired.increment();
+        acquireLatency.record(waitNanos);
+        metrics.recordLockAcquire(nodeId, true, waitNanos);
+        return new LockHandle(key, nodeId, token, fencingToken, attemptAt + leaseMs);
+    }
+
+    /**
+     * Backoff exponencial con "full jitter": aleatorio en [1, min(cap, base·2^intento)]
+     */
+    private static long backoffMs(int attempt) {
+        long ceiling = Math.min(BACKOFF_CAP_MS, BACKOFF_BASE_MS << Math.min(attempt, 16));
+        return 1 + ThreadLocalRandom.current().nextLong(ceiling);
+    }
+
+    /**
+     * Suscribe el canal de liberación del nodo la primera vez que hay
+     * contención; si falla se sigue esperando solo con backoff
+     */
+    private void subscribe(String nodeId, RedisTemplate<String, Object> template) {
+        if (!notificationsEnabled || subscriptions.containsKey(nodeId)
+                || System.currentTimeMillis() < subscribeRetryAt.getOrDefault(nodeId, 0L)) {
+            return;
+        }
+        // El contenedor se arranca fuera de computeIfAbsent: abre una conexión y
+        // no debe hacerse con el bin del mapa bloqueado (ni fijando un hilo virtual)
+        RedisMessageListenerContainer container;
+        try {
+            container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(template.getConnectionFactory());
+            container.addMessageListener((message, pattern) -> {
+                String lockKey = new String(message.getBody(), StandardCharsets.UTF_8);
+                LockSignal signal = signals.get(signalKey(nodeId, lockKey));
+                if (signal != null) {
+                    signal.signalAll();
+                }
+            }, new ChannelTopic(releaseChannel));
+            container.afterPropertiesSet();
+            container.start();
+        } catch (Exception e) {
+            logger.warn("No se pudo suscribir a liberaciones de locks en nodo {}: {}", nodeId, e.getMessage());
+            subscribeRetryAt.put(nodeId, System.currentTimeMillis() + SUBSCRIBE_RETRY_MS);
+            return;
+        }
+        if (subscriptions.putIfAbsent(nodeId, container) != null) {
+            // Otro hilo se suscribió primero
+            destroyQuietly(container);
+        }
+    }
+
+    private static String signalKey(String nodeId, String lockKey) {
+        return nodeId + "|" + lockKey;
+    }
+
+    /**
+     * Punto de espera local de un lock; la generación evita perder una
+     * notificación que llega entre el intento y la espera
+     */
+    private static final class LockSignal {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition released = lock.newCondition();
+        private long generation;
+        private int waiters;
+
+        LockSignal retain() {
+            lock.lock();
+            try {
+                waiters++;
+                return this;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return true si no quedan esperas y la señal se puede descartar
+         */
+        boolean release() {
+            lock.lock();
+            try {
+                return --waiters == 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long generation() {
+            lock.lock();
+            try {
+                return generation;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void await(long observedGeneration, long nanos) throws InterruptedException {
+            lock.lock();
+            try {
+                while (generation == observedGeneration && nanos > 0) {
+                    nanos = released.awaitNanos(nanos);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void signalAll() {
+            lock.lock();
+            try {
+                generation++;
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
         }
     }
 
@@ -76,4 +334,9 @@ public class DistributedLockManager {
     public interface LockOperation<T> {
         T execute() throws Exception;
     }
-}
\ No newline at end of file
+
+    @FunctionalInterface
+    public interface FencedOperation<T> {
+        T execute(LockHandle handle) throws Exception;
+    }
+}
@@ -0,0 +1,71 @@
+package com.jikkosoft.redis.cacheredis.lock;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Locks locales por clave. Serializa dentro del JVM las operaciones sobre
+ * una misma clave antes de pedir el lock en Redis, así solo un hilo por
+ * clave compite por el lock distribuido. Como ese lock se mantiene durante
+ * la espera en Redis y la replicación, cada clave tiene el suyo: claves
+ * distintas nunca se esperan entre sí. La entrada se crea al primer uso y
+ * se descarta cuando nadie la usa.
+ */
+public class KeyedLock {
+
+    private final Map<String, Entry> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Ejecuta la operación con el lock de la clave tomado
+     */
+    public <T> T executeWithLock(String key, DistributedLockManager.LockOperation<T> operation) throws Exception {
+        Entry entry = locks.compute(key, (k, existing) -> (existing != null ? existing : new Entry()).retain());
+        entry.lock.lock();
+        try {
+            return operation.execute();
+        } finally {
+            entry.lock.unlock();
+            locks.computeIfPresent(key, (k, existing) -> existing.release() ? null : existing);
+        }
+    }
+
+    /**
+     * Hilos esperando el lock de alguna clave (aproximado)
+     */
+    public int getQueueLength() {
+        int queued = 0;
+        for (Entry entry : locks.values()) {
+            queued += entry.lock.getQueueLength();
+        }
+        return queued;
+    }
+
+    /**
+     * Claves con el lock tomado o esperado
+     */
+    public int size() {
+        return locks.size();
+    }
+
+    /**
+     * Lock de una clave y cantidad de hilos que lo usan; el contador solo
+     * se modifica dentro de compute del mapa, que serializa por clave
+     */
+    private static final class Entry {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int users;
+
+        Entry retain() {
+            users++;
+            return this;
+        }
+
+        /**
+         * @return true si nadie más la usa y se puede descartar
+         */
+        boolean release() {
+            return --users == 0;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.jikkosoft.redis.cacheredis.lock;
+
+/**
+ * Lock adquirido: el token identifica al dueño para liberarlo de forma segura
+ * y el fencing token crece en cada adquisición del nodo. El fencing token es
+ * informativo (logs y diagnóstico): el contador es por nodo, así que no se
+ * puede comparar entre dueños cuando cambia el primario de la clave, y las
+ * réplicas no lo validan. Lo que sí se comprueba antes de escribir es el
+ * lease, con {@link #checkLease()}; el orden de las escrituras en las
+ * réplicas lo garantiza el createdAt de la entrada.
+ *
+ * @param leaseExpiresAt epoch millis en que vence el lease, medido desde
+ *                       antes del intento que lo obtuvo
+ */
+public record LockHandle(String key, String nodeId, String token, long fencingToken, long leaseExpiresAt) {
+
+    /**
+     * Handle sin vencimiento conocido
+     */
+    public LockHandle(String key, String nodeId, String token, long fencingToken) {
+        this(key, nodeId, token, fencingToken, Long.MAX_VALUE);
+    }
+
+    public boolean isLeaseExpired() {
+        return System.currentTimeMillis() >= leaseExpiresAt;
+    }
+
+    /**
+     * Falla si el lease ya venció: otro dueño pudo haber tomado el lock
+     */
+    public void checkLease() {
+        if (isLeaseExpired()) {
+            throw new IllegalStateException("Lease del lock de '" + key + "' vencido (fencing token "
+                    + fencingToken + ")");
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.jikkosoft.redis.cacheredis.metrics;
+
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas Micrometer del caché, expuestas en /actuator/prometheus.
+ * Cada combinación de tags se registra una sola vez y queda en un mapa
+ * concurrente: registrar una medición es una lectura del mapa sin lock
+ * más la actualización atómica del medidor, sin asignar por llamada.
+ */
+@Component
+public class CacheMetrics {
+
+    public static final String HIT = "hit";
+    public static final String MISS = "miss";
+    public static final String OK = "ok";
+    public static final String ERROR = "error";
+
+    private static final Duration MIN_LATENCY = Duration.ofNanos(50_000);
+    private static final Duration MAX_LATENCY = Duration.ofSeconds(10);
+
+    private final MeterRegistry registry;
+    private final ConsistentHashRing hashRing;
+
+    private final Map<String, Map<String, Timer>> operations = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Timer[]>> nodeRequests = new ConcurrentHashMap<>();
+    private final Map<String, Timer[]> lockAcquires = new ConcurrentHashMap<>();
+    // Por nodo: escrituras exitosas, fallidas y atraso de replicación
+    private final Map<String, Timer[]> replications = new ConcurrentHashMap<>();
+    private final Map<String, Counter> lostLeases = new ConcurrentHashMap<>();
+    private final DistributionSummary writtenBytes;
+    private final DistributionSummary readBytes;
+
+    public CacheMetrics(MeterRegistry registry, ConsistentHashRing hashRing) {
+        this.registry = registry;
+        this.hashRing = hashRing;
+        this.writtenBytes = payloadSummary("write");
+        this.readBytes = payloadSummary("read");
+        Gauge.builder("cache.ring.nodes", hashRing, ring -> ring.getAllNodes().size())
+                .description("Nodos físicos en el ring")
+                .register(registry);
+        Gauge.builder("cache.ring.transition", hashRing, ring -> ring.isInTransition() ? 1 : 0)
+                .description("1 mientras hay una migración de membresía en curso")
+                .register(registry);
+    }
+
+    /**
+     * Latencia de punta a punta de una operación del servicio con su resultado
+     */
+    public void recordOperation(String operation, String result, long nanos) {
+        Map<String, Timer> byResult = operations.get(operation);
+        if (byResult == null) {
+            byResult = operations.computeIfAbsent(operation, o -> new ConcurrentHashMap<>());
+        }
+        Timer timer = byResult.get(result);
+        if (timer == null) {
+            timer = byResult.computeIfAbsent(result, r -> latencyTimer("cache.operation",
+                    "Latencia de operaciones del caché")
+                    .tag("operation", operation)
+                    .tag("result", r)
+                    .register(registry));
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Latencia de un comando a un nodo (lectura o escritura de una réplica)
+     */
+    public void recordNodeRequest(String node, String operation, boolean success, long nanos) {
+        Map<String, Timer[]> byOperation = nodeRequests.get(node);
+        if (byOperation == null) {
+            byOperation = nodeRequests.computeIfAbsent(node, this::bindNode);
+        }
+        Timer[] timers = byOperation.get(operation);
+        if (timers == null) {
+            timers = byOperation.computeIfAbsent(operation, o -> outcomeTimers("cache.node.request",
+                    "Latencia de comandos por nodo", Tags.of("node", node, "operation", o), OK, ERROR));
+        }
+        timers[success ? 0 : 1].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Espera hasta obtener (o no) un lock distribuido
+     */
+    public void recordLockAcquire(String node, boolean acquired, long nanos) {
+        Timer[] timers = lockAcquires.get(node);
+        if (timers == null) {
+            timers = lockAcquires.computeIfAbsent(node, n -> outcomeTimers("cache.lock.acquire",
+                    "Espera por locks distribuidos", Tags.of("node", n), "acquired", "timeout"));
+        }
+        timers[acquired ? 0 : 1].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Lock cuyo lease venció antes de liberarse
+     */
+    public void recordLostLease(String node) {
+        lostLeases.computeIfAbsent(node, n -> Counter.builder("cache.lock.lost.leases")
+                .description("Locks que expiraron antes de liberarse")
+                .tag("node", n)
+                .register(registry)).increment();
+    }
+
+    /**
+     * Escritura de una réplica y cuánto tardó su confirmación respecto de la
+     * primera réplica de la misma escritura (0 para la primera)
+     */
+    public void recordReplication(String node, boolean success, long nanos, long lagNanos) {
+        Timer[] timers = replications.get(node);
+        if (timers == null) {
+            timers = replications.computeIfAbsent(node, n -> {
+                Timer[] created = outcomeTimers("cache.replication", "Escrituras de réplicas",
+                        Tags.of("node", n), OK, ERROR);
+                Timer lag = latencyTimer("cache.replication.lag",
+                        "Atraso de cada réplica respecto de la primera confirmación")
+                        .tags(Tags.of("node", n))
+                        .register(registry);
+                return new Timer[]{created[0], created[1], lag};
+            });
+        }
+        timers[success ? 0 : 1].record(nanos, TimeUnit.NANOSECONDS);
+        if (success) {
+            timers[2].record(lagNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Tamaño serializado de un valor escrito en Redis
+     */
+    public void recordWrittenBytes(int bytes) {
+        writtenBytes.record(bytes);
+    }
+
+    /**
+     * Tamaño serializado de un valor leído de Redis
+     */
+    public void recordReadBytes(int bytes) {
+        readBytes.record(bytes);
+    }
+
+    /**
+     * Primera medición de un nodo: registra también su fracción del ring
+     */
+    private Map<String, Timer[]> bindNode(String node) {
+        Gauge.builder("cache.ring.ownership", hashRing, ring -> ownershipShare(ring, node))
+                .description("Fracción del espacio de hash que pertenece al nodo")
+                .tag("node", node)
+                .register(registry);
+        return new ConcurrentHashMap<>();
+    }
+
+    private static double ownershipShare(ConsistentHashRing ring, String node) {
+        Map<String, Object> stats = ring.getRingStats().get(node);
+        return stats != null ? ((Number) stats.get("ownershipShare")).doubleValue() : 0;
+    }
+
+    /**
+     * Par de timers del mismo nombre que se distinguen por el tag result
+     */
+    private Timer[] outcomeTimers(String name, String description, Tags tags, String success, String failure) {
+        return new Timer[]{
+                latencyTimer(name, description).tags(tags).tag("result", success).register(registry),
+                latencyTimer(name, description).tags(tags).tag("result", failure).register(registry)};
+    }
+
+    private static Timer.Builder latencyTimer(String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_LATENCY)
+                .maximumExpectedValue(MAX_LATENCY);
+    }
+
+    private DistributionSummary payloadSummary(String direction) {
+        return DistributionSummary.builder("cache.payload.size")
+                .description("Tamaño serializado de los valores")
+                .baseUnit("bytes")
+                .tag("direction", direction)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(16.0)
+                .maximumExpectedValue(64.0 * 1024 * 1024)
+                .register(registry);
+    }
+}
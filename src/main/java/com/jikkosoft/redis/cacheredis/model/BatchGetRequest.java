@@ -0,0 +1,14 @@
+package com.jikkosoft.redis.cacheredis.model;
+
+import java.util.List;
+
+/**
+ * Request para POST /api/cache/_mget
+ */
+public record BatchGetRequest(List<String> keys) {
+    public BatchGetRequest {
+        if (keys == null || keys.isEmpty()) {
+            throw new IllegalArgumentException("La lista de claves no puede estar vacía");
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.jikkosoft.redis.cacheredis.model;
+
+/**
+ * Estado de una clave dentro de una operación batch
+ */
+public record BatchItemResult(String key, BatchStatus status, String node, Object value, String error) {
+
+    public static BatchItemResult hit(String key, String node, Object value) {
+        return new BatchItemResult(key, BatchStatus.HIT, node, value, null);
+    }
+
+    public static BatchItemResult miss(String key, String node) {
+        return new BatchItemResult(key, BatchStatus.MISS, node, null, null);
+    }
+
+    public static BatchItemResult stored(String key, String node) {
+        return new BatchItemResult(key, BatchStatus.STORED, node, null, null);
+    }
+
+    public static BatchItemResult error(String key, String node, String error) {
+        return new BatchItemResult(key, BatchStatus.ERROR, node, null, error);
+    }
+}
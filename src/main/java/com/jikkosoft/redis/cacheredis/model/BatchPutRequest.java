@@ -0,0 +1,25 @@
+package com.jikkosoft.redis.cacheredis.model;
+
+import java.util.List;
+
+/**
+ * Request para POST /api/cache/_mput
+ */
+public record BatchPutRequest(List<Item> items) {
+    public BatchPutRequest {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("La lista de elementos no puede estar vacía");
+        }
+    }
+
+    public record Item(String key, Object value, Long ttlSeconds) {
+        public Item {
+            if (key == null || key.isBlank()) {
+                throw new IllegalArgumentException("La clave no puede estar vacía");
+            }
+            if (ttlSeconds != null && ttlSeconds < 0) {
+                throw new IllegalArgumentException("TTL no puede ser negativo");
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.jikkosoft.redis.cacheredis.model;
+
+/**
+ * Resultado por clave de una operación batch
+ */
+public enum BatchStatus {
+    HIT,
+    MISS,
+    STORED,
+    ERROR
+}
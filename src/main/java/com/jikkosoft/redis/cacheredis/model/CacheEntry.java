@@ -3,10 +3,13 @@ package com.jikkosoft.redis.cacheredis.model;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
 
+// Metadatos antes del valor: el script de touch los localiza por posición en el JSON
+@JsonPropertyOrder({"createdAt", "expiresAt", "accessCount", "lastAccessed", "value"})
 public class CacheEntry {
     private final Object value;
     private final LocalDateTime createdAt;
@@ -14,9 +17,7 @@ public class CacheEntry {
     private long accessCount;
     private LocalDateTime lastAccessed;
 
-    @JsonCreator
-    public CacheEntry(@JsonProperty("value") Object value,
-                      @JsonProperty("ttlSeconds") long ttlSeconds) {
+    public CacheEntry(Object value, long ttlSeconds) {
         this.value = value;
         this.createdAt = LocalDateTime.now();
         this.expiresAt = ttlSeconds > 0 ? createdAt.plusSeconds(ttlSeconds) : null;
@@ -24,6 +25,22 @@ public class CacheEntry {
         this.lastAccessed = createdAt;
     }
 
+    /**
+     * Reconstruye una entrada leída de Redis con sus metadatos
+     */
+    @JsonCreator
+    public CacheEntry(@JsonProperty("value") Object value,
+                      @JsonProperty("createdAt") LocalDateTime createdAt,
+                      @JsonProperty("expiresAt") LocalDateTime expiresAt,
+                      @JsonProperty("accessCount") long accessCount,
+                      @JsonProperty("lastAccessed") LocalDateTime lastAccessed) {
+        this.value = value;
+        this.createdAt = createdAt != null ? createdAt : LocalDateTime.now();
+        this.expiresAt = expiresAt;
+        this.accessCount = accessCount;
+        this.lastAccessed = lastAccessed != null ? lastAccessed : this.createdAt;
+    }
+
     public Object getValue() { return value; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public LocalDateTime getExpiresAt() { return expiresAt; }
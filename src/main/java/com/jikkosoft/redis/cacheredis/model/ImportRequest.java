@@ -0,0 +1,16 @@
+package com.jikkosoft.redis.cacheredis.model;
+
+/**
+ * Request para POST /api/cache/_import: archivo dentro del directorio de
+ * snapshots y tope opcional de claves por segundo
+ */
+public record ImportRequest(String file, Long maxKeysPerSecond) {
+    public ImportRequest {
+        if (file == null || file.isBlank()) {
+            throw new IllegalArgumentException("El archivo no puede estar vacío");
+        }
+        if (maxKeysPerSecond != null && maxKeysPerSecond < 0) {
+            throw new IllegalArgumentException("El tope de claves por segundo no puede ser negativo");
+        }
+    }
+}
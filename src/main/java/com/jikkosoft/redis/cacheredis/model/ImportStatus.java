@@ -0,0 +1,23 @@
+package com.jikkosoft.redis.cacheredis.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progreso de la carga de un snapshot. Las escrituras se cuentan por
+ * réplica; el ETA se estima con los bytes leídos del archivo.
+ */
+public record ImportStatus(String state,
+                           String file,
+                           long totalBytes,
+                           long readBytes,
+                           long records,
+                           long skippedRecords,
+                           long writtenEntries,
+                           long existingEntries,
+                           long failedEntries,
+                           double recordsPerSecond,
+                           long etaSeconds,
+                           LocalDateTime startedAt,
+                           LocalDateTime finishedAt,
+                           String error) {
+}
@@ -0,0 +1,64 @@
+package com.jikkosoft.redis.cacheredis.model;
+
+import com.jikkosoft.redis.cacheredis.blob.BlobStore;
+import com.jikkosoft.redis.cacheredis.compression.CompressionDictionaries;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Claves internas que comparten el keyspace de Redis con las claves de los
+ * clientes. La API las rechaza como claves de usuario: escribir en una de
+ * ellas rompería el lock, el contador de fencing o un diccionario. Las
+ * demás claves bajo {@code lock:} siguen siendo claves de usuario.
+ */
+public final class InternalKeys {
+
+    /**
+     * Prefijo de los locks distribuidos por clave
+     */
+    public static final String LOCK_PREFIX = "lock:key:";
+
+    /**
+     * Contador de fencing de cada nodo
+     */
+    public static final String FENCE_KEY = "lock:fence";
+
+    /**
+     * Lease de la instancia que ejecuta la expulsión
+     */
+    public static final String EVICTION_LEADER_KEY = "lock:eviction:leader";
+
+    private static final Set<String> NODE_KEYS = Set.of(FENCE_KEY, EVICTION_LEADER_KEY);
+    private static final List<String> NODE_PREFIXES = List.of(LOCK_PREFIX, CompressionDictionaries.KEY_PREFIX);
+
+    private InternalKeys() {
+    }
+
+    /**
+     * Clave interna de cualquier tipo, incluidos los manifiestos y chunks de blobs
+     */
+    public static boolean isInternal(String key) {
+        return isNodeLocal(key) || key.startsWith(BlobStore.KEY_PREFIX);
+    }
+
+    /**
+     * Clave interna propia de cada nodo (locks, fencing, diccionarios), que
+     * no se reparte por el anillo ni se migra
+     */
+    public static boolean isNodeLocal(String key) {
+        return NODE_KEYS.contains(key) || NODE_PREFIXES.stream().anyMatch(key::startsWith);
+    }
+
+    /**
+     * Falla si la clave no puede usarse como clave de usuario
+     */
+    public static void checkUserKey(String key) {
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("La clave no puede estar vacía");
+        }
+        if (isInternal(key)) {
+            throw new IllegalArgumentException("La clave '" + key + "' está reservada para uso interno");
+        }
+    }
+}
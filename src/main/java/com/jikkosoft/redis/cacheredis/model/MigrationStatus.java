@@ -0,0 +1,19 @@
+package com.jikkosoft.redis.cacheredis.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progreso de la migración de claves tras un cambio de membresía
+ */
+public record MigrationStatus(String state,
+                              String operation,
+                              String node,
+                              long scannedKeys,
+                              long migratedKeys,
+                              long deletedKeys,
+                              long failedKeys,
+                              double keysPerSecond,
+                              LocalDateTime startedAt,
+                              LocalDateTime finishedAt,
+                              String error) {
+}
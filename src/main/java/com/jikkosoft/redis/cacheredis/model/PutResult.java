@@ -0,0 +1,8 @@
+package com.jikkosoft.redis.cacheredis.model;
+
+/**
+ * Resultado de un PUT replicado: réplicas que confirmaron la escritura
+ * al momento de responder
+ */
+public record PutResult(String primaryNode, int acknowledged, int replicas, String consistency) {
+}
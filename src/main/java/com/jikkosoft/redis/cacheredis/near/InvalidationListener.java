@@ -0,0 +1,63 @@
+package com.jikkosoft.redis.cacheredis.near;
+
+import com.jikkosoft.redis.cacheredis.bloom.KeyFilter;
+import com.jikkosoft.redis.cacheredis.hotkey.HotKeyTracker;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Receptor del canal de invalidación: aplica las escrituras de otras
+ * instancias a la caché local, las copias de claves calientes y el filtro
+ * de Bloom, y les avisa cuando la suscripción se pierde o se recupera
+ */
+public class InvalidationListener implements MessageListener, SubscriptionListener {
+
+    private final NearCache nearCache;
+    private final HotKeyTracker hotKeys;
+    private final KeyFilter keyFilter;
+
+    public InvalidationListener(NearCache nearCache, HotKeyTracker hotKeys, KeyFilter keyFilter) {
+        this.nearCache = nearCache;
+        this.hotKeys = hotKeys;
+        this.keyFilter = keyFilter;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        byte[] body = message.getBody();
+        // Mensaje vacío = invalidar todo
+        if (body == null || body.length == 0) {
+            nearCache.invalidateAll();
+            hotKeys.invalidateAll();
+            return;
+        }
+        String key = new String(body, StandardCharsets.UTF_8);
+        nearCache.invalidate(key);
+        // Las copias de claves calientes usan el mismo canal
+        hotKeys.invalidate(key);
+        // Escritura de otra instancia: el filtro de Bloom local no la vio
+        keyFilter.add(key);
+    }
+
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        hotKeys.onInvalidationSubscribed();
+        keyFilter.onInvalidationSubscribed();
+    }
+
+    @Override
+    public void onChannelUnsubscribed(byte[] channel, long count) {
+        onConnectionLost();
+    }
+
+    /**
+     * La conexión de la suscripción falló; el contenedor reintentará
+     */
+    public void onConnectionLost() {
+        hotKeys.onInvalidationLost();
+        keyFilter.onInvalidationLost();
+    }
+}
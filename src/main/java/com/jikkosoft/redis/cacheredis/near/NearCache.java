@@ -0,0 +1,432 @@
+package com.jikkosoft.redis.cacheredis.near;
+
+import com.jikkosoft.redis.cacheredis.sketch.FrequencySketch;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caché L1 en memoria del JVM delante de Redis.
+ * Tamaño acotado con política W-TinyLFU: una ventana LRU pequeña para
+ * absorber ráfagas y una región principal SLRU (probation/protected) cuya
+ * admisión la decide un sketch de frecuencias. La invalidación entre
+ * instancias se propaga por un canal pub/sub de Redis.
+ */
+@Component
+public class NearCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearCache.class);
+    private static final int STAMP_STRIPES = 1024;
+
+    @Autowired
+    private Map<String, RedisTemplate<String, Object>> redisTemplateMap;
+
+    @Value("${cache.near.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cache.near.maximum-size:10000}")
+    private int maximumSize;
+
+    @Value("${cache.near.max-ttl-seconds:60}")
+    private long maxTtlSeconds;
+
+    @Value("${cache.near.invalidation-channel:cache:near:invalidate}")
+    private String invalidationChannel;
+
+    @Value("${cache.near.invalidation-node:node1}")
+    private String invalidationNode;
+
+    // El canal también lo escuchan las claves calientes y los filtros de Bloom:
+    // se publica aunque la caché local esté apagada
+    private volatile boolean broadcast;
+
+    private final ConcurrentHashMap<String, Node> data = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AccessQueue window = new AccessQueue();
+    private final AccessQueue probation = new AccessQueue();
+    private final AccessQueue protectedQueue = new AccessQueue();
+    private FrequencySketch sketch;
+    private int windowMaximum;
+    private int protectedMaximum;
+
+    // Marca por franja de claves: una invalidación durante la lectura descarta el valor
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        int capacity = Math.max(maximumSize, 2);
+        this.sketch = new FrequencySketch(capacity);
+        this.windowMaximum = Math.max(1, capacity / 100);
+        int mainMaximum = capacity - windowMaximum;
+        this.protectedMaximum = (int) (mainMaximum * 0.8);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Valor local de la clave si existe y no ha expirado
+     */
+    public Optional<Object> get(String key) {
+        Node node = data.get(key);
+        if (node == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        if (node.isExpired(System.currentTimeMillis())) {
+            remove(key);
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        // Se espera el lock: omitir el acierto subestimaría la frecuencia de las claves más leídas
+        evictionLock.lock();
+        try {
+            sketch.increment(key);
+            onHit(node);
+        } finally {
+            evictionLock.unlock();
+        }
+        return Optional.of(node.value);
+    }
+
+    /**
+     * Marca de invalidación a capturar antes de leer de Redis la clave
+     */
+    public long stamp(String key) {
+        return stamps.get(stripe(key));
+    }
+
+    /**
+     * Guarda un valor leído de Redis; se descarta si hubo una invalidación
+     * en la franja de la clave después de {@code stamp}, para no publicar un
+     * valor ya reemplazado.
+     */
+    public void put(String key, Object value, LocalDateTime expiresAt, long stamp) {
+        long now = System.currentTimeMillis();
+        long deadline = now + maxTtlSeconds * 1000;
+        if (expiresAt != null) {
+            deadline = Math.min(deadline, expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        if (deadline <= now) {
+            return;
+        }
+
+        evictionLock.lock();
+        try {
+            if (stamps.get(stripe(key)) != stamp) {
+                return;
+            }
+            sketch.increment(key);
+            Node existing = data.get(key);
+            if (existing != null) {
+                existing.value = value;
+                existing.expiresAtMillis = deadline;
+                onHit(existing);
+                return;
+            }
+            Node node = new Node(key, value, deadline);
+            data.put(key, node);
+            window.addLast(node);
+            node.queue = window;
+            evictFromWindow();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Invalida la clave localmente y en el resto de instancias
+     */
+    public void invalidateCluster(String key) {
+        if (!enabled && !broadcast) {
+            return;
+        }
+        invalidate(key);
+        publish(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Invalida varias claves localmente y en el resto de instancias
+     * publicando todos los mensajes en un único pipeline
+     */
+    public void invalidateCluster(Collection<String> keys) {
+        if ((!enabled && !broadcast) || keys.isEmpty()) {
+            return;
+        }
+        keys.forEach(this::invalidate);
+
+        RedisTemplate<String, Object> template = redisTemplateMap.get(invalidationNode);
+        if (template == null) {
+            logger.warn("Nodo de invalidación '{}' no configurado", invalidationNode);
+            return;
+        }
+        byte[] channel = invalidationChannel.getBytes(StandardCharsets.UTF_8);
+        try {
+            template.executePipelined((RedisCallback<Object>) connection -> {
+                for (String key : keys) {
+                    connection.publish(channel, key.getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            logger.warn("Error publicando invalidaciones en canal '{}': {}", invalidationChannel, e.getMessage());
+        }
+    }
+
+    /**
+     * Invalida todas las claves localmente y en el resto de instancias
+     */
+    public void invalidateAllCluster() {
+        if (!enabled && !broadcast) {
+            return;
+        }
+        invalidateAll();
+        publish(new byte[0]);
+    }
+
+    /**
+     * Invalidación local de una clave
+     */
+    public void invalidate(String key) {
+        stamps.incrementAndGet(stripe(key));
+        invalidations.increment();
+        remove(key);
+    }
+
+    /**
+     * Invalidación local de todas las claves
+     */
+    public void invalidateAll() {
+        evictionLock.lock();
+        try {
+            for (int i = 0; i < STAMP_STRIPES; i++) {
+                stamps.incrementAndGet(i);
+            }
+            invalidations.increment();
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedQueue.clear();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Publica las invalidaciones aunque la caché local esté deshabilitada
+     */
+    public void enableBroadcast() {
+        broadcast = true;
+    }
+
+    public String getInvalidationChannel() {
+        return invalidationChannel;
+    }
+
+    public String getInvalidationNode() {
+        return invalidationNode;
+    }
+
+    /**
+     * Estadísticas de aciertos de la caché local
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("size", data.size());
+        stats.put("maximumSize", maximumSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", total == 0 ? 0.0 : (double) hitCount / total);
+        stats.put("evictions", evictions.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    private void publish(byte[] message) {
+        RedisTemplate<String, Object> template = redisTemplateMap.get(invalidationNode);
+        if (template == null) {
+            logger.warn("Nodo de invalidación '{}' no configurado", invalidationNode);
+            return;
+        }
+        byte[] channel = invalidationChannel.getBytes(StandardCharsets.UTF_8);
+        try {
+            template.execute((RedisCallback<Long>) connection -> connection.publish(channel, message));
+        } catch (Exception e) {
+            logger.warn("Error publicando invalidación en canal '{}': {}", invalidationChannel, e.getMessage());
+        }
+    }
+
+    private static int stripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STAMP_STRIPES - 1);
+    }
+
+    private void remove(String key) {
+        evictionLock.lock();
+        try {
+            Node node = data.remove(key);
+            if (node != null && node.queue != null) {
+                node.queue.remove(node);
+                node.queue = null;
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Reordena el nodo según la región donde se encuentra
+     */
+    private void onHit(Node node) {
+        if (node.queue == window) {
+            window.moveToLast(node);
+        } else if (node.queue == probation) {
+            probation.remove(node);
+            protectedQueue.addLast(node);
+            node.queue = protectedQueue;
+            while (protectedQueue.size > protectedMaximum) {
+                Node demoted = protectedQueue.removeFirst();
+                probation.addLast(demoted);
+                demoted.queue = probation;
+            }
+        } else if (node.queue == protectedQueue) {
+            protectedQueue.moveToLast(node);
+        }
+    }
+
+    /**
+     * Mueve el exceso de la ventana a probation y aplica la admisión TinyLFU
+     */
+    private void evictFromWindow() {
+        while (window.size > windowMaximum) {
+            Node candidate = window.removeFirst();
+            probation.addLast(candidate);
+            candidate.queue = probation;
+            if (data.size() > maximumSize) {
+                Node victim = probation.peekFirst();
+                Node evicted = admit(candidate, victim) ? victim : candidate;
+                probation.remove(evicted);
+                evicted.queue = null;
+                data.remove(evicted.key, evicted);
+                evictions.increment();
+            }
+        }
+    }
+
+    private boolean admit(Node candidate, Node victim) {
+        if (victim == null || victim == candidate) {
+            return false;
+        }
+        return sketch.frequency(candidate.key) > sketch.frequency(victim.key);
+    }
+
+    private static final class Node {
+        final String key;
+        volatile Object value;
+        volatile long expiresAtMillis;
+        AccessQueue queue;
+        Node prev;
+        Node next;
+
+        Node(String key, Object value, long expiresAtMillis) {
+            this.key = key;
+            this.value = value;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+
+    /**
+     * Lista doblemente enlazada en orden de acceso (LRU al inicio)
+     */
+    private static final class AccessQueue {
+        Node head;
+        Node tail;
+        int size;
+
+        void addLast(Node node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        Node peekFirst() {
+            return head;
+        }
+
+        Node removeFirst() {
+            Node node = head;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+
+        void remove(Node node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+
+        void moveToLast(Node node) {
+            if (tail != node) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        void clear() {
+            head = null;
+            tail = null;
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.jikkosoft.redis.cacheredis.routing;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias con buckets logarítmicos (factor 1.3 desde 1 µs,
+ * hasta ~15 s). Se actualiza sin locks; cada cierto número de muestras
+ * los contadores se dividen a la mitad para que refleje el comportamiento reciente.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 64;
+    private static final double BASE = 1.3;
+    private static final double LOG_BASE = Math.log(BASE);
+    private static final long DECAY_EVERY = 10_000;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong samples = new AtomicLong();
+
+    public void record(long nanos) {
+        counts.incrementAndGet(bucketOf(nanos));
+        if (samples.incrementAndGet() % DECAY_EVERY == 0) {
+            decay();
+        }
+    }
+
+    /**
+     * Percentil aproximado (límite superior del bucket) en nanosegundos;
+     * 0 si no hay muestras
+     */
+    public long percentile(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long threshold = (long) Math.ceil(total * percentile);
+        long accumulated = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            accumulated += snapshot[i];
+            if (accumulated >= threshold) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    public long getSampleCount() {
+        return samples.get();
+    }
+
+    private void decay() {
+        for (int i = 0; i < BUCKETS; i++) {
+            long value;
+            do {
+                value = counts.get(i);
+            } while (!counts.compareAndSet(i, value, value >>> 1));
+        }
+    }
+
+    private static int bucketOf(long nanos) {
+        double micros = Math.max(nanos / 1000.0, 1.0);
+        int bucket = (int) (Math.log(micros) / LOG_BASE);
+        return Math.min(Math.max(bucket, 0), BUCKETS - 1);
+    }
+
+    private static long upperBound(int bucket) {
+        return (long) (Math.pow(BASE, bucket + 1) * 1000);
+    }
+}
@@ -0,0 +1,157 @@
+package com.jikkosoft.redis.cacheredis.routing;
+
+import com.jikkosoft.redis.cacheredis.hash.NodeLoadTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Elige la réplica para una lectura según la latencia observada:
+ * "power of two choices" sobre un EWMA de latencia ponderado por la carga
+ * en vuelo. También decide cuándo lanzar una lectura de cobertura (hedge):
+ * cuando la réplica elegida tarda más que su p95 observado.
+ */
+@Component
+public class ReplicaSelector {
+
+    private static final double EWMA_ALPHA = 0.2;
+
+    @Autowired
+    private NodeLoadTracker loadTracker;
+
+    @Value("${cache.read.hedge.enabled:true}")
+    private boolean hedgeEnabled = true;
+
+    @Value("${cache.read.hedge.min-delay-ms:2}")
+    private long hedgeMinDelayMs = 2;
+
+    private final Map<String, NodeLatency> latencies = new ConcurrentHashMap<>();
+    private final LatencyHistogram readLatency = new LatencyHistogram();
+    private final LongAdder hedgesIssued = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+
+    /**
+     * Ordena las réplicas: la primera es la elegida por P2C, la segunda la
+     * alternativa para el hedge y el resto queda para failover
+     */
+    public List<String> rank(List<String> replicas) {
+        if (replicas.size() < 2) {
+            return replicas;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int a = random.nextInt(replicas.size());
+        int b = random.nextInt(replicas.size() - 1);
+        if (b >= a) {
+            b++;
+        }
+        String first = replicas.get(a);
+        String second = replicas.get(b);
+        if (score(second) < score(first)) {
+            String tmp = first;
+            first = second;
+            second = tmp;
+        }
+
+        List<String> ranked = new ArrayList<>(replicas.size());
+        ranked.add(first);
+        ranked.add(second);
+        for (String replica : replicas) {
+            if (!replica.equals(first) && !replica.equals(second)) {
+                ranked.add(replica);
+            }
+        }
+        return ranked;
+    }
+
+    /**
+     * Registra la latencia de una lectura al nodo
+     */
+    public void record(String node, long nanos) {
+        latencies.computeIfAbsent(node, n -> new NodeLatency()).record(nanos);
+    }
+
+    /**
+     * Registra la latencia total de un GET (incluido el hedge si lo hubo)
+     */
+    public void recordRead(long nanos) {
+        readLatency.record(nanos);
+    }
+
+    public boolean isHedgeEnabled() {
+        return hedgeEnabled;
+    }
+
+    /**
+     * Tiempo a esperar antes de lanzar el hedge: el p95 observado del nodo,
+     * con un mínimo para no duplicar lecturas sin muestras suficientes
+     */
+    public long hedgeDelayNanos(String node) {
+        long minNanos = TimeUnit.MILLISECONDS.toNanos(hedgeMinDelayMs);
+        NodeLatency latency = latencies.get(node);
+        if (latency == null) {
+            return minNanos;
+        }
+        return Math.max(minNanos, latency.histogram.percentile(0.95));
+    }
+
+    public void recordHedge() {
+        hedgesIssued.increment();
+    }
+
+    public void recordHedgeWon() {
+        hedgesWon.increment();
+    }
+
+    /**
+     * Latencia por nodo, percentiles de lectura y efectividad de los hedges
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> nodes = new LinkedHashMap<>();
+        latencies.forEach((node, latency) -> {
+            Map<String, Object> nodeStats = new LinkedHashMap<>();
+            nodeStats.put("ewmaMicros", latency.ewmaNanos / 1000.0);
+            nodeStats.put("p95Micros", latency.histogram.percentile(0.95) / 1000);
+            nodeStats.put("p99Micros", latency.histogram.percentile(0.99) / 1000);
+            nodeStats.put("inFlight", loadTracker.getInFlight(node));
+            nodes.put(node, nodeStats);
+        });
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("nodes", nodes);
+        stats.put("readP50Micros", readLatency.percentile(0.50) / 1000);
+        stats.put("readP95Micros", readLatency.percentile(0.95) / 1000);
+        stats.put("readP99Micros", readLatency.percentile(0.99) / 1000);
+        stats.put("readP999Micros", readLatency.percentile(0.999) / 1000);
+        stats.put("reads", readLatency.getSampleCount());
+        stats.put("hedgesIssued", hedgesIssued.sum());
+        stats.put("hedgesWon", hedgesWon.sum());
+        return stats;
+    }
+
+    private double score(String node) {
+        NodeLatency latency = latencies.get(node);
+        double ewma = latency != null ? latency.ewmaNanos : 0;
+        return ewma * (loadTracker.getInFlight(node) + 1);
+    }
+
+    private static final class NodeLatency {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        // Actualización sin sincronizar: una muestra perdida no altera el promedio
+        volatile double ewmaNanos;
+
+        void record(long nanos) {
+            histogram.record(nanos);
+            double current = ewmaNanos;
+            ewmaNanos = current == 0 ? nanos : current + EWMA_ALPHA * (nanos - current);
+        }
+    }
+}
@@ -0,0 +1,546 @@
+package com.jikkosoft.redis.cacheredis.scan;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.jikkosoft.redis.cacheredis.codec.CacheEntryCodec;
+import com.jikkosoft.redis.cacheredis.compression.ValueCompressor;
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.model.CacheEntry;
+import com.jikkosoft.redis.cacheredis.model.InternalKeys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recorrido y exportación del contenido del clúster sin KEYS.
+ * Cada nodo se recorre con SCAN en paralelo y los valores se leen con
+ * GET + PTTL en un pipeline por lote. Una clave replicada se entrega una
+ * sola vez: la emite el primer nodo vivo de su lista de preferencia, y las
+ * copias que ya no pertenecen al nodo (p. ej. tras una migración) se omiten.
+ *
+ * En la exportación cada nodo produce lotes en su propio hilo hacia una cola
+ * acotada que vacía el hilo de la respuesta. Si el cliente lee lento la cola
+ * se llena y los SCAN se detienen, así la memoria queda acotada por
+ * queue-batches x batch-size entradas sin importar el tamaño del clúster.
+ */
+@Component
+public class ClusterScanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterScanner.class);
+
+    static final String START_CURSOR = "0";
+    private static final long POLL_MILLIS = 100;
+
+    @Autowired
+    private Map<String, RedisTemplate<String, Object>> redisTemplateMap;
+
+    @Autowired
+    private ConsistentHashRing hashRing;
+
+    @Autowired
+    private ValueCompressor valueCompressor;
+
+    @Autowired
+    @Qualifier("cacheNodeExecutor")
+    private Executor nodeExecutor;
+
+    @Autowired
+    @Qualifier("cacheScanExecutor")
+    private Executor scanExecutor;
+
+    @Value("${cache.replication.factor:2}")
+    private int replicationFactor = 2;
+
+    @Value("${cache.scan.page-size:100}")
+    private int pageSize = 100;
+
+    @Value("${cache.scan.max-page-size:1000}")
+    private int maxPageSize = 1000;
+
+    @Value("${cache.scan.export.batch-size:500}")
+    private int exportBatchSize = 500;
+
+    @Value("${cache.scan.export.queue-batches:8}")
+    private int queueBatches = 8;
+
+    @Value("${cache.scan.export.max-keys-per-second:50000}")
+    private long maxKeysPerSecond = 50_000;
+
+    @Value("${cache.scan.export.max-concurrent:2}")
+    private int maxConcurrentExports = 2;
+
+    // Una exportación reservada que no empieza a escribirse en este plazo libera su lugar
+    @Value("${cache.scan.export.start-timeout-ms:30000}")
+    private long exportStartTimeoutMs = 30_000;
+
+    private final CacheEntryCodec codec = new CacheEntryCodec();
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private Semaphore exportPermits;
+
+    private final LongAdder pages = new LongAdder();
+    private final LongAdder exports = new LongAdder();
+    private final LongAdder exportedKeys = new LongAdder();
+    private final LongAdder skippedCopies = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        this.exportPermits = new Semaphore(maxConcurrentExports);
+    }
+
+    /**
+     * Devuelve la siguiente página del recorrido. El cursor codifica el
+     * cursor de SCAN de cada nodo; null o "0" empieza desde el principio.
+     * Un nodo caído se salta en esta página y conserva su cursor.
+     */
+    public ScanPage scan(String prefix, String cursor, Integer count) {
+        int limit = count != null ? count : pageSize;
+        if (limit <= 0 || limit > maxPageSize) {
+            throw new IllegalArgumentException("count debe estar entre 1 y " + maxPageSize);
+        }
+        Map<String, String> cursors = decodeCursor(cursor);
+        Set<String> live = liveNodes();
+        String pattern = matchPattern(prefix);
+
+        Map<String, ScanPage> nodePages = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        cursors.forEach((node, nodeCursor) -> {
+            if (live.contains(node)) {
+                futures.add(CompletableFuture.runAsync(() ->
+                        nodePages.put(node, scanNode(node, nodeCursor, pattern, limit, live)), nodeExecutor));
+            }
+        });
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture<?>[]::new)).join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Error recorriendo el clúster: " + e.getCause().getMessage(), e);
+        }
+
+        List<ScanItem> items = new ArrayList<>();
+        Map<String, String> next = new LinkedHashMap<>();
+        cursors.forEach((node, nodeCursor) -> {
+            ScanPage nodePage = nodePages.get(node);
+            if (nodePage == null) {
+                next.put(node, nodeCursor);
+                return;
+            }
+            items.addAll(nodePage.items());
+            if (!nodePage.isFinished()) {
+                next.put(node, nodePage.cursor());
+            }
+        });
+        pages.increment();
+        return new ScanPage(items, encodeCursor(next));
+    }
+
+    /**
+     * Escribe las entradas como NDJSON, una por línea
+     */
+    public void writeItems(List<ScanItem> items, OutputStream out) throws IOException {
+        for (ScanItem item : items) {
+            writeLine(item, out);
+        }
+    }
+
+    /**
+     * Reserva un lugar para exportar las claves con el prefijo. Si la
+     * respuesta nunca llega a escribirse (el cliente se fue antes del
+     * despacho asíncrono) el lugar se libera al vencer el plazo de inicio.
+     *
+     * @throws IllegalStateException si ya hay demasiadas exportaciones en curso
+     */
+    public Export beginExport(String prefix) {
+        if (!exportPermits.tryAcquire()) {
+            throw new IllegalStateException("Ya hay " + maxConcurrentExports + " exportaciones en curso");
+        }
+        Export export = new Export(matchPattern(prefix));
+        CompletableFuture.delayedExecutor(exportStartTimeoutMs, TimeUnit.MILLISECONDS).execute(export::expire);
+        return export;
+    }
+
+    /**
+     * Exportación reservada; libera su lugar al terminar de escribir o, si
+     * no empezó, al vencer su plazo de inicio
+     */
+    public final class Export {
+
+        private final String pattern;
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        private Export(String pattern) {
+            this.pattern = pattern;
+        }
+
+        /**
+         * Escribe todo el contenido como NDJSON. Si un nodo falla se agrega
+         * una línea {@code {"node":..., "error":...}} y la exportación sigue
+         * con los demás.
+         */
+        public void writeTo(OutputStream out) throws IOException {
+            if (!started.compareAndSet(false, true)) {
+                throw new IllegalStateException("La exportación ya se escribió o venció antes de empezar");
+            }
+            try {
+                export(pattern, out);
+            } finally {
+                exportPermits.release();
+            }
+        }
+
+        private void expire() {
+            if (started.compareAndSet(false, true)) {
+                exportPermits.release();
+                logger.warn("Exportación con prefijo '{}' liberada sin haber empezado", pattern);
+            }
+        }
+    }
+
+    private void export(String pattern, OutputStream out) throws IOException {
+        exports.increment();
+        Set<String> live = liveNodes();
+        BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(queueBatches);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        for (String node : live) {
+            scanExecutor.execute(() -> produce(node, pattern, live, queue, cancelled));
+        }
+
+        int finished = 0;
+        try {
+            while (finished < live.size()) {
+                Batch batch = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (batch == null) {
+                    continue;
+                }
+                writeItems(batch.items(), out);
+                if (batch.error() != null) {
+                    writeLine(Map.of("node", batch.node(), "error", batch.error()), out);
+                }
+                if (batch.last()) {
+                    finished++;
+                }
+                exportedKeys.add(batch.items().size());
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Exportación interrumpida", e);
+        } finally {
+            // Si el cliente se desconectó los productores dejan de recorrer
+            cancelled.set(true);
+            queue.clear();
+        }
+    }
+
+    /**
+     * Recorre el nodo completo entregando lotes a la cola; el último lote
+     * (vacío, con el error si lo hubo) marca el fin del nodo
+     */
+    private void produce(String node, String pattern, Set<String> live,
+                         BlockingQueue<Batch> queue, AtomicBoolean cancelled) {
+        String error = null;
+        try {
+            RedisTemplate<String, Object> template = redisTemplateMap.get(node);
+            ScanOptions options = ScanOptions.scanOptions().match(pattern).count(exportBatchSize).build();
+            List<String> keys = new ArrayList<>(exportBatchSize);
+            long startNanos = System.nanoTime();
+            long scanned = 0;
+
+            try (Cursor<String> cursor = template.scan(options)) {
+                while (cursor.hasNext() && !cancelled.get()) {
+                    String key = cursor.next();
+                    if (isExportable(node, key, live)) {
+                        keys.add(key);
+                    }
+                    if (keys.size() >= exportBatchSize) {
+                        if (!publish(queue, new Batch(node, fetch(node, keys), null, false), cancelled)) {
+                            return;
+                        }
+                        keys = new ArrayList<>(exportBatchSize);
+                    }
+                    if (++scanned % exportBatchSize == 0) {
+                        throttle(startNanos, scanned);
+                    }
+                }
+            }
+            if (!keys.isEmpty() && !publish(queue, new Batch(node, fetch(node, keys), null, false), cancelled)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            error = e.getMessage();
+            logger.warn("Error exportando nodo {}: {}", node, e.getMessage());
+        }
+        try {
+            publish(queue, new Batch(node, List.of(), error, true), cancelled);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Espera lugar en la cola mientras la exportación siga activa
+     */
+    private static boolean publish(BlockingQueue<Batch> queue, Batch batch, AtomicBoolean cancelled)
+            throws InterruptedException {
+        while (!cancelled.get()) {
+            if (queue.offer(batch, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Duerme lo necesario para que el ritmo de SCAN del nodo no supere maxKeysPerSecond
+     */
+    private void throttle(long startNanos, long scanned) throws InterruptedException {
+        if (maxKeysPerSecond <= 0) {
+            return;
+        }
+        long expectedNanos = scanned * 1_000_000_000L / maxKeysPerSecond;
+        long aheadNanos = expectedNanos - (System.nanoTime() - startNanos);
+        if (aheadNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(aheadNanos);
+        }
+    }
+
+    /**
+     * Una llamada a SCAN desde el cursor del nodo, con los valores de las claves propias
+     */
+    private ScanPage scanNode(String node, String cursor, String pattern, int count, Set<String> live) {
+        RedisTemplate<String, Object> template = redisTemplateMap.get(node);
+        Object reply = template.execute((RedisCallback<Object>) connection -> connection.execute("SCAN",
+                bytes(cursor), bytes("MATCH"), bytes(pattern), bytes("COUNT"), bytes(String.valueOf(count))));
+        if (!(reply instanceof List<?> parts) || parts.size() != 2
+                || !(parts.get(0) instanceof byte[] nextCursor) || !(parts.get(1) instanceof List<?> rawKeys)) {
+            throw new IllegalStateException("Respuesta inesperada de SCAN en nodo " + node);
+        }
+
+        List<String> keys = new ArrayList<>(rawKeys.size());
+        for (Object rawKey : rawKeys) {
+            String key = new String((byte[]) rawKey, StandardCharsets.UTF_8);
+            if (isExportable(node, key, live)) {
+                keys.add(key);
+            }
+        }
+        return new ScanPage(fetch(node, keys), new String(nextCursor, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * GET + PTTL de las claves en un pipeline; omite las vencidas, las que
+     * desaparecieron y las que no son entradas del caché
+     */
+    @SuppressWarnings("unchecked")
+    private List<ScanItem> fetch(String node, List<String> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        RedisTemplate<String, Object> template = redisTemplateMap.get(node);
+        RedisSerializer<Object> serializer = (RedisSerializer<Object>) template.getValueSerializer();
+        List<Object> results;
+        try {
+            // Sin serializador: cada valor se decodifica aparte para que uno inválido no tire el lote
+            results = template.executePipelined((RedisCallback<Object>) connection -> {
+                for (String key : keys) {
+                    byte[] rawKey = bytes(key);
+                    connection.stringCommands().get(rawKey);
+                    connection.keyCommands().pTtl(rawKey);
+                }
+                return null;
+            }, null);
+        } catch (RedisPipelineException e) {
+            results = e.getPipelineResult(); // WRONGTYPE en claves que no son strings
+        }
+
+        List<ScanItem> items = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            if (!(results.get(2 * i) instanceof byte[] raw) || !(results.get(2 * i + 1) instanceof Long ttl) || ttl == -2) {
+                continue;
+            }
+            CacheEntry entry = decode(serializer, raw);
+            if (entry == null || entry.isExpired()) {
+                continue;
+            }
+            String key = keys.get(i);
+            items.add(new ScanItem(key, valueCompressor.decompress(key, entry.getValue()), ttl, entry.getExpiresAt(), node));
+        }
+        return items;
+    }
+
+    private CacheEntry decode(RedisSerializer<Object> serializer, byte[] raw) {
+        try {
+            Object object = serializer.deserialize(raw);
+            if (object instanceof CacheEntry entry) {
+                return entry;
+            }
+            // Entradas JSON del formato anterior
+            return object instanceof LinkedHashMap ? codec.convert(object) : null;
+        } catch (SerializationException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * La clave se emite desde este nodo solo si es el primer nodo vivo de su lista de preferencia
+     */
+    private boolean isExportable(String node, String key, Set<String> live) {
+        // Locks, diccionarios y blobs no son entradas del caché
+        if (InternalKeys.isInternal(key)) {
+            return false;
+        }
+        for (String owner : hashRing.getNodes(key, replicationFactor)) {
+            if (live.contains(owner)) {
+                if (owner.equals(node)) {
+                    return true;
+                }
+                break;
+            }
+        }
+        skippedCopies.increment();
+        return false;
+    }
+
+    private Set<String> liveNodes() {
+        Set<String> live = ConcurrentHashMap.newKeySet();
+        CompletableFuture.allOf(hashRing.getAllNodes().stream()
+                .map(node -> CompletableFuture.runAsync(() -> {
+                    if (ping(node)) {
+                        live.add(node);
+                    }
+                }, nodeExecutor))
+                .toArray(CompletableFuture<?>[]::new)).join();
+        return live;
+    }
+
+    private boolean ping(String node) {
+        RedisTemplate<String, Object> template = redisTemplateMap.get(node);
+        if (template == null) {
+            return false;
+        }
+        try {
+            return template.execute((RedisCallback<String>) connection -> connection.ping()) != null;
+        } catch (Exception e) {
+            logger.warn("Nodo {} no disponible para el recorrido: {}", node, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Cursor compuesto: "nodo=cursor" de cada nodo pendiente, en Base64 URL
+     */
+    static String encodeCursor(Map<String, String> cursors) {
+        if (cursors.isEmpty()) {
+            return START_CURSOR;
+        }
+        StringBuilder plain = new StringBuilder();
+        cursors.forEach((node, cursor) -> {
+            if (!plain.isEmpty()) {
+                plain.append(',');
+            }
+            plain.append(node).append('=').append(cursor);
+        });
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes(plain.toString()));
+    }
+
+    private Map<String, String> decodeCursor(String cursor) {
+        Map<String, String> cursors = new LinkedHashMap<>();
+        if (cursor == null || cursor.isBlank() || START_CURSOR.equals(cursor)) {
+            hashRing.getAllNodes().forEach(node -> cursors.put(node, START_CURSOR));
+            return cursors;
+        }
+        try {
+            String plain = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            for (String part : plain.split(",")) {
+                int separator = part.lastIndexOf('=');
+                String node = part.substring(0, separator);
+                String nodeCursor = part.substring(separator + 1);
+                Long.parseUnsignedLong(nodeCursor);
+                // Un nodo retirado durante el recorrido ya migró sus claves
+                if (hashRing.getAllNodes().contains(node)) {
+                    cursors.put(node, nodeCursor);
+                }
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+        return cursors;
+    }
+
+    /**
+     * Patrón MATCH que toma el prefijo literal (escapando los comodines de Redis)
+     */
+    static String matchPattern(String prefix) {
+        StringBuilder pattern = new StringBuilder();
+        if (prefix != null) {
+            for (char c : prefix.toCharArray()) {
+                if (c == '*' || c == '?' || c == '[' || c == ']' || c == '\\') {
+                    pattern.append('\\');
+                }
+                pattern.append(c);
+            }
+        }
+        return pattern.append('*').toString();
+    }
+
+    private void writeLine(Object value, OutputStream out) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write('\n');
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Páginas servidas, exportaciones y claves exportadas
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pages", pages.sum());
+        stats.put("exports", exports.sum());
+        stats.put("activeExports", maxConcurrentExports - exportPermits.availablePermits());
+        stats.put("exportedKeys", exportedKeys.sum());
+        stats.put("skippedCopies", skippedCopies.sum());
+        return stats;
+    }
+
+    private record Batch(String node, List<ScanItem> items, String error, boolean last) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.jikkosoft.redis.cacheredis.scan;
+
+import java.time.LocalDateTime;
+
+/**
+ * Una línea del recorrido o la exportación: la clave con su valor, el TTL
+ * restante en Redis (-1 si no expira) y el nodo del que se leyó
+ */
+public record ScanItem(String key, Object value, long ttlMillis, LocalDateTime expiresAt, String node) {
+}
@@ -0,0 +1,13 @@
+package com.jikkosoft.redis.cacheredis.scan;
+
+import java.util.List;
+
+/**
+ * Página de un recorrido; {@code cursor} es "0" cuando todos los nodos terminaron
+ */
+public record ScanPage(List<ScanItem> items, String cursor) {
+
+    public boolean isFinished() {
+        return ClusterScanner.START_CURSOR.equals(cursor);
+    }
+}
@@ -0,0 +1,73 @@
+package com.jikkosoft.redis.cacheredis.script;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+
+import java.util.List;
+
+/**
+ * Scripts Lua usados por el caché. Se ejecutan con EVALSHA
+ * (Spring hace fallback a EVAL si el script aún no está cargado en el nodo).
+ */
+public final class CacheScripts {
+
+    /**
+     * GET + incremento de accessCount/lastAccessed conservando el TTL
+     */
+    public static final RedisScript<Object> TOUCH = load("scripts/touch.lua", Object.class);
+
+    /**
+     * SET de la entrada de una réplica salvo que la guardada tenga un createdAt posterior
+     */
+    public static final RedisScript<Long> WRITE = load("scripts/write.lua", Long.class);
+
+    /**
+     * SET NX PX + INCR del fencing token; negativo con el lease restante si está ocupado
+     */
+    public static final RedisScript<Long> LOCK_ACQUIRE = load("scripts/lock_acquire.lua", Long.class);
+
+    /**
+     * Compare-and-delete del lock + PUBLISH de la liberación
+     */
+    public static final RedisScript<Long> LOCK_RELEASE = load("scripts/lock_release.lua", Long.class);
+
+    /**
+     * Borrado de las claves cuyo expiresAt ya pasó; {borradas, bytes liberados, ya ausentes}
+     */
+    public static final RedisScript<List<Object>> EXPIRE = loadList("scripts/expire.lua");
+
+    /**
+     * Reemplazo del manifiesto de un blob; devuelve la versión anterior o null
+     */
+    public static final RedisScript<String> BLOB_COMMIT = load("scripts/blob_commit.lua", String.class);
+
+    /**
+     * Toma o renueva el lease de la instancia que ejecuta la expulsión; 1 si es esta
+     */
+    public static final RedisScript<Long> EVICTION_LEADER = load("scripts/eviction_leader.lua", Long.class);
+
+    /**
+     * Borrado de una clave migrada si aún contiene el payload restaurado
+     */
+    public static final RedisScript<Long> MIGRATION_UNDO = load("scripts/migration_undo.lua", Long.class);
+
+    private CacheScripts() {
+    }
+
+    private static <T> RedisScript<T> load(String path, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(resultType);
+        return script;
+    }
+
+    /**
+     * Script que devuelve un arreglo; Redis lo entrega como lista de valores
+     */
+    @SuppressWarnings("unchecked")
+    private static RedisScript<List<Object>> loadList(String path) {
+        return (RedisScript<List<Object>>) (RedisScript<?>) load(path, List.class);
+    }
+}
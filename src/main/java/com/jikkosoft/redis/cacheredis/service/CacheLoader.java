@@ -0,0 +1,12 @@
+package com.jikkosoft.redis.cacheredis.service;
+
+/**
+ * Carga el valor de una clave desde el origen cuando no está en el caché
+ */
+@FunctionalInterface
+public interface CacheLoader {
+    /**
+     * @return el valor, o null si no existe en el origen (no se cachea)
+     */
+    Object load(String key) throws Exception;
+}
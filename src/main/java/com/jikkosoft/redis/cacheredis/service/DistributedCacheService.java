@@ -1,20 +1,64 @@
 package com.jikkosoft.redis.cacheredis.service;
 
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.jikkosoft.redis.cacheredis.blob.BlobManifest;
+import com.jikkosoft.redis.cacheredis.blob.BlobStore;
+import com.jikkosoft.redis.cacheredis.bloom.KeyFilter;
+import com.jikkosoft.redis.cacheredis.codec.CacheEntryCodec;
+import com.jikkosoft.redis.cacheredis.compression.CompressionDictionaries;
+import com.jikkosoft.redis.cacheredis.compression.ValueCompressor;
+import com.jikkosoft.redis.cacheredis.eviction.EvictionEngine;
+import com.jikkosoft.redis.cacheredis.expiry.ActiveExpiryService;
 import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.hash.NodeLoadTracker;
+import com.jikkosoft.redis.cacheredis.hotkey.HotKey;
+import com.jikkosoft.redis.cacheredis.hotkey.HotKeyTracker;
 import com.jikkosoft.redis.cacheredis.lock.DistributedLockManager;
+import com.jikkosoft.redis.cacheredis.metrics.CacheMetrics;
+import com.jikkosoft.redis.cacheredis.lock.SingleFlight;
+import com.jikkosoft.redis.cacheredis.lock.KeyedLock;
+import com.jikkosoft.redis.cacheredis.model.BatchItemResult;
+import com.jikkosoft.redis.cacheredis.model.BatchPutRequest;
+import com.jikkosoft.redis.cacheredis.model.BatchStatus;
 import com.jikkosoft.redis.cacheredis.model.CacheEntry;
+import com.jikkosoft.redis.cacheredis.model.ImportRequest;
+import com.jikkosoft.redis.cacheredis.model.ImportStatus;
+import com.jikkosoft.redis.cacheredis.model.InternalKeys;
+import com.jikkosoft.redis.cacheredis.model.PutResult;
+import com.jikkosoft.redis.cacheredis.near.NearCache;
+import com.jikkosoft.redis.cacheredis.routing.ReplicaSelector;
+import com.jikkosoft.redis.cacheredis.scan.ClusterScanner;
+import com.jikkosoft.redis.cacheredis.scan.ScanPage;
+import com.jikkosoft.redis.cacheredis.warmup.SnapshotImporter;
+import com.jikkosoft.redis.cacheredis.script.CacheScripts;
+import com.jikkosoft.redis.cacheredis.stats.ClusterStatsSampler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Servicio principal del sistema de caché distribuido
@@ -34,101 +78,876 @@ public class DistributedCacheService {
     @Autowired
     private DistributedLockManager lockManager;
 
+    @Autowired
+    private NearCache nearCache;
+
+    @Autowired
+    private NodeLoadTracker loadTracker;
+
+    @Autowired
+    private ReplicaSelector replicaSelector;
+
+    @Autowired
+    private ValueCompressor valueCompressor;
+
+    @Autowired
+    private CompressionDictionaries compressionDictionaries;
+
+    @Autowired
+    private EvictionEngine evictionEngine;
+
+    @Autowired
+    private ActiveExpiryService activeExpiry;
+
+    @Autowired
+    private HotKeyTracker hotKeys;
+
+    @Autowired
+    private KeyFilter keyFilter;
+
+    @Autowired
+    private CacheMetrics metrics;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private ClusterScanner clusterScanner;
+
+    @Autowired
+    private SnapshotImporter snapshotImporter;
+
+    @Autowired
+    private ClusterStatsSampler statsSampler;
+
+    @Autowired
+    @Qualifier("cacheNodeExecutor")
+    private Executor nodeExecutor;
+
+    @Autowired
+    @Qualifier("cacheHedgeExecutor")
+    private Executor hedgeExecutor;
+
+    @Value("${cache.batch.max-keys:1000}")
+    private int batchMaxKeys = 1000;
+
+    @Value("${cache.replication.factor:2}")
+    private int replicationFactor = 2;
+
+    @Value("${cache.write.consistency:QUORUM}")
+    private WriteConsistency writeConsistency = WriteConsistency.QUORUM;
+
+    @Value("${cache.write.timeout-ms:2000}")
+    private long writeTimeoutMs = 2000;
+
+    @Value("${cache.read.mode:LOCK_FREE}")
+    private ReadMode readMode = ReadMode.LOCK_FREE;
+
+    @Value("${cache.read.routing:LATENCY_AWARE}")
+    private ReadRouting readRouting = ReadRouting.LATENCY_AWARE;
+
+    @Value("${cache.read.timeout-ms:2000}")
+    private long readTimeoutMs = 2000;
+
+    // Serializa por clave dentro del JVM antes de competir por el lock en Redis
+    private final KeyedLock localLocks = new KeyedLock();
+    // Conversión de entradas JSON anteriores; reutilizable y thread-safe
+    private final CacheEntryCodec codec = new CacheEntryCodec();
+    // Un único loader en curso por clave en este JVM
+    private final SingleFlight<Optional<Object>> loads = new SingleFlight<>();
+    // Una única lectura a Redis por clave caliente en este JVM al renovar su copia
+    private final SingleFlight<Optional<Object>> hotReads = new SingleFlight<>();
+
     /**
-     * Almacena un valor en el caché distribuido con replicación
+     * Almacena un valor en el caché distribuido con replicación.
+     * La escritura se envía a todas las réplicas en paralelo y se confirma
+     * cuando responden las requeridas por el nivel de consistencia.
      */
-    public void put(String key, Object value, Long ttlSeconds) {
-        String primaryNode = hashRing.getNode(key);
+    public PutResult put(String key, Object value, Long ttlSeconds) {
+        InternalKeys.checkUserKey(key);
+        List<String> replicas = replicaNodes(key);
+        String primaryNode = replicas.get(0);
         long ttl = ttlSeconds != null ? ttlSeconds : 3600; // TTL por defecto 1 hora, yo deberia poneresto  en el properties
+        evictionEngine.recordAccess(key);
+        long start = System.nanoTime();
 
         try {
             // Ejecutar con lock distribuido para strong consistency
-            lockManager.executeWithLock(key, primaryNode, () -> {
-                CacheEntry entry = new CacheEntry(value, ttl);
-
-                // Escribir en nodo primario
-                RedisTemplate<String, Object> primaryTemplate = redisTemplateMap.get(primaryNode);
-                primaryTemplate.opsForValue().set(key, entry, ttl, TimeUnit.SECONDS);
-
-                // Replicar en todos los nodos para alta disponibilidad
-                for (String node : hashRing.getAllNodes()) {
-                    if (!node.equals(primaryNode)) {
-                        try {
-                            RedisTemplate<String, Object> template = redisTemplateMap.get(node);
-                            template.opsForValue().set(key, entry, ttl, TimeUnit.SECONDS);
-                        } catch (Exception e) {
-                            logger.warn("Error replicando a nodo {}: {}", node, e.getMessage());
-                        }
-                    }
-                }
+            return localLocks.executeWithLock(key, () -> lockManager.executeFenced(key, primaryNode, lock -> {
+                CacheEntry entry = new CacheEntry(valueCompressor.compress(key, value), ttl);
+                // La compresión pudo consumir el lease; sin él otro PUT puede estar escribiendo
+                lock.checkLease();
 
-                logger.info("Clave '{}' almacenada en nodo primario '{}' con TTL {}",
-                        key, primaryNode, ttl);
-                return null;
-            });
+                // Antes de escribir: una lectura que ya ve la clave en Redis también la ve en el filtro
+                keyFilter.add(key);
+                int acknowledged = replicate(key, entry, ttl, replicas);
+                activeExpiry.schedule(key, entry.getExpiresAt());
+
+                nearCache.invalidateCluster(key);
+                hotKeys.invalidate(key);
+
+                logger.debug("Clave '{}' almacenada en nodo primario '{}' con TTL {} ({}/{} réplicas)",
+                        key, primaryNode, ttl, acknowledged, replicas.size());
+                metrics.recordOperation("put", CacheMetrics.OK, System.nanoTime() - start);
+                return new PutResult(primaryNode, acknowledged, replicas.size(), writeConsistency.name());
+            }));
 
         } catch (Exception e) {
+            metrics.recordOperation("put", CacheMetrics.ERROR, System.nanoTime() - start);
             logger.error("Error almacenando clave '{}': {}", key, e.getMessage());
             throw new RuntimeException("Error en operación PUT", e);
         }
     }
 
+    /**
+     * Escribe la entrada en todas las réplicas en paralelo y espera hasta
+     * alcanzar las confirmaciones requeridas. Las réplicas restantes
+     * terminan en segundo plano, ya sin el lock: por eso cada escritura es
+     * condicional y no reemplaza una entrada con createdAt posterior.
+     *
+     * @return número de réplicas que habían confirmado al alcanzar el quórum
+     */
+    private int replicate(String key, CacheEntry entry, long ttl, List<String> replicas) throws Exception {
+        int required = writeConsistency.required(replicas.size());
+        AtomicInteger acks = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        CompletableFuture<Void> quorum = new CompletableFuture<>();
+        // Momento de la primera confirmación: el atraso de cada réplica se mide contra él
+        AtomicLong firstAck = new AtomicLong();
+        long start = System.nanoTime();
+
+        for (String node : replicas) {
+            CompletableFuture.runAsync(() -> {
+                RedisTemplate<String, Object> template = redisTemplateMap.get(node);
+                loadTracker.begin(node);
+                try {
+                    Long written = template.execute(CacheScripts.WRITE, List.of(key), entry, Math.max(ttl, 0));
+                    if (written != null && written == 0) {
+                        // Ya había una versión más nueva: la réplica confirma sin retroceder
+                        logger.debug("Escritura rezagada de '{}' descartada en nodo {}", key, node);
+                    }
+                } finally {
+                    loadTracker.end(node);
+                }
+            }, nodeExecutor).whenComplete((ignored, error) -> {
+                long now = System.nanoTime();
+                if (error == null) {
+                    firstAck.compareAndSet(0, now);
+                    metrics.recordReplication(node, true, now - start, now - firstAck.get());
+                    if (acks.incrementAndGet() >= required) {
+                        quorum.complete(null);
+                    }
+                } else {
+                    metrics.recordReplication(node, false, now - start, 0);
+                    logger.warn("Error replicando a nodo {}: {}", node, rootMessage(error));
+                    if (failures.incrementAndGet() > replicas.size() - required) {
+                        quorum.completeExceptionally(new IllegalStateException(
+                                "Consistencia " + writeConsistency + " no alcanzada: "
+                                        + acks.get() + "/" + required + " réplicas confirmaron"));
+                    }
+                }
+            });
+        }
+
+        try {
+            quorum.get(writeTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timeout esperando " + required + " réplicas", e);
+        }
+        return acks.get();
+    }
+
     /**
      * Recupera un valor del caché distribuido
      */
     public Optional<Object> get(String key) {
-        String primaryNode = hashRing.getNode(key);
+        InternalKeys.checkUserKey(key);
+        long start = System.nanoTime();
+        // También los hits locales: mantienen caliente la copia en Redis
+        evictionEngine.recordAccess(key);
+        hotKeys.record(key);
+        Optional<Object> result = hotKeys.isHot(key) ? getHot(key) : getFromCluster(key);
+        metrics.recordOperation("get", result.isPresent() ? CacheMetrics.HIT : CacheMetrics.MISS,
+                System.nanoTime() - start);
+        return result;
+    }
 
+    /**
+     * Clave caliente: se sirve desde su copia local y, si venció, la renueva
+     * una sola lectura mientras las demás esperan ese resultado
+     */
+    private Optional<Object> getHot(String key) {
+        Optional<Object> copy = hotKeys.get(key);
+        if (copy.isPresent()) {
+            return copy;
+        }
         try {
-            return lockManager.executeWithLock(key, primaryNode, () -> {
-                RedisTemplate<String, Object> template = redisTemplateMap.get(primaryNode);
-                //CacheEntry entry = (CacheEntry) template.opsForValue().get(key);
+            // La lectura guarda la copia local con el vencimiento de la entrada
+            return hotReads.execute(key, () -> getFromCluster(key));
+        } catch (Exception e) {
+            logger.error("Error recuperando clave caliente '{}': {}", key, e.getMessage());
+            return Optional.empty();
+        }
+    }
 
-                Object rawObject = template.opsForValue().get(key);
+    private Optional<Object> getFromCluster(String key) {
+        long nearStamp = 0;
+        if (nearCache.isEnabled()) {
+            Optional<Object> local = nearCache.get(key);
+            if (local.isPresent()) {
+                return local;
+            }
+            nearStamp = nearCache.stamp(key);
+        }
+        if (keyFilter.isDefiniteMiss(key)) {
+            return Optional.empty();
+        }
+        ReadStamps stamps = new ReadStamps(nearStamp, hotKeys.stamp(key));
+        List<String> replicas = replicaNodes(key);
+        String primaryNode = replicas.get(0);
+        long start = System.nanoTime();
+
+        try {
+            Optional<Object> result = readMode == ReadMode.LOCKED
+                    ? localLocks.executeWithLock(key, () -> lockManager.executeWithLock(key, primaryNode,
+                            () -> readWithFailover(key, replicas, stamps)))
+                    : readWithFailover(key, replicas, stamps);
 
-                if (rawObject == null) {
+            if (result.isEmpty() && hashRing.isInTransition()) {
+                result = readFromPreviousOwners(key, replicas, stamps);
+            }
+            if (result.isEmpty()) {
+                keyFilter.recordPassedMiss();
+            }
+            return result;
+
+        } catch (Exception e) {
+            logger.error("Error recuperando clave '{}': {}", key, e.getMessage());
+            return Optional.empty();
+        } finally {
+            replicaSelector.recordRead(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Read-through: si la clave no está en el caché la carga con {@code loader}
+     * y la almacena. Las llamadas concurrentes del JVM para la misma clave
+     * comparten una única carga en curso.
+     */
+    public Optional<Object> get(String key, CacheLoader loader, Long ttlSeconds) {
+        Optional<Object> cached = get(key);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        try {
+            return loads.execute(key, () -> {
+                // Otra carga pudo terminar entre la lectura y la entrada al vuelo
+                Optional<Object> current = get(key);
+                if (current.isPresent()) {
+                    return current;
+                }
+                Object value = loader.load(key);
+                if (value == null) {
                     return Optional.empty();
                 }
-                CacheEntry entry = convertToCacheEntry(rawObject);
+                try {
+                    put(key, value, ttlSeconds);
+                } catch (RuntimeException e) {
+                    // El valor ya se cargó: se devuelve aunque no haya quedado en el caché
+                    logger.warn("No se pudo almacenar la carga de '{}': {}", key, e.getMessage());
+                }
+                return Optional.of(value);
+            });
+        } catch (Exception e) {
+            logger.error("Error cargando clave '{}': {}", key, e.getMessage());
+            throw new RuntimeException("Error en carga de clave: " + key, e);
+        }
+    }
 
-                if (entry == null) {
-                    return Optional.empty();
+    /**
+     * Lee de la réplica elegida según {@link ReadRouting}; si el nodo falla
+     * (no si la clave no existe) continúa con la siguiente réplica
+     */
+    private Optional<Object> readWithFailover(String key, List<String> replicas, ReadStamps stamps) throws Exception {
+        List<String> candidates;
+        if (readRouting == ReadRouting.LATENCY_AWARE) {
+            // Bounded loads primero: la latencia elige solo entre réplicas bajo la capacidad
+            List<String> eligible = loadTracker.withinCapacity(replicas, hashRing.getAllNodes().size());
+            candidates = new ArrayList<>(replicaSelector.rank(eligible));
+            for (String replica : replicas) {
+                if (!candidates.contains(replica)) {
+                    candidates.add(replica);
                 }
+            }
+            if (replicaSelector.isHedgeEnabled() && candidates.size() > 1) {
+                return hedgedRead(key, candidates, stamps);
+            }
+        } else {
+            candidates = loadTracker.order(replicas, hashRing.getAllNodes().size());
+        }
 
-                // Verificar expiración TTL
-                if (entry.isExpired()) {
-                    delete(key);
-                    return Optional.empty();
+        RuntimeException lastError = null;
+        for (String node : candidates) {
+            try {
+                return timedRead(key, node, stamps);
+            } catch (RuntimeException e) {
+                logger.warn("Error leyendo '{}' de nodo {}: {}", key, node, e.getMessage());
+                lastError = e;
+            }
+        }
+        throw lastError;
+    }
+
+    /**
+     * Lectura con cobertura: si la réplica elegida no responde dentro de su
+     * p95 observado se lanza la misma lectura a la segunda réplica. Solo un
+     * acierto gana la carrera: un miss de una réplica atrasada no descarta
+     * el valor que la otra aún puede devolver. Si la primera falla antes del
+     * p95 se pasa a la segunda sin esperar. Ambas lecturas usan el pool de
+     * hedge, sin cola, para no competir con las escrituras a réplicas.
+     */
+    private Optional<Object> hedgedRead(String key, List<String> candidates, ReadStamps stamps) throws Exception {
+        String first = candidates.get(0);
+        String second = candidates.get(1);
+        CompletableFuture<Optional<Object>> primary =
+                CompletableFuture.supplyAsync(() -> timedRead(key, first, stamps), hedgeExecutor);
+
+        try {
+            return primary.get(replicaSelector.hedgeDelayNanos(first), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            logger.warn("Error leyendo '{}' de nodo {}: {}", key, first, rootMessage(e));
+            return timedRead(key, second, stamps);
+        } catch (TimeoutException e) {
+            logger.debug("Hedge de '{}' hacia nodo {} tras esperar a {}", key, second, first);
+        }
+
+        replicaSelector.recordHedge();
+        CompletableFuture<Optional<Object>> hedge =
+                CompletableFuture.supplyAsync(() -> timedRead(key, second, stamps), hedgeExecutor);
+        CompletableFuture<HedgeOutcome> winner = new CompletableFuture<>();
+        HedgeRace race = new HedgeRace();
+        primary.whenComplete((value, error) -> race.complete(winner, value, error, false));
+        hedge.whenComplete((value, error) -> race.complete(winner, value, error, true));
+
+        try {
+            HedgeOutcome outcome = winner.get(readTimeoutMs, TimeUnit.MILLISECONDS);
+            if (outcome.fromHedge()) {
+                replicaSelector.recordHedgeWon();
+            }
+            return outcome.value();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timeout leyendo clave '" + key + "'", e);
+        }
+    }
+
+    /**
+     * Estado de la carrera entre las dos lecturas: el primer acierto gana;
+     * si ninguna acierta se responde miss cuando alguna respondió y error
+     * solo si fallaron ambas
+     */
+    private static final class HedgeRace {
+        private final AtomicInteger done = new AtomicInteger();
+        private volatile boolean answered;
+
+        void complete(CompletableFuture<HedgeOutcome> winner, Optional<Object> value, Throwable error,
+                      boolean fromHedge) {
+            if (error == null && value.isPresent()) {
+                winner.complete(new HedgeOutcome(value, fromHedge));
+                return;
+            }
+            if (error == null) {
+                answered = true;
+            }
+            if (done.incrementAndGet() == 2) {
+                if (answered) {
+                    winner.complete(new HedgeOutcome(Optional.empty(), false));
+                } else {
+                    winner.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error);
                 }
+            }
+        }
+    }
 
-                // Actualizar estadísticas LFU
-                entry.incrementAccess();
-                template.opsForValue().set(key, entry);
+    /**
+     * Resultado de una lectura con hedge y si vino de la segunda réplica
+     */
+    private record HedgeOutcome(Optional<Object> value, boolean fromHedge) {
+    }
 
-                logger.debug("Cache HIT para clave '{}' en nodo '{}'", key, primaryNode);
-                return Optional.of(entry.getValue());
-            });
+    /**
+     * Marcas de invalidación capturadas antes de leer de Redis, con las que
+     * la lectura guarda su valor en la caché local y en la copia caliente
+     */
+    private record ReadStamps(long near, long hot) {
+    }
 
-        } catch (Exception e) {
-            logger.error("Error recuperando clave '{}': {}", key, e.getMessage());
+    /**
+     * Lee la entrada del nodo registrando su latencia y carga en vuelo
+     */
+    private Optional<Object> timedRead(String key, String node, ReadStamps stamps) {
+        loadTracker.begin(node);
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Optional<Object> result = readEntry(key, node, stamps);
+            success = true;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            replicaSelector.record(node, elapsed);
+            metrics.recordNodeRequest(node, "read", success, elapsed);
+            loadTracker.end(node);
+        }
+    }
+
+    /**
+     * Durante una migración de membresía la clave puede seguir solo en sus
+     * dueños anteriores; se consultan los que no están en la lista actual
+     */
+    private Optional<Object> readFromPreviousOwners(String key, List<String> replicas, ReadStamps stamps) {
+        for (String node : hashRing.getPreviousNodes(key, replicationFactor)) {
+            if (replicas.contains(node) || !redisTemplateMap.containsKey(node)) {
+                continue;
+            }
+            try {
+                Optional<Object> result = readEntry(key, node, stamps);
+                if (result.isPresent()) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Error leyendo '{}' de nodo anterior {}: {}", key, node, e.getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Lee la entrada del nodo actualizando sus estadísticas LFU en Redis
+     */
+    private Optional<Object> readEntry(String key, String node, ReadStamps stamps) {
+        RedisTemplate<String, Object> template = redisTemplateMap.get(node);
+        Object rawObject = touch(template, key);
+
+        if (rawObject == null) {
+            return Optional.empty();
+        }
+        CacheEntry entry = convertToCacheEntry(rawObject);
+
+        if (entry == null) {
             return Optional.empty();
         }
+
+        // Verificar expiración TTL
+        if (entry.isExpired()) {
+            // Fuera del hilo actual: en modo LOCKED este ya tiene el lock de la clave
+            CompletableFuture.runAsync(() -> delete(key), nodeExecutor);
+            return Optional.empty();
+        }
+
+        Object value = valueCompressor.decompress(key, entry.getValue());
+        if (nearCache.isEnabled()) {
+            nearCache.put(key, value, entry.getExpiresAt(), stamps.near());
+        }
+        hotKeys.put(key, value, entry.getExpiresAt(), stamps.hot());
+
+        logger.debug("Cache HIT para clave '{}' en nodo '{}'", key, node);
+        return Optional.ofNullable(value);
+    }
+
+    /**
+     * GET + incremento de accessCount en un solo round trip, sin perder el TTL
+     */
+    @SuppressWarnings("unchecked")
+    private Object touch(RedisTemplate<String, Object> template, String key) {
+        long now = System.currentTimeMillis();
+        return template.execute(CacheScripts.TOUCH, RedisSerializer.string(),
+                (RedisSerializer<Object>) template.getValueSerializer(),
+                List.of(key), accessedAt(now), String.valueOf(now));
+    }
+
+    /**
+     * Recupera varias claves con un pipeline por nodo; los nodos se consultan
+     * en paralelo. Como en la lectura individual, las claves de un nodo que
+     * falla se piden a su siguiente réplica, y durante una migración las que
+     * no están en sus réplicas se buscan en sus dueños anteriores.
+     */
+    public List<BatchItemResult> multiGet(List<String> keys) {
+        Set<String> uniqueKeys = new LinkedHashSet<>(keys);
+        checkBatchSize(uniqueKeys.size());
+        uniqueKeys.forEach(InternalKeys::checkUserKey);
+        long start = System.nanoTime();
+
+        Map<String, BatchItemResult> results = new HashMap<>();
+        Map<String, BatchRead> pending = new LinkedHashMap<>();
+
+        for (String key : uniqueKeys) {
+            evictionEngine.recordAccess(key);
+            hotKeys.record(key);
+            if (hotKeys.isHot(key)) {
+                Optional<Object> copy = hotKeys.get(key);
+                if (copy.isPresent()) {
+                    results.put(key, BatchItemResult.hit(key, "local", copy.get()));
+                    continue;
+                }
+            }
+            if (nearCache.isEnabled()) {
+                Optional<Object> local = nearCache.get(key);
+                if (local.isPresent()) {
+                    results.put(key, BatchItemResult.hit(key, "local", local.get()));
+                    continue;
+                }
+            }
+            if (keyFilter.isDefiniteMiss(key)) {
+                results.put(key, BatchItemResult.miss(key, hashRing.getNode(key)));
+                continue;
+            }
+            List<String> replicas = replicaNodes(key);
+            long nearStamp = nearCache.isEnabled() ? nearCache.stamp(key) : 0;
+            pending.put(key, new BatchRead(key, replicas, hashRing.isInTransition()
+                    ? previousOwners(key, replicas) : List.of(), nearStamp));
+        }
+
+        // Cada ronda pide cada clave pendiente al siguiente nodo de su lista
+        while (!pending.isEmpty()) {
+            Map<String, List<BatchRead>> readsByNode = new LinkedHashMap<>();
+            for (BatchRead read : pending.values()) {
+                readsByNode.computeIfAbsent(read.node, n -> new ArrayList<>()).add(read);
+            }
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            readsByNode.forEach((node, reads) -> {
+                List<String> nodeKeys = reads.stream().map(read -> read.key).toList();
+                futures.add(CompletableFuture
+                        .supplyAsync(() -> timedPipelinedTouch(node, nodeKeys), nodeExecutor)
+                        .handle((values, error) -> {
+                            for (int i = 0; i < reads.size(); i++) {
+                                if (error != null) {
+                                    reads.get(i).fail(rootMessage(error));
+                                } else {
+                                    reads.get(i).complete(toBatchResult(nodeKeys.get(i), node, values.get(i), reads.get(i).nearStamp));
+                                }
+                            }
+                            return null;
+                        }));
+            });
+            CompletableFuture.allOf(futures.toArray(CompletableFuture<?>[]::new)).join();
+
+            Iterator<BatchRead> iterator = pending.values().iterator();
+            while (iterator.hasNext()) {
+                BatchRead read = iterator.next();
+                if (!read.advance()) {
+                    results.put(read.key, read.result());
+                    iterator.remove();
+                }
+            }
+        }
+
+        List<BatchItemResult> ordered = new ArrayList<>(uniqueKeys.size());
+        for (String key : uniqueKeys) {
+            ordered.add(results.get(key));
+        }
+        metrics.recordOperation("mget", CacheMetrics.OK, System.nanoTime() - start);
+        return ordered;
+    }
+
+    /**
+     * Almacena varias claves con un pipeline por nodo (incluidas las réplicas).
+     * No toma el lock distribuido: cada réplica escribe con el mismo script
+     * condicional que los PUT, así ante escrituras concurrentes todas
+     * conservan la entrada con el createdAt más reciente.
+     */
+    public List<BatchItemResult> multiPut(List<BatchPutRequest.Item> items) {
+        checkBatchSize(items.size());
+        items.forEach(item -> InternalKeys.checkUserKey(item.key()));
+        long start = System.nanoTime();
+
+        Map<String, CacheEntry> entries = new LinkedHashMap<>();
+        Map<String, Long> ttls = new HashMap<>();
+        for (BatchPutRequest.Item item : items) {
+            long ttl = item.ttlSeconds() != null ? item.ttlSeconds() : 3600;
+            evictionEngine.recordAccess(item.key());
+            entries.put(item.key(), new CacheEntry(valueCompressor.compress(item.key(), item.value()), ttl));
+            ttls.put(item.key(), ttl);
+        }
+
+        Map<String, List<String>> replicasByKey = new HashMap<>();
+        Map<String, List<String>> keysByNode = new LinkedHashMap<>();
+        for (String key : entries.keySet()) {
+            List<String> replicas = replicaNodes(key);
+            replicasByKey.put(key, replicas);
+            for (String node : replicas) {
+                keysByNode.computeIfAbsent(node, n -> new ArrayList<>()).add(key);
+            }
+        }
+
+        keyFilter.add(entries.keySet());
+        Map<String, Throwable> nodeErrors = new HashMap<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        keysByNode.forEach((node, nodeKeys) -> futures.add(CompletableFuture
+                .runAsync(() -> timedPipelinedSet(node, nodeKeys, entries, ttls), nodeExecutor)
+                .exceptionally(error -> {
+                    logger.warn("Error en escritura batch en nodo {}: {}", node, rootMessage(error));
+                    synchronized (nodeErrors) {
+                        nodeErrors.put(node, error);
+                    }
+                    return null;
+                })));
+        CompletableFuture.allOf(futures.toArray(CompletableFuture<?>[]::new)).join();
+
+        nearCache.invalidateCluster(entries.keySet());
+        hotKeys.invalidate(entries.keySet());
+
+        List<BatchItemResult> results = new ArrayList<>(entries.size());
+        for (String key : entries.keySet()) {
+            List<String> replicas = replicasByKey.get(key);
+            String primaryNode = replicas.get(0);
+            long acknowledged = replicas.stream().filter(node -> !nodeErrors.containsKey(node)).count();
+            int required = writeConsistency.required(replicas.size());
+            if (acknowledged > 0) {
+                activeExpiry.schedule(key, entries.get(key).getExpiresAt());
+            }
+            results.add(acknowledged >= required
+                    ? BatchItemResult.stored(key, primaryNode)
+                    : BatchItemResult.error(key, primaryNode, "Consistencia " + writeConsistency
+                            + " no alcanzada: " + acknowledged + "/" + required + " réplicas confirmaron"));
+        }
+        logger.debug("Batch de {} claves almacenado en {} nodos", entries.size(), keysByNode.size());
+        metrics.recordOperation("mput", CacheMetrics.OK, System.nanoTime() - start);
+        return results;
+    }
+
+    /**
+     * Marca de acceso para entradas JSON (ISO local); las binarias usan epoch millis
+     */
+    private static String accessedAt(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()).toString();
+    }
+
+    private List<Object> timedPipelinedTouch(String node, List<String> keys) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            List<Object> values = pipelinedTouch(node, keys);
+            success = true;
+            return values;
+        } finally {
+            metrics.recordNodeRequest(node, "mget", success, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Ejecuta el script de touch para todas las claves en un único pipeline
+     */
+    @SuppressWarnings("unchecked")
+    private List<Object> pipelinedTouch(String node, List<String> keys) {
+        RedisTemplate<String, Object> template = redisTemplateMap.get(node);
+        byte[] script = CacheScripts.TOUCH.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        String sha = CacheScripts.TOUCH.getSha1();
+        long now = System.currentTimeMillis();
+        byte[] accessed = accessedAt(now).getBytes(StandardCharsets.UTF_8);
+        byte[] accessedMillis = String.valueOf(now).getBytes(StandardCharsets.UTF_8);
+
+        List<Object> raw = template.executePipelined((RedisCallback<Object>) connection -> {
+            // SCRIPT LOAD es idempotente y garantiza que EVALSHA no falle con NOSCRIPT
+            connection.scriptingCommands().scriptLoad(script);
+            for (String key : keys) {
+                connection.scriptingCommands().evalSha(sha, ReturnType.VALUE, 1,
+                        key.getBytes(StandardCharsets.UTF_8), accessed, accessedMillis);
+            }
+            return null;
+        }, (RedisSerializer<Object>) template.getValueSerializer());
+        return raw.subList(1, raw.size());
+    }
+
+    private void timedPipelinedSet(String node, List<String> keys,
+                                   Map<String, CacheEntry> entries, Map<String, Long> ttls) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            pipelinedSet(node, keys, entries, ttls);
+            success = true;
+        } finally {
+            metrics.recordNodeRequest(node, "mput", success, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Escribe las entradas indicadas en un único pipeline con su TTL, con el
+     * script de escritura condicional: una entrada más nueva ya guardada se
+     * conserva y cuenta como confirmada
+     */
+    @SuppressWarnings("unchecked")
+    private void pipelinedSet(String node, List<String> keys,
+                              Map<String, CacheEntry> entries, Map<String, Long> ttls) {
+        RedisTemplate<String, Object> template = redisTemplateMap.get(node);
+        RedisSerializer<Object> serializer = (RedisSerializer<Object>) template.getValueSerializer();
+        byte[] script = CacheScripts.WRITE.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        String sha = CacheScripts.WRITE.getSha1();
+
+        template.executePipelined((RedisCallback<Object>) connection -> {
+            // SCRIPT LOAD es idempotente y garantiza que EVALSHA no falle con NOSCRIPT
+            connection.scriptingCommands().scriptLoad(script);
+            for (String key : keys) {
+                connection.scriptingCommands().evalSha(sha, ReturnType.INTEGER, 1,
+                        key.getBytes(StandardCharsets.UTF_8), serializer.serialize(entries.get(key)),
+                        String.valueOf(Math.max(ttls.get(key), 0)).getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+    }
+
+    private BatchItemResult toBatchResult(String key, String node, Object rawObject, long nearStamp) {
+        CacheEntry entry = rawObject != null ? convertToCacheEntry(rawObject) : null;
+        if (entry == null || entry.isExpired()) {
+            return BatchItemResult.miss(key, node);
+        }
+        Object value = valueCompressor.decompress(key, entry.getValue());
+        if (nearCache.isEnabled()) {
+            nearCache.put(key, value, entry.getExpiresAt(), nearStamp);
+        }
+        return BatchItemResult.hit(key, node, value);
+    }
+
+    /**
+     * Dueños anteriores de la clave que no están entre sus réplicas actuales
+     */
+    private List<String> previousOwners(String key, List<String> replicas) {
+        List<String> owners = new ArrayList<>();
+        for (String node : hashRing.getPreviousNodes(key, replicationFactor)) {
+            if (!replicas.contains(node) && redisTemplateMap.containsKey(node)) {
+                owners.add(node);
+            }
+        }
+        return owners;
+    }
+
+    /**
+     * Lectura batch de una clave: los nodos que quedan por consultar y lo que
+     * respondieron. Un error pasa a la siguiente réplica; un miss de una
+     * réplica pasa directamente a los dueños anteriores, si los hay.
+     */
+    private static final class BatchRead {
+        private final String key;
+        private final String primaryNode;
+        private final Deque<String> replicas;
+        private final Deque<String> previousOwners;
+        private final long nearStamp;
+        private String node;
+        private BatchItemResult hit;
+        private boolean answered;
+        private String errorNode;
+        private String error;
+
+        BatchRead(String key, List<String> replicas, List<String> previousOwners, long nearStamp) {
+            this.key = key;
+            this.nearStamp = nearStamp;
+            this.primaryNode = replicas.get(0);
+            this.replicas = new ArrayDeque<>(replicas);
+            this.previousOwners = new ArrayDeque<>(previousOwners);
+            this.node = this.replicas.poll();
+        }
+
+        void complete(BatchItemResult result) {
+            if (result.status() == BatchStatus.HIT) {
+                hit = result;
+            } else {
+                answered = true;
+                replicas.clear();
+            }
+        }
+
+        void fail(String message) {
+            errorNode = node;
+            error = message;
+        }
+
+        /**
+         * Pasa al siguiente nodo; false si hubo acierto o no quedan nodos
+         */
+        boolean advance() {
+            if (hit != null) {
+                return false;
+            }
+            node = !replicas.isEmpty() ? replicas.poll() : previousOwners.poll();
+            return node != null;
+        }
+
+        BatchItemResult result() {
+            if (hit != null) {
+                return hit;
+            }
+            return answered ? BatchItemResult.miss(key, primaryNode) : BatchItemResult.error(key, errorNode, error);
+        }
+    }
+
+    /**
+     * Lista de preferencia de la clave según el factor de replicación
+     */
+    private List<String> replicaNodes(String key) {
+        return hashRing.getNodes(key, replicationFactor);
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > batchMaxKeys) {
+            throw new IllegalArgumentException("El batch excede el máximo de " + batchMaxKeys + " claves");
+        }
+    }
+
+    /**
+     * Causa de una tarea fallida para relanzarla: un Error se propaga tal
+     * cual y una causa ausente o que no es Exception no se pierde al envolverla
+     */
+    private static Exception unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        if (cause instanceof Exception exception) {
+            return exception;
+        }
+        return cause == null ? e : new IllegalStateException(cause.getMessage(), cause);
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
     }
 
     /**
      * Elimina una clave del caché distribuido
      */
     public boolean delete(String key) {
-        String primaryNode = hashRing.getNode(key);
+        InternalKeys.checkUserKey(key);
+        List<String> replicas = replicaNodes(key);
+        String primaryNode = replicas.get(0);
+        long start = System.nanoTime();
 
         try {
-            return lockManager.executeWithLock(key, primaryNode, () -> {
+            return localLocks.executeWithLock(key, () -> lockManager.executeFenced(key, primaryNode, lock -> {
+                lock.checkLease();
                 boolean deleted = false;
 
-                // Eliminar de todos los nodos
-                for (String node : hashRing.getAllNodes()) {
+                // Eliminar de todas las réplicas de la clave y, durante una
+                // transición, también de los dueños anteriores: si no, la
+                // lectura de respaldo o la migración devolverían el valor borrado
+                Set<String> owners = new LinkedHashSet<>(replicas);
+                if (hashRing.isInTransition()) {
+                    owners.addAll(hashRing.getPreviousNodes(key, replicationFactor));
+                }
+                for (String node : owners) {
                     try {
                         RedisTemplate<String, Object> template = redisTemplateMap.get(node);
+                        if (template == null) {
+                            continue;
+                        }
                         Boolean result = template.delete(key);
                         if (Boolean.TRUE.equals(result)) {
                             deleted = true;
@@ -138,90 +957,247 @@ public class DistributedCacheService {
                     }
                 }
 
-                logger.info("Clave '{}' eliminada del sistema distribuido", key);
+                nearCache.invalidateCluster(key);
+                hotKeys.invalidate(key);
+                activeExpiry.cancel(key);
+
+                logger.debug("Clave '{}' eliminada del sistema distribuido", key);
+                metrics.recordOperation("delete", deleted ? CacheMetrics.HIT : CacheMetrics.MISS,
+                        System.nanoTime() - start);
                 return deleted;
-            });
+            }));
 
         } catch (Exception e) {
+            metrics.recordOperation("delete", CacheMetrics.ERROR, System.nanoTime() - start);
             logger.error("Error eliminando clave '{}': {}", key, e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Almacena un valor grande leyéndolo del stream en chunks, sin materializarlo
+     */
+    public BlobManifest putBlob(String key, InputStream content, String contentType, Long ttlSeconds) throws IOException {
+        long ttl = ttlSeconds != null ? ttlSeconds : 3600;
+        return blobStore.write(key, content, contentType, ttl);
+    }
+
+    /**
+     * Manifiesto del valor grande, si existe
+     */
+    public Optional<BlobManifest> openBlob(String key) {
+        return blobStore.open(key);
+    }
+
+    /**
+     * Escribe en el stream los bytes {@code [from, to]} del valor grande
+     */
+    public void readBlob(BlobManifest manifest, long from, long to, OutputStream out) throws IOException {
+        blobStore.read(manifest, from, to, out);
+    }
+
+    /**
+     * Elimina un valor grande con todos sus chunks
+     */
+    public boolean deleteBlob(String key) {
+        return blobStore.delete(key);
+    }
+
+    /**
+     * Subidas, descargas y bytes transferidos de valores grandes
+     */
+    public Map<String, Object> getBlobStats() {
+        return blobStore.getStats();
+    }
+
+    /**
+     * Siguiente página del recorrido del clúster por prefijo
+     */
+    public ScanPage scan(String prefix, String cursor, Integer count) {
+        return clusterScanner.scan(prefix, cursor, count);
+    }
+
+    /**
+     * Escribe las entradas de una página como NDJSON
+     */
+    public void writeScanPage(ScanPage page, OutputStream out) throws IOException {
+        clusterScanner.writeItems(page.items(), out);
+    }
+
+    /**
+     * Reserva una exportación completa de las claves con el prefijo
+     */
+    public ClusterScanner.Export beginExport(String prefix) {
+        return clusterScanner.beginExport(prefix);
+    }
+
+    /**
+     * Páginas servidas y claves exportadas
+     */
+    public Map<String, Object> getScanStats() {
+        return clusterScanner.getStats();
+    }
+
+    /**
+     * Inicia en segundo plano la precarga de un snapshot
+     */
+    public ImportStatus startImport(ImportRequest request) throws IOException {
+        return snapshotImporter.start(request.file(), request.maxKeysPerSecond());
+    }
+
+    /**
+     * Progreso y ETA de la última precarga
+     */
+    public ImportStatus getImportStatus() {
+        return snapshotImporter.getStatus();
+    }
+
+    /**
+     * Claves con más tráfico en la última ventana y estado de las calientes
+     */
+    public List<HotKey> getHotKeys(int limit) {
+        return hotKeys.getTop(limit);
+    }
+
+    public Map<String, Object> getHotKeyStats() {
+        return hotKeys.getStats();
+    }
+
+    /**
+     * Misses resueltos por los filtros de Bloom, falsos positivos y memoria por nodo
+     */
+    public Map<String, Object> getKeyFilterStats() {
+        return keyFilter.getStats();
+    }
+
     /**
      * Verifica si una clave existe en el caché
      */
     public boolean exists(String key) {
+        InternalKeys.checkUserKey(key);
+        long start = System.nanoTime();
+        if (keyFilter.isDefiniteMiss(key)) {
+            metrics.recordOperation("exists", CacheMetrics.MISS, System.nanoTime() - start);
+            return false;
+        }
         String primaryNode = hashRing.getNode(key);
         RedisTemplate<String, Object> template = redisTemplateMap.get(primaryNode);
 
         try {
-            return template.hasKey(key);
+            boolean exists = Boolean.TRUE.equals(template.hasKey(key));
+            metrics.recordOperation("exists", exists ? CacheMetrics.HIT : CacheMetrics.MISS, System.nanoTime() - start);
+            return exists;
         } catch (Exception e) {
+            metrics.recordOperation("exists", CacheMetrics.ERROR, System.nanoTime() - start);
             logger.error("Error verificando existencia de clave '{}': {}", key, e.getMessage());
             return false;
         }
     }
 
     /**
-     * Obtiene estadísticas del nodo especificado
+     * Estadísticas del nodo especificado, desde la última muestra en segundo plano
      */
-    public Map<String, Object> getNodeStats(String nodeId) {
+    public Map<String, Object> getNodeStats(String nodeId, boolean includeHistory) {
         if (!redisTemplateMap.containsKey(nodeId)) {
             throw new IllegalArgumentException("Nodo no válido: " + nodeId);
         }
+        return statsSampler.getNodeStats(nodeId, includeHistory);
+    }
 
-        RedisTemplate<String, Object> template = redisTemplateMap.get(nodeId);
-        Map<String, Object> stats = new HashMap<>();
-
-        try {
-            // Obtener información básica
-            Properties info = template.getConnectionFactory()
-                    .getConnection().info();
-
-            stats.put("nodeId", nodeId);
-            stats.put("connected", template.getConnectionFactory().getConnection().ping());
-            stats.put("keyCount", template.getConnectionFactory().getConnection().dbSize());
-
-            // Métricas de memoria si están disponibles
-            if (info.containsKey("used_memory")) {
-                stats.put("usedMemory", info.getProperty("used_memory"));
-            }
-
-        } catch (Exception e) {
-            logger.error("Error obteniendo estadísticas del nodo {}: {}", nodeId, e.getMessage());
-            stats.put("error", e.getMessage());
-        }
-
-        return stats;
+    /**
+     * Totales del clúster y estadísticas por nodo, desde la última muestra en segundo plano
+     */
+    public Map<String, Object> getClusterStats(boolean includeHistory) {
+        return statsSampler.getClusterStats(includeHistory);
     }
 
     /**
      * Limpia todas las claves del sistema distribuido
      */
     public void clear() {
+        nearCache.invalidateAllCluster();
+        hotKeys.invalidateAll();
         for (String node : hashRing.getAllNodes()) {
             try {
                 RedisTemplate<String, Object> template = redisTemplateMap.get(node);
-                template.getConnectionFactory().getConnection().flushDb();
+                template.execute((RedisCallback<Void>) connection -> {
+                    connection.serverCommands().flushDb();
+                    return null;
+                });
                 logger.info("Nodo '{}' limpiado exitosamente", node);
             } catch (Exception e) {
                 logger.error("Error limpiando nodo {}: {}", node, e.getMessage());
             }
         }
+        // FLUSHDB también borra los diccionarios que necesitan los valores comprimidos
+        compressionDictionaries.republish();
+    }
+
+    /**
+     * Estadísticas de la caché local (L1)
+     */
+    public Map<String, Object> getNearCacheStats() {
+        return nearCache.getStats();
+    }
+
+    /**
+     * Ratio de compresión y costo de CPU por prefijo de clave
+     */
+    public Map<String, Object> getCompressionStats() {
+        return valueCompressor.getStats();
+    }
+
+    /**
+     * Entrena el diccionario de compresión del prefijo con valores existentes
+     */
+    public Map<String, Object> trainCompressionDictionary(String prefix, int sampleSize) {
+        return valueCompressor.train(prefix, sampleSize);
+    }
+
+    /**
+     * Memoria por nodo frente a su presupuesto y claves expulsadas
+     */
+    public Map<String, Object> getEvictionStats() {
+        return evictionEngine.getStats();
+    }
+
+    /**
+     * Claves seguidas por la expiración activa, memoria liberada y atraso
+     */
+    public Map<String, Object> getExpiryStats() {
+        return activeExpiry.getStats();
+    }
+
+    /**
+     * Contención de los locks distribuidos y locales, y cargas coalescidas
+     */
+    public Map<String, Object> getLockStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(lockManager.getStats());
+        stats.put("localWaiting", localLocks.getQueueLength());
+        stats.put("localKeys", localLocks.size());
+        stats.put("singleFlight", loads.getStats());
+        return stats;
+    }
+
+    /**
+     * Latencias de lectura por réplica, percentiles del GET y hedges emitidos
+     */
+    public Map<String, Object> getReadRoutingStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("routing", readRouting.name());
+        stats.putAll(replicaSelector.getStats());
+        return stats;
     }
 
-    // metodo para manejar la conversión del objeto
-    private CacheEntry convertToCacheEntry(Object object) {
+    // metodo para manejar la conversión del objeto (visible para los benchmarks del paquete)
+    CacheEntry convertToCacheEntry(Object object) {
         if (object instanceof CacheEntry) {
             return (CacheEntry) object;
         }
 
+        // Entradas JSON del formato anterior
         if (object instanceof java.util.LinkedHashMap) {
-            ObjectMapper mapper = new ObjectMapper()
-                    .registerModule(new JavaTimeModule()) // Usa registerModule
-                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-            return mapper.convertValue(object, CacheEntry.class);
+            return codec.convert(object);
         }
         return null;
     }
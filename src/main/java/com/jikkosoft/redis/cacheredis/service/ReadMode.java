@@ -0,0 +1,11 @@
+package com.jikkosoft.redis.cacheredis.service;
+
+/**
+ * Modo de lectura del caché
+ */
+public enum ReadMode {
+    /** Lectura sin lock distribuido; el touch es atómico en Redis */
+    LOCK_FREE,
+    /** Lectura serializada por clave con el lock distribuido */
+    LOCKED
+}
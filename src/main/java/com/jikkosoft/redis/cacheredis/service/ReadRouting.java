@@ -0,0 +1,11 @@
+package com.jikkosoft.redis.cacheredis.service;
+
+/**
+ * Elección de la réplica que atiende una lectura
+ */
+public enum ReadRouting {
+    /** Primario de la lista de preferencia (con bounded loads si está activo) */
+    PRIMARY,
+    /** Réplica con menor latencia observada (P2C sobre EWMA) y hedge tras el p95 */
+    LATENCY_AWARE
+}
@@ -0,0 +1,22 @@
+package com.jikkosoft.redis.cacheredis.service;
+
+/**
+ * Nivel de consistencia de escritura: cuántas réplicas deben confirmar
+ * antes de dar por aceptado un PUT
+ */
+public enum WriteConsistency {
+    ONE,
+    QUORUM,
+    ALL;
+
+    /**
+     * Número de confirmaciones requeridas para {@code replicas} nodos
+     */
+    public int required(int replicas) {
+        return switch (this) {
+            case ONE -> Math.min(1, replicas);
+            case QUORUM -> replicas / 2 + 1;
+            case ALL -> replicas;
+        };
+    }
+}
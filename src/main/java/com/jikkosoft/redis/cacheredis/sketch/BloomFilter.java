@@ -0,0 +1,118 @@
+package com.jikkosoft.redis.cacheredis.sketch;
+
+import com.jikkosoft.redis.cacheredis.hash.Murmur3HashFunction;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtro de Bloom de tamaño fijo: responde "seguro que no está" o "puede
+ * estar". Las posiciones de cada clave salen de dos hashes Murmur3 con
+ * semillas distintas (double hashing), sin codificar la clave a bytes.
+ * Los bits viven en un AtomicLongArray: agregar y consultar son lock-free
+ * y seguros entre hilos. No admite borrados.
+ */
+public class BloomFilter {
+
+    private static final Murmur3HashFunction HASH = new Murmur3HashFunction(0);
+    private static final Murmur3HashFunction HASH2 = new Murmur3HashFunction(0x9747b28c);
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashFunctions;
+    private final LongAdder bitsSet = new LongAdder();
+
+    /**
+     * @param expectedInsertions claves esperadas
+     * @param falsePositiveRate  tasa de falsos positivos con esa cantidad de claves
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("La cantidad esperada de claves debe ser positiva");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("La tasa de falsos positivos debe estar entre 0 y 1");
+        }
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Math.max((optimalBits + 63) >>> 6, 1), Integer.MAX_VALUE - 8);
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words << 6;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * Agrega la clave al filtro
+     */
+    public void put(String key) {
+        long h1 = HASH.hash(key);
+        long h2 = HASH2.hash(key);
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = position(h1, h2, i);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current = bits.get(word);
+            // Solo se escribe si el bit falta: las claves repetidas no compiten por la línea de caché
+            while ((current & mask) == 0) {
+                long witness = bits.compareAndExchange(word, current, current | mask);
+                if (witness == current) {
+                    bitsSet.increment();
+                    break;
+                }
+                current = witness;
+            }
+        }
+    }
+
+    /**
+     * {@code false} si la clave seguro no se agregó; {@code true} si puede haberse agregado
+     */
+    public boolean mightContain(String key) {
+        long h1 = HASH.hash(key);
+        long h2 = HASH2.hash(key);
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = position(h1, h2, i);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Probabilidad de falso positivo con la ocupación actual de bits
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow((double) bitsSet.sum() / bitSize, hashFunctions);
+    }
+
+    /**
+     * Claves distintas agregadas, estimadas a partir de los bits encendidos
+     */
+    public long approximateSize() {
+        double fill = (double) bitsSet.sum() / bitSize;
+        if (fill >= 1) {
+            return Long.MAX_VALUE;
+        }
+        return Math.round(-(double) bitSize / hashFunctions * Math.log1p(-fill));
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    /**
+     * Memoria ocupada por los bits
+     */
+    public long sizeInBytes() {
+        return bitSize >>> 3;
+    }
+
+    private long position(long h1, long h2, int i) {
+        // Ambos hashes son de 32 bits: la combinación no desborda un long
+        return (h1 + i * h2) % bitSize;
+    }
+}
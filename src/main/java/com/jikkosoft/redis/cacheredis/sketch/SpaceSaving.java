@@ -0,0 +1,161 @@
+package com.jikkosoft.redis.cacheredis.sketch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Algoritmo Space-Saving para encontrar las claves más frecuentes de un
+ * stream con un número fijo de contadores. Una clave nueva reemplaza a la
+ * de menor cuenta y hereda esa cuenta como error, así toda clave con más
+ * de N/capacidad apariciones queda seguida. Los contadores viven en un
+ * min-heap indexado: registrar un acceso cuesta O(log capacidad).
+ *
+ * No es thread-safe: el llamador debe sincronizar el acceso.
+ */
+public class SpaceSaving {
+
+    private final Counter[] heap;
+    private final Map<String, Counter> counters;
+    private int size;
+
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva");
+        }
+        this.heap = new Counter[capacity];
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Registra una aparición de la clave
+     */
+    public void offer(String key) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.count++;
+            siftDown(counter.index);
+            return;
+        }
+        if (size < heap.length) {
+            counter = new Counter(key, 1, 0);
+            counter.index = size;
+            heap[size++] = counter;
+            counters.put(key, counter);
+            siftUp(counter.index);
+            return;
+        }
+        // Reemplaza a la de menor cuenta, que queda como cota del error
+        Counter min = heap[0];
+        counters.remove(min.key);
+        min.key = key;
+        min.error = min.count;
+        min.count++;
+        counters.put(key, min);
+        siftDown(0);
+    }
+
+    /**
+     * Cuenta estimada de la clave (cota superior); 0 si no se sigue
+     */
+    public long estimate(String key) {
+        Counter counter = counters.get(key);
+        return counter != null ? counter.count : 0;
+    }
+
+    /**
+     * Las {@code limit} claves con mayor cuenta, de mayor a menor
+     */
+    public List<Counter> top(int limit) {
+        Counter[] copy = Arrays.copyOf(heap, size);
+        Arrays.sort(copy, Comparator.comparingLong((Counter counter) -> counter.count).reversed());
+        List<Counter> result = new ArrayList<>(Math.min(limit, size));
+        for (int i = 0; i < Math.min(limit, size); i++) {
+            result.add(new Counter(copy[i].key, copy[i].count, copy[i].error));
+        }
+        return result;
+    }
+
+    /**
+     * Divide todas las cuentas a la mitad para que la historia antigua pierda
+     * peso; dividir conserva el orden del heap
+     */
+    public void decay() {
+        for (int i = 0; i < size; i++) {
+            heap[i].count >>>= 1;
+            heap[i].error >>>= 1;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void siftUp(int index) {
+        Counter counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter counter = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && heap[right].count < heap[child].count) {
+                child = right;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    private void place(Counter counter, int index) {
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    /**
+     * Clave seguida con su cuenta y el error máximo de esa cuenta
+     */
+    public static final class Counter {
+
+        private String key;
+        private long count;
+        private long error;
+        private int index;
+
+        private Counter(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public long error() {
+            return error;
+        }
+    }
+}
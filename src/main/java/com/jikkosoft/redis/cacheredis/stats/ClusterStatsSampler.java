@@ -0,0 +1,281 @@
+package com.jikkosoft.redis.cacheredis.stats;
+
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Estadísticas del clúster tomadas en segundo plano. Cada interval-ms se
+ * consulta a todos los nodos en paralelo (PING, INFO y DBSIZE sobre una
+ * misma conexión) y se publica una foto inmutable con la última muestra y
+ * las history-size anteriores de cada nodo. Las consultas de estadísticas
+ * leen esa foto: no hacen llamadas a Redis ni bloquean.
+ */
+@Component
+public class ClusterStatsSampler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterStatsSampler.class);
+
+    @Autowired
+    private Map<String, RedisTemplate<String, Object>> redisTemplateMap;
+
+    @Autowired
+    private ConsistentHashRing hashRing;
+
+    @Autowired
+    @Qualifier("cacheNodeExecutor")
+    private Executor nodeExecutor;
+
+    @Value("${cache.stats.history-size:120}")
+    private int historySize = 120;
+
+    // Un nodo que no responde en este plazo queda como caído en la muestra
+    @Value("${cache.stats.timeout-ms:2000}")
+    private long timeoutMs = 2000;
+
+    // Contadores acumulados de INFO de la muestra anterior; solo los toca sample()
+    private final Map<String, long[]> previousCounters = new LinkedHashMap<>();
+
+    private volatile Snapshot snapshot = new Snapshot(0, 0, Map.of(), Map.of());
+
+    // Serializa las muestras; no synchronized porque se espera a los nodos con el lock tomado
+    private final ReentrantLock sampleLock = new ReentrantLock();
+
+    /**
+     * Toma una muestra de cada nodo del ring y publica una foto nueva
+     */
+    @Scheduled(fixedDelayString = "${cache.stats.interval-ms:5000}")
+    public void sample() {
+        sampleLock.lock();
+        try {
+            takeSample();
+        } finally {
+            sampleLock.unlock();
+        }
+    }
+
+    private void takeSample() {
+        long start = System.nanoTime();
+        long sampledAt = System.currentTimeMillis();
+
+        Map<String, CompletableFuture<Probe>> probes = new LinkedHashMap<>();
+        for (String node : hashRing.getAllNodes()) {
+            RedisTemplate<String, Object> template = redisTemplateMap.get(node);
+            if (template != null) {
+                probes.put(node, CompletableFuture.supplyAsync(() -> probe(template), nodeExecutor));
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        Snapshot previous = snapshot;
+        Map<String, List<NodeSample>> history = new LinkedHashMap<>();
+        long hits = 0;
+        long misses = 0;
+        for (Map.Entry<String, CompletableFuture<Probe>> entry : probes.entrySet()) {
+            String node = entry.getKey();
+            NodeSample sample;
+            try {
+                Probe probe = entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                long[] counters = {number(probe.info, "keyspace_hits"), number(probe.info, "keyspace_misses")};
+                long[] before = previousCounters.put(node, counters);
+                // Los contadores se reinician si Redis se reinicia: esa ventana no cuenta
+                long deltaHits = before != null && counters[0] >= before[0] ? counters[0] - before[0] : 0;
+                long deltaMisses = before != null && counters[1] >= before[1] ? counters[1] - before[1] : 0;
+                hits += deltaHits;
+                misses += deltaMisses;
+                sample = toSample(node, sampledAt, probe, ratio(deltaHits, deltaMisses));
+            } catch (TimeoutException e) {
+                entry.getValue().cancel(true);
+                sample = NodeSample.down(node, sampledAt, "Sin respuesta en " + timeoutMs + " ms");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                sample = NodeSample.down(node, sampledAt, cause.getMessage());
+            }
+            if (!sample.up()) {
+                logger.debug("Nodo '{}' no respondió al muestreo: {}", node, sample.error());
+            }
+            history.put(node, append(previous.history.get(node), sample));
+        }
+        // Los nodos retirados del ring dejan de tener historial
+        previousCounters.keySet().retainAll(history.keySet());
+
+        snapshot = new Snapshot(sampledAt,
+                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start),
+                Map.copyOf(history),
+                aggregate(history, ratio(hits, misses)));
+    }
+
+    /**
+     * Totales del clúster y última muestra de cada nodo, desde la última foto
+     */
+    public Map<String, Object> getClusterStats(boolean includeHistory) {
+        Snapshot current = snapshot;
+        Map<String, Object> stats = header(current);
+        stats.putAll(current.cluster);
+        Map<String, Object> nodes = new LinkedHashMap<>();
+        for (String node : hashRing.getAllNodes()) {
+            List<NodeSample> samples = current.history.get(node);
+            if (samples != null) {
+                nodes.put(node, includeHistory ? samples : samples.get(samples.size() - 1));
+            }
+        }
+        stats.put("nodes", nodes);
+        return stats;
+    }
+
+    /**
+     * Última muestra del nodo y, si se pide, su historial; vacío si aún no se muestreó
+     */
+    public Map<String, Object> getNodeStats(String node, boolean includeHistory) {
+        Snapshot current = snapshot;
+        Map<String, Object> stats = header(current);
+        stats.put("nodeId", node);
+        List<NodeSample> samples = current.history.get(node);
+        if (samples == null) {
+            stats.put("sampled", false);
+            return stats;
+        }
+        NodeSample last = samples.get(samples.size() - 1);
+        stats.put("sampled", true);
+        stats.put("connected", last.up());
+        stats.put("keyCount", last.keyCount());
+        stats.put("usedMemory", last.usedMemory());
+        stats.put("latest", last);
+        if (includeHistory) {
+            stats.put("history", samples);
+        }
+        return stats;
+    }
+
+    private Probe probe(RedisTemplate<String, Object> template) {
+        return template.execute((RedisCallback<Probe>) connection -> {
+            long start = System.nanoTime();
+            connection.ping();
+            long pingMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+            Properties info = connection.serverCommands().info();
+            Long dbSize = connection.serverCommands().dbSize();
+            return new Probe(pingMicros, info != null ? info : new Properties(), dbSize != null ? dbSize : 0);
+        });
+    }
+
+    private static NodeSample toSample(String node, long sampledAt, Probe probe, double hitRatio) {
+        Properties info = probe.info;
+        return new NodeSample(node, sampledAt, true, probe.pingMicros, probe.dbSize,
+                number(info, "used_memory"),
+                number(info, "maxmemory"),
+                number(info, "connected_clients"),
+                number(info, "instantaneous_ops_per_sec"),
+                hitRatio,
+                number(info, "evicted_keys"),
+                number(info, "expired_keys"),
+                number(info, "uptime_in_seconds"),
+                null);
+    }
+
+    private List<NodeSample> append(List<NodeSample> history, NodeSample sample) {
+        List<NodeSample> samples = new ArrayList<>(historySize);
+        if (history != null) {
+            samples.addAll(history.subList(Math.max(0, history.size() - historySize + 1), history.size()));
+        }
+        samples.add(sample);
+        return List.copyOf(samples);
+    }
+
+    private static Map<String, Object> aggregate(Map<String, List<NodeSample>> history, double hitRatio) {
+        int up = 0;
+        long keys = 0;
+        long usedMemory = 0;
+        long maxMemory = 0;
+        long clients = 0;
+        long ops = 0;
+        long pingTotal = 0;
+        long pingMax = 0;
+        for (List<NodeSample> samples : history.values()) {
+            NodeSample last = samples.get(samples.size() - 1);
+            if (!last.up()) {
+                continue;
+            }
+            up++;
+            keys += last.keyCount();
+            usedMemory += last.usedMemory();
+            maxMemory += last.maxMemory();
+            clients += last.connectedClients();
+            ops += last.opsPerSecond();
+            pingTotal += last.pingMicros();
+            pingMax = Math.max(pingMax, last.pingMicros());
+        }
+        Map<String, Object> cluster = new LinkedHashMap<>();
+        cluster.put("totalNodes", history.size());
+        cluster.put("upNodes", up);
+        cluster.put("keyCount", keys);
+        cluster.put("usedMemory", usedMemory);
+        cluster.put("maxMemory", maxMemory);
+        cluster.put("connectedClients", clients);
+        cluster.put("opsPerSecond", ops);
+        cluster.put("hitRatio", hitRatio);
+        cluster.put("avgPingMicros", up > 0 ? pingTotal / up : 0);
+        cluster.put("maxPingMicros", pingMax);
+        return Collections.unmodifiableMap(cluster);
+    }
+
+    private static Map<String, Object> header(Snapshot current) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sampledAt", current.sampledAt > 0 ? Instant.ofEpochMilli(current.sampledAt) : null);
+        stats.put("ageMs", current.sampledAt > 0 ? System.currentTimeMillis() - current.sampledAt : -1);
+        stats.put("sampleMicros", current.sampleMicros);
+        return stats;
+    }
+
+    private static double ratio(long hits, long misses) {
+        return hits + misses > 0 ? (double) hits / (hits + misses) : 0.0;
+    }
+
+    private static long number(Properties info, String property) {
+        String value = info.getProperty(property);
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Respuesta cruda de un nodo antes de calcular los ratios
+     */
+    private record Probe(long pingMicros, Properties info, long dbSize) {
+    }
+
+    /**
+     * Foto publicada: historial por nodo (la última muestra al final) y totales
+     */
+    private record Snapshot(long sampledAt, long sampleMicros,
+                            Map<String, List<NodeSample>> history, Map<String, Object> cluster) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.jikkosoft.redis.cacheredis.stats;
+
+/**
+ * Muestra de un nodo tomada por el muestreador: latencia de PING, DBSIZE y
+ * las métricas de INFO. Los ratios se calculan con la diferencia respecto
+ * de la muestra anterior; un nodo caído queda con {@code up=false} y el error.
+ */
+public record NodeSample(String node,
+                         long sampledAt,
+                         boolean up,
+                         long pingMicros,
+                         long keyCount,
+                         long usedMemory,
+                         long maxMemory,
+                         long connectedClients,
+                         long opsPerSecond,
+                         double hitRatio,
+                         long evictedKeys,
+                         long expiredKeys,
+                         long uptimeSeconds,
+                         String error) {
+
+    static NodeSample down(String node, long sampledAt, String error) {
+        return new NodeSample(node, sampledAt, false, -1, 0, 0, 0, 0, 0, 0.0, 0, 0, 0, error);
+    }
+}
@@ -0,0 +1,418 @@
+package com.jikkosoft.redis.cacheredis.warmup;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.jikkosoft.redis.cacheredis.bloom.KeyFilter;
+import com.jikkosoft.redis.cacheredis.compression.ValueCompressor;
+import com.jikkosoft.redis.cacheredis.expiry.ActiveExpiryService;
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.model.CacheEntry;
+import com.jikkosoft.redis.cacheredis.model.ImportStatus;
+import com.jikkosoft.redis.cacheredis.model.InternalKeys;
+import com.jikkosoft.redis.cacheredis.near.NearCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Precarga del caché desde un snapshot NDJSON local (el formato de
+ * {@code GET /api/cache/_export}). El archivo se lee con memory-mapped I/O
+ * en ventanas, cada registro se ubica con el ring y las escrituras van en
+ * un pipeline por lote y nodo, con los nodos en paralelo.
+ *
+ * Se conserva el vencimiento original ({@code expiresAt}); los registros ya
+ * vencidos se omiten. Se escribe con SET NX: un valor escrito después del
+ * reinicio es más reciente que el del snapshot.
+ */
+@Component
+public class SnapshotImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotImporter.class);
+
+    @Autowired
+    private Map<String, RedisTemplate<String, Object>> redisTemplateMap;
+
+    @Autowired
+    private ConsistentHashRing hashRing;
+
+    @Autowired
+    private ValueCompressor valueCompressor;
+
+    @Autowired
+    private ActiveExpiryService activeExpiry;
+
+    @Autowired
+    private KeyFilter keyFilter;
+
+    @Autowired
+    private NearCache nearCache;
+
+    @Autowired
+    @Qualifier("cacheNodeExecutor")
+    private Executor nodeExecutor;
+
+    @Value("${cache.replication.factor:2}")
+    private int replicationFactor = 2;
+
+    @Value("${cache.warmup.snapshot-dir:snapshots}")
+    private String snapshotDir = "snapshots";
+
+    @Value("${cache.warmup.on-startup-file:}")
+    private String onStartupFile = "";
+
+    @Value("${cache.warmup.batch-size:1000}")
+    private int batchSize = 1000;
+
+    @Value("${cache.warmup.max-keys-per-second:200000}")
+    private long maxKeysPerSecond = 200_000;
+
+    @Value("${cache.warmup.max-in-flight-batches:16}")
+    private int maxInFlightBatches = 16;
+
+    @Value("${cache.warmup.map-window-bytes:67108864}")
+    private long mapWindowBytes = 64L * 1024 * 1024;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+    private final ExecutorService importExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-warmup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong readBytes = new AtomicLong();
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong existing = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile String state = "IDLE";
+    private volatile String file;
+    private volatile long totalBytes;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    /**
+     * Si está configurado, carga el snapshot al terminar de arrancar
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void importOnStartup() {
+        if (onStartupFile == null || onStartupFile.isBlank()) {
+            return;
+        }
+        try {
+            start(onStartupFile, null);
+        } catch (Exception e) {
+            logger.warn("No se pudo iniciar la precarga de '{}': {}", onStartupFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Inicia la carga en segundo plano
+     *
+     * @param fileName archivo relativo al directorio de snapshots
+     * @param rateLimit tope de registros por segundo; null usa el configurado, 0 sin tope
+     */
+    public synchronized ImportStatus start(String fileName, Long rateLimit) throws IOException {
+        if ("RUNNING".equals(state)) {
+            throw new IllegalStateException("Ya hay una precarga en curso: " + file);
+        }
+        Path path = resolve(fileName);
+        long size = Files.size(path);
+
+        readBytes.set(0);
+        records.set(0);
+        skipped.set(0);
+        written.set(0);
+        existing.set(0);
+        failed.set(0);
+        this.file = fileName;
+        this.totalBytes = size;
+        this.error = null;
+        this.startedAt = LocalDateTime.now();
+        this.finishedAt = null;
+        this.state = "RUNNING";
+
+        long limit = rateLimit != null ? rateLimit : maxKeysPerSecond;
+        importExecutor.submit(() -> run(path, limit));
+        return getStatus();
+    }
+
+    /**
+     * El archivo debe existir dentro del directorio de snapshots
+     */
+    private Path resolve(String fileName) {
+        Path dir = Path.of(snapshotDir).toAbsolutePath().normalize();
+        Path path = dir.resolve(fileName).normalize();
+        if (!path.startsWith(dir)) {
+            throw new IllegalArgumentException("El archivo debe estar en " + dir);
+        }
+        if (!Files.isRegularFile(path) || !Files.isReadable(path)) {
+            throw new IllegalArgumentException("Snapshot no encontrado: " + fileName);
+        }
+        return path;
+    }
+
+    private void run(Path path, long rateLimit) {
+        try {
+            load(path, rateLimit);
+            state = "COMPLETED";
+            logger.info("Precarga de '{}' completada: {} registros, {} escrituras, {} ya existían, {} fallidas",
+                    file, records.get(), written.get(), existing.get(), failed.get());
+        } catch (Exception e) {
+            state = "FAILED";
+            error = e.getMessage();
+            logger.error("Error en precarga de '{}': {}", file, e.getMessage());
+        } finally {
+            finishedAt = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * Recorre el archivo por ventanas mapeadas; cada ventana termina en el
+     * último salto de línea y la siguiente empieza justo después
+     */
+    private void load(Path path, long rateLimit) throws IOException, InterruptedException {
+        Loader loader = new Loader(rateLimit);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long length = Math.min(mapWindowBytes, size - position);
+                boolean last = position + length == size;
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+                int limit = window.limit();
+                int lineStart = 0;
+                for (int i = 0; i < limit; i++) {
+                    if (window.get(i) == '\n') {
+                        loader.line(window, lineStart, i);
+                        lineStart = i + 1;
+                    }
+                }
+                if (last && lineStart < limit) {
+                    loader.line(window, lineStart, limit);
+                    lineStart = limit;
+                }
+                if (lineStart == 0) {
+                    throw new IllegalStateException("Registro de más de " + mapWindowBytes
+                            + " bytes en la posición " + position);
+                }
+                position += lineStart;
+                readBytes.set(position);
+            }
+        }
+        loader.finish();
+    }
+
+    /**
+     * Estado de una carga: lotes pendientes por nodo y lotes en vuelo
+     */
+    private final class Loader {
+
+        private final long rateLimit;
+        private final Map<String, List<Entry>> pending = new HashMap<>();
+        private final Semaphore inFlight = new Semaphore(maxInFlightBatches);
+        private final long startNanos = System.nanoTime();
+        private byte[] line = new byte[8192];
+
+        private Loader(long rateLimit) {
+            this.rateLimit = rateLimit;
+        }
+
+        void line(MappedByteBuffer window, int from, int to) throws InterruptedException {
+            int length = to - from;
+            if (length > line.length) {
+                line = new byte[Math.max(length, line.length * 2)];
+            }
+            window.get(from, line, 0, length);
+            Entry entry = parse(line, length);
+            if (entry == null) {
+                return;
+            }
+            for (String node : hashRing.getNodes(entry.key(), replicationFactor)) {
+                List<Entry> batch = pending.computeIfAbsent(node, n -> new ArrayList<>(batchSize));
+                batch.add(entry);
+                if (batch.size() >= batchSize) {
+                    submit(node, pending.remove(node));
+                }
+            }
+            long count = records.incrementAndGet();
+            if (count % batchSize == 0) {
+                throttle(count);
+            }
+        }
+
+        /**
+         * Envía un lote; si hay demasiados en vuelo espera, así la lectura
+         * del archivo no se adelanta a las escrituras
+         */
+        private void submit(String node, List<Entry> batch) throws InterruptedException {
+            inFlight.acquire();
+            CompletableFuture.runAsync(() -> write(node, batch), nodeExecutor)
+                    .whenComplete((ignored, writeError) -> {
+                        if (writeError != null) {
+                            failed.addAndGet(batch.size());
+                            logger.warn("Error precargando {} claves en nodo {}: {}",
+                                    batch.size(), node, writeError.getMessage());
+                        }
+                        inFlight.release();
+                    });
+        }
+
+        private void throttle(long count) throws InterruptedException {
+            if (rateLimit <= 0) {
+                return;
+            }
+            long expectedNanos = count * 1_000_000_000L / rateLimit;
+            long aheadNanos = expectedNanos - (System.nanoTime() - startNanos);
+            if (aheadNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(aheadNanos);
+            }
+        }
+
+        void finish() throws InterruptedException {
+            for (String node : List.copyOf(pending.keySet())) {
+                submit(node, pending.remove(node));
+            }
+            inFlight.acquire(maxInFlightBatches);
+            inFlight.release(maxInFlightBatches);
+        }
+    }
+
+    /**
+     * Registro del snapshot listo para escribir; null si está vencido o no es una entrada
+     */
+    private Entry parse(byte[] line, int length) {
+        try {
+            JsonNode record = objectMapper.readTree(line, 0, length);
+            if (record == null || !record.hasNonNull("key")) {
+                // Líneas vacías o de error de la exportación
+                if (record != null && !record.isMissingNode()) {
+                    skipped.incrementAndGet();
+                }
+                return null;
+            }
+            String key = record.get("key").asText();
+            if (InternalKeys.isInternal(key)) {
+                skipped.incrementAndGet(); // Pisaría un lock, el contador de fencing o un diccionario
+                return null;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime expiresAt = null;
+            long ttlMillis = 0;
+            if (record.hasNonNull("expiresAt")) {
+                expiresAt = LocalDateTime.parse(record.get("expiresAt").asText());
+                ttlMillis = Duration.between(now, expiresAt).toMillis();
+            } else if (record.path("ttlMillis").asLong(-1) > 0) {
+                ttlMillis = record.get("ttlMillis").asLong();
+                expiresAt = now.plusNanos(TimeUnit.MILLISECONDS.toNanos(ttlMillis));
+            }
+            if (expiresAt != null && ttlMillis <= 0) {
+                skipped.incrementAndGet();
+                return null;
+            }
+            Object value = objectMapper.treeToValue(record.get("value"), Object.class);
+            CacheEntry entry = new CacheEntry(valueCompressor.compress(key, value), now, expiresAt, 0, now);
+            return new Entry(key, entry, ttlMillis);
+        } catch (IOException | RuntimeException e) {
+            skipped.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * SET NX de todo el lote en un pipeline, con el TTL restante de cada entrada
+     */
+    @SuppressWarnings("unchecked")
+    private void write(String node, List<Entry> batch) {
+        RedisTemplate<String, Object> template = redisTemplateMap.get(node);
+        if (template == null) {
+            throw new IllegalStateException("Nodo no disponible: " + node);
+        }
+        RedisSerializer<Object> serializer = (RedisSerializer<Object>) template.getValueSerializer();
+        List<String> keys = batch.stream().map(Entry::key).toList();
+        keyFilter.add(node, keys);
+        if (keyFilter.isEnabled()) {
+            // Los filtros de Bloom de las demás instancias no ven estas escrituras
+            nearCache.invalidateCluster(keys);
+        }
+        List<Object> results = template.executePipelined((RedisCallback<Object>) connection -> {
+            for (Entry entry : batch) {
+                connection.stringCommands().set(entry.key().getBytes(StandardCharsets.UTF_8),
+                        serializer.serialize(entry.entry()),
+                        entry.ttlMillis() > 0 ? Expiration.milliseconds(entry.ttlMillis()) : Expiration.persistent(),
+                        RedisStringCommands.SetOption.ifAbsent());
+            }
+            return null;
+        });
+        for (int i = 0; i < batch.size(); i++) {
+            if (Boolean.TRUE.equals(results.get(i))) {
+                written.incrementAndGet();
+                activeExpiry.schedule(batch.get(i).key(), batch.get(i).entry().getExpiresAt());
+            } else {
+                existing.incrementAndGet();
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return "RUNNING".equals(state);
+    }
+
+    /**
+     * Progreso de la última carga con ETA según los bytes restantes
+     */
+    public ImportStatus getStatus() {
+        LocalDateTime start = startedAt;
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        double elapsedSeconds = start != null
+                ? Math.max(Duration.between(start, end).toMillis(), 1) / 1000.0 : 0;
+        double rate = elapsedSeconds > 0 ? records.get() / elapsedSeconds : 0;
+        long read = readBytes.get();
+        long eta = 0;
+        if (isRunning() && read > 0) {
+            eta = (long) Math.ceil((totalBytes - read) * elapsedSeconds / read);
+        }
+        return new ImportStatus(state, file, totalBytes, read, records.get(), skipped.get(),
+                written.get(), existing.get(), failed.get(), rate, eta, startedAt, finishedAt, error);
+    }
+
+    private record Entry(String key, CacheEntry entry, long ttlMillis) {
+    }
+}
@@ -0,0 +1,13 @@
+-- Publica el manifiesto de un blob y devuelve la versión que reemplaza,
+-- para que el escritor expire los chunks anteriores. Con escrituras
+-- concurrentes cada una recibe la versión que realmente reemplazó.
+-- KEYS[1] = manifiesto, ARGV[1] = TTL en ms (0 = sin expiración),
+-- ARGV[2..] = pares campo/valor del manifiesto
+local previous = redis.call('HGET', KEYS[1], 'version')
+redis.call('DEL', KEYS[1])
+redis.call('HSET', KEYS[1], unpack(ARGV, 2))
+local ttl = tonumber(ARGV[1])
+if ttl > 0 then
+    redis.call('PEXPIRE', KEYS[1], ttl)
+end
+return previous
@@ -0,0 +1,14 @@
+-- Elige la instancia que ejecuta la expulsión: toma la clave si está libre
+-- o renueva el lease si ya es suya.
+-- KEYS[1] = clave del líder, ARGV[1] = id de la instancia, ARGV[2] = lease en milisegundos
+-- Retorna 1 si esta instancia es el líder, 0 si lo es otra
+local current = redis.call('GET', KEYS[1])
+if not current then
+    redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+    return 1
+end
+if current == ARGV[1] then
+    redis.call('PEXPIRE', KEYS[1], ARGV[2])
+    return 1
+end
+return 0
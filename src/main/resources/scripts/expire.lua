@@ -0,0 +1,36 @@
+-- Borra las claves cuya entrada ya venció según su expiresAt, sin depender
+-- del TTL de Redis. Una clave reescrita con un vencimiento posterior no se toca.
+-- KEYS = claves, ARGV[1] = ahora en epoch millis (entradas binarias),
+-- ARGV[2] = ahora en ISO local (entradas JSON)
+-- Devuelve {borradas, bytes liberados, ya ausentes}
+local now = tonumber(ARGV[1])
+local deleted, reclaimed, missing = 0, 0, 0
+
+for _, key in ipairs(KEYS) do
+    -- Solo la cabecera: expiresAt está antes del valor en ambos formatos
+    local head = redis.call('GETRANGE', key, 0, 127)
+    if head == '' then
+        missing = missing + 1
+    else
+        local expired = false
+        if string.byte(head, 1) == 0xCE then
+            -- Formato binario v1: expiresAt int64 big-endian en los bytes 12-19
+            if string.byte(head, 2) == 1 and #head >= 19 then
+                local expiresAt = 0
+                for i = 12, 19 do
+                    expiresAt = expiresAt * 256 + string.byte(head, i)
+                end
+                expired = expiresAt > 0 and expiresAt <= now
+            end
+        else
+            local expiresAt = string.match(head, '"expiresAt":"([^"]+)"')
+            expired = expiresAt ~= nil and expiresAt <= ARGV[2]
+        end
+        if expired then
+            reclaimed = reclaimed + redis.call('STRLEN', key) + #key
+            redis.call('DEL', key)
+            deleted = deleted + 1
+        end
+    end
+end
+return {deleted, reclaimed, missing}
@@ -0,0 +1,18 @@
+-- Adquiere el lock y emite un fencing token monotónico en un solo paso.
+-- KEYS[1] = clave del lock, KEYS[2] = contador de fencing del nodo
+-- ARGV[1] = token del dueño, ARGV[2] = lease en milisegundos
+-- Retorna el fencing token (> 0) o, si está ocupado, -(ms restantes del lease)
+-- Lua no deshace lo ya escrito si un comando falla: el contador se valida
+-- antes del SET NX para que un contador corrupto no deje el lock tomado
+local fence = redis.call('GET', KEYS[2])
+if fence and not tonumber(fence) then
+    return redis.error_reply('ERR contador de fencing no numérico en ' .. KEYS[2])
+end
+if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then
+    return redis.call('INCR', KEYS[2])
+end
+local remaining = redis.call('PTTL', KEYS[1])
+if remaining < 1 then
+    remaining = 1
+end
+return -remaining
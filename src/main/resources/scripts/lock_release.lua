@@ -0,0 +1,10 @@
+-- Libera el lock solo si sigue perteneciendo al token indicado y avisa a
+-- los que esperan por el canal de liberación.
+-- KEYS[1] = clave del lock, ARGV[1] = token del dueño, ARGV[2] = canal
+-- Retorna 1 si se liberó, 0 si el lock ya no era de este dueño
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    redis.call('DEL', KEYS[1])
+    redis.call('PUBLISH', ARGV[2], KEYS[1])
+    return 1
+end
+return 0
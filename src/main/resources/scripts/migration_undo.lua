@@ -0,0 +1,7 @@
+-- Deshace la copia de una migración solo si el destino aún conserva
+-- exactamente el valor restaurado; una escritura posterior no se toca.
+-- KEYS[1] = clave, ARGV[1] = payload de DUMP usado en el RESTORE
+if redis.call('DUMP', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
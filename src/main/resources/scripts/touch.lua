@@ -0,0 +1,70 @@
+-- Lee la entrada y actualiza accessCount/lastAccessed en un solo paso,
+-- conservando el TTL restante (SET ... KEEPTTL).
+-- KEYS[1] = clave, ARGV[1] = timestamp ISO del acceso (entradas JSON),
+-- ARGV[2] = epoch millis del acceso (entradas binarias)
+local raw = redis.call('GET', KEYS[1])
+if not raw then
+    return false
+end
+
+-- Formato binario (magic 0xCE, versión 1): lastAccessed es un int64
+-- big-endian en los bytes 20-27 y accessCount un varint desde el byte 28
+if string.byte(raw, 1) == 0xCE then
+    if string.byte(raw, 2) ~= 1 or #raw < 28 or ARGV[2] == nil then
+        return raw
+    end
+    local pos = 28
+    local count, multiplier, byte = 0, 1, 0
+    repeat
+        byte = string.byte(raw, pos)
+        if byte == nil then
+            return raw
+        end
+        count = count + (byte % 128) * multiplier
+        multiplier = multiplier * 128
+        pos = pos + 1
+    until byte < 128
+
+    local millis = tonumber(ARGV[2])
+    local timestamp = {}
+    for i = 8, 1, -1 do
+        timestamp[i] = string.char(millis % 256)
+        millis = math.floor(millis / 256)
+    end
+
+    local incremented = count + 1
+    local varint = {}
+    repeat
+        local b = incremented % 128
+        incremented = math.floor(incremented / 128)
+        if incremented > 0 then
+            b = b + 128
+        end
+        varint[#varint + 1] = string.char(b)
+    until incremented == 0
+
+    local updated = string.sub(raw, 1, 19) .. table.concat(timestamp)
+            .. table.concat(varint) .. string.sub(raw, pos)
+    redis.call('SET', KEYS[1], updated, 'KEEPTTL')
+    return updated
+end
+
+-- Formato JSON: los metadatos se serializan antes que "value", por lo que
+-- la primera coincidencia corresponde al nivel superior de la entrada
+local valueStart = string.find(raw, '"value":', 1, true)
+local countStart, countEnd, count = string.find(raw, '"accessCount":(%d+)')
+local accessedStart, accessedEnd = string.find(raw, '"lastAccessed":"[^"]*"')
+if countStart == nil or accessedStart == nil or accessedStart < countEnd then
+    return raw
+end
+if valueStart ~= nil and valueStart < accessedStart then
+    return raw
+end
+
+local updated = string.sub(raw, 1, countStart - 1)
+        .. '"accessCount":' .. string.format('%d', tonumber(count) + 1)
+        .. string.sub(raw, countEnd + 1, accessedStart - 1)
+        .. '"lastAccessed":"' .. ARGV[1] .. '"'
+        .. string.sub(raw, accessedEnd + 1)
+redis.call('SET', KEYS[1], updated, 'KEEPTTL')
+return updated
@@ -0,0 +1,41 @@
+-- Escribe la entrada de una réplica salvo que la guardada sea más reciente:
+-- una escritura rezagada de un PUT anterior no pisa la de uno posterior.
+-- Se compara createdAt, que cada PUT fija dentro del lock de la clave.
+-- KEYS[1] = clave, ARGV[1] = entrada serializada, ARGV[2] = TTL en segundos (0 = sin expiración)
+-- Retorna 1 si escribió, 0 si conservó una versión más nueva
+local function createdAt(raw)
+    -- Formato binario: createdAt es un int64 big-endian en los bytes 4-11
+    if string.byte(raw, 1) == 0xCE then
+        if #raw < 11 then
+            return nil, nil
+        end
+        local millis = 0
+        for i = 4, 11 do
+            millis = millis * 256 + string.byte(raw, i)
+        end
+        return millis, 'binary'
+    end
+    -- Formato JSON: createdAt es el primer campo, ISO-8601 comparable como texto
+    local iso = string.match(raw, '^{"createdAt":"([^"]*)"')
+    if iso then
+        return iso, 'json'
+    end
+    return nil, nil
+end
+
+local current = redis.call('GET', KEYS[1])
+if current then
+    local stored, storedFormat = createdAt(current)
+    local incoming, incomingFormat = createdAt(ARGV[1])
+    if stored ~= nil and incoming ~= nil and storedFormat == incomingFormat and stored > incoming then
+        return 0
+    end
+end
+
+local ttl = tonumber((string.gsub(ARGV[2], '"', '')))
+if ttl ~= nil and ttl > 0 then
+    redis.call('SET', KEYS[1], ARGV[1], 'EX', ttl)
+else
+    redis.call('SET', KEYS[1], ARGV[1])
+end
+return 1
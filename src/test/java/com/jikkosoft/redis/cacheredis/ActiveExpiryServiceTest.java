@@ -0,0 +1,107 @@
+package com.jikkosoft.redis.cacheredis;
+
+import com.jikkosoft.redis.cacheredis.expiry.ActiveExpiryService;
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.hash.HashAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para ActiveExpiryService
+ */
+@ExtendWith(MockitoExtension.class)
+class ActiveExpiryServiceTest {
+
+    @Mock
+    private RedisTemplate<String, Object> node1;
+
+    @Mock
+    private RedisTemplate<String, Object> node2;
+
+    private ActiveExpiryService expiry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        expiry = new ActiveExpiryService();
+        setPrivateField(expiry, "redisTemplateMap", Map.of("node1", node1, "node2", node2));
+        setPrivateField(expiry, "hashRing", new ConsistentHashRing(HashAlgorithm.MURMUR3, List.of("node1", "node2")));
+        setPrivateField(expiry, "tickMs", 10L);
+        expiry.init();
+    }
+
+    @Test
+    @DisplayName("Debe borrar de todas las réplicas las claves vencidas y reportar lo liberado")
+    void testExpiresDueKeys() throws Exception {
+        when(node1.executePipelined(any(RedisCallback.class))).thenReturn(List.of("sha", List.of(1L, 120L, 0L)));
+        when(node2.executePipelined(any(RedisCallback.class))).thenReturn(List.of("sha", List.of(1L, 120L, 0L)));
+
+        expiry.schedule("user:1", LocalDateTime.now().minusSeconds(1));
+        Thread.sleep(20);
+        expiry.tick();
+
+        verify(node1).executePipelined(any(RedisCallback.class));
+        verify(node2).executePipelined(any(RedisCallback.class));
+        Map<String, Object> stats = expiry.getStats();
+        assertEquals(2L, stats.get("expired"));
+        assertEquals(240L, stats.get("reclaimedBytes"));
+        assertEquals(0, stats.get("tracked"));
+    }
+
+    @Test
+    @DisplayName("No debe borrar una clave reescrita con un vencimiento posterior ni una cancelada")
+    void testRescheduledAndCancelledKeys() throws Exception {
+        expiry.schedule("user:1", LocalDateTime.now().plusNanos(5_000_000));
+        expiry.schedule("user:1", LocalDateTime.now().plusHours(1));
+        expiry.schedule("user:2", LocalDateTime.now().plusNanos(5_000_000));
+        expiry.cancel("user:2");
+
+        Thread.sleep(30);
+        expiry.tick();
+
+        verify(node1, never()).executePipelined(any(RedisCallback.class));
+        verify(node2, never()).executePipelined(any(RedisCallback.class));
+        assertEquals(1, expiry.getStats().get("tracked"));
+    }
+
+    @Test
+    @DisplayName("Debe respetar el tope de claves por tick y dejar el resto pendiente")
+    void testBudgetPerTick() throws Exception {
+        setPrivateField(expiry, "maxKeysPerTick", 2);
+        lenient().when(node1.executePipelined(any(RedisCallback.class))).thenReturn(List.of("sha", List.of(0L, 0L, 0L)));
+        lenient().when(node2.executePipelined(any(RedisCallback.class))).thenReturn(List.of("sha", List.of(0L, 0L, 0L)));
+        for (int i = 0; i < 5; i++) {
+            expiry.schedule("user:" + i, LocalDateTime.now().minusSeconds(1));
+        }
+
+        Thread.sleep(20);
+        expiry.tick();
+
+        assertEquals(3, expiry.getStats().get("pending"));
+        assertEquals(1L, expiry.getStats().get("budgetExhaustedTicks"));
+        expiry.tick();
+        expiry.tick();
+        assertEquals(0, expiry.getStats().get("pending"));
+        assertEquals(0, expiry.getStats().get("tracked"));
+    }
+
+    private void setPrivateField(Object target, String fieldName, Object value) throws NoSuchFieldException, IllegalAccessException {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,248 @@
+package com.jikkosoft.redis.cacheredis;
+
+import com.jikkosoft.redis.cacheredis.blob.BlobManifest;
+import com.jikkosoft.redis.cacheredis.blob.BlobStore;
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.hash.HashAlgorithm;
+import com.jikkosoft.redis.cacheredis.script.CacheScripts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisHashCommands;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para BlobStore sobre un Redis simulado en memoria
+ */
+class BlobStoreTest {
+
+    private final Map<String, Map<String, byte[]>> strings = new HashMap<>();
+    private final Map<String, Map<String, Map<String, String>>> hashes = new HashMap<>();
+    private final Map<String, Map<String, Long>> expirations = new HashMap<>();
+
+    private BlobStore blobStore;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        blobStore = new BlobStore();
+        Map<String, RedisTemplate<String, Object>> templates = new LinkedHashMap<>();
+        templates.put("node1", fakeNode("node1"));
+        templates.put("node2", fakeNode("node2"));
+        setPrivateField(blobStore, "redisTemplateMap", templates);
+        setPrivateField(blobStore, "hashRing", new ConsistentHashRing(HashAlgorithm.MURMUR3, List.of("node1", "node2")));
+        setPrivateField(blobStore, "chunkBytes", 4);
+        setPrivateField(blobStore, "prefetchChunks", 2);
+    }
+
+    @Test
+    @DisplayName("Debe guardar el valor en chunks en ambas réplicas y leerlo completo")
+    void testWriteAndReadRoundTrip() throws Exception {
+        byte[] content = "0123456789abcdefghij-".getBytes(StandardCharsets.UTF_8);
+
+        BlobManifest written = blobStore.write("video:1", new ByteArrayInputStream(content), "video/mp4", 60);
+
+        assertEquals(21, written.size());
+        assertEquals(6, written.chunks());
+        for (String node : List.of("node1", "node2")) {
+            assertEquals(6, strings.get(node).size());
+            // TTL final aplicado a los chunks, no el de la subida
+            assertTrue(expirations.get(node).values().stream().allMatch(ttl -> ttl == 60_000L));
+        }
+
+        BlobManifest manifest = blobStore.open("video:1").orElseThrow();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        blobStore.read(manifest, 0, manifest.size() - 1, out);
+
+        assertArrayEquals(content, out.toByteArray());
+        assertEquals("video/mp4", manifest.contentType());
+    }
+
+    @Test
+    @DisplayName("Debe leer un rango que cruza chunks con GETRANGE parciales")
+    void testReadRange() throws Exception {
+        byte[] content = "0123456789abcdefghij".getBytes(StandardCharsets.UTF_8);
+        blobStore.write("doc:1", new ByteArrayInputStream(content), null, 60);
+
+        BlobManifest manifest = blobStore.open("doc:1").orElseThrow();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        blobStore.read(manifest, 3, 13, out);
+
+        assertEquals("3456789abcd", out.toString(StandardCharsets.UTF_8));
+        assertThrows(IllegalArgumentException.class, () -> blobStore.read(manifest, 5, 20, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    @DisplayName("Reescribir debe publicar la nueva versión y expirar los chunks anteriores")
+    void testRewriteExpiresPreviousVersion() throws Exception {
+        BlobManifest first = blobStore.write("doc:1", new ByteArrayInputStream(new byte[10]), null, 60);
+        BlobManifest second = blobStore.write("doc:1", new ByteArrayInputStream(new byte[6]), null, 60);
+
+        assertEquals(second.version(), blobStore.open("doc:1").orElseThrow().version());
+        expirations.get("node1").forEach((key, ttl) -> {
+            if (key.contains(first.version())) {
+                assertEquals(30_000L, ttl, key);
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Debe rechazar valores que superan el máximo y descartar los chunks subidos")
+    void testRejectsOversizedUpload() throws Exception {
+        setPrivateField(blobStore, "maxBytes", 8L);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> blobStore.write("doc:1", new ByteArrayInputStream(new byte[12]), null, 60));
+
+        assertTrue(strings.get("node1").isEmpty());
+        assertTrue(blobStore.open("doc:1").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Debe buscar el manifiesto en la otra réplica si la primera no lo tiene")
+    void testOpenFallsBackToOtherReplica() throws Exception {
+        byte[] content = "0123456789".getBytes(StandardCharsets.UTF_8);
+        BlobManifest written = blobStore.write("doc:1", new ByteArrayInputStream(content), null, 60);
+        // La primera réplica perdió el manifiesto (p. ej. no alcanzó el commit con quórum)
+        hashes.get(written.node()).clear();
+
+        BlobManifest manifest = blobStore.open("doc:1").orElseThrow();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        blobStore.read(manifest, 0, manifest.size() - 1, out);
+
+        assertNotEquals(written.node(), manifest.node());
+        assertArrayEquals(content, out.toByteArray());
+    }
+
+    @Test
+    @DisplayName("Manifiesto y chunks deben ubicarse en el ring por la clave del usuario")
+    void testRoutingKey() {
+        assertEquals("video:1", BlobStore.routingKey("blob:m:video:1"));
+        assertEquals("video:1", BlobStore.routingKey("blob:c:1f2e:12:video:1"));
+        assertEquals("user:1", BlobStore.routingKey("user:1"));
+    }
+
+    /**
+     * Template simulado: ejecuta los callbacks contra un mapa en memoria y, en
+     * pipeline, devuelve el resultado de cada comando
+     */
+    @SuppressWarnings("unchecked")
+    private RedisTemplate<String, Object> fakeNode(String node) {
+        Map<String, byte[]> data = strings.computeIfAbsent(node, n -> new HashMap<>());
+        Map<String, Map<String, String>> hashData = hashes.computeIfAbsent(node, n -> new HashMap<>());
+        Map<String, Long> ttls = expirations.computeIfAbsent(node, n -> new HashMap<>());
+        List<Object> pipeline = new ArrayList<>();
+
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        when(stringCommands.set(any(), any(), any(), any())).thenAnswer(invocation -> {
+            byte[] value = invocation.getArgument(1);
+            data.put(key(invocation.getArgument(0)), value.clone());
+            return record(pipeline, true);
+        });
+        when(stringCommands.getRange(any(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            byte[] value = data.get(key(invocation.getArgument(0)));
+            long start = invocation.getArgument(1);
+            long end = invocation.getArgument(2);
+            byte[] range = value == null ? new byte[0]
+                    : Arrays.copyOfRange(value, (int) start, (int) Math.min(end + 1, value.length));
+            return record(pipeline, range);
+        });
+
+        RedisKeyCommands keyCommands = mock(RedisKeyCommands.class);
+        when(keyCommands.pExpire(any(), anyLong())).thenAnswer(invocation -> {
+            String key = key(invocation.getArgument(0));
+            boolean exists = data.containsKey(key);
+            if (exists) {
+                ttls.put(key, invocation.getArgument(1));
+            }
+            return record(pipeline, exists);
+        });
+        when(keyCommands.persist(any())).thenAnswer(invocation -> record(pipeline, ttls.remove(key(invocation.getArgument(0))) != null));
+        when(keyCommands.del(any(byte[][].class))).thenAnswer(invocation -> {
+            String key = key(invocation.getArgument(0));
+            boolean removed = data.remove(key) != null | hashData.remove(key) != null;
+            return record(pipeline, removed ? 1L : 0L);
+        });
+
+        RedisHashCommands hashCommands = mock(RedisHashCommands.class);
+        when(hashCommands.hGetAll(any())).thenAnswer(invocation -> {
+            Map<byte[], byte[]> fields = new LinkedHashMap<>();
+            hashData.getOrDefault(key(invocation.getArgument(0)), Map.of()).forEach((field, value) ->
+                    fields.put(field.getBytes(StandardCharsets.UTF_8), value.getBytes(StandardCharsets.UTF_8)));
+            return fields;
+        });
+
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        when(connection.keyCommands()).thenReturn(keyCommands);
+        when(connection.hashCommands()).thenReturn(hashCommands);
+
+        RedisTemplate<String, Object> template = mock(RedisTemplate.class);
+        when(template.execute(any(RedisCallback.class))).thenAnswer(invocation ->
+                ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection));
+        when(template.executePipelined(any(RedisCallback.class))).thenAnswer(invocation ->
+                runPipelined(invocation.getArgument(0), connection, pipeline));
+        when(template.executePipelined(any(RedisCallback.class), any(RedisSerializer.class))).thenAnswer(invocation ->
+                runPipelined(invocation.getArgument(0), connection, pipeline));
+        // blob_commit.lua: reemplaza el manifiesto y devuelve la versión anterior
+        when(template.execute(eq(CacheScripts.BLOB_COMMIT), any(RedisSerializer.class), any(RedisSerializer.class),
+                anyList(), any(Object[].class))).thenAnswer(invocation -> {
+            String key = ((List<String>) invocation.getArgument(3)).get(0);
+            Object[] args = Arrays.copyOfRange(invocation.getArguments(), 4, invocation.getArguments().length);
+            Map<String, String> previous = hashData.get(key);
+            Map<String, String> manifest = new HashMap<>();
+            for (int i = 1; i + 1 < args.length; i += 2) {
+                manifest.put((String) args[i], (String) args[i + 1]);
+            }
+            hashData.put(key, manifest);
+            return previous != null ? previous.get("version") : null;
+        });
+        return template;
+    }
+
+    private static List<Object> runPipelined(RedisCallback<?> callback, RedisConnection connection, List<Object> pipeline) {
+        pipeline.clear();
+        pipeline.add(Boolean.TRUE); // marca de pipeline activo
+        callback.doInRedis(connection);
+        List<Object> results = new ArrayList<>(pipeline.subList(1, pipeline.size()));
+        pipeline.clear();
+        return results;
+    }
+
+    private static <T> T record(List<Object> pipeline, T result) {
+        if (!pipeline.isEmpty()) {
+            pipeline.add(result);
+            return null;
+        }
+        return result;
+    }
+
+    private static String key(byte[] raw) {
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    private void setPrivateField(Object target, String fieldName, Object value) throws NoSuchFieldException, IllegalAccessException {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,120 @@
+package com.jikkosoft.redis.cacheredis;
+
+import com.jikkosoft.redis.cacheredis.codec.CacheEntryCodec;
+import com.jikkosoft.redis.cacheredis.codec.CacheValueSerializer;
+import com.jikkosoft.redis.cacheredis.codec.EntryFormat;
+import com.jikkosoft.redis.cacheredis.model.CacheEntry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para CacheEntryCodec y CacheValueSerializer
+ */
+class CacheEntryCodecTest {
+
+    private final CacheEntryCodec codec = new CacheEntryCodec();
+
+    @Test
+    @DisplayName("Debe conservar valor y metadatos en el formato binario")
+    void testBinaryRoundTrip() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        CacheEntry entry = new CacheEntry(Map.of("name", "Ana", "age", 30),
+                now, now.plusSeconds(60), 300, now.plusSeconds(5));
+
+        byte[] bytes = codec.encode(entry);
+        CacheEntry decoded = codec.decode(bytes);
+
+        assertEquals(CacheEntryCodec.MAGIC, bytes[0]);
+        assertEquals(Map.of("name", "Ana", "age", 30), decoded.getValue());
+        assertEquals(now, decoded.getCreatedAt());
+        assertEquals(now.plusSeconds(60), decoded.getExpiresAt());
+        assertEquals(now.plusSeconds(5), decoded.getLastAccessed());
+        assertEquals(300, decoded.getAccessCount());
+    }
+
+    @Test
+    @DisplayName("Debe codificar strings, bytes y null sin pasar por JSON")
+    void testRawValueTypes() {
+        assertEquals("hola ñandú", codec.decode(codec.encode(new CacheEntry("hola ñandú", 60))).getValue());
+        assertArrayEquals(new byte[]{1, 2, 3},
+                (byte[]) codec.decode(codec.encode(new CacheEntry(new byte[]{1, 2, 3}, 60))).getValue());
+        CacheEntry noTtl = codec.decode(codec.encode(new CacheEntry(null, 0)));
+        assertNull(noTtl.getValue());
+        assertNull(noTtl.getExpiresAt());
+    }
+
+    @Test
+    @DisplayName("Debe ocupar menos bytes que el JSON anterior")
+    void testBinaryIsSmaller() {
+        CacheEntry entry = new CacheEntry("user:1234:session", 3600);
+
+        int binary = codec.encode(entry).length;
+        int json = codec.encodeJson(entry).length;
+
+        assertTrue(binary * 3 < json, "binario=" + binary + " json=" + json);
+    }
+
+    @Test
+    @DisplayName("Debe leer entradas JSON existentes con sus metadatos")
+    void testDecodesLegacyJson() {
+        String json = "{\"createdAt\":\"2024-05-01T10:00:00\",\"expiresAt\":\"2024-05-01T11:00:00\","
+                + "\"accessCount\":7,\"lastAccessed\":\"2024-05-01T10:30:00\",\"value\":{\"a\":1}}";
+
+        CacheEntry entry = codec.decode(json.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(Map.of("a", 1), entry.getValue());
+        assertEquals(7, entry.getAccessCount());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 11, 0), entry.getExpiresAt());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar versiones binarias desconocidas")
+    void testRejectsUnknownVersion() {
+        byte[] bytes = codec.encode(new CacheEntry("v", 60));
+        bytes[1] = 99;
+
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(bytes));
+    }
+
+    @Test
+    @DisplayName("El serializer debe escribir el formato configurado y detectar ambos al leer")
+    void testSerializerSniffsFormat() {
+        CacheValueSerializer binary = new CacheValueSerializer(codec, EntryFormat.BINARY);
+        CacheValueSerializer json = new CacheValueSerializer(codec, EntryFormat.JSON);
+        CacheEntry entry = new CacheEntry(List.of("x", "y"), 60);
+
+        byte[] binaryBytes = binary.serialize(entry);
+        byte[] jsonBytes = json.serialize(entry);
+
+        assertInstanceOf(CacheEntry.class, binary.deserialize(binaryBytes));
+        assertEquals('{', jsonBytes[0]);
+        // El JSON anterior se entrega como mapa y el servicio lo convierte
+        assertInstanceOf(Map.class, binary.deserialize(jsonBytes));
+        assertThrows(SerializationException.class, () -> binary.deserialize(new byte[]{CacheEntryCodec.MAGIC}));
+    }
+
+    @Test
+    @DisplayName("El serializer debe informar el tamaño de cada valor escrito y leído")
+    void testSerializerReportsPayloadSizes() {
+        List<Integer> written = new ArrayList<>();
+        List<Integer> read = new ArrayList<>();
+        CacheValueSerializer serializer = new CacheValueSerializer(codec, EntryFormat.BINARY, written::add, read::add);
+
+        byte[] bytes = serializer.serialize(new CacheEntry("valor", 60));
+        serializer.deserialize(bytes);
+        serializer.deserialize(null);
+
+        assertEquals(List.of(bytes.length), written);
+        assertEquals(List.of(bytes.length), read);
+    }
+}
@@ -0,0 +1,231 @@
+package com.jikkosoft.redis.cacheredis;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jikkosoft.redis.cacheredis.codec.CacheEntryCodec;
+import com.jikkosoft.redis.cacheredis.codec.CacheValueSerializer;
+import com.jikkosoft.redis.cacheredis.codec.EntryFormat;
+import com.jikkosoft.redis.cacheredis.compression.ValueCompressor;
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.hash.HashAlgorithm;
+import com.jikkosoft.redis.cacheredis.model.CacheEntry;
+import com.jikkosoft.redis.cacheredis.scan.ClusterScanner;
+import com.jikkosoft.redis.cacheredis.scan.ScanItem;
+import com.jikkosoft.redis.cacheredis.scan.ScanPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para ClusterScanner: ambos nodos guardan todas las claves
+ * (factor de replicación 2) y cada una debe salir una sola vez
+ */
+class ClusterScannerTest {
+
+    private static final List<String> KEYS = IntStream.range(0, 40).mapToObj(i -> "user:" + i).toList();
+
+    private final CacheValueSerializer serializer = new CacheValueSerializer(new CacheEntryCodec(), EntryFormat.BINARY);
+    private final Map<String, List<String>> scanCursors = new LinkedHashMap<>();
+    private final Map<String, RedisConnection> connections = new LinkedHashMap<>();
+    private ConsistentHashRing hashRing;
+    private ExecutorService scanExecutor;
+    private ClusterScanner scanner;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        hashRing = new ConsistentHashRing(HashAlgorithm.MURMUR3, List.of("node1", "node2"));
+        scanExecutor = Executors.newFixedThreadPool(2);
+        Map<String, RedisTemplate<String, Object>> templates = new LinkedHashMap<>();
+        templates.put("node1", fakeNode("node1"));
+        templates.put("node2", fakeNode("node2"));
+
+        scanner = new ClusterScanner();
+        setPrivateField(scanner, "redisTemplateMap", templates);
+        setPrivateField(scanner, "hashRing", hashRing);
+        setPrivateField(scanner, "valueCompressor", new ValueCompressor());
+        setPrivateField(scanner, "nodeExecutor", (java.util.concurrent.Executor) Runnable::run);
+        setPrivateField(scanner, "scanExecutor", scanExecutor);
+        setPrivateField(scanner, "exportBatchSize", 7);
+        setPrivateField(scanner, "queueBatches", 1);
+        setPrivateField(scanner, "maxConcurrentExports", 1);
+        scanner.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scanExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Una página debe entregar cada clave replicada una sola vez, desde su primario")
+    void testScanDeduplicatesReplicas() {
+        ScanPage page = scanner.scan("user:", null, 100);
+
+        assertTrue(page.isFinished());
+        assertEquals(KEYS.size(), page.items().size());
+        assertEquals(new HashSet<>(KEYS), page.items().stream().map(ScanItem::key).collect(Collectors.toSet()));
+        for (ScanItem item : page.items()) {
+            assertEquals(hashRing.getNode(item.key()), item.node());
+            assertEquals("value-" + item.key(), item.value());
+            assertEquals(60_000L, item.ttlMillis());
+        }
+    }
+
+    @Test
+    @DisplayName("El cursor compuesto debe retomar cada nodo desde su propio cursor de SCAN")
+    void testScanResumesFromCursor() {
+        scanCursors.put("node1", List.of("17", "0"));
+
+        ScanPage first = scanner.scan("", "0", 10);
+        assertFalse(first.isFinished());
+
+        ScanPage second = scanner.scan("", first.cursor(), 10);
+        assertTrue(second.isFinished());
+        // node2 terminó en la primera página: solo node1 se vuelve a recorrer, desde 17
+        verify(connections.get("node1")).execute(eq("SCAN"),
+                argThat((byte[] cursor) -> "17".equals(new String(cursor, StandardCharsets.UTF_8))),
+                any(), any(), any(), any());
+        verify(connections.get("node2"), times(1)).execute(eq("SCAN"), any(byte[][].class));
+
+        assertThrows(IllegalArgumentException.class, () -> scanner.scan("", "no-es-un-cursor!", 10));
+        assertThrows(IllegalArgumentException.class, () -> scanner.scan("", null, 100_000));
+    }
+
+    @Test
+    @DisplayName("Si el primario no responde, sus claves deben salir desde la réplica")
+    void testScanFallsBackToReplicaWhenPrimaryIsDown() {
+        when(connections.get("node1").ping()).thenThrow(new RuntimeException("Connection refused"));
+
+        ScanPage page = scanner.scan("user:", null, 100);
+
+        assertEquals(KEYS.size(), page.items().size());
+        assertTrue(page.items().stream().allMatch(item -> item.node().equals("node2")));
+    }
+
+    @Test
+    @DisplayName("La exportación debe escribir una línea NDJSON por clave y admitir una sola a la vez")
+    void testExportStreamsNdjson() throws Exception {
+        ClusterScanner.Export export = scanner.beginExport("user:");
+        assertThrows(IllegalStateException.class, () -> scanner.beginExport("user:"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.writeTo(out);
+
+        ObjectMapper mapper = new ObjectMapper();
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(KEYS.size(), lines.size());
+        Set<String> exported = new HashSet<>();
+        for (String line : lines) {
+            JsonNode item = mapper.readTree(line);
+            exported.add(item.get("key").asText());
+            assertEquals("value-" + item.get("key").asText(), item.get("value").asText());
+        }
+        assertEquals(new HashSet<>(KEYS), exported);
+
+        // Terminada la exportación se libera el lugar
+        assertNotNull(scanner.beginExport("user:"));
+    }
+
+    @Test
+    @DisplayName("Una exportación reservada que nunca empieza debe liberar su lugar al vencer el plazo")
+    void testUnstartedExportReleasesPermit() throws Exception {
+        setPrivateField(scanner, "exportStartTimeoutMs", 50L);
+        ClusterScanner.Export abandoned = scanner.beginExport("user:");
+
+        Thread.sleep(300);
+
+        assertNotNull(scanner.beginExport("user:"));
+        assertThrows(IllegalStateException.class, () -> abandoned.writeTo(new ByteArrayOutputStream()));
+    }
+
+    /**
+     * Nodo simulado con todas las claves: SCAN devuelve los cursores
+     * configurados y GET/PTTL responden en pipeline
+     */
+    @SuppressWarnings("unchecked")
+    private RedisTemplate<String, Object> fakeNode(String node) {
+        List<Object> pipeline = new ArrayList<>();
+        AtomicReference<Iterator<String>> nextCursor = new AtomicReference<>();
+
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        when(stringCommands.get(any())).thenAnswer(invocation -> {
+            String key = new String((byte[]) invocation.getArgument(0), StandardCharsets.UTF_8);
+            pipeline.add(serializer.serialize(new CacheEntry("value-" + key, 60)));
+            return null;
+        });
+        RedisKeyCommands keyCommands = mock(RedisKeyCommands.class);
+        when(keyCommands.pTtl(any())).thenAnswer(invocation -> {
+            pipeline.add(60_000L);
+            return null;
+        });
+
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        when(connection.keyCommands()).thenReturn(keyCommands);
+        when(connection.ping()).thenReturn("PONG");
+        when(connection.execute(eq("SCAN"), any(byte[][].class))).thenAnswer(invocation -> {
+            if (nextCursor.get() == null) {
+                nextCursor.set(scanCursors.getOrDefault(node, List.of("0")).iterator());
+            }
+            List<byte[]> keys = KEYS.stream().map(key -> key.getBytes(StandardCharsets.UTF_8)).toList();
+            return List.of(nextCursor.get().next().getBytes(StandardCharsets.UTF_8), keys);
+        });
+        connections.put(node, connection);
+
+        RedisTemplate<String, Object> template = mock(RedisTemplate.class);
+        doReturn(serializer).when(template).getValueSerializer();
+        when(template.execute(any(RedisCallback.class))).thenAnswer(invocation ->
+                ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection));
+        when(template.executePipelined(any(RedisCallback.class), isNull())).thenAnswer(invocation -> {
+            synchronized (pipeline) {
+                pipeline.clear();
+                ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection);
+                return new ArrayList<>(pipeline);
+            }
+        });
+        when(template.scan(any(ScanOptions.class))).thenAnswer(invocation -> cursorOf(KEYS.iterator()));
+        return template;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cursor<String> cursorOf(Iterator<String> keys) {
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> keys.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> keys.next());
+        return cursor;
+    }
+
+    private void setPrivateField(Object target, String fieldName, Object value) throws NoSuchFieldException, IllegalAccessException {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
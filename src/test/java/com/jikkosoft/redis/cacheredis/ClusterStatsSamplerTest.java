@@ -0,0 +1,134 @@
+package com.jikkosoft.redis.cacheredis;
+
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.hash.HashAlgorithm;
+import com.jikkosoft.redis.cacheredis.stats.ClusterStatsSampler;
+import com.jikkosoft.redis.cacheredis.stats.NodeSample;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisServerCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.lang.reflect.Field;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para ClusterStatsSampler sobre nodos simulados
+ */
+class ClusterStatsSamplerTest {
+
+    private final Map<String, RedisTemplate<String, Object>> templates = new LinkedHashMap<>();
+    private ClusterStatsSampler sampler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        templates.put("node1", fakeNode(100));
+        templates.put("node2", fakeNode(50));
+
+        sampler = new ClusterStatsSampler();
+        setPrivateField(sampler, "redisTemplateMap", templates);
+        setPrivateField(sampler, "hashRing", new ConsistentHashRing(HashAlgorithm.MURMUR3, List.of("node1", "node2")));
+        setPrivateField(sampler, "nodeExecutor", (Executor) Runnable::run);
+        setPrivateField(sampler, "historySize", 3);
+    }
+
+    @Test
+    @DisplayName("Las consultas deben responder desde la última muestra sin llamar a Redis")
+    void testStatsServedFromSnapshot() {
+        assertEquals(false, sampler.getNodeStats("node1", false).get("sampled"));
+
+        sampler.sample();
+        clearInvocations(templates.values().toArray());
+
+        Map<String, Object> cluster = sampler.getClusterStats(false);
+        Map<String, Object> node = sampler.getNodeStats("node1", false);
+
+        templates.values().forEach(template -> verifyNoInteractions(template));
+        assertEquals(2, cluster.get("upNodes"));
+        assertEquals(150L, cluster.get("keyCount"));
+        assertEquals(2048L, cluster.get("usedMemory"));
+        assertEquals(true, node.get("connected"));
+        assertEquals(100L, node.get("keyCount"));
+        assertTrue((long) cluster.get("ageMs") >= 0);
+    }
+
+    @Test
+    @DisplayName("Debe calcular el ratio de aciertos por ventana y conservar solo history-size muestras")
+    void testHitRatioAndBoundedHistory() {
+        for (int i = 0; i < 5; i++) {
+            sampler.sample();
+        }
+
+        @SuppressWarnings("unchecked")
+        List<NodeSample> history = (List<NodeSample>) sampler.getNodeStats("node1", true).get("history");
+        assertEquals(3, history.size());
+        // Cada muestra suma 30 aciertos y 10 fallos
+        assertEquals(0.75, history.get(2).hitRatio(), 1e-9);
+        assertEquals(0.75, (double) sampler.getClusterStats(false).get("hitRatio"), 1e-9);
+        assertTrue(history.get(0).sampledAt() <= history.get(2).sampledAt());
+    }
+
+    @Test
+    @DisplayName("Un nodo que falla debe quedar caído sin afectar la muestra de los demás")
+    void testFailingNodeMarkedDown() {
+        when(templates.get("node2").execute(ArgumentMatchers.<RedisCallback<Object>>any()))
+                .thenThrow(new RedisConnectionFailureException("Connection refused"));
+
+        sampler.sample();
+
+        Map<String, Object> cluster = sampler.getClusterStats(false);
+        assertEquals(2, cluster.get("totalNodes"));
+        assertEquals(1, cluster.get("upNodes"));
+        assertEquals(100L, cluster.get("keyCount"));
+        NodeSample down = (NodeSample) sampler.getNodeStats("node2", false).get("latest");
+        assertFalse(down.up());
+        assertEquals("Connection refused", down.error());
+    }
+
+    /**
+     * Nodo simulado: el callback corre sobre una conexión con PING, INFO y DBSIZE
+     */
+    @SuppressWarnings("unchecked")
+    private RedisTemplate<String, Object> fakeNode(long keys) {
+        AtomicLong rounds = new AtomicLong();
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisServerCommands server = mock(RedisServerCommands.class);
+        when(connection.serverCommands()).thenReturn(server);
+        when(connection.ping()).thenReturn("PONG");
+        when(server.dbSize()).thenReturn(keys);
+        when(server.info()).thenAnswer(invocation -> {
+            long round = rounds.incrementAndGet();
+            Properties info = new Properties();
+            info.setProperty("used_memory", "1024");
+            info.setProperty("connected_clients", "3");
+            info.setProperty("keyspace_hits", String.valueOf(30 * round));
+            info.setProperty("keyspace_misses", String.valueOf(10 * round));
+            return info;
+        });
+
+        RedisTemplate<String, Object> template = mock(RedisTemplate.class);
+        when(template.execute(any(RedisCallback.class))).thenAnswer(invocation ->
+                ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection));
+        return template;
+    }
+
+    private void setPrivateField(Object target, String fieldName, Object value) throws NoSuchFieldException, IllegalAccessException {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,147 @@
+package com.jikkosoft.redis.cacheredis;
+
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.hash.HashAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ConsistentHashRing
+ */
+class ConsistentHashRingTest {
+
+    private ConsistentHashRing hashRing;
+
+    @BeforeEach
+    void setUp() {
+        hashRing = new ConsistentHashRing();
+    }
+
+    @Test
+    @DisplayName("La lista de preferencia empieza en el nodo primario")
+    void testPreferenceListStartsWithPrimary() {
+        for (int i = 0; i < 1000; i++) {
+            String key = "key:" + i;
+            assertEquals(hashRing.getNode(key), hashRing.getNodes(key, 2).get(0));
+        }
+    }
+
+    @Test
+    @DisplayName("La lista de preferencia contiene nodos físicos distintos")
+    void testPreferenceListDistinctNodes() {
+        List<String> nodes = hashRing.getNodes("user:42", 2);
+
+        assertEquals(2, nodes.size());
+        assertEquals(2, new HashSet<>(nodes).size());
+    }
+
+    @Test
+    @DisplayName("El factor de replicación se limita al número de nodos")
+    void testReplicationFactorCappedByNodeCount() {
+        assertEquals(2, hashRing.getNodes("user:42", 5).size());
+        assertEquals(1, hashRing.getNodes("user:42", 1).size());
+    }
+
+    @Test
+    @DisplayName("El modo SHA1 conserva la ubicación del ring original")
+    void testSha1ModeKeepsLegacyPlacement() throws Exception {
+        ConsistentHashRing sha1Ring = new ConsistentHashRing(HashAlgorithm.SHA1);
+
+        TreeMap<Long, String> legacy = new TreeMap<>();
+        for (String node : List.of("node1", "node2")) {
+            for (int i = 0; i < 150; i++) {
+                legacy.put(legacyHash(node + "_virtual_" + i), node);
+            }
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            String key = "key:" + i;
+            Map.Entry<Long, String> entry = legacy.ceilingEntry(legacyHash(key));
+            String expected = entry != null ? entry.getValue() : legacy.firstEntry().getValue();
+            assertEquals(expected, sha1Ring.getNode(key));
+        }
+    }
+
+    @Test
+    @DisplayName("Murmur3 reparte las claves de forma balanceada")
+    void testMurmur3Balance() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            counts.merge(hashRing.getNode("key:" + i), 1, Integer::sum);
+        }
+
+        for (int count : counts.values()) {
+            assertTrue(count > 40_000 && count < 60_000, "Distribución desbalanceada: " + counts);
+        }
+    }
+
+    @Test
+    @DisplayName("Agregar un nodo solo mueve las claves que cambian de dueño")
+    void testAddNodeMovesOnlyChangedKeys() {
+        Map<String, String> before = new HashMap<>();
+        for (int i = 0; i < 30_000; i++) {
+            before.put("key:" + i, hashRing.getNode("key:" + i));
+        }
+
+        hashRing.addNode("node3");
+
+        int moved = 0;
+        for (Map.Entry<String, String> entry : before.entrySet()) {
+            String owner = hashRing.getNode(entry.getKey());
+            if (!owner.equals(entry.getValue())) {
+                assertEquals("node3", owner);
+                moved++;
+            }
+        }
+        assertTrue(moved > 6_000 && moved < 14_000, "Claves movidas: " + moved);
+        assertTrue(hashRing.isInTransition());
+        assertEquals(before.get("key:1"), hashRing.getPreviousNodes("key:1", 1).get(0));
+
+        hashRing.completeTransition();
+        assertFalse(hashRing.isInTransition());
+    }
+
+    @Test
+    @DisplayName("No se permite otro cambio de membresía durante una migración")
+    void testMembershipChangeRejectedDuringTransition() {
+        hashRing.addNode("node3");
+
+        assertThrows(IllegalStateException.class, () -> hashRing.removeNode("node1"));
+    }
+
+    @Test
+    @DisplayName("El peso escala la participación del nodo en el ring")
+    void testWeightScalesOwnership() {
+        ConsistentHashRing weighted = new ConsistentHashRing(HashAlgorithm.MURMUR3,
+                List.of("node1", "node2"), Map.of("node1", 3.0));
+
+        Map<String, Map<String, Object>> stats = weighted.getRingStats();
+        double share1 = (Double) stats.get("node1").get("ownershipShare");
+        double share2 = (Double) stats.get("node2").get("ownershipShare");
+
+        assertEquals(450, stats.get("node1").get("virtualNodes"));
+        assertEquals(1.0, share1 + share2, 1e-9);
+        assertTrue(share1 > 0.65 && share1 < 0.85, "Participación node1: " + share1);
+    }
+
+    private static long legacyHash(String key) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+        long hash = 0;
+        for (int i = 0; i < 4; i++) {
+            hash <<= 8;
+            hash |= (digest[i] & 0xFF);
+        }
+        return hash;
+    }
+}
@@ -1,24 +1,59 @@
 package com.jikkosoft.redis.cacheredis;
 
+import com.jikkosoft.redis.cacheredis.bloom.KeyFilter;
+import com.jikkosoft.redis.cacheredis.codec.CacheEntryCodec;
+import com.jikkosoft.redis.cacheredis.codec.CacheValueSerializer;
+import com.jikkosoft.redis.cacheredis.codec.EntryFormat;
+import com.jikkosoft.redis.cacheredis.compression.ValueCompressor;
+import com.jikkosoft.redis.cacheredis.eviction.EvictionEngine;
+import com.jikkosoft.redis.cacheredis.expiry.ActiveExpiryService;
 import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.hash.NodeLoadTracker;
+import com.jikkosoft.redis.cacheredis.hotkey.HotKeyTracker;
 import com.jikkosoft.redis.cacheredis.lock.DistributedLockManager;
+import com.jikkosoft.redis.cacheredis.lock.LockHandle;
+import com.jikkosoft.redis.cacheredis.metrics.CacheMetrics;
+import com.jikkosoft.redis.cacheredis.model.BatchItemResult;
+import com.jikkosoft.redis.cacheredis.model.BatchPutRequest;
+import com.jikkosoft.redis.cacheredis.model.BatchStatus;
 import com.jikkosoft.redis.cacheredis.model.CacheEntry;
+import com.jikkosoft.redis.cacheredis.model.PutResult;
+import com.jikkosoft.redis.cacheredis.near.NearCache;
+import com.jikkosoft.redis.cacheredis.routing.ReplicaSelector;
+import com.jikkosoft.redis.cacheredis.script.CacheScripts;
 import com.jikkosoft.redis.cacheredis.service.DistributedCacheService;
+import com.jikkosoft.redis.cacheredis.service.ReadMode;
+import com.jikkosoft.redis.cacheredis.service.ReadRouting;
+import com.jikkosoft.redis.cacheredis.service.WriteConsistency;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -48,7 +83,18 @@ class DistributedCacheServiceTest {
     @Mock
     private DistributedLockManager lockManager;
 
+    @Mock
+    private NearCache nearCache;
+
+    @Mock
+    private ActiveExpiryService activeExpiry;
+
+    @Mock
+    private KeyFilter keyFilter;
+
     private DistributedCacheService cacheService;
+    private SimpleMeterRegistry meterRegistry;
+    private ReplicaSelector replicaSelector;
     private Map<String, RedisTemplate<String, Object>> templateMap;
 
     @BeforeEach
@@ -63,6 +109,26 @@ class DistributedCacheServiceTest {
         setPrivateField(cacheService, "redisTemplateMap", templateMap);
         setPrivateField(cacheService, "hashRing", hashRing);
         setPrivateField(cacheService, "lockManager", lockManager);
+        setPrivateField(cacheService, "nearCache", nearCache);
+        setPrivateField(cacheService, "nodeExecutor", (Executor) Runnable::run);
+        setPrivateField(cacheService, "hedgeExecutor", (Executor) Runnable::run);
+        NodeLoadTracker loadTracker = new NodeLoadTracker();
+        replicaSelector = new ReplicaSelector();
+        setPrivateField(replicaSelector, "loadTracker", loadTracker);
+        setPrivateField(cacheService, "loadTracker", loadTracker);
+        setPrivateField(cacheService, "replicaSelector", replicaSelector);
+        setPrivateField(cacheService, "readRouting", ReadRouting.PRIMARY);
+        setPrivateField(cacheService, "valueCompressor", new ValueCompressor());
+        EvictionEngine evictionEngine = new EvictionEngine();
+        evictionEngine.init();
+        setPrivateField(cacheService, "evictionEngine", evictionEngine);
+        setPrivateField(cacheService, "activeExpiry", activeExpiry);
+        HotKeyTracker hotKeys = new HotKeyTracker();
+        hotKeys.init();
+        setPrivateField(cacheService, "hotKeys", hotKeys);
+        setPrivateField(cacheService, "keyFilter", keyFilter);
+        meterRegistry = new SimpleMeterRegistry();
+        setPrivateField(cacheService, "metrics", new CacheMetrics(meterRegistry, hashRing));
     }
 
     @Test
@@ -73,48 +139,444 @@ class DistributedCacheServiceTest {
         String value = "test value";
         Long ttl = 300L;
 
-        when(redisTemplate1.opsForValue()).thenReturn(valueOperations1);
-        when(redisTemplate2.opsForValue()).thenReturn(valueOperations2);
-        when(hashRing.getNode(key)).thenReturn("node1");
-        when(hashRing.getAllNodes()).thenReturn(List.of("node1", "node2"));
-        when(lockManager.executeWithLock(eq(key), eq("node1"), any()))
+        when(hashRing.getNodes(key, 2)).thenReturn(List.of("node1", "node2"));
+        when(lockManager.executeFenced(eq(key), eq("node1"), any()))
                 .thenAnswer(invocation -> {
-                    DistributedLockManager.LockOperation<?> operation = invocation.getArgument(2);
-                    return operation.execute();
+                    DistributedLockManager.FencedOperation<?> operation = invocation.getArgument(2);
+                    return operation.execute(new LockHandle(key, "node1", "token", 1));
                 });
         // Act
         assertDoesNotThrow(() -> cacheService.put(key, value, ttl));
 
         // Assert
-        verify(valueOperations1).set(eq(key), any(CacheEntry.class), eq(ttl), eq(TimeUnit.SECONDS));
-        verify(valueOperations2).set(eq(key), any(CacheEntry.class), eq(ttl), eq(TimeUnit.SECONDS));
+        verify(redisTemplate1).execute(eq(CacheScripts.WRITE), eq(List.of(key)), any(CacheEntry.class), eq(ttl));
+        verify(redisTemplate2).execute(eq(CacheScripts.WRITE), eq(List.of(key)), any(CacheEntry.class), eq(ttl));
+        verify(activeExpiry).schedule(eq(key), any(LocalDateTime.class));
+        assertEquals(1L, meterRegistry.get("cache.operation").tags("operation", "put", "result", "ok").timer().count());
+        for (String node : List.of("node1", "node2")) {
+            assertEquals(1L, meterRegistry.get("cache.replication").tags("node", node, "result", "ok").timer().count());
+            assertEquals(1L, meterRegistry.get("cache.replication.lag").tags("node", node).timer().count());
+        }
+    }
+
+    @Test
+    @DisplayName("Debe confirmar con consistencia ONE aunque falle una réplica")
+    void testPutConsistencyOne() throws Exception {
+        // Arrange
+        String key = "test:key";
+        setPrivateField(cacheService, "writeConsistency", WriteConsistency.ONE);
+
+        doThrow(new IllegalStateException("node2 caído"))
+                .when(redisTemplate2).execute(eq(CacheScripts.WRITE), eq(List.of(key)), any(), anyLong());
+        when(hashRing.getNodes(key, 2)).thenReturn(List.of("node1", "node2"));
+        when(lockManager.executeFenced(eq(key), eq("node1"), any()))
+                .thenAnswer(invocation -> {
+                    DistributedLockManager.FencedOperation<?> operation = invocation.getArgument(2);
+                    return operation.execute(new LockHandle(key, "node1", "token", 1));
+                });
+
+        // Act
+        PutResult result = cacheService.put(key, "value", 60L);
+
+        // Assert
+        assertEquals(1, result.acknowledged());
+        assertEquals(2, result.replicas());
+    }
+
+    @Test
+    @DisplayName("Debe contar como confirmada la réplica que conserva una versión más nueva")
+    void testPutStaleReplicaWriteStillAcknowledged() throws Exception {
+        // Arrange
+        String key = "test:key";
+        setPrivateField(cacheService, "writeConsistency", WriteConsistency.ALL);
+        when(hashRing.getNodes(key, 2)).thenReturn(List.of("node1", "node2"));
+        when(lockManager.executeFenced(eq(key), eq("node1"), any()))
+                .thenAnswer(invocation -> {
+                    DistributedLockManager.FencedOperation<?> operation = invocation.getArgument(2);
+                    return operation.execute(new LockHandle(key, "node1", "token", 1));
+                });
+        when(redisTemplate1.execute(eq(CacheScripts.WRITE), eq(List.of(key)), any(), anyLong())).thenReturn(1L);
+        // node2 ya tiene la entrada de un PUT posterior y el script no la reemplaza
+        when(redisTemplate2.execute(eq(CacheScripts.WRITE), eq(List.of(key)), any(), anyLong())).thenReturn(0L);
+
+        // Act
+        PutResult result = cacheService.put(key, "value", 60L);
+
+        // Assert
+        assertEquals(2, result.acknowledged());
+    }
+
+    @Test
+    @DisplayName("No debe escribir en las réplicas si el lease del lock ya venció")
+    void testPutExpiredLeaseWritesNothing() throws Exception {
+        // Arrange
+        String key = "test:key";
+        when(hashRing.getNodes(key, 2)).thenReturn(List.of("node1", "node2"));
+        when(lockManager.executeFenced(eq(key), eq("node1"), any()))
+                .thenAnswer(invocation -> {
+                    DistributedLockManager.FencedOperation<?> operation = invocation.getArgument(2);
+                    return operation.execute(new LockHandle(key, "node1", "token", 1, System.currentTimeMillis() - 1));
+                });
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> cacheService.put(key, "value", 60L));
+        verifyNoInteractions(redisTemplate1, redisTemplate2);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar claves de usuario que pisarían claves internas")
+    void testRejectsInternalKeys() {
+        assertThrows(IllegalArgumentException.class, () -> cacheService.put("lock:fence", "value", 60L));
+        assertThrows(IllegalArgumentException.class, () -> cacheService.delete("lock:key:user:1"));
+        assertThrows(IllegalArgumentException.class, () -> cacheService.get("compression:prefixes"));
+        assertThrows(IllegalArgumentException.class,
+                () -> cacheService.multiPut(List.of(new BatchPutRequest.Item("blob:m:doc", "value", 60L))));
+
+        verifyNoInteractions(lockManager, redisTemplate1, redisTemplate2);
     }
 
     @Test
-    @DisplayName("Debe recuperar valor exitosamente")
+    @DisplayName("Debe fallar con consistencia ALL si una réplica no confirma")
+    void testPutConsistencyAllFailure() throws Exception {
+        // Arrange
+        String key = "test:key";
+        setPrivateField(cacheService, "writeConsistency", WriteConsistency.ALL);
+
+        doThrow(new IllegalStateException("node2 caído"))
+                .when(redisTemplate2).execute(eq(CacheScripts.WRITE), eq(List.of(key)), any(), anyLong());
+        when(hashRing.getNodes(key, 2)).thenReturn(List.of("node1", "node2"));
+        when(lockManager.executeFenced(eq(key), eq("node1"), any()))
+                .thenAnswer(invocation -> {
+                    DistributedLockManager.FencedOperation<?> operation = invocation.getArgument(2);
+                    return operation.execute(new LockHandle(key, "node1", "token", 1));
+                });
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> cacheService.put(key, "value", 60L));
+    }
+
+    @Test
+    @DisplayName("Debe recuperar valor exitosamente sin lock distribuido")
     void testGetSuccess() throws Exception {
         // Arrange
         String key = "test:key";
         String expectedValue = "test value";
         CacheEntry entry = new CacheEntry(expectedValue, 300);
 
-        when(redisTemplate1.opsForValue()).thenReturn(valueOperations1);
-        when(hashRing.getNode(key)).thenReturn("node1");
+        when(hashRing.getNodes(key, 2)).thenReturn(List.of("node1", "node2"));
+        when(redisTemplate1.execute(eq(CacheScripts.TOUCH), ArgumentMatchers.<RedisSerializer<?>>any(), any(), eq(List.of(key)), any(), any()))
+                .thenReturn(entry);
+
+        // Act
+        Optional<Object> result = cacheService.get(key);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(expectedValue, result.get());
+        verify(lockManager, never()).executeWithLock(anyString(), anyString(), any());
+        verify(redisTemplate1, never()).opsForValue(); // Sin GET + SET que pierda el TTL
+        assertEquals(1L, meterRegistry.get("cache.operation").tags("operation", "get", "result", "hit").timer().count());
+        assertEquals(1L, meterRegistry.get("cache.node.request").tags("node", "node1", "operation", "read").timer().count());
+    }
+
+    @Test
+    @DisplayName("Debe recuperar valor con lock en modo LOCKED")
+    void testGetLockedMode() throws Exception {
+        // Arrange
+        String key = "test:key";
+        String expectedValue = "test value";
+        CacheEntry entry = new CacheEntry(expectedValue, 300);
+        setPrivateField(cacheService, "readMode", ReadMode.LOCKED);
+
+        when(hashRing.getNodes(key, 2)).thenReturn(List.of("node1", "node2"));
         when(lockManager.executeWithLock(eq(key), eq("node1"), any()))
                 .thenAnswer(invocation -> {
                     DistributedLockManager.LockOperation<?> operation = invocation.getArgument(2);
                     return operation.execute();
                 });
-        when(valueOperations1.get(key)).thenReturn(entry);
+        when(redisTemplate1.execute(eq(CacheScripts.TOUCH), ArgumentMatchers.<RedisSerializer<?>>any(), any(), eq(List.of(key)), any(), any()))
+                .thenReturn(entry);
 
         // Act
         Optional<Object> result = cacheService.get(key);
 
         // Assert
-        assertTrue(result.isPresent());
-        assertEquals(expectedValue, result.get());
-        verify(valueOperations1).get(key);
-        verify(valueOperations1).set(eq(key), any(CacheEntry.class)); // Actualización stats
+        assertEquals(Optional.of(expectedValue), result);
+        verify(lockManager).executeWithLock(eq(key), eq("node1"), any());
+    }
+
+    @Test
+    @DisplayName("Debe lanzar un hedge a la segunda réplica cuando la elegida supera su p95")
+    void testGetHedgedRead() throws Exception {
+        // Arrange
+        String key = "test:key";
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        setPrivateField(cacheService, "hedgeExecutor", executor);
+        setPrivateField(cacheService, "readRouting", ReadRouting.LATENCY_AWARE);
+        // node1 tiene menor EWMA, así que P2C lo elige primero
+        replicaSelector.record("node1", 100_000);
+        replicaSelector.record("node2", 1_000_000);
+
+        when(hashRing.getNodes(key, 2)).thenReturn(List.of("node1", "node2"));
+        when(redisTemplate1.execute(eq(CacheScripts.TOUCH), ArgumentMatchers.<RedisSerializer<?>>any(), any(), eq(List.of(key)), any(), any()))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(500);
+                    return new CacheEntry("slow", 300);
+                });
+        when(redisTemplate2.execute(eq(CacheScripts.TOUCH), ArgumentMatchers.<RedisSerializer<?>>any(), any(), eq(List.of(key)), any(), any()))
+                .thenReturn(new CacheEntry("fast", 300));
+
+        try {
+            // Act
+            Optional<Object> result = cacheService.get(key);
+
+            // Assert
+            assertEquals(Optional.of("fast"), result);
+            Map<String, Object> stats = cacheService.getReadRoutingStats();
+            assertEquals(1L, stats.get("hedgesIssued"));
+            assertEquals(1L, stats.get("hedgesWon"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("No debe dejar que el miss de una réplica atrasada gane el hedge")
+    void testHedgeMissDoesNotWin() throws Exception {
+        // Arrange
+        String key = "test:key";
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        setPrivateField(cacheService, "hedgeExecutor", executor);
+        setPrivateField(cacheService, "readRouting", ReadRouting.LATENCY_AWARE);
+        replicaSelector.record("node1", 100_000);
+        replicaSelector.record("node2", 1_000_000);
+
+        when(hashRing.getNodes(key, 2)).thenReturn(List.of("node1", "node2"));
+        when(redisTemplate1.execute(eq(CacheScripts.TOUCH), ArgumentMatchers.<RedisSerializer<?>>any(), any(), eq(List.of(key)), any(), any()))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(200);
+                    return new CacheEntry("value", 300);
+                });
+        // node2 aún no recibió la escritura y responde miss de inmediato
+        when(redisTemplate2.execute(eq(CacheScripts.TOUCH), ArgumentMatchers.<RedisSerializer<?>>any(), any(), eq(List.of(key)), any(), any()))
+                .thenReturn(null);
+
+        try {
+            // Act
+            Optional<Object> result = cacheService.get(key);
+
+            // Assert
+            assertEquals(Optional.of("value"), result);
+            Map<String, Object> stats = cacheService.getReadRoutingStats();
+            assertEquals(1L, stats.get("hedgesIssued"));
+            assertEquals(0L, stats.get("hedgesWon"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Debe pasar a la segunda réplica si la elegida falla antes del p95")
+    void testGetLatencyAwareFailover() throws Exception {
+        // Arrange
+        String key = "test:key";
+        setPrivateField(cacheService, "readRouting", ReadRouting.LATENCY_AWARE);
+        replicaSelector.record("node1", 100_000);
+        replicaSelector.record("node2", 1_000_000);
+
+        when(hashRing.getNodes(key, 2)).thenReturn(List.of("node1", "node2"));
+        when(redisTemplate1.execute(eq(CacheScripts.TOUCH), ArgumentMatchers.<RedisSerializer<?>>any(), any(), eq(List.of(key)), any(), any()))
+                .thenThrow(new RuntimeException("Connection refused"));
+        when(redisTemplate2.execute(eq(CacheScripts.TOUCH), ArgumentMatchers.<RedisSerializer<?>>any(), any(), eq(List.of(key)), any(), any()))
+                .thenReturn(new CacheEntry("value", 300));
+
+        // Act
+        Optional<Object> result = cacheService.get(key);
+
+        // Assert
+        assertEquals(Optional.of("value"), result);
+        assertEquals(0L, cacheService.getReadRoutingStats().get("hedgesIssued"));
+    }
+
+    @Test
+    @DisplayName("Debe cargar y almacenar con el loader cuando la clave no existe")
+    void testGetWithLoaderMiss() throws Exception {
+        // Arrange
+        String key = "test:key";
+        when(hashRing.getNodes(key, 2)).thenReturn(List.of("node1", "node2"));
+        when(lockManager.executeFenced(eq(key), eq("node1"), any()))
+                .thenAnswer(invocation -> {
+                    DistributedLockManager.FencedOperation<?> operation = invocation.getArgument(2);
+                    return operation.execute(new LockHandle(key, "node1", "token", 1));
+                });
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        Optional<Object> result = cacheService.get(key, k -> "loaded:" + loads.incrementAndGet(), 60L);
+
+        // Assert
+        assertEquals(Optional.of("loaded:1"), result);
+        assertEquals(1, loads.get());
+        verify(redisTemplate1).execute(eq(CacheScripts.WRITE), eq(List.of(key)), any(CacheEntry.class), eq(60L));
+    }
+
+    @Test
+    @DisplayName("No debe invocar el loader cuando la clave está en el caché")
+    void testGetWithLoaderHit() {
+        // Arrange
+        String key = "test:key";
+        when(hashRing.getNodes(key, 2)).thenReturn(List.of("node1", "node2"));
+        when(redisTemplate1.execute(eq(CacheScripts.TOUCH), ArgumentMatchers.<RedisSerializer<?>>any(), any(), eq(List.of(key)), any(), any()))
+                .thenReturn(new CacheEntry("cached", 300));
+
+        // Act
+        Optional<Object> result = cacheService.get(key, k -> fail("No debe cargar"), 60L);
+
+        // Assert
+        assertEquals(Optional.of("cached"), result);
+    }
+
+    @Test
+    @DisplayName("Debe recuperar un batch con un pipeline por nodo")
+    void testMultiGet() {
+        // Arrange
+        when(hashRing.getNodes("a", 2)).thenReturn(List.of("node1", "node2"));
+        when(hashRing.getNodes("b", 2)).thenReturn(List.of("node1", "node2"));
+        when(hashRing.getNodes("c", 2)).thenReturn(List.of("node2", "node1"));
+        when(redisTemplate1.executePipelined(any(RedisCallback.class), any()))
+                .thenReturn(Arrays.asList("sha", new CacheEntry("va", 300), null));
+        when(redisTemplate2.executePipelined(any(RedisCallback.class), any()))
+                .thenReturn(Arrays.asList("sha", new CacheEntry("vc", 300)));
+
+        // Act
+        List<BatchItemResult> results = cacheService.multiGet(List.of("a", "b", "c"));
+
+        // Assert
+        assertEquals(List.of("a", "b", "c"), results.stream().map(BatchItemResult::key).toList());
+        assertEquals(BatchStatus.HIT, results.get(0).status());
+        assertEquals("va", results.get(0).value());
+        assertEquals(BatchStatus.MISS, results.get(1).status());
+        assertEquals("vc", results.get(2).value());
+        verify(redisTemplate1, times(1)).executePipelined(any(RedisCallback.class), any());
+        verify(redisTemplate2, times(1)).executePipelined(any(RedisCallback.class), any());
+    }
+
+    @Test
+    @DisplayName("Un batch debe pedir a la siguiente réplica las claves de un nodo caído")
+    void testMultiGetFailsOverToReplica() {
+        // Arrange
+        when(hashRing.getNodes("a", 2)).thenReturn(List.of("node1", "node2"));
+        when(hashRing.getNodes("b", 2)).thenReturn(List.of("node1", "node2"));
+        when(redisTemplate1.executePipelined(any(RedisCallback.class), any()))
+                .thenThrow(new RuntimeException("Connection refused"));
+        when(redisTemplate2.executePipelined(any(RedisCallback.class), any()))
+                .thenReturn(Arrays.asList("sha", new CacheEntry("va", 300), null));
+
+        // Act
+        List<BatchItemResult> results = cacheService.multiGet(List.of("a", "b"));
+
+        // Assert
+        assertEquals(BatchStatus.HIT, results.get(0).status());
+        assertEquals("node2", results.get(0).node());
+        assertEquals("va", results.get(0).value());
+        assertEquals(BatchStatus.MISS, results.get(1).status());
+    }
+
+    @Test
+    @DisplayName("Durante una migración un batch debe buscar en los dueños anteriores lo que sus réplicas no tienen")
+    void testMultiGetDuringTransitionReadsPreviousOwners() {
+        // Arrange
+        when(hashRing.getNodes("a", 2)).thenReturn(List.of("node1"));
+        when(hashRing.isInTransition()).thenReturn(true);
+        when(hashRing.getPreviousNodes("a", 2)).thenReturn(List.of("node2"));
+        when(redisTemplate1.executePipelined(any(RedisCallback.class), any()))
+                .thenReturn(Arrays.asList("sha", null));
+        when(redisTemplate2.executePipelined(any(RedisCallback.class), any()))
+                .thenReturn(Arrays.asList("sha", new CacheEntry("va", 300)));
+
+        // Act
+        List<BatchItemResult> results = cacheService.multiGet(List.of("a"));
+
+        // Assert
+        assertEquals(BatchStatus.HIT, results.get(0).status());
+        assertEquals("node2", results.get(0).node());
+    }
+
+    @Test
+    @DisplayName("Debe reportar error por clave cuando falla su réplica en batch")
+    void testMultiPutNodeFailure() throws Exception {
+        // Arrange
+        setPrivateField(cacheService, "replicationFactor", 1);
+        when(hashRing.getNodes("a", 1)).thenReturn(List.of("node1"));
+        when(hashRing.getNodes("b", 1)).thenReturn(List.of("node2"));
+        when(redisTemplate1.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new IllegalStateException("node1 caído"));
+        when(redisTemplate2.executePipelined(any(RedisCallback.class))).thenReturn(List.of());
+
+        // Act
+        List<BatchItemResult> results = cacheService.multiPut(List.of(
+                new BatchPutRequest.Item("a", "va", 60L),
+                new BatchPutRequest.Item("b", "vb", 60L)));
+
+        // Assert
+        assertEquals(BatchStatus.ERROR, results.get(0).status());
+        assertEquals(BatchStatus.STORED, results.get(1).status());
+        assertEquals("node2", results.get(1).node());
+    }
+
+    @Test
+    @DisplayName("Un batch debe escribir con el script condicional para no retroceder una réplica")
+    void testMultiPutUsesConditionalWrite() throws Exception {
+        // Arrange
+        setPrivateField(cacheService, "replicationFactor", 1);
+        when(hashRing.getNodes("a", 1)).thenReturn(List.of("node1"));
+        doReturn(new CacheValueSerializer(new CacheEntryCodec(), EntryFormat.BINARY)).when(redisTemplate1).getValueSerializer();
+        when(redisTemplate1.executePipelined(ArgumentMatchers.<RedisCallback<Object>>any())).thenReturn(List.of());
+
+        // Act
+        cacheService.multiPut(List.of(new BatchPutRequest.Item("a", "va", 60L)));
+
+        // Assert
+        ArgumentCaptor<RedisCallback<Object>> callback = ArgumentCaptor.captor();
+        verify(redisTemplate1).executePipelined(callback.capture());
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisScriptingCommands scripting = mock(RedisScriptingCommands.class);
+        when(connection.scriptingCommands()).thenReturn(scripting);
+        callback.getValue().doInRedis(connection);
+
+        verify(scripting).evalSha(eq(CacheScripts.WRITE.getSha1()), eq(ReturnType.INTEGER), eq(1),
+                eq("a".getBytes(StandardCharsets.UTF_8)), any(byte[].class), eq("60".getBytes(StandardCharsets.UTF_8)));
+        verify(connection, never()).stringCommands();
+    }
+
+    @Test
+    @DisplayName("Debe borrar también de los dueños anteriores durante una transición del ring")
+    void testDeleteDuringTransitionRemovesPreviousOwners() throws Exception {
+        // Arrange
+        String key = "test:key";
+        @SuppressWarnings("unchecked")
+        RedisTemplate<String, Object> redisTemplate3 = mock(RedisTemplate.class);
+        templateMap.put("node3", redisTemplate3);
+        when(hashRing.getNodes(key, 2)).thenReturn(List.of("node1", "node2"));
+        when(hashRing.isInTransition()).thenReturn(true);
+        when(hashRing.getPreviousNodes(key, 2)).thenReturn(List.of("node3", "node1"));
+        when(lockManager.executeFenced(eq(key), eq("node1"), any()))
+                .thenAnswer(invocation -> {
+                    DistributedLockManager.FencedOperation<?> operation = invocation.getArgument(2);
+                    return operation.execute(new LockHandle(key, "node1", "token", 1));
+                });
+        when(redisTemplate1.delete(key)).thenReturn(false);
+        when(redisTemplate2.delete(key)).thenReturn(false);
+        when(redisTemplate3.delete(key)).thenReturn(true);
+
+        // Act
+        boolean deleted = cacheService.delete(key);
+
+        // Assert
+        assertTrue(deleted);
+        verify(redisTemplate1, times(1)).delete(key);
+        verify(redisTemplate2, times(1)).delete(key);
+        verify(redisTemplate3, times(1)).delete(key);
     }
 
     @Test
@@ -135,6 +597,20 @@ class DistributedCacheServiceTest {
         verify(redisTemplate1).hasKey(key);
     }
 
+    @Test
+    @DisplayName("Debe responder un miss seguro del filtro de Bloom sin ir a Redis ni tomar el lock")
+    void testDefiniteMissSkipsRedis() throws Exception {
+        String key = "nunca:escrita";
+        setPrivateField(cacheService, "readMode", ReadMode.LOCKED);
+        when(keyFilter.isDefiniteMiss(key)).thenReturn(true);
+
+        assertTrue(cacheService.get(key).isEmpty());
+        assertFalse(cacheService.exists(key));
+
+        verifyNoInteractions(redisTemplate1, redisTemplate2, lockManager);
+        verify(keyFilter, never()).recordPassedMiss();
+    }
+
     // Helper method to set private fields
     private void setPrivateField(Object target, String fieldName, Object value) throws NoSuchFieldException, IllegalAccessException {
         Field field = target.getClass().getDeclaredField(fieldName);
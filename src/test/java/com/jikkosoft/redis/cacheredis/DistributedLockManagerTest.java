@@ -1,18 +1,30 @@
 package com.jikkosoft.redis.cacheredis;
 
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
 import com.jikkosoft.redis.cacheredis.lock.DistributedLockManager;
+import com.jikkosoft.redis.cacheredis.lock.LockHandle;
+import com.jikkosoft.redis.cacheredis.metrics.CacheMetrics;
+import com.jikkosoft.redis.cacheredis.script.CacheScripts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
+import java.lang.reflect.Field;
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -26,75 +38,127 @@ class DistributedLockManagerTest {
     @Mock
     private RedisTemplate<String, Object> redisTemplate;
 
-    @Mock
-    private ValueOperations<String, Object> valueOperations;
-
     private DistributedLockManager lockManager;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws Exception {
         lockManager = new DistributedLockManager();
         Map<String, RedisTemplate<String, Object>> templateMap = new HashMap<>();
         templateMap.put("node1", redisTemplate);
 
         // Inyectar manualmente el mapa (en una app real sería @Autowired)
-        try {
-            var field = DistributedLockManager.class.getDeclaredField("redisTemplateMap");
-            field.setAccessible(true);
-            field.set(lockManager, templateMap);
-        } catch (Exception e) {
-            fail("Error configurando test: " + e.getMessage());
-        }
+        setPrivateField(lockManager, "redisTemplateMap", templateMap);
+        // Sin Redis real no hay canal pub/sub: se espera solo con backoff
+        setPrivateField(lockManager, "notificationsEnabled", false);
+        setPrivateField(lockManager, "metrics", new CacheMetrics(meterRegistry, new ConsistentHashRing()));
     }
 
     @Test
-    @DisplayName("Debe adquirir lock exitosamente")
+    @DisplayName("Debe adquirir lock con token único y fencing token")
     void testAcquireLockSuccess() {
         // Arrange
         String key = "test:key";
-        String nodeId = "node1";
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.setIfAbsent(anyString(), eq("locked"), any(Duration.class)))
-                .thenReturn(true);
+        when(redisTemplate.execute(eq(CacheScripts.LOCK_ACQUIRE), ArgumentMatchers.<RedisSerializer<?>>any(), any(), anyList(), any(), any()))
+                .thenReturn(42L);
+
+        // Act
+        Optional<LockHandle> handle = lockManager.acquire(key, "node1");
+
+        // Assert
+        assertTrue(handle.isPresent());
+        assertEquals(42L, handle.get().fencingToken());
+        assertNotEquals("locked", handle.get().token());
+        verify(redisTemplate).execute(eq(CacheScripts.LOCK_ACQUIRE), ArgumentMatchers.<RedisSerializer<?>>any(), any(),
+                eq(List.of("lock:key:" + key, "lock:fence")), eq(handle.get().token()), eq("5000"));
+    }
+
+    @Test
+    @DisplayName("El lock de la clave 'fence' no debe chocar con el contador de fencing")
+    void testFenceKeyDoesNotCollideWithCounter() {
+        when(redisTemplate.execute(eq(CacheScripts.LOCK_ACQUIRE), ArgumentMatchers.<RedisSerializer<?>>any(), any(), anyList(), any(), any()))
+                .thenReturn(7L);
+
+        assertTrue(lockManager.acquire("fence", "node1").isPresent());
+        verify(redisTemplate).execute(eq(CacheScripts.LOCK_ACQUIRE), ArgumentMatchers.<RedisSerializer<?>>any(), any(),
+                eq(List.of("lock:key:fence", "lock:fence")), any(), eq("5000"));
+    }
+
+    @Test
+    @DisplayName("Debe usar tokens distintos en cada adquisición")
+    void testUniqueOwnerTokens() {
+        when(redisTemplate.execute(eq(CacheScripts.LOCK_ACQUIRE), ArgumentMatchers.<RedisSerializer<?>>any(), any(), anyList(), any(), any()))
+                .thenReturn(1L, 2L);
+
+        LockHandle first = lockManager.acquire("a", "node1").orElseThrow();
+        LockHandle second = lockManager.acquire("b", "node1").orElseThrow();
+
+        assertNotEquals(first.token(), second.token());
+        assertTrue(second.fencingToken() > first.fencingToken());
+    }
+
+    @Test
+    @DisplayName("Debe reintentar con backoff hasta que el dueño libere el lock")
+    void testAcquireAfterContention() {
+        // Arrange: ocupado con 20 ms de lease restante, luego libre
+        when(redisTemplate.execute(eq(CacheScripts.LOCK_ACQUIRE), ArgumentMatchers.<RedisSerializer<?>>any(), any(), anyList(), any(), any()))
+                .thenReturn(-20L, -20L, 7L);
 
         // Act
-        boolean acquired = lockManager.acquireLock(key, nodeId);
+        Optional<LockHandle> handle = lockManager.acquire("test:key", "node1", Duration.ofSeconds(2));
 
         // Assert
-        assertTrue(acquired);
-        verify(valueOperations).setIfAbsent(eq("lock:" + key), eq("locked"), any(Duration.class));
+        assertEquals(7L, handle.orElseThrow().fencingToken());
+        assertEquals(1L, lockManager.getStats().get("contended"));
+        assertEquals(0, lockManager.getStats().get("waiting"));
     }
 
     @Test
-    @DisplayName("Debe fallar al adquirir lock cuando ya existe")
-    void testAcquireLockFailure() {
+    @DisplayName("Debe fallar al adquirir lock cuando se agota la espera")
+    void testAcquireLockTimeout() {
         // Arrange
-        String key = "test:key";
-        String nodeId = "node1";
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.setIfAbsent(anyString(), eq("locked"), any(Duration.class)))
-                .thenReturn(false);
+        when(redisTemplate.execute(eq(CacheScripts.LOCK_ACQUIRE), ArgumentMatchers.<RedisSerializer<?>>any(), any(), anyList(), any(), any()))
+                .thenReturn(-5000L);
 
         // Act
-        boolean acquired = lockManager.acquireLock(key, nodeId);
+        Optional<LockHandle> handle = lockManager.acquire("test:key", "node1", Duration.ofMillis(50));
 
         // Assert
-        assertFalse(acquired);
-        verify(valueOperations, atLeast(1)).setIfAbsent(anyString(), eq("locked"), any(Duration.class));
+        assertTrue(handle.isEmpty());
+        assertEquals(1L, lockManager.getStats().get("timeouts"));
+        assertEquals(1L, meterRegistry.get("cache.lock.acquire")
+                .tags("node", "node1", "result", "timeout").timer().count());
+        assertTrue(meterRegistry.get("cache.lock.acquire").tags("result", "timeout").timer()
+                .totalTime(TimeUnit.MILLISECONDS) >= 50);
     }
 
     @Test
-    @DisplayName("Debe liberar lock correctamente")
+    @DisplayName("Debe liberar con compare-and-delete usando el token del dueño")
     void testReleaseLock() {
         // Arrange
-        String key = "test:key";
-        String nodeId = "node1";
+        LockHandle handle = new LockHandle("test:key", "node1", "token-1", 3);
+        when(redisTemplate.execute(eq(CacheScripts.LOCK_RELEASE), ArgumentMatchers.<RedisSerializer<?>>any(), any(), anyList(), any(), any()))
+                .thenReturn(1L);
 
         // Act
-        lockManager.releaseLock(key, nodeId);
+        boolean released = lockManager.release(handle);
 
         // Assert
-        verify(redisTemplate).delete("lock:" + key);
+        assertTrue(released);
+        verify(redisTemplate).execute(eq(CacheScripts.LOCK_RELEASE), ArgumentMatchers.<RedisSerializer<?>>any(), any(),
+                eq(List.of("lock:key:test:key")), eq("token-1"), eq("lock:release"));
+        verify(redisTemplate, never()).delete(anyString()); // Nunca un delete ciego
+    }
+
+    @Test
+    @DisplayName("No debe liberar un lock que ya pertenece a otro dueño")
+    void testReleaseExpiredLease() {
+        LockHandle handle = new LockHandle("test:key", "node1", "token-1", 3);
+        when(redisTemplate.execute(eq(CacheScripts.LOCK_RELEASE), ArgumentMatchers.<RedisSerializer<?>>any(), any(), anyList(), any(), any()))
+                .thenReturn(0L);
+
+        assertFalse(lockManager.release(handle));
+        assertEquals(1L, lockManager.getStats().get("lostLeases"));
     }
 
     @Test
@@ -102,39 +166,71 @@ class DistributedLockManagerTest {
     void testExecuteWithLockSuccess() throws Exception {
         // Arrange
         String key = "test:key";
-        String nodeId = "node1";
         String expectedResult = "operation result";
 
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.setIfAbsent(anyString(), eq("locked"), any(Duration.class)))
-                .thenReturn(true);
+        when(redisTemplate.execute(eq(CacheScripts.LOCK_ACQUIRE), ArgumentMatchers.<RedisSerializer<?>>any(), any(), anyList(), any(), any()))
+                .thenReturn(1L);
+        when(redisTemplate.execute(eq(CacheScripts.LOCK_RELEASE), ArgumentMatchers.<RedisSerializer<?>>any(), any(), anyList(), any(), any()))
+                .thenReturn(1L);
 
         DistributedLockManager.LockOperation<String> operation =
                 () -> expectedResult;
 
         // Act
-        String result = lockManager.executeWithLock(key, nodeId, operation);
+        String result = lockManager.executeWithLock(key, "node1", operation);
 
         // Assert
         assertEquals(expectedResult, result);
-        verify(redisTemplate).delete("lock:" + key); // Verificar que se liberó el lock
+        // Verificar que se liberó el lock con el mismo token con que se adquirió
+        ArgumentCaptor<Object> acquireToken = ArgumentCaptor.forClass(Object.class);
+        ArgumentCaptor<Object> releaseToken = ArgumentCaptor.forClass(Object.class);
+        verify(redisTemplate).execute(eq(CacheScripts.LOCK_ACQUIRE), ArgumentMatchers.<RedisSerializer<?>>any(), any(), anyList(), acquireToken.capture(), any());
+        verify(redisTemplate).execute(eq(CacheScripts.LOCK_RELEASE), ArgumentMatchers.<RedisSerializer<?>>any(), any(), anyList(), releaseToken.capture(), any());
+        assertEquals(acquireToken.getValue(), releaseToken.getValue());
+    }
+
+    @Test
+    @DisplayName("Debe entregar a la operación el fencing token y el vencimiento del lease")
+    void testExecuteFencedPassesHandle() throws Exception {
+        // Arrange
+        setPrivateField(lockManager, "leaseMs", 5000L);
+        when(redisTemplate.execute(eq(CacheScripts.LOCK_ACQUIRE), ArgumentMatchers.<RedisSerializer<?>>any(), any(), anyList(), any(), any()))
+                .thenReturn(9L);
+        when(redisTemplate.execute(eq(CacheScripts.LOCK_RELEASE), ArgumentMatchers.<RedisSerializer<?>>any(), any(), anyList(), any(), any()))
+                .thenReturn(1L);
+        long before = System.currentTimeMillis();
+
+        // Act
+        LockHandle handle = lockManager.executeFenced("test:key", "node1", lock -> lock);
+
+        // Assert
+        assertEquals(9L, handle.fencingToken());
+        assertTrue(handle.leaseExpiresAt() >= before + 5000);
+        assertTrue(handle.leaseExpiresAt() <= System.currentTimeMillis() + 5000);
+        assertFalse(handle.isLeaseExpired());
+        assertThrows(IllegalStateException.class,
+                () -> new LockHandle("test:key", "node1", "token-1", 9, before - 1).checkLease());
     }
 
     @Test
     @DisplayName("Debe lanzar excepción cuando no puede adquirir lock")
-    void testExecuteWithLockFailure() {
+    void testExecuteWithLockFailure() throws Exception {
         // Arrange
-        String key = "test:key";
-        String nodeId = "node1";
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.setIfAbsent(anyString(), eq("locked"), any(Duration.class)))
-                .thenReturn(false);
+        setPrivateField(lockManager, "acquireTimeoutMs", 20L);
+        when(redisTemplate.execute(eq(CacheScripts.LOCK_ACQUIRE), ArgumentMatchers.<RedisSerializer<?>>any(), any(), anyList(), any(), any()))
+                .thenReturn(-5000L);
 
         DistributedLockManager.LockOperation<String> operation =
                 () -> "should not execute";
 
         // Act & Assert
         assertThrows(RuntimeException.class, () ->
-                lockManager.executeWithLock(key, nodeId, operation));
+                lockManager.executeWithLock("test:key", "node1", operation));
+    }
+
+    private void setPrivateField(Object target, String fieldName, Object value) throws NoSuchFieldException, IllegalAccessException {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
     }
 }
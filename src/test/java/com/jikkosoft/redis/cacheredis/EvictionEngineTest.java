@@ -0,0 +1,180 @@
+package com.jikkosoft.redis.cacheredis;
+
+import com.jikkosoft.redis.cacheredis.eviction.EvictionEngine;
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.hash.HashAlgorithm;
+import com.jikkosoft.redis.cacheredis.near.NearCache;
+import com.jikkosoft.redis.cacheredis.script.CacheScripts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para EvictionEngine
+ */
+@ExtendWith(MockitoExtension.class)
+class EvictionEngineTest {
+
+    private static final long BUDGET = 1000;
+
+    @Mock
+    private RedisTemplate<String, Object> node1;
+
+    @Mock
+    private RedisTemplate<String, Object> node2;
+
+    @Mock
+    private NearCache nearCache;
+
+    private EvictionEngine engine;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        engine = new EvictionEngine();
+        setPrivateField(engine, "redisTemplateMap", Map.of("node1", node1, "node2", node2));
+        setPrivateField(engine, "hashRing", new ConsistentHashRing(HashAlgorithm.MURMUR3, List.of("node1", "node2")));
+        setPrivateField(engine, "nearCache", nearCache);
+        setPrivateField(engine, "maxMemoryBytes", BUDGET);
+        setPrivateField(engine, "sampleSize", 4);
+        setPrivateField(engine, "sketchSize", 1024);
+        engine.init();
+    }
+
+    @Test
+    @DisplayName("No debe expulsar nada mientras el nodo cumpla su presupuesto")
+    void testUnderBudget() {
+        when(node1.execute(ArgumentMatchers.<RedisCallback<Properties>>any())).thenReturn(memory(BUDGET - 1));
+
+        assertEquals(0, engine.evictNode("node1"));
+
+        verify(node1, never()).executePipelined(any(RedisCallback.class), any(RedisSerializer.class));
+        verify(node1, never()).delete(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Debe expulsar la clave de menor puntaje de todas sus réplicas")
+    void testEvictsLowestScoreFromAllReplicas() {
+        for (int i = 0; i < 10; i++) {
+            engine.recordAccess("hot");
+        }
+        for (int i = 0; i < 5; i++) {
+            engine.recordAccess("expiring");
+        }
+        when(node1.execute(ArgumentMatchers.<RedisCallback<Properties>>any())).thenReturn(memory(BUDGET + 500), memory(BUDGET - 1));
+        when(node1.executePipelined(any(RedisCallback.class), any(RedisSerializer.class)))
+                .thenReturn(new ArrayList<>(List.of("hot", "lock:key:hot", "expiring", "cold")));
+        // PTTL: sin expiración, a 1 segundo de expirar, sin expiración
+        when(node1.executePipelined(any(RedisCallback.class)))
+                .thenReturn(new ArrayList<>(List.of(-1L, 1000L, -1L)));
+
+        int evicted = engine.evictNode("node1");
+
+        // "expiring" es frecuente pero expira antes de dar más hits que "cold"
+        assertEquals(1, evicted);
+        verify(node1).delete(List.of("expiring"));
+        verify(node2).delete(List.of("expiring"));
+        verify(nearCache).invalidateCluster(List.of("expiring"));
+        assertEquals(1L, engine.getStats().get("evicted"));
+    }
+
+    @Test
+    @DisplayName("Nunca debe expulsar locks ni diccionarios de compresión")
+    void testSkipsProtectedKeys() {
+        when(node1.execute(ArgumentMatchers.<RedisCallback<Properties>>any())).thenReturn(memory(BUDGET + 500));
+        when(node1.executePipelined(any(RedisCallback.class), any(RedisSerializer.class)))
+                .thenReturn(new ArrayList<>(List.of("lock:key:a", "lock:fence", "compression:dict:1a2b", "compression:prefixes")));
+
+        assertEquals(0, engine.evictNode("node1"));
+        verify(node1, never()).delete(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Una instancia que no tiene el lease de líder no debe ejecutar el ciclo")
+    void testNonLeaderSkipsCycle() {
+        for (RedisTemplate<String, Object> node : List.of(node1, node2)) {
+            lenient().when(node.execute(eq(CacheScripts.EVICTION_LEADER), ArgumentMatchers.<RedisSerializer<?>>any(),
+                    ArgumentMatchers.<RedisSerializer<Long>>any(), anyList(), any(), any())).thenReturn(0L);
+        }
+
+        engine.evictCycle();
+
+        verify(node1, never()).execute(ArgumentMatchers.<RedisCallback<Properties>>any());
+        verify(node2, never()).execute(ArgumentMatchers.<RedisCallback<Properties>>any());
+        assertEquals(false, engine.getStats().get("leader"));
+        assertEquals(1L, engine.getStats().get("skippedCycles"));
+        assertEquals(0L, engine.getStats().get("cycles"));
+    }
+
+    @Test
+    @DisplayName("Los accesos concurrentes no deben perder muestras del sketch")
+    void testConcurrentAccessesAreCounted() throws Exception {
+        int threads = 4;
+        int perThread = 3;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        engine.recordAccess("hot");
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * perThread, engine.frequency("hot"));
+    }
+
+    @Test
+    @DisplayName("El puntaje debe crecer con la frecuencia y con el TTL restante")
+    void testScore() {
+        long horizon = 3_600_000;
+
+        assertTrue(EvictionEngine.score(10, -1, horizon) > EvictionEngine.score(1, -1, horizon));
+        assertTrue(EvictionEngine.score(5, horizon, horizon) > EvictionEngine.score(5, 60_000, horizon));
+        // Más allá del horizonte el TTL ya no distingue
+        assertEquals(EvictionEngine.score(3, -1, horizon), EvictionEngine.score(3, 10 * horizon, horizon));
+    }
+
+    private static Properties memory(long usedMemory) {
+        Properties info = new Properties();
+        info.setProperty("used_memory", String.valueOf(usedMemory));
+        return info;
+    }
+
+    private void setPrivateField(Object target, String fieldName, Object value) throws NoSuchFieldException, IllegalAccessException {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,198 @@
+package com.jikkosoft.redis.cacheredis;
+
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.hash.HashAlgorithm;
+import com.jikkosoft.redis.cacheredis.hotkey.HotKey;
+import com.jikkosoft.redis.cacheredis.hotkey.HotKeyTracker;
+import com.jikkosoft.redis.cacheredis.sketch.SpaceSaving;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para SpaceSaving y HotKeyTracker
+ */
+class HotKeyTrackerTest {
+
+    private HotKeyTracker tracker;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tracker = new HotKeyTracker();
+        setPrivateField(tracker, "hashRing", new ConsistentHashRing(HashAlgorithm.MURMUR3, List.of("node1", "node2")));
+        setPrivateField(tracker, "capacity", 16);
+        setPrivateField(tracker, "maxHotKeys", 2);
+        setPrivateField(tracker, "minQps", 1.0);
+        setPrivateField(tracker, "localTtlMs", 60_000L);
+        tracker.init();
+        tracker.onInvalidationSubscribed();
+    }
+
+    @Test
+    @DisplayName("Space-Saving debe encontrar las claves frecuentes entre muchas claves únicas")
+    void testSpaceSavingFindsHeavyHitters() {
+        SpaceSaving sketch = new SpaceSaving(16);
+        for (int i = 0; i < 10_000; i++) {
+            sketch.offer("cola:" + i);
+            if (i % 4 == 0) {
+                sketch.offer("caliente");
+            }
+            if (i % 5 == 0) {
+                sketch.offer("tibia");
+            }
+        }
+
+        // Toda clave con más de N/capacidad apariciones queda seguida
+        List<SpaceSaving.Counter> top = sketch.top(2);
+        assertEquals(Set.of("caliente", "tibia"), top.stream().map(SpaceSaving.Counter::key).collect(Collectors.toSet()));
+        // La cuenta es cota superior y el error acota cuánto puede sobrar
+        long count = sketch.estimate("caliente");
+        SpaceSaving.Counter caliente = top.stream().filter(c -> c.key().equals("caliente")).findFirst().orElseThrow();
+        assertTrue(count >= 2500);
+        assertTrue(count - caliente.error() <= 2500);
+        assertEquals(16, sketch.size());
+
+        sketch.decay();
+        assertEquals(count >>> 1, sketch.estimate("caliente"));
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSaving(0));
+    }
+
+    @Test
+    @DisplayName("Debe promover las claves que superan el umbral, hasta el máximo, y degradarlas cuando se enfrían")
+    void testPromotionAndDemotion() {
+        record("a", 50);
+        record("b", 30);
+        record("c", 20);
+        record("fria", 1);
+        tracker.rotate();
+
+        assertTrue(tracker.isHot("a"));
+        assertTrue(tracker.isHot("b"));
+        assertFalse(tracker.isHot("c"), "Supera el umbral pero no entra en max-hot-keys");
+        assertFalse(tracker.isHot("fria"));
+
+        List<HotKey> top = tracker.getTop(3);
+        assertEquals(List.of("a", "b", "c"), top.stream().map(HotKey::key).toList());
+        assertEquals(List.of("node1", "node2"), top.get(0).replicas().stream().sorted().toList());
+
+        tracker.put("a", "valor", null, tracker.stamp("a"));
+        // Sin lecturas en la ventana siguiente las claves dejan de estar calientes y pierden la copia
+        tracker.rotate();
+        assertFalse(tracker.isHot("a"));
+        assertEquals(Optional.empty(), tracker.get("a"));
+        assertEquals(2L, tracker.getStats().get("demotions"));
+    }
+
+    @Test
+    @DisplayName("Una escritura debe descartar la copia local, también la de una lectura en curso")
+    void testInvalidationDiscardsCopies() {
+        record("a", 50);
+        tracker.rotate();
+
+        tracker.put("a", "v1", null, tracker.stamp("a"));
+        assertEquals(Optional.of("v1"), tracker.get("a"));
+
+        tracker.invalidate("a");
+        assertEquals(Optional.empty(), tracker.get("a"));
+
+        // La lectura capturó la marca antes de la escritura: su valor ya es viejo
+        long stamp = tracker.stamp("a");
+        tracker.invalidate("a");
+        tracker.put("a", "viejo", null, stamp);
+        assertEquals(Optional.empty(), tracker.get("a"));
+
+        // Las claves que no son calientes no guardan copia
+        tracker.put("fria", "valor", null, tracker.stamp("fria"));
+        assertEquals(Optional.empty(), tracker.get("fria"));
+    }
+
+    @Test
+    @DisplayName("La copia local no debe sobrevivir al vencimiento de la entrada")
+    void testCopyCappedAtEntryExpiry() throws Exception {
+        record("a", 50);
+        tracker.rotate();
+
+        tracker.put("a", "vencida", LocalDateTime.now().minusSeconds(1), tracker.stamp("a"));
+        assertEquals(Optional.empty(), tracker.get("a"));
+
+        tracker.put("a", "breve", LocalDateTime.now().plusNanos(50_000_000), tracker.stamp("a"));
+        assertEquals(Optional.of("breve"), tracker.get("a"));
+        Thread.sleep(100);
+        assertEquals(Optional.empty(), tracker.get("a"), "local-ttl-ms es de 60 s pero la entrada ya venció");
+    }
+
+    @Test
+    @DisplayName("Sin suscripción de invalidación no debe guardar copias locales")
+    void testNoCopiesWithoutSubscription() {
+        record("a", 50);
+        tracker.rotate();
+        tracker.put("a", "v1", null, tracker.stamp("a"));
+
+        tracker.onInvalidationLost();
+        assertEquals(Optional.empty(), tracker.get("a"));
+        tracker.put("a", "v2", null, tracker.stamp("a"));
+        assertEquals(Optional.empty(), tracker.get("a"));
+
+        tracker.onInvalidationSubscribed();
+        tracker.put("a", "v3", null, tracker.stamp("a"));
+        assertEquals(Optional.of("v3"), tracker.get("a"));
+    }
+
+    @Test
+    @DisplayName("Las lecturas no muestreadas por contención deben contar en el QPS")
+    void testQpsScaledByUnsampledReads() throws Exception {
+        Field field = HotKeyTracker.class.getDeclaredField("topKeysLock");
+        field.setAccessible(true);
+        ReentrantLock lock = (ReentrantLock) field.get(tracker);
+
+        // Otro hilo retiene el contador: estas 30 lecturas no llegan al Space-Saving
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            lock.lock();
+            try {
+                held.countDown();
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.unlock();
+            }
+        });
+        holder.start();
+        held.await();
+        record("a", 30);
+        done.countDown();
+        holder.join();
+        record("a", 10);
+        tracker.rotate();
+
+        assertEquals(0.25, (double) tracker.getStats().get("sampledFraction"), 1e-9);
+        HotKey top = tracker.getTop(1).get(0);
+        assertEquals(10, top.count());
+        assertTrue(tracker.isHot("a"));
+    }
+
+    private void record(String key, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.record(key);
+        }
+    }
+
+    private void setPrivateField(Object target, String fieldName, Object value) throws NoSuchFieldException, IllegalAccessException {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,161 @@
+package com.jikkosoft.redis.cacheredis;
+
+import com.jikkosoft.redis.cacheredis.bloom.KeyFilter;
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.hash.HashAlgorithm;
+import com.jikkosoft.redis.cacheredis.sketch.BloomFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para BloomFilter y KeyFilter sobre nodos simulados
+ */
+class KeyFilterTest {
+
+    // Claves guardadas por nodo; ambos nodos son réplica de todas (factor 2)
+    private final Map<String, List<String>> stored = new LinkedHashMap<>();
+    private KeyFilter keyFilter;
+    private Runnable onScan = () -> { };
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Map<String, RedisTemplate<String, Object>> templates = new LinkedHashMap<>();
+        templates.put("node1", fakeNode("node1"));
+        templates.put("node2", fakeNode("node2"));
+
+        keyFilter = new KeyFilter();
+        setPrivateField(keyFilter, "redisTemplateMap", templates);
+        setPrivateField(keyFilter, "hashRing", new ConsistentHashRing(HashAlgorithm.MURMUR3, List.of("node1", "node2")));
+        setPrivateField(keyFilter, "expectedKeys", 10_000L);
+        setPrivateField(keyFilter, "settleMs", 0L);
+        setPrivateField(keyFilter, "enabled", true);
+        // Las reconstrucciones las disparan los tests
+        setPrivateField(keyFilter, "rebuildExecutor", (Executor) task -> { });
+        keyFilter.onInvalidationSubscribed();
+    }
+
+    @Test
+    @DisplayName("El filtro de Bloom no debe tener falsos negativos y sus falsos positivos deben rondar la tasa pedida")
+    void testBloomFilterFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("user:" + i));
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user:" + i));
+        }
+        long falsePositives = IntStream.range(0, 100_000).filter(i -> filter.mightContain("otro:" + i)).count();
+        assertTrue(falsePositives < 2_000, "Falsos positivos: " + falsePositives);
+        assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.005);
+        assertEquals(10_000, filter.approximateSize(), 300);
+        assertEquals(filter.bitSize() / 8, filter.sizeInBytes());
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+    }
+
+    @Test
+    @DisplayName("No debe cortar lecturas hasta reconstruir el filtro desde SCAN")
+    void testNoShortCircuitBeforeFirstRebuild() {
+        stored.get("node1").add("user:1");
+        stored.get("node2").add("user:1");
+
+        assertFalse(keyFilter.isDefiniteMiss("nunca"));
+
+        keyFilter.rebuild();
+
+        assertTrue(keyFilter.isDefiniteMiss("nunca"));
+        assertFalse(keyFilter.isDefiniteMiss("user:1"));
+        keyFilter.add("user:2");
+        assertFalse(keyFilter.isDefiniteMiss("user:2"));
+
+        Map<String, Object> stats = keyFilter.getStats();
+        assertEquals(1L, stats.get("shortCircuits"));
+        assertEquals(2L, stats.get("rebuilds"));
+        assertTrue((long) stats.get("memoryBytes") > 0);
+    }
+
+    @Test
+    @DisplayName("La reconstrucción debe descartar claves borradas y conservar las escritas durante el recorrido")
+    void testRebuildDropsDeletedKeysAndKeepsConcurrentWrites() {
+        keyFilter.add("borrada");
+        stored.get("node1").addAll(List.of("user:1", "lock:x"));
+        stored.get("node2").addAll(List.of("user:1", "lock:x"));
+        keyFilter.rebuild();
+        assertTrue(keyFilter.isDefiniteMiss("borrada"));
+        // Una clave de usuario con prefijo de clave interna sigue en el filtro
+        assertFalse(keyFilter.isDefiniteMiss("lock:x"));
+
+        // Una escritura que llega mientras SCAN recorre el nodo y que el cursor ya no ve
+        onScan = () -> keyFilter.add("durante:scan");
+        keyFilter.rebuild("node1");
+        // node2 se reconstruye sin ella: solo queda en el filtro nuevo de node1
+        onScan = () -> { };
+        keyFilter.rebuild("node2");
+
+        assertFalse(keyFilter.isDefiniteMiss("durante:scan"));
+        assertFalse(keyFilter.isDefiniteMiss("user:1"));
+    }
+
+    @Test
+    @DisplayName("Sin suscripción de invalidación no debe cortar lecturas hasta reconstruir con ella activa")
+    void testSubscriptionLossDisablesShortCircuit() {
+        keyFilter.rebuild();
+        assertTrue(keyFilter.isDefiniteMiss("nunca"));
+
+        keyFilter.onInvalidationLost();
+        assertFalse(keyFilter.isDefiniteMiss("nunca"));
+        // Reconstruir sin suscripción no alcanza: pudo perderse una escritura de otra instancia
+        keyFilter.rebuild();
+        assertFalse(keyFilter.isDefiniteMiss("nunca"));
+
+        keyFilter.onInvalidationSubscribed();
+        assertFalse(keyFilter.isDefiniteMiss("nunca"));
+        keyFilter.rebuild();
+        assertTrue(keyFilter.isDefiniteMiss("nunca"));
+        assertEquals(true, keyFilter.getStats().get("subscribed"));
+    }
+
+    /**
+     * Nodo simulado: DBSIZE y SCAN sobre las claves guardadas
+     */
+    @SuppressWarnings("unchecked")
+    private RedisTemplate<String, Object> fakeNode(String node) {
+        List<String> keys = stored.computeIfAbsent(node, n -> new CopyOnWriteArrayList<>());
+        RedisTemplate<String, Object> template = mock(RedisTemplate.class);
+        when(template.execute(any(RedisCallback.class))).thenAnswer(invocation -> (long) keys.size());
+        when(template.scan(any(ScanOptions.class))).thenAnswer(invocation -> {
+            Iterator<String> iterator = new ArrayList<>(keys).iterator();
+            Cursor<String> cursor = mock(Cursor.class);
+            when(cursor.hasNext()).thenAnswer(call -> iterator.hasNext());
+            when(cursor.next()).thenAnswer(call -> {
+                onScan.run();
+                return iterator.next();
+            });
+            return cursor;
+        });
+        return template;
+    }
+
+    private void setPrivateField(Object target, String fieldName, Object value) throws NoSuchFieldException, IllegalAccessException {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
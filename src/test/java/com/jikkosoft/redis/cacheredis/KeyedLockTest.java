@@ -0,0 +1,54 @@
+package com.jikkosoft.redis.cacheredis;
+
+import com.jikkosoft.redis.cacheredis.lock.KeyedLock;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para KeyedLock
+ */
+class KeyedLockTest {
+
+    private final KeyedLock locks = new KeyedLock();
+
+    @Test
+    @DisplayName("Una clave bloqueada no debe demorar operaciones sobre otra clave")
+    void testDistinctKeysDoNotBlock() throws Exception {
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> locks.executeWithLock("a", () -> {
+                held.countDown();
+                release.await();
+                return null;
+            }));
+            assertTrue(held.await(5, TimeUnit.SECONDS));
+
+            assertEquals("b", locks.executeWithLock("b", () -> "b"));
+            assertEquals(1, locks.size());
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Debe descartar el lock de la clave cuando nadie lo usa")
+    void testReleasesUnusedEntries() throws Exception {
+        locks.executeWithLock("a", () -> locks.executeWithLock("a", () -> null));
+
+        assertEquals(0, locks.size());
+        assertEquals(0, locks.getQueueLength());
+    }
+}
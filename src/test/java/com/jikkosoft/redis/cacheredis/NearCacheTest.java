@@ -0,0 +1,95 @@
+package com.jikkosoft.redis.cacheredis;
+
+import com.jikkosoft.redis.cacheredis.near.NearCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para NearCache
+ */
+class NearCacheTest {
+
+    private NearCache nearCache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        nearCache = new NearCache();
+        setPrivateField(nearCache, "enabled", true);
+        setPrivateField(nearCache, "maximumSize", 100);
+        setPrivateField(nearCache, "maxTtlSeconds", 60L);
+        nearCache.init();
+    }
+
+    @Test
+    @DisplayName("Debe retornar el valor almacenado y contar aciertos")
+    void testGetHit() {
+        nearCache.put("key", "value", null, nearCache.stamp("key"));
+
+        Optional<Object> result = nearCache.get("key");
+
+        assertEquals(Optional.of("value"), result);
+        assertEquals(1L, nearCache.getStats().get("hits"));
+    }
+
+    @Test
+    @DisplayName("No debe retornar entradas expiradas")
+    void testExpiredEntry() {
+        nearCache.put("key", "value", LocalDateTime.now().minusSeconds(1), nearCache.stamp("key"));
+
+        assertTrue(nearCache.get("key").isEmpty());
+        assertEquals(1L, nearCache.getStats().get("misses"));
+    }
+
+    @Test
+    @DisplayName("Debe descartar lecturas capturadas antes de una invalidación")
+    void testStalePutDiscarded() {
+        long stamp = nearCache.stamp("key");
+        nearCache.invalidate("key");
+
+        nearCache.put("key", "stale", null, stamp);
+
+        assertTrue(nearCache.get("key").isEmpty());
+    }
+
+    @Test
+    @DisplayName("No debe descartar lecturas por invalidaciones de otras claves")
+    void testUnrelatedInvalidationKeepsPut() {
+        long stamp = nearCache.stamp("key");
+        nearCache.invalidate("otra");
+
+        nearCache.put("key", "value", null, stamp);
+
+        assertEquals(Optional.of("value"), nearCache.get("key"));
+    }
+
+    @Test
+    @DisplayName("Debe respetar el tamaño máximo y conservar claves frecuentes")
+    void testBoundedSizeKeepsFrequentKeys() {
+        for (int i = 0; i < 20; i++) {
+            nearCache.put("hot", "value", null, nearCache.stamp("hot"));
+            nearCache.get("hot");
+        }
+        for (int i = 0; i < 1000; i++) {
+            nearCache.put("cold" + i, i, null, nearCache.stamp("cold" + i));
+        }
+
+        Map<String, Object> stats = nearCache.getStats();
+        assertTrue((Integer) stats.get("size") <= 100);
+        assertTrue(nearCache.get("hot").isPresent());
+    }
+
+    // Helper method to set private fields
+    private void setPrivateField(Object target, String fieldName, Object value) throws NoSuchFieldException, IllegalAccessException {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
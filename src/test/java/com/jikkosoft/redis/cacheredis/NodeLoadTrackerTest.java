@@ -0,0 +1,62 @@
+package com.jikkosoft.redis.cacheredis;
+
+import com.jikkosoft.redis.cacheredis.hash.NodeLoadTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para NodeLoadTracker
+ */
+class NodeLoadTrackerTest {
+
+    private NodeLoadTracker loadTracker;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        loadTracker = new NodeLoadTracker();
+        Field field = NodeLoadTracker.class.getDeclaredField("boundedLoadEnabled");
+        field.setAccessible(true);
+        field.set(loadTracker, true);
+    }
+
+    @Test
+    @DisplayName("Debe mantener el primario cuando está bajo la capacidad")
+    void testKeepsPrimaryUnderCapacity() {
+        loadTracker.begin("node1");
+
+        assertEquals(List.of("node1", "node2"), loadTracker.order(List.of("node1", "node2"), 2));
+    }
+
+    @Test
+    @DisplayName("Debe desviar al siguiente nodo cuando el primario excede (1+ε) el promedio")
+    void testSpillsWhenPrimaryOverloaded() {
+        for (int i = 0; i < 10; i++) {
+            loadTracker.begin("node1");
+        }
+
+        assertEquals(List.of("node2", "node1"), loadTracker.order(List.of("node1", "node2"), 2));
+
+        for (int i = 0; i < 10; i++) {
+            loadTracker.end("node1");
+        }
+        assertEquals("node1", loadTracker.order(List.of("node1", "node2"), 2).get(0));
+    }
+
+    @Test
+    @DisplayName("Debe dejar fuera de la elección por latencia a las réplicas sobre la capacidad")
+    void testWithinCapacity() {
+        List<String> replicas = List.of("node1", "node2", "node3");
+        assertEquals(replicas, loadTracker.withinCapacity(replicas, 3));
+
+        for (int i = 0; i < 10; i++) {
+            loadTracker.begin("node2");
+        }
+        assertEquals(List.of("node1", "node3"), loadTracker.withinCapacity(replicas, 3));
+    }
+}
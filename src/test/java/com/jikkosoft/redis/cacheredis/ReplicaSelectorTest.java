@@ -0,0 +1,94 @@
+package com.jikkosoft.redis.cacheredis;
+
+import com.jikkosoft.redis.cacheredis.hash.NodeLoadTracker;
+import com.jikkosoft.redis.cacheredis.routing.LatencyHistogram;
+import com.jikkosoft.redis.cacheredis.routing.ReplicaSelector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ReplicaSelector y LatencyHistogram
+ */
+class ReplicaSelectorTest {
+
+    private ReplicaSelector replicaSelector;
+    private NodeLoadTracker loadTracker;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        loadTracker = new NodeLoadTracker();
+        replicaSelector = new ReplicaSelector();
+        Field field = ReplicaSelector.class.getDeclaredField("loadTracker");
+        field.setAccessible(true);
+        field.set(replicaSelector, loadTracker);
+    }
+
+    @Test
+    @DisplayName("Debe preferir la réplica con menor latencia promedio")
+    void testPrefersLowerLatency() {
+        for (int i = 0; i < 20; i++) {
+            replicaSelector.record("node1", TimeUnit.MILLISECONDS.toNanos(20));
+            replicaSelector.record("node2", TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals("node2", replicaSelector.rank(List.of("node1", "node2")).get(0));
+        }
+    }
+
+    @Test
+    @DisplayName("Debe penalizar la réplica con más operaciones en vuelo")
+    void testPenalizesInFlight() {
+        replicaSelector.record("node1", TimeUnit.MILLISECONDS.toNanos(1));
+        replicaSelector.record("node2", TimeUnit.MILLISECONDS.toNanos(2));
+        for (int i = 0; i < 5; i++) {
+            loadTracker.begin("node1");
+        }
+
+        assertEquals("node2", replicaSelector.rank(List.of("node1", "node2")).get(0));
+    }
+
+    @Test
+    @DisplayName("Debe conservar todas las réplicas al ordenar")
+    void testRankKeepsAllReplicas() {
+        List<String> ranked = replicaSelector.rank(List.of("node1", "node2", "node3"));
+
+        assertEquals(3, ranked.size());
+        assertTrue(ranked.containsAll(List.of("node1", "node2", "node3")));
+    }
+
+    @Test
+    @DisplayName("Debe esperar el p95 observado antes del hedge, con un mínimo")
+    void testHedgeDelay() {
+        long minimum = TimeUnit.MILLISECONDS.toNanos(2);
+        assertEquals(minimum, replicaSelector.hedgeDelayNanos("node1"));
+
+        for (int i = 0; i < 100; i++) {
+            replicaSelector.record("node1", TimeUnit.MILLISECONDS.toNanos(i < 90 ? 1 : 50));
+        }
+        long delay = replicaSelector.hedgeDelayNanos("node1");
+        assertTrue(delay >= TimeUnit.MILLISECONDS.toNanos(50), "p95 debe cubrir la cola lenta");
+    }
+
+    @Test
+    @DisplayName("Debe estimar percentiles dentro del error de un bucket")
+    void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+
+        long p50 = histogram.percentile(0.50);
+        long p99 = histogram.percentile(0.99);
+        assertTrue(p50 >= TimeUnit.MICROSECONDS.toNanos(500) && p50 <= TimeUnit.MICROSECONDS.toNanos(650), "p50=" + p50);
+        assertTrue(p99 >= TimeUnit.MICROSECONDS.toNanos(990) && p99 <= TimeUnit.MICROSECONDS.toNanos(1300), "p99=" + p99);
+        assertEquals(0, new LatencyHistogram().percentile(0.99));
+    }
+}
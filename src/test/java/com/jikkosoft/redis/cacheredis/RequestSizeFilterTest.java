@@ -0,0 +1,85 @@
+package com.jikkosoft.redis.cacheredis;
+
+import com.jikkosoft.redis.cacheredis.controller.RequestSizeFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para RequestSizeFilter
+ */
+class RequestSizeFilterTest {
+
+    private RequestSizeFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        filter = new RequestSizeFilter();
+        setPrivateField(filter, "maxRequestBytes", 16L);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar con 413 un PUT de valor que supera el tope sin leer el cuerpo")
+    void testRejectsOversizedBody() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/cache/doc:1");
+        request.setContent(new byte[32]);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(413, response.getStatus());
+        assertNull(chain.getRequest());
+        assertTrue(response.getContentAsString().contains("/api/cache/blobs/"));
+    }
+
+    @Test
+    @DisplayName("Debe dejar pasar cuerpos bajo el tope y las subidas de blobs")
+    void testPassesSmallBodiesAndBlobs() throws Exception {
+        MockHttpServletRequest small = new MockHttpServletRequest("POST", "/api/cache/doc:1");
+        small.setContent(new byte[8]);
+        MockFilterChain smallChain = new MockFilterChain();
+        filter.doFilter(small, new MockHttpServletResponse(), smallChain);
+
+        MockHttpServletRequest blob = new MockHttpServletRequest("PUT", "/api/cache/blobs/doc:1");
+        blob.setContent(new byte[64]);
+        MockFilterChain blobChain = new MockFilterChain();
+        filter.doFilter(blob, new MockHttpServletResponse(), blobChain);
+
+        assertNotNull(smallChain.getRequest());
+        assertNotNull(blobChain.getRequest());
+    }
+
+    @Test
+    @DisplayName("Sin Content-Length la lectura debe fallar al pasar el tope")
+    void testLimitsChunkedBody() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/cache/doc:1") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        request.setContent(new byte[32]);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        InputStream body = chain.getRequest().getInputStream();
+        assertThrows(IOException.class, body::readAllBytes);
+    }
+
+    private void setPrivateField(Object target, String fieldName, Object value) throws NoSuchFieldException, IllegalAccessException {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,186 @@
+package com.jikkosoft.redis.cacheredis;
+
+import com.jikkosoft.redis.cacheredis.bloom.KeyFilter;
+import com.jikkosoft.redis.cacheredis.codec.CacheEntryCodec;
+import com.jikkosoft.redis.cacheredis.codec.CacheValueSerializer;
+import com.jikkosoft.redis.cacheredis.codec.EntryFormat;
+import com.jikkosoft.redis.cacheredis.compression.ValueCompressor;
+import com.jikkosoft.redis.cacheredis.expiry.ActiveExpiryService;
+import com.jikkosoft.redis.cacheredis.hash.ConsistentHashRing;
+import com.jikkosoft.redis.cacheredis.hash.HashAlgorithm;
+import com.jikkosoft.redis.cacheredis.model.CacheEntry;
+import com.jikkosoft.redis.cacheredis.model.ImportStatus;
+import com.jikkosoft.redis.cacheredis.near.NearCache;
+import com.jikkosoft.redis.cacheredis.warmup.SnapshotImporter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para SnapshotImporter sobre nodos simulados
+ */
+class SnapshotImporterTest {
+
+    @TempDir
+    Path snapshotDir;
+
+    private final CacheValueSerializer serializer = new CacheValueSerializer(new CacheEntryCodec(), EntryFormat.BINARY);
+    // Escrituras por nodo: clave -> TTL en ms (-1 sin expiración)
+    private final Map<String, Map<String, Long>> writes = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, CacheEntry>> entries = new ConcurrentHashMap<>();
+    private final Set<String> existingKeys = ConcurrentHashMap.newKeySet();
+    private SnapshotImporter importer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Map<String, RedisTemplate<String, Object>> templates = new LinkedHashMap<>();
+        templates.put("node1", fakeNode("node1"));
+        templates.put("node2", fakeNode("node2"));
+
+        importer = new SnapshotImporter();
+        setPrivateField(importer, "redisTemplateMap", templates);
+        setPrivateField(importer, "hashRing", new ConsistentHashRing(HashAlgorithm.MURMUR3, List.of("node1", "node2")));
+        setPrivateField(importer, "valueCompressor", new ValueCompressor());
+        setPrivateField(importer, "activeExpiry", mock(ActiveExpiryService.class));
+        setPrivateField(importer, "keyFilter", mock(KeyFilter.class));
+        setPrivateField(importer, "nearCache", mock(NearCache.class));
+        setPrivateField(importer, "nodeExecutor", (java.util.concurrent.Executor) Runnable::run);
+        setPrivateField(importer, "snapshotDir", snapshotDir.toString());
+        setPrivateField(importer, "batchSize", 8);
+        setPrivateField(importer, "maxKeysPerSecond", 0L);
+    }
+
+    @Test
+    @DisplayName("Debe cargar en ambas réplicas conservando el vencimiento y omitir lo vencido o inválido")
+    void testImportHonorsExpirationAndSkipsInvalid() throws Exception {
+        LocalDateTime future = LocalDateTime.now().plusMinutes(10).withNano(0);
+        Files.writeString(snapshotDir.resolve("snapshot.ndjson"), String.join("\n",
+                "{\"key\":\"user:1\",\"value\":{\"name\":\"Ana\"},\"ttlMillis\":-1,\"expiresAt\":null,\"node\":\"node1\"}",
+                "{\"key\":\"user:2\",\"value\":\"dos\",\"ttlMillis\":600000,\"expiresAt\":\"" + future + "\"}",
+                "{\"key\":\"user:3\",\"value\":\"vencido\",\"expiresAt\":\"" + LocalDateTime.now().minusMinutes(1) + "\"}",
+                "{\"node\":\"node2\",\"error\":\"Connection refused\"}",
+                "",
+                "esto no es json",
+                "{\"key\":\"user:4\",\"value\":4}"));
+
+        ImportStatus status = runImport("snapshot.ndjson");
+
+        assertEquals("COMPLETED", status.state());
+        assertEquals(3, status.records());
+        assertEquals(3, status.skippedRecords());
+        assertEquals(6, status.writtenEntries());
+        assertEquals(status.totalBytes(), status.readBytes());
+        for (String node : List.of("node1", "node2")) {
+            assertEquals(Set.of("user:1", "user:2", "user:4"), writes.get(node).keySet());
+            assertEquals(-1L, writes.get(node).get("user:1"));
+            long ttl = writes.get(node).get("user:2");
+            assertTrue(ttl > 590_000 && ttl <= 600_000, "TTL restante: " + ttl);
+            assertEquals(future, entries.get(node).get("user:2").getExpiresAt());
+            assertEquals(Map.of("name", "Ana"), entries.get(node).get("user:1").getValue());
+        }
+    }
+
+    @Test
+    @DisplayName("Debe procesar registros que cruzan el borde de las ventanas mapeadas sin sobrescribir claves existentes")
+    void testImportAcrossMapWindows() throws Exception {
+        setPrivateField(importer, "mapWindowBytes", 128L);
+        existingKeys.add("key:7");
+        String content = IntStream.range(0, 200)
+                .mapToObj(i -> "{\"key\":\"key:" + i + "\",\"value\":\"valor-" + i + "\"}")
+                .collect(Collectors.joining("\n", "", "\n"));
+        Files.writeString(snapshotDir.resolve("big.ndjson"), content);
+
+        ImportStatus status = runImport("big.ndjson");
+
+        assertEquals("COMPLETED", status.state(), status.error());
+        assertEquals(200, status.records());
+        assertEquals(398, status.writtenEntries());
+        assertEquals(2, status.existingEntries());
+        assertEquals(199, writes.get("node1").size());
+        assertEquals("valor-150", entries.get("node2").get("key:150").getValue());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar archivos fuera del directorio de snapshots")
+    void testRejectsPathOutsideSnapshotDir() {
+        assertThrows(IllegalArgumentException.class, () -> importer.start("../etc/passwd", null));
+        assertThrows(IllegalArgumentException.class, () -> importer.start("no-existe.ndjson", null));
+        assertEquals("IDLE", importer.getStatus().state());
+    }
+
+    private ImportStatus runImport(String file) throws Exception {
+        importer.start(file, null);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (importer.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return importer.getStatus();
+    }
+
+    /**
+     * Nodo simulado: SET NX en pipeline, falla si la clave ya existía
+     */
+    @SuppressWarnings("unchecked")
+    private RedisTemplate<String, Object> fakeNode(String node) {
+        Map<String, Long> nodeWrites = writes.computeIfAbsent(node, n -> new ConcurrentHashMap<>());
+        Map<String, CacheEntry> nodeEntries = entries.computeIfAbsent(node, n -> new ConcurrentHashMap<>());
+        List<Object> pipeline = new ArrayList<>();
+
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        when(stringCommands.set(any(), any(), any(), eq(RedisStringCommands.SetOption.ifAbsent()))).thenAnswer(invocation -> {
+            String key = new String((byte[]) invocation.getArgument(0), StandardCharsets.UTF_8);
+            if (existingKeys.contains(key)) {
+                pipeline.add(false);
+                return null;
+            }
+            Expiration expiration = invocation.getArgument(2);
+            nodeWrites.put(key, expiration.isPersistent() ? -1L : expiration.getExpirationTimeInMilliseconds());
+            nodeEntries.put(key, (CacheEntry) serializer.deserialize(invocation.getArgument(1)));
+            pipeline.add(true);
+            return null;
+        });
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+
+        RedisTemplate<String, Object> template = mock(RedisTemplate.class);
+        doReturn(serializer).when(template).getValueSerializer();
+        when(template.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            synchronized (pipeline) {
+                pipeline.clear();
+                ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection);
+                return new ArrayList<>(pipeline);
+            }
+        });
+        return template;
+    }
+
+    private void setPrivateField(Object target, String fieldName, Object value) throws NoSuchFieldException, IllegalAccessException {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,80 @@
+package com.jikkosoft.redis.cacheredis;
+
+import com.jikkosoft.redis.cacheredis.expiry.TimingWheel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para TimingWheel
+ */
+class TimingWheelTest {
+
+    private static final long TICK = 100;
+
+    @Test
+    @DisplayName("Debe entregar cada clave en el primer tick en o después de su vencimiento")
+    void testExpiresOnDeadlineTick() {
+        TimingWheel wheel = new TimingWheel(TICK, 0);
+        wheel.add("a", 250);
+        wheel.add("b", 300);
+
+        List<String> expired = new ArrayList<>();
+        wheel.advance(299, (key, deadline) -> expired.add(key));
+        assertEquals(List.of(), expired);
+
+        wheel.advance(300, (key, deadline) -> expired.add(key));
+        assertEquals(List.of("a", "b"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Debe bajar de nivel los vencimientos lejanos sin adelantarlos ni perderlos")
+    void testCascadesAcrossLevels() {
+        long start = 1_700_000_000_000L;
+        TimingWheel wheel = new TimingWheel(TICK, start);
+        Random random = new Random(42);
+        Map<String, Long> deadlines = new HashMap<>();
+        // Hasta ~30 días: cubre los cuatro niveles y el desborde
+        for (int i = 0; i < 2000; i++) {
+            long offset = (long) Math.pow(10, 1 + random.nextDouble() * 8.4);
+            deadlines.put("key" + i, start + offset);
+            wheel.add("key" + i, start + offset);
+        }
+
+        Map<String, Long> firedAt = new HashMap<>();
+        long now = start;
+        long step = 37 * TICK;
+        while (firedAt.size() < deadlines.size() && now < start + 40L * 24 * 3600 * 1000) {
+            now += step;
+            long current = now;
+            wheel.advance(now, (key, deadline) -> firedAt.put(key, current));
+        }
+
+        assertEquals(deadlines.size(), firedAt.size());
+        deadlines.forEach((key, deadline) -> {
+            long fired = firedAt.get(key);
+            assertTrue(fired >= deadline, key + " se entregó antes de vencer");
+            assertTrue(fired - deadline < step + TICK, key + " se entregó con atraso");
+        });
+    }
+
+    @Test
+    @DisplayName("Un vencimiento ya pasado se entrega en el próximo avance")
+    void testPastDeadline() {
+        TimingWheel wheel = new TimingWheel(TICK, 10_000);
+        wheel.add("late", 5_000);
+
+        List<String> expired = new ArrayList<>();
+        wheel.advance(10_100, (key, deadline) -> expired.add(key));
+
+        assertEquals(List.of("late"), expired);
+    }
+}
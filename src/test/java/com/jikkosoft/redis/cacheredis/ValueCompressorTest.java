@@ -0,0 +1,201 @@
+package com.jikkosoft.redis.cacheredis;
+
+import com.jikkosoft.redis.cacheredis.codec.CacheEntryCodec;
+import com.jikkosoft.redis.cacheredis.codec.CompressedValue;
+import com.jikkosoft.redis.cacheredis.codec.EncodedValue;
+import com.jikkosoft.redis.cacheredis.compression.CompressionDictionaries;
+import com.jikkosoft.redis.cacheredis.compression.DictionaryTrainer;
+import com.jikkosoft.redis.cacheredis.compression.ValueCompressor;
+import com.jikkosoft.redis.cacheredis.model.CacheEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Adler32;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para ValueCompressor y DictionaryTrainer
+ */
+@ExtendWith(MockitoExtension.class)
+class ValueCompressorTest {
+
+    @Mock
+    private CompressionDictionaries dictionaries;
+
+    private ValueCompressor compressor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        compressor = new ValueCompressor();
+        setPrivateField(compressor, "dictionaries", dictionaries);
+        lenient().when(dictionaries.prefixOf(anyString())).thenAnswer(invocation -> {
+            String key = invocation.getArgument(0);
+            return key.contains(":") ? key.substring(0, key.indexOf(':')) : "";
+        });
+    }
+
+    @Test
+    @DisplayName("Debe comprimir valores sobre el umbral y recuperarlos intactos")
+    void testCompressRoundTrip() {
+        Map<String, Object> document = document(1);
+
+        Object stored = compressor.compress("user:1", document);
+
+        CompressedValue compressed = assertInstanceOf(CompressedValue.class, stored);
+        assertTrue(compressed.data().length < compressed.originalLength());
+        assertEquals(document, compressor.decompress("user:1", stored));
+    }
+
+    @Test
+    @DisplayName("No debe comprimir valores bajo el umbral")
+    void testSkipsSmallValues() {
+        assertEquals("corto", compressor.compress("user:1", "corto"));
+        assertInstanceOf(EncodedValue.class, compressor.compress("user:1", Map.of("a", 1)));
+        verify(dictionaries, never()).dictionaryIdFor(anyString());
+    }
+
+    @Test
+    @DisplayName("Debe sobrevivir al formato binario de la entrada")
+    void testCompressedEntryThroughCodec() {
+        CacheEntryCodec codec = new CacheEntryCodec();
+        Object stored = compressor.compress("user:1", document(2));
+
+        CacheEntry decoded = codec.decode(codec.encode(new CacheEntry(stored, 60)));
+
+        assertEquals(document(2), compressor.decompress("user:1", decoded.getValue()));
+    }
+
+    @Test
+    @DisplayName("Un diccionario entrenado debe mejorar el ratio en documentos pequeños similares")
+    void testDictionaryImprovesSmallDocuments() throws Exception {
+        setPrivateField(compressor, "thresholdBytes", 64);
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            samples.add(new CacheEntryCodec().writeJson(smallDocument(i)));
+        }
+        byte[] dictionary = DictionaryTrainer.train(samples, DictionaryTrainer.MAX_DICTIONARY_SIZE);
+        Adler32 adler = new Adler32();
+        adler.update(dictionary);
+        int id = (int) adler.getValue();
+
+        int plain = ((CompressedValue) compressor.compress("user:900", smallDocument(900))).data().length;
+        when(dictionaries.dictionaryIdFor("user")).thenReturn(id);
+        when(dictionaries.get(id)).thenReturn(dictionary);
+        Object stored = compressor.compress("user:900", smallDocument(900));
+        int trained = ((CompressedValue) stored).data().length;
+
+        assertTrue(trained * 2 < plain, "con diccionario=" + trained + " sin diccionario=" + plain);
+        assertEquals(smallDocument(900), compressor.decompress("user:900", stored));
+    }
+
+    @Test
+    @DisplayName("Compresores compartidos entre hilos concurrentes no deben mezclar valores")
+    void testConcurrentRoundTripWithSmallPool() throws Exception {
+        setPrivateField(compressor, "poolSize", 2);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                int id = i;
+                results.add(executor.submit(() -> {
+                    Object stored = compressor.compress("user:" + id, document(id));
+                    return document(id).equals(compressor.decompress("user:" + id, stored));
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Debe reportar ratio y costo por prefijo")
+    void testStatsPerPrefix() {
+        compressor.compress("user:1", document(1));
+        compressor.compress("order:1", document(1));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> prefixes =
+                (Map<String, Map<String, Object>>) compressor.getStats().get("prefixes");
+        assertEquals(Map.of("user", 1L, "order", 1L), Map.of(
+                "user", prefixes.get("user").get("compressed"),
+                "order", prefixes.get("order").get("compressed")));
+        assertTrue((double) prefixes.get("user").get("ratio") > 1.0);
+    }
+
+    @Test
+    @DisplayName("Pasado el tope de prefijos los nuevos sin diccionario deben sumarse en un solo grupo")
+    void testStatsPrefixesAreBounded() throws Exception {
+        setPrivateField(compressor, "maxStatPrefixes", 2);
+        lenient().when(dictionaries.dictionaryIdFor(anyString())).thenReturn(null);
+        lenient().when(dictionaries.dictionaryIdFor("trained")).thenReturn(7);
+        when(dictionaries.get(7)).thenReturn(new byte[]{1, 2, 3});
+
+        for (int i = 0; i < 10; i++) {
+            compressor.compress("tenant" + i + ":1", document(i));
+        }
+        compressor.compress("trained:1", document(1));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> prefixes =
+                (Map<String, Map<String, Object>>) compressor.getStats().get("prefixes");
+        assertEquals(List.of("(otros)", "tenant0", "tenant1", "trained"), new ArrayList<>(prefixes.keySet()));
+        assertEquals(8L, prefixes.get("(otros)").get("compressed"));
+    }
+
+    @Test
+    @DisplayName("El entrenador debe respetar el tamaño máximo y rechazar muestras vacías")
+    void testTrainerLimits() {
+        List<byte[]> samples = List.of(
+                "{\"status\":\"ACTIVE\",\"country\":\"CO\"}".getBytes(StandardCharsets.UTF_8),
+                "{\"status\":\"ACTIVE\",\"country\":\"MX\"}".getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(DictionaryTrainer.train(samples, 16).length <= 16);
+        assertThrows(IllegalArgumentException.class, () -> DictionaryTrainer.train(List.of(), 1024));
+    }
+
+    private static Map<String, Object> document(int id) {
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("id", id);
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            items.add(Map.of("sku", "SKU-" + i, "description", "Producto de ejemplo " + i, "quantity", i));
+        }
+        document.put("items", items);
+        return document;
+    }
+
+    private static Map<String, Object> smallDocument(int id) {
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("id", id);
+        document.put("status", "ACTIVE");
+        document.put("email", "user" + id + "@example.com");
+        document.put("preferences", Map.of("language", "es", "notifications", true, "theme", "dark"));
+        document.put("roles", List.of("customer", "newsletter"));
+        return document;
+    }
+
+    private void setPrivateField(Object target, String fieldName, Object value) throws NoSuchFieldException, IllegalAccessException {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}